@@ -0,0 +1,663 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.list.List;
+import components.list.ListSecondary;
+
+/**
+ * {@code List} represented as an unrolled doubly linked list, done
+ * "bare-handed", with implementations of primary methods and {@code retreat},
+ * {@code moveToFinish}, {@code rightFront} and {@code replaceRightFront}
+ * secondary methods.
+ *
+ * <p>
+ * Each node (or "chunk") holds up to {@code chunkCapacity} consecutive entries
+ * in an array, so the per-entry overhead of a node object and its links is
+ * paid only once per chunk, and {@code advance}, {@code retreat} and iteration
+ * mostly step through an array instead of following links. A full chunk is
+ * split in half to make room. A chunk that falls below half full when an entry
+ * is removed is merged with a neighbor when their entries fit in one chunk,
+ * and otherwise takes entries from it, so every chunk but the last stays at
+ * least half full whatever the order of additions and removals.
+ * </p>
+ *
+ * <p>
+ * Execution-time performance of {@code addRightFront} and
+ * {@code removeRightFront} is O(chunkCapacity); that of all other methods
+ * implemented in this class is O(1).
+ * </p>
+ *
+ * <p>
+ * This is the canonical copy of this class. ListWithTwoSmartNodes, which is
+ * built as a separate project, keeps a copy of it (identical apart from this
+ * paragraph); a fix made here must be made to that copy too.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code List} entries
+ * @convention <pre>
+ * $this.leftLength >= 0  and
+ * [$this.rightLength >= 0] and
+ * [$this.preStart is not null]  and
+ * [$this.postFinish is not null]  and
+ * [$this.preStart points to the first node of a doubly linked list
+ *  whose last node is pointed to by $this.postFinish]  and
+ * [$this.preStart and $this.postFinish hold no entries, and every other node
+ *  in that doubly linked list holds between 1 and $this.chunkCapacity entries,
+ *  in entries[0, count), and null in the rest of entries]  and
+ * [every such node other than $this.postFinish.previous holds at least
+ *  $this.chunkCapacity / 2 entries]  and
+ * [the nodes of that doubly linked list hold
+ *  $this.leftLength + $this.rightLength entries]  and
+ * [$this.rightNode is the node in that doubly linked list holding the
+ *  ($this.leftLength + 1)-th entry, at index $this.rightIndex, or, if
+ *  $this.rightLength = 0, $this.rightNode = $this.postFinish and
+ *  $this.rightIndex = 0]  and
+ * [for every node n in the doubly linked list of nodes, except the one
+ *  pointed to by $this.preStart, n.previous.next = n]  and
+ * [for every node n in the doubly linked list of nodes, except the one
+ *  pointed to by $this.postFinish, n.next.previous = n]
+ * </pre>
+ * @correspondence <pre>
+ * this =
+ *  ([entries in nodes starting at $this.preStart.next and running up to
+ *    index $this.rightIndex of $this.rightNode],
+ *   [entries in nodes starting at index $this.rightIndex of $this.rightNode
+ *    and running through $this.postFinish.previous])
+ * </pre>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public class List4<T> extends ListSecondary<T> {
+
+    /**
+     * Default number of entries a node can hold.
+     */
+    private static final int DEFAULT_CHUNK_CAPACITY = 64;
+
+    /**
+     * Node class for doubly linked list nodes.
+     */
+    private final class Node {
+
+        /**
+         * Entries in node, in entries[0, count); empty if this is a "smart"
+         * Node.
+         */
+        private final T[] entries;
+
+        /**
+         * Number of entries in node.
+         */
+        private int count;
+
+        /**
+         * Next node in doubly linked list, or, if this is a trailing "smart"
+         * Node, irrelevant.
+         */
+        private Node next;
+
+        /**
+         * Previous node in doubly linked list, or, if this is a leading "smart"
+         * Node, irrelevant.
+         */
+        private Node previous;
+
+        /**
+         * Constructor.
+         *
+         * @param capacity
+         *            the number of entries the node can hold
+         */
+        @SuppressWarnings("unchecked")
+        private Node(int capacity) {
+            this.entries = (T[]) (new Object[capacity]);
+            this.count = 0;
+        }
+
+    }
+
+    /**
+     * Number of entries a node can hold.
+     */
+    private int chunkCapacity;
+
+    /**
+     * "Smart node" before start node of doubly linked list.
+     */
+    private Node preStart;
+
+    /**
+     * "Smart node" after finish node of doubly linked list.
+     */
+    private Node postFinish;
+
+    /**
+     * Node holding the first entry of this.right, or postFinish.
+     */
+    private Node rightNode;
+
+    /**
+     * Index in rightNode.entries of the first entry of this.right.
+     */
+    private int rightIndex;
+
+    /**
+     * Length of this.left.
+     */
+    private int leftLength;
+
+    /**
+     * Length of this.right.
+     */
+    private int rightLength;
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * $this.leftLength >= 0  and
+     * [$this.rightLength >= 0] and
+     * [$this.preStart is not null]  and
+     * [$this.postFinish is not null]  and
+     * [$this.preStart points to the first node of a doubly linked list
+     *  whose last node is pointed to by $this.postFinish]  and
+     * [every node in that doubly linked list other than $this.preStart and
+     *  $this.postFinish holds between 1 and $this.chunkCapacity entries]  and
+     * [every such node other than $this.postFinish.previous holds at least
+     *  $this.chunkCapacity / 2 entries]  and
+     * [the nodes of that doubly linked list hold
+     *  $this.leftLength + $this.rightLength entries]  and
+     * [$this.rightNode is the node in that doubly linked list holding the
+     *  ($this.leftLength + 1)-th entry, at index $this.rightIndex, or, if
+     *  $this.rightLength = 0, $this.rightNode = $this.postFinish and
+     *  $this.rightIndex = 0]  and
+     * [for every node n in the doubly linked list of nodes, except the one
+     *  pointed to by $this.preStart, n.previous.next = n]
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert this.leftLength >= 0 : "Violation of: $this.leftLength >= 0";
+        assert this.rightLength >= 0 : "Violation of: $this.rightLength >= 0";
+        assert this.preStart != null : ""
+                + "Violation of: $this.preStart is not null";
+        assert this.postFinish != null : ""
+                + "Violation of: $this.postFinish is not null";
+
+        int count = 0;
+        boolean rightNodeFound = false;
+        Node n = this.preStart;
+        while (n != this.postFinish && n.next != null) {
+            n = n.next;
+            if (n == this.rightNode) {
+                assert count + this.rightIndex == this.leftLength : ""
+                        + "Violation of: [$this.rightNode holds the"
+                        + " ($this.leftLength + 1)-th entry, at index"
+                        + " $this.rightIndex]";
+                rightNodeFound = true;
+            }
+            if (n != this.postFinish) {
+                assert 0 < n.count && n.count <= this.chunkCapacity : ""
+                        + "Violation of: [every node holds between 1 and"
+                        + " $this.chunkCapacity entries]";
+                assert n.next == this.postFinish
+                        || n.count >= this.chunkCapacity / 2 : ""
+                                + "Violation of: [every node but the last holds"
+                                + " at least $this.chunkCapacity / 2 entries]";
+                count += n.count;
+            }
+            /*
+             * Check for every node n in the doubly linked list of nodes, except
+             * the one pointed to by $this.preStart, n.previous.next = n
+             */
+            assert n.previous.next == n : ""
+                    + "Violation of: [for every node n in the doubly linked"
+                    + " list of nodes, except the one pointed to by"
+                    + " $this.preStart, n.previous.next = n]";
+        }
+        assert n == this.postFinish : ""
+                + "Violation of: [$this.preStart points to the first node of a"
+                + " doubly linked list whose last node is pointed to by"
+                + " $this.postFinish]";
+        assert count == this.leftLength + this.rightLength : ""
+                + "Violation of: [the nodes of that doubly linked list hold"
+                + " $this.leftLength + $this.rightLength entries]";
+        assert rightNodeFound : ""
+                + "Violation of: [$this.rightNode is in that doubly linked"
+                + " list]";
+        assert this.rightLength > 0 || this.rightNode == this.postFinish : ""
+                + "Violation of: [if $this.rightLength = 0 then"
+                + " $this.rightNode = $this.postFinish]";
+        assert this.rightIndex < this.rightNode.count
+                || this.rightIndex == 0 : ""
+                        + "Violation of: 0 <= $this.rightIndex <"
+                        + " $this.rightNode.count";
+
+        return true;
+    }
+
+    /**
+     * Links a new, empty node into the doubly linked list right after
+     * {@code p}, and returns it.
+     *
+     * @param p
+     *            the node to link after
+     * @return the new node
+     * @updates [doubly linked list of nodes]
+     * @requires p /= this.postFinish
+     * @ensures linkAfter.previous = p  and  linkAfter.next = #p.next
+     */
+    private Node linkAfter(Node p) {
+        Node q = new Node(this.chunkCapacity);
+        q.previous = p;
+        q.next = p.next;
+        p.next.previous = q;
+        p.next = q;
+        return q;
+    }
+
+    /**
+     * Unlinks {@code p} from the doubly linked list.
+     *
+     * @param p
+     *            the node to unlink
+     * @updates [doubly linked list of nodes]
+     * @requires p /= this.preStart  and  p /= this.postFinish
+     */
+    private void unlink(Node p) {
+        p.previous.next = p.next;
+        p.next.previous = p.previous;
+    }
+
+    /**
+     * Moves the upper half of the entries of the full node {@code p} to a new
+     * node linked right after it.
+     *
+     * @param p
+     *            the node to split
+     * @updates [doubly linked list of nodes]
+     * @requires p.count = this.chunkCapacity
+     * @ensures <pre>
+     * p.count = this.chunkCapacity / 2  and
+     * [p.next is a new node holding the rest of the entries of #p]
+     * </pre>
+     */
+    private void split(Node p) {
+        Node q = this.linkAfter(p);
+        int half = p.count / 2;
+        q.count = p.count - half;
+        System.arraycopy(p.entries, half, q.entries, 0, q.count);
+        for (int i = half; i < p.count; i++) {
+            p.entries[i] = null;
+        }
+        p.count = half;
+    }
+
+    /**
+     * Moves {@code k} entries from the front of {@code q} to the end of
+     * {@code p}.
+     *
+     * @param p
+     *            the node to move entries to
+     * @param q
+     *            the node to move entries from
+     * @param k
+     *            the number of entries to move
+     * @updates p, q
+     * @requires <pre>
+     * 0 < k <= q.count  and  p.count + k <= this.chunkCapacity
+     * </pre>
+     * @ensures <pre>
+     * p.entries[0, p.count) * q.entries[0, q.count) =
+     *  #p.entries[0, #p.count) * #q.entries[0, #q.count)  and
+     * p.count = #p.count + k
+     * </pre>
+     */
+    private void moveToEnd(Node p, Node q, int k) {
+        System.arraycopy(q.entries, 0, p.entries, p.count, k);
+        System.arraycopy(q.entries, k, q.entries, 0, q.count - k);
+        for (int j = q.count - k; j < q.count; j++) {
+            q.entries[j] = null;
+        }
+        p.count += k;
+        q.count -= k;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+
+        this.preStart = new Node(0);
+        this.postFinish = new Node(0);
+        this.preStart.next = this.postFinish;
+        this.postFinish.previous = this.preStart;
+        this.rightNode = this.postFinish;
+        this.rightIndex = 0;
+        this.leftLength = 0;
+        this.rightLength = 0;
+
+    }
+
+    /**
+     * No-argument constructor.
+     */
+    public List4() {
+
+        this.chunkCapacity = DEFAULT_CHUNK_CAPACITY;
+        this.createNewRep();
+
+        assert this.conventionHolds();
+    }
+
+    /**
+     * Constructor resulting in a list whose nodes hold up to
+     * {@code chunkCapacity} entries.
+     *
+     * @param chunkCapacity
+     *            the number of entries a node can hold
+     * @requires chunkCapacity >= 2
+     */
+    public List4(int chunkCapacity) {
+        assert chunkCapacity >= 2 : "Violation of: chunkCapacity >= 2";
+
+        this.chunkCapacity = chunkCapacity;
+        this.createNewRep();
+
+        assert this.conventionHolds();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final List4<T> newInstance() {
+        try {
+            return this.getClass().getConstructor(int.class)
+                    .newInstance(this.chunkCapacity);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(List<T> source) {
+        assert source instanceof List4<?> : ""
+                + "Violation of: source is of dynamic type List4<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type List4<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        List4<T> localSource = (List4<T>) source;
+        this.chunkCapacity = localSource.chunkCapacity;
+        this.preStart = localSource.preStart;
+        this.postFinish = localSource.postFinish;
+        this.rightNode = localSource.rightNode;
+        this.rightIndex = localSource.rightIndex;
+        this.leftLength = localSource.leftLength;
+        this.rightLength = localSource.rightLength;
+        localSource.createNewRep();
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    @Override
+    public final void addRightFront(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        Node p = this.rightNode;
+        int i = this.rightIndex;
+        if (i == 0 && p.previous != this.preStart
+                && p.previous.count < this.chunkCapacity) {
+            /*
+             * Put x at the end of the last node of this.left, which has room
+             */
+            p = p.previous;
+            i = p.count;
+        } else if (p == this.postFinish) {
+            p = this.linkAfter(p.previous);
+        } else if (p.count == this.chunkCapacity) {
+            this.split(p);
+            if (i > p.count) {
+                i -= p.count;
+                p = p.next;
+            }
+        }
+        System.arraycopy(p.entries, i, p.entries, i + 1, p.count - i);
+        p.entries[i] = x;
+        p.count++;
+        this.rightNode = p;
+        this.rightIndex = i;
+        this.rightLength++;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T removeRightFront() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        Node p = this.rightNode;
+        int i = this.rightIndex;
+        T x = p.entries[i];
+        System.arraycopy(p.entries, i + 1, p.entries, i, p.count - i - 1);
+        p.count--;
+        p.entries[p.count] = null;
+        /*
+         * The entry after x, if any, is now at index i of p, or at index 0 of
+         * p.next if i = p.count; keep (p, i) pointing at it while entries move
+         */
+        int half = this.chunkCapacity / 2;
+        if (p.count == 0) {
+            this.unlink(p);
+            p = p.next;
+            i = 0;
+        } else if (p.count < half && p.next != this.postFinish) {
+            Node q = p.next;
+            if (p.count + q.count <= this.chunkCapacity) {
+                this.moveToEnd(p, q, q.count);
+                this.unlink(q);
+            } else {
+                this.moveToEnd(p, q, (q.count - p.count) / 2);
+            }
+        } else if (p.count < half && p.previous != this.preStart
+                && p.previous.count + p.count <= this.chunkCapacity) {
+            /*
+             * p is the last node, which may stay less than half full, but
+             * merging it into its predecessor saves a node
+             */
+            Node q = p.previous;
+            i += q.count;
+            this.moveToEnd(q, p, p.count);
+            this.unlink(p);
+            p = q;
+        }
+        if (p != this.postFinish && i == p.count) {
+            p = p.next;
+            i = 0;
+        }
+        this.rightNode = p;
+        this.rightIndex = i;
+        this.rightLength--;
+
+        assert this.conventionHolds();
+
+        return x;
+    }
+
+    @Override
+    public final void advance() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        this.rightIndex++;
+        if (this.rightIndex == this.rightNode.count) {
+            this.rightNode = this.rightNode.next;
+            this.rightIndex = 0;
+        }
+        this.leftLength++;
+        this.rightLength--;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void moveToStart() {
+
+        this.rightNode = this.preStart.next;
+        this.rightIndex = 0;
+        this.rightLength += this.leftLength;
+        this.leftLength = 0;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final int leftLength() {
+        assert this.conventionHolds();
+
+        return this.leftLength;
+    }
+
+    @Override
+    public final int rightLength() {
+
+        assert this.conventionHolds();
+
+        return this.rightLength;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        assert this.conventionHolds();
+        return new List4Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code List4}.
+     */
+    private final class List4Iterator implements Iterator<T> {
+
+        /**
+         * Current node in the linked list.
+         */
+        private Node current;
+
+        /**
+         * Index in current.entries of the next entry.
+         */
+        private int index;
+
+        /**
+         * No-argument constructor.
+         */
+        private List4Iterator() {
+            this.current = List4.this.preStart.next;
+            this.index = 0;
+            assert List4.this.conventionHolds();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current != List4.this.postFinish;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x = this.current.entries[this.index];
+            this.index++;
+            if (this.index == this.current.count) {
+                this.current = this.current.next;
+                this.index = 0;
+            }
+            assert List4.this.conventionHolds();
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @Override
+    public final T rightFront() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        return this.rightNode.entries[this.rightIndex];
+    }
+
+    @Override
+    public final T replaceRightFront(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        T old = this.rightNode.entries[this.rightIndex];
+        this.rightNode.entries[this.rightIndex] = x;
+        return old;
+    }
+
+    @Override
+    public final void moveToFinish() {
+
+        this.rightNode = this.postFinish;
+        this.rightIndex = 0;
+        this.leftLength += this.rightLength;
+        this.rightLength = 0;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void retreat() {
+        assert this.leftLength() > 0 : "Violation of: this.left /= <>";
+
+        if (this.rightIndex > 0) {
+            this.rightIndex--;
+        } else {
+            this.rightNode = this.rightNode.previous;
+            this.rightIndex = this.rightNode.count - 1;
+        }
+        this.leftLength--;
+        this.rightLength++;
+        assert this.conventionHolds();
+    }
+
+    /**
+     * Reports the number of nodes holding entries, for tests and benchmarks.
+     *
+     * @return the number of nodes other than the "smart" nodes
+     */
+    final int chunkCount() {
+        int count = 0;
+        for (Node n = this.preStart.next; n != this.postFinish; n = n.next) {
+            count++;
+        }
+        return count;
+    }
+
+}
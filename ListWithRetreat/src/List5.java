@@ -0,0 +1,825 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import components.list.List;
+import components.list.ListSecondary;
+
+/**
+ * {@code List} represented as an unrolled doubly linked list, like
+ * {@code List4}, whose nodes are also linked into an indexable skip list, done
+ * "bare-handed", with implementations of primary methods and {@code retreat},
+ * {@code moveToFinish}, {@code moveToPosition}, {@code rightFront} and
+ * {@code replaceRightFront} secondary methods.
+ *
+ * <p>
+ * Each node (or "chunk") holds up to {@code chunkCapacity} consecutive entries
+ * in an array. Besides its level-0 links, a node has a random number of
+ * higher-level forward links, each recording how many entries it skips over,
+ * so {@code moveToPosition} can descend from the top level to the node holding
+ * any position. This suits a text cursor over a long document: jumping to an
+ * offset no longer walks from the start.
+ * </p>
+ *
+ * <p>
+ * As in {@code List4}, a full chunk is split in half to make room, and a chunk
+ * that falls below half full when an entry is removed is merged with a
+ * neighbor or takes entries from it, so every chunk but the last stays at
+ * least half full, and the skip list has at most about 2n / chunkCapacity
+ * nodes, whatever the order of additions and removals.
+ * </p>
+ *
+ * <p>
+ * Execution-time performance of {@code moveToPosition} is O(log n), and that
+ * of {@code addRightFront} and {@code removeRightFront}, which must update the
+ * skip counts, is O(log n + chunkCapacity) (expected); that of all other
+ * methods implemented in this class is O(1).
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code List} entries
+ * @convention <pre>
+ * $this.leftLength >= 0  and
+ * [$this.rightLength >= 0] and
+ * [$this.preStart is not null]  and
+ * [$this.postFinish is not null]  and
+ * [$this.preStart points to the first node of a doubly linked list, linked
+ *  by next[0] and previous, whose last node is pointed to by
+ *  $this.postFinish]  and
+ * [$this.preStart and $this.postFinish hold no entries and have MAX_LEVEL
+ *  levels, and every other node in that doubly linked list holds between 1
+ *  and $this.chunkCapacity entries, in entries[0, count), and null in the
+ *  rest of entries, and has between 1 and MAX_LEVEL levels]  and
+ * [every such node other than $this.postFinish.previous holds at least
+ *  $this.chunkCapacity / 2 entries]  and
+ * [for every node n other than $this.postFinish and every level l of n,
+ *  n.next[l] is the first node after n in that doubly linked list with more
+ *  than l levels, and n.width[l] is the number of entries in the nodes from
+ *  n up to, but not including, n.next[l]]  and
+ * [the nodes of that doubly linked list hold
+ *  $this.leftLength + $this.rightLength entries]  and
+ * [$this.rightNode is the node in that doubly linked list holding the
+ *  ($this.leftLength + 1)-th entry, at index $this.rightIndex, or, if
+ *  $this.rightLength = 0, $this.rightNode = $this.postFinish and
+ *  $this.rightIndex = 0]
+ * </pre>
+ * @correspondence <pre>
+ * this =
+ *  ([entries in nodes starting at $this.preStart.next[0] and running up to
+ *    index $this.rightIndex of $this.rightNode],
+ *   [entries in nodes starting at index $this.rightIndex of $this.rightNode
+ *    and running through $this.postFinish.previous])
+ * </pre>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public class List5<T> extends ListSecondary<T> {
+
+    /**
+     * Default number of entries a node can hold.
+     */
+    private static final int DEFAULT_CHUNK_CAPACITY = 64;
+
+    /**
+     * Maximum number of levels of a node; with one node in four rising to
+     * each next level, enough for 4^MAX_LEVEL nodes.
+     */
+    private static final int MAX_LEVEL = 16;
+
+    /**
+     * Inverse of the probability that a node rises to the next level.
+     */
+    private static final int LEVEL_RATIO = 4;
+
+    /**
+     * Source of random levels for new nodes.
+     */
+    private static final Random RANDOM = new Random();
+
+    /**
+     * Node class for skip list nodes.
+     */
+    private final class Node {
+
+        /**
+         * Entries in node, in entries[0, count); empty if this is a "smart"
+         * Node.
+         */
+        private final T[] entries;
+
+        /**
+         * Number of entries in node.
+         */
+        private int count;
+
+        /**
+         * Next node with more than l levels, for each level l of this node,
+         * or, if this is a trailing "smart" Node, irrelevant.
+         */
+        private final Node[] next;
+
+        /**
+         * Number of entries from this node up to next[l], for each level l of
+         * this node, or, if this is a trailing "smart" Node, irrelevant.
+         */
+        private final int[] width;
+
+        /**
+         * Previous node in doubly linked list, or, if this is a leading "smart"
+         * Node, irrelevant.
+         */
+        private Node previous;
+
+        /**
+         * Constructor.
+         *
+         * @param capacity
+         *            the number of entries the node can hold
+         * @param levels
+         *            the number of levels of the node
+         */
+        @SuppressWarnings("unchecked")
+        private Node(int capacity, int levels) {
+            this.entries = (T[]) (new Object[capacity]);
+            this.count = 0;
+            this.next = (Node[]) new List5<?>.Node[levels];
+            this.width = new int[levels];
+        }
+
+    }
+
+    /**
+     * Number of entries a node can hold.
+     */
+    private int chunkCapacity;
+
+    /**
+     * "Smart node" before start node of doubly linked list.
+     */
+    private Node preStart;
+
+    /**
+     * "Smart node" after finish node of doubly linked list.
+     */
+    private Node postFinish;
+
+    /**
+     * Node holding the first entry of this.right, or postFinish.
+     */
+    private Node rightNode;
+
+    /**
+     * Index in rightNode.entries of the first entry of this.right.
+     */
+    private int rightIndex;
+
+    /**
+     * Length of this.left.
+     */
+    private int leftLength;
+
+    /**
+     * Length of this.right.
+     */
+    private int rightLength;
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * $this.leftLength >= 0  and
+     * [$this.rightLength >= 0] and
+     * [$this.preStart points to the first node of a doubly linked list
+     *  whose last node is pointed to by $this.postFinish]  and
+     * [every node in that doubly linked list other than $this.preStart and
+     *  $this.postFinish holds between 1 and $this.chunkCapacity entries]  and
+     * [every such node other than $this.postFinish.previous holds at least
+     *  $this.chunkCapacity / 2 entries]  and
+     * [for every node n other than $this.postFinish and every level l of n,
+     *  n.next[l] is the first node after n with more than l levels, and
+     *  n.width[l] is the number of entries from n up to n.next[l]]  and
+     * [the nodes of that doubly linked list hold
+     *  $this.leftLength + $this.rightLength entries]  and
+     * [$this.rightNode holds the ($this.leftLength + 1)-th entry, at index
+     *  $this.rightIndex, or, if $this.rightLength = 0,
+     *  $this.rightNode = $this.postFinish]
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert this.leftLength >= 0 : "Violation of: $this.leftLength >= 0";
+        assert this.rightLength >= 0 : "Violation of: $this.rightLength >= 0";
+
+        /*
+         * Walk the doubly linked list, checking each level-l link of the
+         * nodes seen so far when its target is reached
+         */
+        Node[] pending = this.preStart.next.clone();
+        int[] remaining = this.preStart.width.clone();
+        int count = 0;
+        boolean rightNodeFound = false;
+        Node n = this.preStart;
+        while (n != this.postFinish && n.next[0] != null) {
+            n = n.next[0];
+            assert n.previous.next[0] == n : ""
+                    + "Violation of: [for every node n in the doubly linked"
+                    + " list of nodes, except the one pointed to by"
+                    + " $this.preStart, n.previous.next[0] = n]";
+            if (n == this.rightNode) {
+                assert count + this.rightIndex == this.leftLength : ""
+                        + "Violation of: [$this.rightNode holds the"
+                        + " ($this.leftLength + 1)-th entry, at index"
+                        + " $this.rightIndex]";
+                rightNodeFound = true;
+            }
+            for (int l = 0; l < n.next.length && l < MAX_LEVEL; l++) {
+                assert pending[l] == n : ""
+                        + "Violation of: [n.next[l] is the first node after n"
+                        + " with more than l levels]";
+                assert remaining[l] == 0 : ""
+                        + "Violation of: [n.width[l] is the number of entries"
+                        + " from n up to n.next[l]]";
+                if (n != this.postFinish) {
+                    pending[l] = n.next[l];
+                    remaining[l] = n.width[l];
+                }
+            }
+            if (n != this.postFinish) {
+                assert 0 < n.count && n.count <= this.chunkCapacity : ""
+                        + "Violation of: [every node holds between 1 and"
+                        + " $this.chunkCapacity entries]";
+                assert n.next[0] == this.postFinish
+                        || n.count >= this.chunkCapacity / 2 : ""
+                                + "Violation of: [every node but the last holds"
+                                + " at least $this.chunkCapacity / 2 entries]";
+                count += n.count;
+                for (int l = 0; l < MAX_LEVEL; l++) {
+                    remaining[l] -= n.count;
+                }
+            }
+        }
+        assert n == this.postFinish : ""
+                + "Violation of: [$this.preStart points to the first node of a"
+                + " doubly linked list whose last node is pointed to by"
+                + " $this.postFinish]";
+        assert count == this.leftLength + this.rightLength : ""
+                + "Violation of: [the nodes of that doubly linked list hold"
+                + " $this.leftLength + $this.rightLength entries]";
+        assert rightNodeFound : ""
+                + "Violation of: [$this.rightNode is in that doubly linked"
+                + " list]";
+        assert this.rightLength > 0 || this.rightNode == this.postFinish : ""
+                + "Violation of: [if $this.rightLength = 0 then"
+                + " $this.rightNode = $this.postFinish]";
+
+        return true;
+    }
+
+    /**
+     * Returns a random number of levels for a new node: 1, and one more with
+     * probability 1 / LEVEL_RATIO each time, up to MAX_LEVEL.
+     *
+     * @return the number of levels
+     * @ensures 1 <= randomLevels <= MAX_LEVEL
+     */
+    private static int randomLevels() {
+        int levels = 1;
+        while (levels < MAX_LEVEL && RANDOM.nextInt(LEVEL_RATIO) == 0) {
+            levels++;
+        }
+        return levels;
+    }
+
+    /**
+     * Adds {@code delta} to the width of every link that passes over the node
+     * starting at entry position {@code start}, after {@code delta} entries
+     * have been added to (or, if negative, removed from) that node.
+     *
+     * @param start
+     *            the position of the first entry of the node
+     * @param delta
+     *            the change in the number of entries of the node
+     * @updates [widths of links in the skip list]
+     * @requires <pre>
+     * [the node starting at position start is the only one in the skip list
+     *  that starts there, and widths do not yet account for delta]
+     * </pre>
+     */
+    private void adjust(int start, int delta) {
+        Node x = this.preStart;
+        int before = 0;
+        for (int l = MAX_LEVEL - 1; l >= 0; l--) {
+            while (x.next[l] != this.postFinish
+                    && before + x.width[l] <= start) {
+                before += x.width[l];
+                x = x.next[l];
+            }
+            x.width[l] += delta;
+        }
+    }
+
+    /**
+     * Links the new node {@code q} into the skip list right after {@code p},
+     * at entry position {@code start}.
+     *
+     * @param p
+     *            the node to link after
+     * @param q
+     *            the new node, holding its entries
+     * @param start
+     *            the position of the first entry of q
+     * @updates [skip list]
+     * @requires <pre>
+     * p /= this.postFinish  and
+     * start = [number of entries in the nodes up to and including p]
+     * </pre>
+     * @ensures <pre>
+     * q.previous = p  and  q.next[0] = #p.next[0]  and
+     * [the entries of q are in the skip list, starting at position start]
+     * </pre>
+     */
+    private void link(Node p, Node q, int start) {
+        Node x = this.preStart;
+        int before = 0;
+        for (int l = MAX_LEVEL - 1; l >= 0; l--) {
+            while (x.next[l] != this.postFinish
+                    && before + x.width[l] < start) {
+                before += x.width[l];
+                x = x.next[l];
+            }
+            if (l < q.next.length) {
+                q.next[l] = x.next[l];
+                q.width[l] = before + x.width[l] - start + q.count;
+                x.next[l] = q;
+                x.width[l] = start - before;
+            } else {
+                x.width[l] += q.count;
+            }
+        }
+        q.previous = p;
+        q.next[0].previous = q;
+    }
+
+    /**
+     * Unlinks the empty node {@code q}, at entry position {@code start}, from
+     * the skip list.
+     *
+     * @param q
+     *            the node to unlink
+     * @param start
+     *            the position q would have its first entry at
+     * @updates [skip list]
+     * @requires <pre>
+     * q /= this.preStart  and  q /= this.postFinish  and  q.count = 0  and
+     * [widths account for q.count = 0]
+     * </pre>
+     */
+    private void unlink(Node q, int start) {
+        Node x = this.preStart;
+        int before = 0;
+        for (int l = MAX_LEVEL - 1; l >= 0; l--) {
+            while (x.next[l] != this.postFinish
+                    && before + x.width[l] < start) {
+                before += x.width[l];
+                x = x.next[l];
+            }
+            if (l < q.next.length) {
+                x.next[l] = q.next[l];
+                x.width[l] += q.width[l];
+            }
+        }
+        q.next[0].previous = q.previous;
+    }
+
+    /**
+     * Moves {@code k} entries from the front of {@code q} to the end of
+     * {@code p}, its predecessor, at entry position {@code start}, updating
+     * the widths of the links that pass over either node.
+     *
+     * @param p
+     *            the node to move entries to
+     * @param q
+     *            the node to move entries from
+     * @param start
+     *            the position of the first entry of p
+     * @param k
+     *            the number of entries to move
+     * @updates p, q, [widths of links in the skip list]
+     * @requires <pre>
+     * q = p.next[0]  and  p.count > 0  and
+     * 0 < k <= q.count  and  p.count + k <= this.chunkCapacity
+     * </pre>
+     * @ensures <pre>
+     * p.entries[0, p.count) * q.entries[0, q.count) =
+     *  #p.entries[0, #p.count) * #q.entries[0, #q.count)  and
+     * p.count = #p.count + k  and
+     * [widths account for the new p.count and q.count]
+     * </pre>
+     */
+    private void moveToEnd(Node p, Node q, int start, int k) {
+        /*
+         * Shrink q first, while it still starts at a position of its own, then
+         * grow p, which holds at least one entry throughout
+         */
+        this.adjust(start + p.count, -k);
+        this.adjust(start, k);
+        System.arraycopy(q.entries, 0, p.entries, p.count, k);
+        System.arraycopy(q.entries, k, q.entries, 0, q.count - k);
+        for (int j = q.count - k; j < q.count; j++) {
+            q.entries[j] = null;
+        }
+        p.count += k;
+        q.count -= k;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+
+        this.preStart = new Node(0, MAX_LEVEL);
+        this.postFinish = new Node(0, MAX_LEVEL);
+        for (int l = 0; l < MAX_LEVEL; l++) {
+            this.preStart.next[l] = this.postFinish;
+        }
+        this.postFinish.previous = this.preStart;
+        this.rightNode = this.postFinish;
+        this.rightIndex = 0;
+        this.leftLength = 0;
+        this.rightLength = 0;
+
+    }
+
+    /**
+     * No-argument constructor.
+     */
+    public List5() {
+
+        this.chunkCapacity = DEFAULT_CHUNK_CAPACITY;
+        this.createNewRep();
+
+        assert this.conventionHolds();
+    }
+
+    /**
+     * Constructor resulting in a list whose nodes hold up to
+     * {@code chunkCapacity} entries.
+     *
+     * @param chunkCapacity
+     *            the number of entries a node can hold
+     * @requires chunkCapacity >= 2
+     */
+    public List5(int chunkCapacity) {
+        assert chunkCapacity >= 2 : "Violation of: chunkCapacity >= 2";
+
+        this.chunkCapacity = chunkCapacity;
+        this.createNewRep();
+
+        assert this.conventionHolds();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final List5<T> newInstance() {
+        try {
+            return this.getClass().getConstructor(int.class)
+                    .newInstance(this.chunkCapacity);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(List<T> source) {
+        assert source instanceof List5<?> : ""
+                + "Violation of: source is of dynamic type List5<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type List5<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        List5<T> localSource = (List5<T>) source;
+        this.chunkCapacity = localSource.chunkCapacity;
+        this.preStart = localSource.preStart;
+        this.postFinish = localSource.postFinish;
+        this.rightNode = localSource.rightNode;
+        this.rightIndex = localSource.rightIndex;
+        this.leftLength = localSource.leftLength;
+        this.rightLength = localSource.rightLength;
+        localSource.createNewRep();
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    @Override
+    public final void addRightFront(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        Node p = this.rightNode;
+        int i = this.rightIndex;
+        int start = this.leftLength - i;
+        if (i == 0 && p.previous != this.preStart
+                && p.previous.count < this.chunkCapacity) {
+            /*
+             * Put x at the end of the last node of this.left, which has room
+             */
+            p = p.previous;
+            i = p.count;
+            start -= p.count;
+        } else if (p == this.postFinish) {
+            Node q = new Node(this.chunkCapacity, randomLevels());
+            this.link(p.previous, q, start);
+            p = q;
+        } else if (p.count == this.chunkCapacity) {
+            /*
+             * Split p, moving the upper half of its entries to a new node
+             */
+            int half = p.count / 2;
+            Node q = new Node(this.chunkCapacity, randomLevels());
+            q.count = p.count - half;
+            System.arraycopy(p.entries, half, q.entries, 0, q.count);
+            for (int j = half; j < p.count; j++) {
+                p.entries[j] = null;
+            }
+            p.count = half;
+            this.adjust(start, -q.count);
+            this.link(p, q, start + half);
+            if (i > half) {
+                i -= half;
+                start += half;
+                p = q;
+            }
+        }
+        System.arraycopy(p.entries, i, p.entries, i + 1, p.count - i);
+        p.entries[i] = x;
+        p.count++;
+        this.adjust(start, 1);
+        this.rightNode = p;
+        this.rightIndex = i;
+        this.rightLength++;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T removeRightFront() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        Node p = this.rightNode;
+        int i = this.rightIndex;
+        int start = this.leftLength - i;
+        T x = p.entries[i];
+        System.arraycopy(p.entries, i + 1, p.entries, i, p.count - i - 1);
+        p.count--;
+        p.entries[p.count] = null;
+        this.adjust(start, -1);
+        /*
+         * The entry after x, if any, is now at index i of p, or at index 0 of
+         * p.next[0] if i = p.count; keep (p, i) pointing at it, and start at
+         * the position of the first entry of p, while entries move
+         */
+        int half = this.chunkCapacity / 2;
+        if (p.count == 0) {
+            this.unlink(p, start);
+            p = p.next[0];
+            i = 0;
+        } else if (p.count < half && p.next[0] != this.postFinish) {
+            Node q = p.next[0];
+            if (p.count + q.count <= this.chunkCapacity) {
+                this.moveToEnd(p, q, start, q.count);
+                this.unlink(q, start + p.count);
+            } else {
+                this.moveToEnd(p, q, start, (q.count - p.count) / 2);
+            }
+        } else if (p.count < half && p.previous != this.preStart
+                && p.previous.count + p.count <= this.chunkCapacity) {
+            /*
+             * p is the last node, which may stay less than half full, but
+             * merging it into its predecessor saves a node
+             */
+            Node q = p.previous;
+            i += q.count;
+            start -= q.count;
+            this.moveToEnd(q, p, start, p.count);
+            this.unlink(p, start + q.count);
+            p = q;
+        }
+        if (p != this.postFinish && i == p.count) {
+            p = p.next[0];
+            i = 0;
+        }
+        this.rightNode = p;
+        this.rightIndex = i;
+        this.rightLength--;
+
+        assert this.conventionHolds();
+
+        return x;
+    }
+
+    @Override
+    public final void advance() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        this.rightIndex++;
+        if (this.rightIndex == this.rightNode.count) {
+            this.rightNode = this.rightNode.next[0];
+            this.rightIndex = 0;
+        }
+        this.leftLength++;
+        this.rightLength--;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void moveToStart() {
+
+        this.rightNode = this.preStart.next[0];
+        this.rightIndex = 0;
+        this.rightLength += this.leftLength;
+        this.leftLength = 0;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final int leftLength() {
+        assert this.conventionHolds();
+
+        return this.leftLength;
+    }
+
+    @Override
+    public final int rightLength() {
+
+        assert this.conventionHolds();
+
+        return this.rightLength;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        assert this.conventionHolds();
+        return new List5Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code List5}.
+     */
+    private final class List5Iterator implements Iterator<T> {
+
+        /**
+         * Current node in the linked list.
+         */
+        private Node current;
+
+        /**
+         * Index in current.entries of the next entry.
+         */
+        private int index;
+
+        /**
+         * No-argument constructor.
+         */
+        private List5Iterator() {
+            this.current = List5.this.preStart.next[0];
+            this.index = 0;
+            assert List5.this.conventionHolds();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current != List5.this.postFinish;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x = this.current.entries[this.index];
+            this.index++;
+            if (this.index == this.current.count) {
+                this.current = this.current.next[0];
+                this.index = 0;
+            }
+            assert List5.this.conventionHolds();
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @Override
+    public final T rightFront() {
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        return this.rightNode.entries[this.rightIndex];
+    }
+
+    @Override
+    public final T replaceRightFront(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.rightLength() > 0 : "Violation of: this.right /= <>";
+
+        T old = this.rightNode.entries[this.rightIndex];
+        this.rightNode.entries[this.rightIndex] = x;
+        return old;
+    }
+
+    @Override
+    public final void moveToFinish() {
+
+        this.rightNode = this.postFinish;
+        this.rightIndex = 0;
+        this.leftLength += this.rightLength;
+        this.rightLength = 0;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void retreat() {
+        assert this.leftLength() > 0 : "Violation of: this.left /= <>";
+
+        if (this.rightIndex > 0) {
+            this.rightIndex--;
+        } else {
+            this.rightNode = this.rightNode.previous;
+            this.rightIndex = this.rightNode.count - 1;
+        }
+        this.leftLength--;
+        this.rightLength++;
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void moveToPosition(int pos) {
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos <= this.leftLength() + this.rightLength() : ""
+                + "Violation of: pos <= |this.left| + |this.right|";
+
+        int length = this.leftLength + this.rightLength;
+        if (pos == length) {
+            this.rightNode = this.postFinish;
+            this.rightIndex = 0;
+        } else {
+            Node x = this.preStart;
+            int before = 0;
+            for (int l = MAX_LEVEL - 1; l >= 0; l--) {
+                while (x.next[l] != this.postFinish
+                        && before + x.width[l] <= pos) {
+                    before += x.width[l];
+                    x = x.next[l];
+                }
+            }
+            this.rightNode = x;
+            this.rightIndex = pos - before;
+        }
+        this.leftLength = pos;
+        this.rightLength = length - pos;
+
+        assert this.conventionHolds();
+    }
+
+    /**
+     * Reports the number of nodes holding entries, for tests and benchmarks.
+     *
+     * @return the number of nodes other than the "smart" nodes
+     */
+    final int chunkCount() {
+        int count = 0;
+        for (Node n = this.preStart.next[0]; n != this.postFinish;
+                n = n.next[0]) {
+            count++;
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,101 @@
+import java.util.Random;
+
+import components.list.List;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Measures {@code List3}, {@code List4} and {@code List5} used as a text
+ * cursor over a long document: the cursor jumps to random offsets with
+ * {@code moveToPosition}, and at each one a character is typed and one is
+ * deleted. {@code List3} and {@code List4} inherit {@code moveToPosition}
+ * from {@code ListSecondary}; {@code List5} finds the position through its
+ * skip index.
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public final class ListCursorBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private ListCursorBenchmark() {
+    }
+
+    /**
+     * Seed of the random offsets, the same for every implementation.
+     */
+    private static final long SEED = 2231;
+
+    /**
+     * Number of nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Fills a new instance of the dynamic type of {@code list} with a
+     * document of {@code n} characters, makes {@code jumps} random jumps with
+     * an edit at each, and outputs the time of the jumps and edits in
+     * milliseconds.
+     *
+     * @param out
+     *            the output stream
+     * @param label
+     *            the name of the implementation
+     * @param list
+     *            a list of the type to be measured
+     * @param n
+     *            the length of the document
+     * @param jumps
+     *            the number of jumps
+     * @updates out.content
+     * @requires out.is_open  and  n > 0
+     * @ensures out.content = #out.content * [time of the jumps]
+     */
+    private static void measure(SimpleWriter out, String label,
+            List<Character> list, int n, int jumps) {
+        List<Character> document = list.newInstance();
+        for (int i = 0; i < n; i++) {
+            document.addRightFront((char) ('a' + i % ('z' - 'a' + 1)));
+            document.advance();
+        }
+        Random rnd = new Random(SEED);
+        long start = System.nanoTime();
+        for (int i = 0; i < jumps; i++) {
+            document.moveToPosition(rnd.nextInt(n));
+            document.addRightFront('#');
+            document.advance();
+            document.removeRightFront();
+        }
+        document.moveToFinish();
+        long time = System.nanoTime() - start;
+        out.println(label + "\t" + time / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+        out.print("Length of document: ");
+        int n = in.nextInteger();
+        out.print("Number of jumps: ");
+        int jumps = in.nextInteger();
+        out.println();
+        out.println("Times in milliseconds");
+        out.println("class\tjumps");
+        measure(out, "List3", new List3<Character>(), n, jumps);
+        measure(out, "List4", new List4<Character>(), n, jumps);
+        measure(out, "List5", new List5<Character>(), n, jumps);
+        in.close();
+        out.close();
+    }
+
+}
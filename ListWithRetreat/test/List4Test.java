@@ -0,0 +1,171 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import components.list.List;
+import components.list.List1L;
+
+/**
+ * Customized JUnit test fixture for {@code List4}, with nodes small enough for
+ * the inherited test cases to split them, plus test cases for the overridden
+ * methods, for random edits that split and merge nodes, and for how full the
+ * nodes stay after many removals.
+ *
+ * <p>
+ * This is the canonical copy; ListWithTwoSmartNodes keeps a copy of it
+ * (identical apart from this paragraph), to which any fix made here must be
+ * made too.
+ * </p>
+ */
+public class List4Test extends ListTest {
+
+    /**
+     * Number of entries a node can hold in the lists under test.
+     */
+    private static final int TEST_CHUNK_CAPACITY = 2;
+
+    /**
+     * Number of entries a node can hold in the lists of the random-edit test,
+     * large enough for nodes to merge.
+     */
+    private static final int MERGING_CHUNK_CAPACITY = 8;
+
+    @Override
+    protected final List<String> constructorTest() {
+        return new List4<String>(TEST_CHUNK_CAPACITY);
+    }
+
+    @Override
+    protected final List<String> constructorRef() {
+        return new List1L<String>();
+    }
+
+    @Test
+    public final void testRightFrontAndReplaceRightFront() {
+        /*
+         * Set up variables
+         */
+        List<String> list1 = this.createFromArgsTest(2, "yellow", "orange",
+                "green", "purple");
+        List<String> list2 = this.createFromArgsRef(2, "yellow", "orange",
+                "blue", "purple");
+        /*
+         * Call method under test
+         */
+        String front = list1.rightFront();
+        String old = list1.replaceRightFront("blue");
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals("green", front);
+        assertEquals("green", old);
+        assertEquals(list2, list1);
+    }
+
+    @Test
+    public final void testRandomEdits() {
+        /*
+         * Set up variables
+         */
+        final int n = 5000;
+        final int kinds = 8;
+        Random rnd = new Random(2231);
+        List<String> list1 = new List4<String>(MERGING_CHUNK_CAPACITY);
+        List<String> list2 = this.constructorRef();
+        /*
+         * Call method under test
+         */
+        for (int i = 0; i < n; i++) {
+            int kind = rnd.nextInt(kinds);
+            if (kind == 0 && list1.rightLength() > 0) {
+                assertEquals(list2.removeRightFront(),
+                        list1.removeRightFront());
+            } else if (kind == 1 && list1.rightLength() > 0) {
+                list1.advance();
+                list2.advance();
+            } else if (kind == 2 && list1.leftLength() > 0) {
+                list1.retreat();
+                list2.retreat();
+            } else if (kind == 3 && rnd.nextInt(kinds) == 0) {
+                list1.moveToStart();
+                list2.moveToStart();
+            } else if (kind == 4 && rnd.nextInt(kinds) == 0) {
+                list1.moveToFinish();
+                list2.moveToFinish();
+            } else {
+                list1.addRightFront("e" + i);
+                list2.addRightFront("e" + i);
+            }
+            assertEquals(list2.leftLength(), list1.leftLength());
+            assertEquals(list2.rightLength(), list1.rightLength());
+        }
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(list2, list1);
+    }
+
+    @Test
+    public final void testFilteringKeepsNodesHalfFull() {
+        /*
+         * Set up variables
+         */
+        final int kept = 1000;
+        final int every = 64;
+        final int chunkCapacity = 64;
+        List4<String> list1 = new List4<String>(chunkCapacity);
+        List<String> list2 = this.constructorRef();
+        for (int i = 0; i < kept * every; i++) {
+            list1.addRightFront("e" + i);
+            list1.advance();
+            if (i % every == 0) {
+                list2.addRightFront("e" + i);
+                list2.advance();
+            }
+        }
+        /*
+         * Call method under test
+         */
+        list1.moveToStart();
+        for (int i = 0; i < kept * every; i++) {
+            if (i % every == 0) {
+                list1.advance();
+            } else {
+                list1.removeRightFront();
+            }
+        }
+        /*
+         * Assert that values of variables match expectations; every node but
+         * the last is at least half full
+         */
+        assertEquals(list2, list1);
+        assertTrue(list1.chunkCount() <= kept / (chunkCapacity / 2) + 1);
+    }
+
+
+    @Test
+    public final void testNewInstanceKeepsChunkCapacity() {
+        /*
+         * Set up variables
+         */
+        final int n = 8;
+        List4<String> list1 = new List4<String>(TEST_CHUNK_CAPACITY);
+        /*
+         * Call method under test
+         */
+        List4<String> list2 = list1.newInstance();
+        for (int i = 0; i < n; i++) {
+            list2.addRightFront("e" + i);
+        }
+        /*
+         * Assert that values of variables match expectations; nodes holding
+         * TEST_CHUNK_CAPACITY entries each, not the default capacity, are
+         * needed
+         */
+        assertTrue(list2.chunkCount() >= n / TEST_CHUNK_CAPACITY);
+    }
+
+}
@@ -0,0 +1,224 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import components.list.List;
+import components.list.List1L;
+
+/**
+ * Customized JUnit test fixture for {@code List5}, with nodes small enough for
+ * the inherited test cases to split them, plus test cases for the overridden
+ * methods, for random edits and jumps that split and merge nodes, and for
+ * removals that leave nodes less than half full.
+ */
+public class List5Test extends ListTest {
+
+    /**
+     * Number of entries a node can hold in the lists under test.
+     */
+    private static final int TEST_CHUNK_CAPACITY = 2;
+
+    /**
+     * Number of entries a node can hold in the lists of the random-edit test,
+     * large enough for nodes to merge.
+     */
+    private static final int MERGING_CHUNK_CAPACITY = 8;
+
+    @Override
+    protected final List<String> constructorTest() {
+        return new List5<String>(TEST_CHUNK_CAPACITY);
+    }
+
+    @Override
+    protected final List<String> constructorRef() {
+        return new List1L<String>();
+    }
+
+    @Test
+    public final void testRightFrontAndReplaceRightFront() {
+        /*
+         * Set up variables
+         */
+        List<String> list1 = this.createFromArgsTest(2, "yellow", "orange",
+                "green", "purple");
+        List<String> list2 = this.createFromArgsRef(2, "yellow", "orange",
+                "blue", "purple");
+        /*
+         * Call method under test
+         */
+        String front = list1.rightFront();
+        String old = list1.replaceRightFront("blue");
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals("green", front);
+        assertEquals("green", old);
+        assertEquals(list2, list1);
+    }
+
+    @Test
+    public final void testMoveToPositionMiddle() {
+        /*
+         * Set up variables
+         */
+        List<String> list1 = this.createFromArgsTest(0, "yellow", "orange",
+                "green", "purple", "red");
+        List<String> list2 = this.createFromArgsRef(3, "yellow", "orange",
+                "green", "purple", "red");
+        /*
+         * Call method under test
+         */
+        list1.moveToPosition(3);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(list2, list1);
+        assertEquals("purple", list1.rightFront());
+    }
+
+    @Test
+    public final void testMoveToPositionStartAndFinish() {
+        /*
+         * Set up variables
+         */
+        List<String> list1 = this.createFromArgsTest(2, "yellow", "orange",
+                "green");
+        List<String> list2 = this.createFromArgsRef(0, "yellow", "orange",
+                "green");
+        List<String> list3 = this.createFromArgsRef(3, "yellow", "orange",
+                "green");
+        /*
+         * Call method under test
+         */
+        list1.moveToPosition(0);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(list2, list1);
+        /*
+         * Call method under test
+         */
+        list1.moveToPosition(3);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(list3, list1);
+    }
+
+    @Test
+    public final void testRandomEdits() {
+        /*
+         * Set up variables
+         */
+        final int n = 5000;
+        final int kinds = 8;
+        Random rnd = new Random(2231);
+        List<String> list1 = new List5<String>(MERGING_CHUNK_CAPACITY);
+        List<String> list2 = this.constructorRef();
+        /*
+         * Call method under test
+         */
+        for (int i = 0; i < n; i++) {
+            int kind = rnd.nextInt(kinds);
+            if (kind == 0 && list1.rightLength() > 0) {
+                assertEquals(list2.removeRightFront(),
+                        list1.removeRightFront());
+            } else if (kind == 1 && list1.rightLength() > 0) {
+                list1.advance();
+                list2.advance();
+            } else if (kind == 2 && list1.leftLength() > 0) {
+                list1.retreat();
+                list2.retreat();
+            } else if (kind == 3 && rnd.nextInt(kinds) == 0) {
+                list1.moveToStart();
+                list2.moveToStart();
+            } else if (kind == 4 && rnd.nextInt(kinds) == 0) {
+                list1.moveToFinish();
+                list2.moveToFinish();
+            } else if (kind == 5 && rnd.nextInt(2) == 0) {
+                int pos = rnd.nextInt(
+                        list1.leftLength() + list1.rightLength() + 1);
+                list1.moveToPosition(pos);
+                list2.moveToPosition(pos);
+            } else {
+                list1.addRightFront("e" + i);
+                list2.addRightFront("e" + i);
+            }
+            assertEquals(list2.leftLength(), list1.leftLength());
+            assertEquals(list2.rightLength(), list1.rightLength());
+        }
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(list2, list1);
+    }
+
+    @Test
+    public final void testFilteringKeepsNodesHalfFull() {
+        /*
+         * Set up variables
+         */
+        final int kept = 1000;
+        final int every = 64;
+        final int chunkCapacity = 64;
+        List5<String> list1 = new List5<String>(chunkCapacity);
+        List<String> list2 = this.constructorRef();
+        for (int i = 0; i < kept * every; i++) {
+            list1.addRightFront("e" + i);
+            list1.advance();
+            if (i % every == 0) {
+                list2.addRightFront("e" + i);
+                list2.advance();
+            }
+        }
+        /*
+         * Call method under test
+         */
+        list1.moveToStart();
+        for (int i = 0; i < kept * every; i++) {
+            if (i % every == 0) {
+                list1.advance();
+            } else {
+                list1.removeRightFront();
+            }
+        }
+        /*
+         * Assert that values of variables match expectations; every node but
+         * the last is at least half full, and jumps still land on the right
+         * entries
+         */
+        assertEquals(list2, list1);
+        assertTrue(list1.chunkCount() <= kept / (chunkCapacity / 2) + 1);
+        list1.moveToPosition(kept / 2);
+        list2.moveToPosition(kept / 2);
+        assertEquals(list2, list1);
+        assertEquals(list2.rightFront(), list1.rightFront());
+    }
+
+
+    @Test
+    public final void testNewInstanceKeepsChunkCapacity() {
+        /*
+         * Set up variables
+         */
+        final int n = 8;
+        List5<String> list1 = new List5<String>(TEST_CHUNK_CAPACITY);
+        /*
+         * Call method under test
+         */
+        List5<String> list2 = list1.newInstance();
+        for (int i = 0; i < n; i++) {
+            list2.addRightFront("e" + i);
+        }
+        /*
+         * Assert that values of variables match expectations; nodes holding
+         * TEST_CHUNK_CAPACITY entries each, not the default capacity, are
+         * needed
+         */
+        assertTrue(list2.chunkCount() >= n / TEST_CHUNK_CAPACITY);
+    }
+
+}
@@ -0,0 +1,135 @@
+import components.list.List;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Measures the memory used by {@code List2a} and {@code List4} to hold the same
+ * entries, and the time they take to traverse them with {@code advance} and
+ * with the iterator. ({@code List2a} is singly linked, so its {@code retreat}
+ * takes linear time and is not measured.)
+ *
+ * <p>
+ * Memory is measured as the growth of the used heap while the list is built,
+ * after requesting garbage collection, so the numbers are estimates; the
+ * entries are shared between the lists and not counted. Run with assertion
+ * checking off, since {@code conventionHolds} makes every method take linear
+ * time.
+ * </p>
+ *
+ * <p>
+ * Adapted copy of ListWithRetreat/src/ListFootprintBenchmark.java, which
+ * measures List3, List4 and List5 and is the canonical version of the shared
+ * measuring code, kept here because this project is built on its own. Make any
+ * fix to that code there and then here.
+ * </p>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public final class ListFootprintBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private ListFootprintBenchmark() {
+    }
+
+    /**
+     * Number of nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Number of times each traversal is repeated, so the JIT compiler warms
+     * up.
+     */
+    private static final int ROUNDS = 10;
+
+    /**
+     * Returns the number of bytes in use in the heap, after requesting garbage
+     * collection.
+     *
+     * @return the number of bytes in use
+     */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Fills a new instance of the dynamic type of {@code list} with the
+     * entries of {@code entries}, traverses it, and outputs its estimated
+     * footprint in bytes per entry and the times of the traversals in
+     * milliseconds.
+     *
+     * @param out
+     *            the output stream
+     * @param label
+     *            the name of the implementation
+     * @param list
+     *            a list of the type to be measured
+     * @param entries
+     *            the entries
+     * @updates out.content
+     * @requires out.is_open  and  |entries| > 0
+     * @ensures out.content = #out.content * [footprint and times]
+     */
+    private static void measure(SimpleWriter out, String label,
+            List<Integer> list, Integer[] entries) {
+        long before = usedMemory();
+        List<Integer> l = list.newInstance();
+        for (Integer x : entries) {
+            l.addRightFront(x);
+            l.advance();
+        }
+        long bytes = usedMemory() - before;
+        long checksum = 0;
+        long advanceTime = 0;
+        long iteratorTime = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            l.moveToStart();
+            while (l.rightLength() > 0) {
+                l.advance();
+            }
+            advanceTime += System.nanoTime() - start;
+            start = System.nanoTime();
+            for (Integer x : l) {
+                checksum += x;
+            }
+            iteratorTime += System.nanoTime() - start;
+        }
+        out.println(label + "\t" + (double) bytes / entries.length + "\t"
+                + advanceTime / NANOS_PER_MILLI + "\t"
+                + iteratorTime / NANOS_PER_MILLI + "\t(" + checksum + ")");
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+        out.print("Number of entries: ");
+        int n = in.nextInteger();
+        Integer[] entries = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            entries[i] = i;
+        }
+        out.println();
+        out.println("Bytes per entry; times in milliseconds for " + ROUNDS
+                + " traversals");
+        out.println("class\tbytes\tadvance\titerator");
+        measure(out, "List2a", new List2a<Integer>(), entries);
+        measure(out, "List4", new List4<Integer>(), entries);
+        in.close();
+        out.close();
+    }
+
+}
@@ -0,0 +1,289 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.map.Map;
+import components.map.Map1L;
+import components.map.MapSecondary;
+
+/**
+ * {@code Map} represented as a doubly linked list of pairs in insertion order,
+ * done "bare-handed", together with a hash index from each key to its node,
+ * with implementations of primary methods.
+ *
+ * <p>
+ * Like {@code Map2}, {@code add} puts the new pair at the back of the queue,
+ * {@code removeAny} takes the pair at the front, and iteration goes from front
+ * to back. Unlike {@code Map2}, {@code hasKey}, {@code value} and
+ * {@code remove} find the pair through the index instead of moving it to the
+ * front, so they leave the order of the other pairs alone. Execution-time
+ * performance of all methods implemented in this class is O(1), up to the
+ * cost of hashing.
+ * </p>
+ *
+ * @param <K>
+ *            type of {@code Map} domain (key) entries
+ * @param <V>
+ *            type of {@code Map} range (associated value) entries
+ * @convention <pre>
+ * [$this.preFront is not null]  and
+ * [$this.postBack is not null]  and
+ * [$this.preFront points to the first node of a doubly linked list
+ *  containing (|$this.index| + 2) nodes]  and
+ * [$this.postBack points to the last node in that doubly linked list]  and
+ * [for every node n in the doubly linked list of nodes, except the one
+ *  pointed to by $this.preFront, n.previous.next = n]  and
+ * [for every node n in the doubly linked list of nodes, except the one
+ *  pointed to by $this.postBack, n.next.previous = n]  and
+ * [for every pair (key, n) in $this.index, n points to a node strictly
+ *  between $this.preFront and $this.postBack whose pair has key key]  and
+ * [every node strictly between $this.preFront and $this.postBack is the
+ *  value of some pair in $this.index]
+ * </pre>
+ * @correspondence <pre>
+ * this = entries([pairs in nodes starting at $this.preFront.next and running
+ *                 through $this.postBack.previous])
+ * </pre>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public class Map2a<K, V> extends MapSecondary<K, V> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Node class for doubly linked list nodes.
+     */
+    private final class Node {
+
+        /**
+         * Pair in node, or, if this is a "smart" Node, irrelevant.
+         */
+        private Pair<K, V> pair;
+
+        /**
+         * Next node in doubly linked list, or, if this is a trailing "smart"
+         * Node, irrelevant.
+         */
+        private Node next;
+
+        /**
+         * Previous node in doubly linked list, or, if this is a leading "smart"
+         * Node, irrelevant.
+         */
+        private Node previous;
+
+    }
+
+    /**
+     * "Smart node" before front node of doubly linked list.
+     */
+    private Node preFront;
+
+    /**
+     * "Smart node" after back node of doubly linked list.
+     */
+    private Node postBack;
+
+    /**
+     * Index from each key in {@code this} to the node holding its pair.
+     */
+    private Map<K, Node> index;
+
+    /**
+     * Unlinks {@code n} from the doubly linked list and removes its key from
+     * the index.
+     *
+     * @param n
+     *            the node to be removed
+     * @return the pair in {@code n}
+     * @requires [n points to a node strictly between $this.preFront and
+     *           $this.postBack]
+     * @ensures removeNode = n.pair
+     */
+    private Pair<K, V> removeNode(Node n) {
+        assert n != null : "Violation of: n is not null";
+        n.previous.next = n.next;
+        n.next.previous = n.previous;
+        this.index.remove(n.pair.key());
+        return n.pair;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.preFront = new Node();
+        this.postBack = new Node();
+        this.preFront.next = this.postBack;
+        this.postBack.previous = this.preFront;
+        this.index = new Map1L<K, Node>();
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Map2a() {
+        this.createNewRep();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Map<K, V> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(Map<K, V> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Map2a<?, ?> : ""
+                + "Violation of: source is of dynamic type Map2a<?,?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Map2a<?,?>,
+         * and the ?,? must be K,V or the call would not have compiled.
+         */
+        Map2a<K, V> localSource = (Map2a<K, V>) source;
+        this.preFront = localSource.preFront;
+        this.postBack = localSource.postBack;
+        this.index = localSource.index;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
+        Node n = new Node();
+        n.pair = new SimplePair<>(key, value);
+        n.previous = this.postBack.previous;
+        n.next = this.postBack;
+        this.postBack.previous.next = n;
+        this.postBack.previous = n;
+        this.index.add(key, n);
+    }
+
+    @Override
+    public final Pair<K, V> remove(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+        return this.removeNode(this.index.value(key));
+    }
+
+    @Override
+    public final Pair<K, V> removeAny() {
+        assert this.size() > 0 : "Violation of: |this| > 0";
+        return this.removeNode(this.preFront.next);
+    }
+
+    @Override
+    public final V value(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+        return this.index.value(key).pair.value();
+    }
+
+    @Override
+    public final boolean hasKey(K key) {
+        assert key != null : "Violation of: key is not null";
+        return this.index.hasKey(key);
+    }
+
+    @Override
+    public final int size() {
+        return this.index.size();
+    }
+
+    @Override
+    public final Iterator<Pair<K, V>> iterator() {
+        return new Map2aIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Map2a}.
+     */
+    private final class Map2aIterator implements Iterator<Pair<K, V>> {
+
+        /**
+         * Current node in the linked list.
+         */
+        private Node current;
+
+        /**
+         * No-argument constructor.
+         */
+        private Map2aIterator() {
+            this.current = Map2a.this.preFront.next;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current != Map2a.this.postBack;
+        }
+
+        @Override
+        public Pair<K, V> next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            Pair<K, V> x = this.current.pair;
+            this.current = this.current.next;
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @Override
+    public final V replaceValue(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+        Node n = this.index.value(key);
+        V oldValue = n.pair.value();
+        n.pair = new SimplePair<>(key, value);
+        return oldValue;
+    }
+
+}
@@ -0,0 +1,55 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code Map2a}, plus a test case for the
+ * insertion order of its iterator.
+ */
+public class Map2aTest extends MapTest {
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new Map2a<String, String>();
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+    @Test
+    public final void testIterationOrderAfterLookups() {
+        /*
+         * Set up variables
+         */
+        Map<String, String> m = this.constructorTest();
+        m.add("a", "1");
+        m.add("b", "2");
+        m.add("c", "3");
+        m.add("d", "4");
+        /*
+         * Call methods under test
+         */
+        m.value("c");
+        m.hasKey("z");
+        m.remove("b");
+        m.add("e", "5");
+        m.replaceValue("a", "6");
+        /*
+         * Assert that values of variables match expectations
+         */
+        Iterator<Map.Pair<String, String>> it = m.iterator();
+        assertEquals("a", it.next().key());
+        assertEquals("c", it.next().key());
+        assertEquals("d", it.next().key());
+        assertEquals("e", it.next().key());
+        assertEquals("a", m.removeAny().key());
+    }
+
+}
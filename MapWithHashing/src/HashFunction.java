@@ -0,0 +1,26 @@
+/**
+ * Strategy for computing the hash code that a hash table uses to choose the
+ * bucket of a key.
+ *
+ * @param <K>
+ *            type of keys hashed
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public interface HashFunction<K> {
+
+    /**
+     * Returns the hash code of {@code key}.
+     *
+     * @param key
+     *            the key to be hashed
+     * @return the hash code of {@code key}
+     * @requires key is not null
+     * @ensures <pre>
+     * [hash is a function of key: equal keys have equal hash codes]
+     * </pre>
+     */
+    int hash(K key);
+
+}
@@ -0,0 +1,86 @@
+/**
+ * Standard {@code HashFunction}s, each of which post-processes the result of
+ * {@code key.hashCode()}.
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public enum HashFunctions implements HashFunction<Object> {
+
+    /**
+     * {@code key.hashCode()} unchanged.
+     */
+    IDENTITY {
+        @Override
+        public int hash(Object key) {
+            assert key != null : "Violation of: key is not null";
+            return key.hashCode();
+        }
+    },
+
+    /**
+     * {@code key.hashCode()} passed through the 32-bit finalizer of
+     * MurmurHash3, so that every input bit affects every output bit.
+     */
+    MURMUR3 {
+        @Override
+        public int hash(Object key) {
+            assert key != null : "Violation of: key is not null";
+            int h = key.hashCode();
+            h ^= h >>> MURMUR3_SHIFT_1;
+            h *= MURMUR3_MULTIPLIER_1;
+            h ^= h >>> MURMUR3_SHIFT_2;
+            h *= MURMUR3_MULTIPLIER_2;
+            h ^= h >>> MURMUR3_SHIFT_1;
+            return h;
+        }
+    },
+
+    /**
+     * {@code key.hashCode()} multiplied by the constant of FxHash, a cheap
+     * mixer that mostly moves low input bits into high output bits.
+     */
+    FX {
+        @Override
+        public int hash(Object key) {
+            assert key != null : "Violation of: key is not null";
+            int h = key.hashCode() * FX_MULTIPLIER;
+            /*
+             * Buckets are chosen from the low bits, so fold the well-mixed high
+             * bits back down
+             */
+            return h ^ (h >>> FX_FOLD_SHIFT);
+        }
+    };
+
+    /**
+     * First shift of the MurmurHash3 finalizer.
+     */
+    private static final int MURMUR3_SHIFT_1 = 16;
+
+    /**
+     * Second shift of the MurmurHash3 finalizer.
+     */
+    private static final int MURMUR3_SHIFT_2 = 13;
+
+    /**
+     * First multiplier of the MurmurHash3 finalizer.
+     */
+    private static final int MURMUR3_MULTIPLIER_1 = 0x85ebca6b;
+
+    /**
+     * Second multiplier of the MurmurHash3 finalizer.
+     */
+    private static final int MURMUR3_MULTIPLIER_2 = 0xc2b2ae35;
+
+    /**
+     * Multiplier of 32-bit FxHash.
+     */
+    private static final int FX_MULTIPLIER = 0x27220a95;
+
+    /**
+     * Shift folding the high half of an FxHash result into the low half.
+     */
+    private static final int FX_FOLD_SHIFT = 16;
+
+}
@@ -9,6 +9,12 @@ import components.map.MapSecondary;
  * {@code Map} represented as a hash table using {@code Map}s for the buckets,
  * with implementations of primary methods.
  *
+ * <p>
+ * The bucket of a key is chosen from the hash code computed by a
+ * {@code HashFunction}, which is {@code HashFunctions.IDENTITY} (that is,
+ * {@code key.hashCode()}) unless another one is given to the constructor.
+ * </p>
+ *
  * @param <K>
  *            type of {@code Map} domain (key) entries
  * @param <V>
@@ -19,7 +25,8 @@ import components.map.MapSecondary;
  *     where (0 <= i  and  i < |$this.hashTable|  and
  *            <pf> = $this.hashTable[i, i+1)  and
  *            x is in DOMAIN(pf))
- *   ([computed result of x.hashCode()] mod |$this.hashTable| = i))  and
+ *   ([computed result of $this.hashFunction.hash(x)] mod
+ *      |$this.hashTable| = i))  and
  * for all i: integer
  *     where (0 <= i  and  i < |$this.hashTable|)
  *   ([entry at position i in $this.hashTable is not null])  and
@@ -49,6 +56,11 @@ public class Map4<K, V> extends MapSecondary<K, V> {
      */
     private static final int DEFAULT_HASH_TABLE_SIZE = 101;
 
+    /**
+     * Hash function choosing the bucket of a key.
+     */
+    private HashFunction<? super K> hashFunction;
+
     /**
      * Buckets for hashing.
      */
@@ -82,6 +94,21 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         return mod;
     }
 
+    /**
+     * Returns the index of the bucket of {@code key}.
+     *
+     * @param key
+     *            the key
+     * @return the bucket of {@code key}
+     * @ensures <pre>
+     * bucketOf = [computed result of $this.hashFunction.hash(key)] mod
+     *              |$this.hashTable|
+     * </pre>
+     */
+    private int bucketOf(K key) {
+        return mod(this.hashFunction.hash(key), this.hashTable.length);
+    }
+
     /**
      * Creator of initial representation.
      *
@@ -120,6 +147,7 @@ public class Map4<K, V> extends MapSecondary<K, V> {
      */
     public Map4() {
 
+        this.hashFunction = HashFunctions.IDENTITY;
         this.createNewRep(DEFAULT_HASH_TABLE_SIZE);
 
     }
@@ -134,6 +162,26 @@ public class Map4<K, V> extends MapSecondary<K, V> {
      */
     public Map4(int hashTableSize) {
 
+        this.hashFunction = HashFunctions.IDENTITY;
+        this.createNewRep(hashTableSize);
+
+    }
+
+    /**
+     * Constructor resulting in a hash table of size {@code hashTableSize} whose
+     * buckets are chosen by {@code hashFunction}.
+     *
+     * @param hashTableSize
+     *            size of hash table
+     * @param hashFunction
+     *            hash function choosing the bucket of a key
+     * @requires hashTableSize > 0
+     * @ensures this = {}
+     */
+    public Map4(int hashTableSize, HashFunction<? super K> hashFunction) {
+        assert hashFunction != null : "Violation of: hashFunction is not null";
+
+        this.hashFunction = hashFunction;
         this.createNewRep(hashTableSize);
 
     }
@@ -146,7 +194,9 @@ public class Map4<K, V> extends MapSecondary<K, V> {
     @Override
     public final Map<K, V> newInstance() {
         try {
-            return this.getClass().getConstructor().newInstance();
+            return this.getClass()
+                    .getConstructor(int.class, HashFunction.class)
+                    .newInstance(DEFAULT_HASH_TABLE_SIZE, this.hashFunction);
         } catch (ReflectiveOperationException e) {
             throw new AssertionError(
                     "Cannot construct object of type " + this.getClass());
@@ -170,6 +220,7 @@ public class Map4<K, V> extends MapSecondary<K, V> {
          * the ?,? must be K,V or the call would not have compiled.
          */
         Map4<K, V> localSource = (Map4<K, V>) source;
+        this.hashFunction = localSource.hashFunction;
         this.hashTable = localSource.hashTable;
         this.size = localSource.size;
         localSource.createNewRep(DEFAULT_HASH_TABLE_SIZE);
@@ -185,7 +236,7 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         assert value != null : "Violation of: value is not null";
         assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
         this.size++;
-        int bucket = mod(key.hashCode(), this.hashTable.length);
+        int bucket = this.bucketOf(key);
         this.hashTable[bucket].add(key, value);
     }
 
@@ -194,7 +245,7 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         assert key != null : "Violation of: key is not null";
         assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
         this.size--;
-        int bucket = mod(key.hashCode(), this.hashTable.length);
+        int bucket = this.bucketOf(key);
         return this.hashTable[bucket].remove(key);
     }
 
@@ -213,14 +264,14 @@ public class Map4<K, V> extends MapSecondary<K, V> {
     public final V value(K key) {
         assert key != null : "Violation of: key is not null";
         assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
-        int bucket = mod(key.hashCode(), this.hashTable.length);
+        int bucket = this.bucketOf(key);
         return this.hashTable[bucket].value(key);
     }
 
     @Override
     public final boolean hasKey(K key) {
         assert key != null : "Violation of: key is not null";
-        int bucket = mod(key.hashCode(), this.hashTable.length);
+        int bucket = this.bucketOf(key);
         return this.hashTable[bucket].hasKey(key);
     }
 
@@ -234,6 +285,31 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         return new Map4Iterator();
     }
 
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Reports the number of entries in each bucket of the hash table, i.e.,
+     * the current histogram of bucket sizes.
+     *
+     * @return the sizes of the buckets, in bucket order
+     * @ensures <pre>
+     * |bucketSizes| = |$this.hashTable|  and
+     * for all i: integer, pf: PARTIAL_FUNCTION
+     *     where (0 <= i  and  i < |$this.hashTable|  and
+     *            <pf> = $this.hashTable[i, i+1))
+     *   (bucketSizes[i] = |pf|)
+     * </pre>
+     */
+    public final int[] bucketSizes() {
+        int[] sizes = new int[this.hashTable.length];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = this.hashTable[i].size();
+        }
+        return sizes;
+    }
+
     /**
      * Implementation of {@code Iterator} interface for {@code Map4}.
      */
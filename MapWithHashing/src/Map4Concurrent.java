@@ -0,0 +1,773 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BinaryOperator;
+
+import components.map.Map;
+import components.map.MapSecondary;
+
+/**
+ * {@code Map} represented as a hash table of immutable bucket chains that can
+ * be used by several threads at once, with implementations of primary methods
+ * and of the atomic {@code addIfAbsent} and {@code merge}.
+ *
+ * <p>
+ * Buckets are grouped into a fixed number of stripes, each guarded by its own
+ * lock. {@code add}, {@code remove}, {@code removeAny}, {@code replaceValue},
+ * {@code addIfAbsent}, and {@code merge} lock only the stripe of the key (the
+ * table grows by locking every stripe). {@code hasKey}, {@code value}, and
+ * iteration take no lock: a writer never changes a published chain node, it
+ * publishes a new chain head instead, so readers always see a consistent
+ * chain.
+ * </p>
+ *
+ * <p>
+ * Each kernel method is atomic, but a sequence of calls is not; in
+ * particular, the precondition of {@code add} and {@code remove} can be
+ * invalidated by another thread between a check and the call, so concurrent
+ * writers should use {@code addIfAbsent} and {@code merge}. The standard
+ * methods ({@code clear}, {@code newInstance}, {@code transferFrom}) and
+ * iteration are meant to be used when no other thread is updating
+ * {@code this}; iteration concurrent with updates may or may not see them.
+ * </p>
+ *
+ * @param <K>
+ *            type of {@code Map} domain (key) entries
+ * @param <V>
+ *            type of {@code Map} range (associated value) entries
+ * @convention <pre>
+ * [|$this.table| is a power of 2]  and
+ * [|$this.locks| is a power of 2]  and  |$this.locks| <= |$this.table|  and
+ * for all i: integer, x: K
+ *     where (0 <= i  and  i < |$this.table|  and
+ *            [x is a key in the chain at $this.table[i]])
+ *   ([SPREAD(x.hashCode()) mod |$this.table| = i])  and
+ * [no key appears twice in the chains of $this.table]  and
+ * for all s: integer
+ *     where (0 <= s  and  s < |$this.locks|)
+ *   ($this.counts[s] = [number of nodes in the chains at indices i of
+ *                       $this.table with i mod |$this.locks| = s])
+ * </pre>
+ * @correspondence <pre>
+ * this = [set of (key, value) pairs in the chains of $this.table]
+ * </pre>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public class Map4Concurrent<K, V> extends MapSecondary<K, V> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default size of hash table.
+     */
+    private static final int DEFAULT_HASH_TABLE_SIZE = 1024;
+
+    /**
+     * Default number of lock stripes.
+     */
+    private static final int DEFAULT_STRIPES = 64;
+
+    /**
+     * Average chain length above which the table is doubled.
+     */
+    private static final int MAX_LOAD = 2;
+
+    /**
+     * Immutable node of a bucket chain.
+     *
+     * @param <K>
+     *            type of key
+     * @param <V>
+     *            type of value
+     */
+    private static final class Node<K, V> {
+
+        /**
+         * Key in node.
+         */
+        private final K key;
+
+        /**
+         * Value in node.
+         */
+        private final V value;
+
+        /**
+         * Next node in chain, or null.
+         */
+        private final Node<K, V> next;
+
+        /**
+         * Constructor from key, value, and next node.
+         *
+         * @param key
+         *            the key
+         * @param value
+         *            the value
+         * @param next
+         *            the next node, or null
+         */
+        Node(K key, V value, Node<K, V> next) {
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+
+    }
+
+    /**
+     * Buckets for hashing; replaced, never resized in place, when the table
+     * grows.
+     */
+    private volatile AtomicReferenceArray<Node<K, V>> table;
+
+    /**
+     * Locks of the stripes; bucket i belongs to stripe i mod |locks|.
+     */
+    private ReentrantLock[] locks;
+
+    /**
+     * Number of entries in each stripe.
+     */
+    private AtomicIntegerArray counts;
+
+    /**
+     * Bucket at which {@code removeAny} starts its search, where it last
+     * found an entry; only a hint, since other threads may add entries before
+     * it.
+     */
+    private volatile int scanStart;
+
+    /**
+     * Mixes the high bits of {@code h} into the low bits, so that the low bits
+     * used to pick a bucket depend on the whole hash code.
+     *
+     * @param h
+     *            the hash code
+     * @return the spread hash code
+     */
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the smallest power of 2 that is at least {@code n}.
+     *
+     * @param n
+     *            the requested size
+     * @return the power of 2
+     * @requires n > 0
+     * @ensures [powerOf2AtLeast is a power of 2]  and  powerOf2AtLeast >= n
+     */
+    private static int powerOf2AtLeast(int n) {
+        assert n > 0 : "Violation of: n > 0";
+        int size = 1;
+        while (size < n) {
+            size *= 2;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the node with key {@code key} in the chain starting at
+     * {@code head}, or null if there is none.
+     *
+     * @param <K>
+     *            type of key
+     * @param <V>
+     *            type of value
+     * @param head
+     *            the first node of the chain, or null
+     * @param key
+     *            the key to be searched for
+     * @return the node with key {@code key}, or null
+     */
+    private static <K, V> Node<K, V> find(Node<K, V> head, K key) {
+        Node<K, V> p = head;
+        while (p != null && !p.key.equals(key)) {
+            p = p.next;
+        }
+        return p;
+    }
+
+    /**
+     * Returns a copy of the chain starting at {@code head} without the node
+     * {@code target} and, if {@code replacement} is not null, with
+     * {@code replacement} in front.
+     *
+     * @param <K>
+     *            type of key
+     * @param <V>
+     *            type of value
+     * @param head
+     *            the first node of the chain
+     * @param target
+     *            the node to be left out
+     * @param replacement
+     *            a node to put in front, or null
+     * @return the first node of the new chain
+     * @requires target is a node in the chain starting at head
+     * @ensures <pre>
+     * [without returns a chain with the nodes of the chain at head other
+     *  than target, preceded by replacement if it is not null; only the nodes
+     *  before target are copied]
+     * </pre>
+     */
+    private static <K, V> Node<K, V> without(Node<K, V> head,
+            Node<K, V> target, Node<K, V> replacement) {
+        Node<K, V> result = target.next;
+        /*
+         * Copy the nodes before target in reverse; chain order does not matter
+         */
+        for (Node<K, V> p = head; p != target; p = p.next) {
+            result = new Node<>(p.key, p.value, result);
+        }
+        if (replacement != null) {
+            result = new Node<>(replacement.key, replacement.value, result);
+        }
+        return result;
+    }
+
+    /**
+     * Locks the stripe of hash {@code h} and returns the table that is current
+     * while the lock is held.
+     *
+     * @param h
+     *            the spread hash code
+     * @return the current table
+     * @ensures [the lock of the stripe of h is held by the caller]
+     */
+    private AtomicReferenceArray<Node<K, V>> lockStripe(int h) {
+        ReentrantLock lock = this.locks[h & (this.locks.length - 1)];
+        AtomicReferenceArray<Node<K, V>> t;
+        boolean current = false;
+        do {
+            t = this.table;
+            lock.lock();
+            /*
+             * The table may have grown while waiting for the lock
+             */
+            current = t == this.table;
+            if (!current) {
+                lock.unlock();
+            }
+        } while (!current);
+        return t;
+    }
+
+    /**
+     * Unlocks the stripe of hash {@code h}.
+     *
+     * @param h
+     *            the spread hash code
+     */
+    private void unlockStripe(int h) {
+        this.locks[h & (this.locks.length - 1)].unlock();
+    }
+
+    /**
+     * Removes the first node of the chain at bucket {@code i} of the current
+     * table, if there is one.
+     *
+     * @param i
+     *            the bucket index
+     * @return the key and value of the removed node, or null if the chain was
+     *         empty
+     * @updates this
+     * @requires 0 <= i < |$this.table|
+     * @ensures <pre>
+     * if removeHead /= null then
+     *   removeHead is in #this  and  this = #this \ {removeHead}
+     * else
+     *   this = #this
+     * </pre>
+     */
+    private Pair<K, V> removeHead(int i) {
+        Pair<K, V> removed = null;
+        /*
+         * Bucket i belongs to the stripe of any hash h with h mod |table| = i
+         */
+        AtomicReferenceArray<Node<K, V>> t = this.lockStripe(i);
+        try {
+            /*
+             * The table may have grown since i was chosen; bucket i of the
+             * bigger table then holds some of the entries of the old bucket i
+             */
+            Node<K, V> head = t.get(i);
+            if (head != null) {
+                t.set(i, head.next);
+                this.counts.decrementAndGet(i & (this.locks.length - 1));
+                removed = new SimplePair<>(head.key, head.value);
+            }
+        } finally {
+            this.unlockStripe(i);
+        }
+        return removed;
+    }
+
+    /**
+     * Records one more entry in the stripe of hash {@code h} and doubles the
+     * table if that stripe has become too full.
+     *
+     * @param h
+     *            the spread hash code
+     * @param t
+     *            the table in which the entry was added
+     * @requires [the lock of the stripe of h is not held by the caller]
+     */
+    private void addedOne(int h, AtomicReferenceArray<Node<K, V>> t) {
+        int stripe = h & (this.locks.length - 1);
+        int stripeCount = this.counts.incrementAndGet(stripe);
+        if ((long) stripeCount * this.locks.length > (long) MAX_LOAD
+                * t.length()) {
+            this.grow(t);
+        }
+    }
+
+    /**
+     * Replaces table {@code t} by a table twice as large, unless another
+     * thread already did.
+     *
+     * @param t
+     *            the table found to be too full
+     */
+    private void grow(AtomicReferenceArray<Node<K, V>> t) {
+        /*
+         * Always lock the stripes in the same order so that two growing
+         * threads cannot deadlock
+         */
+        for (ReentrantLock lock : this.locks) {
+            lock.lock();
+        }
+        try {
+            if (t == this.table) {
+                int mask = 2 * t.length() - 1;
+                AtomicReferenceArray<Node<K, V>> bigger;
+                bigger = new AtomicReferenceArray<>(2 * t.length());
+                for (int i = 0; i < t.length(); i++) {
+                    for (Node<K, V> p = t.get(i); p != null; p = p.next) {
+                        int j = spread(p.key.hashCode()) & mask;
+                        bigger.set(j,
+                                new Node<>(p.key, p.value, bigger.get(j)));
+                    }
+                }
+                this.table = bigger;
+            }
+        } finally {
+            for (ReentrantLock lock : this.locks) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param hashTableSize
+     *            the requested size of the hash table
+     * @param stripes
+     *            the requested number of lock stripes
+     * @requires hashTableSize > 0  and  stripes > 0
+     * @ensures <pre>
+     * |$this.locks| = powerOf2AtLeast(stripes)  and
+     * |$this.table| = max(powerOf2AtLeast(hashTableSize), |$this.locks|)  and
+     * [all chains of $this.table are empty]  and
+     * [all entries of $this.counts are 0]
+     * </pre>
+     */
+    private void createNewRep(int hashTableSize, int stripes) {
+        int stripeCount = powerOf2AtLeast(stripes);
+        this.locks = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.locks[i] = new ReentrantLock();
+        }
+        this.counts = new AtomicIntegerArray(stripeCount);
+        this.table = new AtomicReferenceArray<>(
+                Math.max(powerOf2AtLeast(hashTableSize), stripeCount));
+        this.scanStart = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Map4Concurrent() {
+
+        this.createNewRep(DEFAULT_HASH_TABLE_SIZE, DEFAULT_STRIPES);
+
+    }
+
+    /**
+     * Constructor resulting in a hash table of at least {@code hashTableSize}
+     * buckets guarded by at least {@code stripes} locks.
+     *
+     * @param hashTableSize
+     *            initial size of hash table
+     * @param stripes
+     *            number of lock stripes
+     * @requires hashTableSize > 0  and  stripes > 0
+     * @ensures this = {}
+     */
+    public Map4Concurrent(int hashTableSize, int stripes) {
+
+        this.createNewRep(hashTableSize, stripes);
+
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Map<K, V> newInstance() {
+        try {
+            return this.getClass().getConstructor(int.class, int.class)
+                    .newInstance(DEFAULT_HASH_TABLE_SIZE, this.locks.length);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(DEFAULT_HASH_TABLE_SIZE, this.locks.length);
+    }
+
+    @Override
+    public final void transferFrom(Map<K, V> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Map4Concurrent<?, ?> : ""
+                + "Violation of: source is of dynamic type Map4Concurrent<?,?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * Map4Concurrent<?,?>, and the ?,? must be K,V or the call would not
+         * have compiled.
+         */
+        Map4Concurrent<K, V> localSource = (Map4Concurrent<K, V>) source;
+        this.locks = localSource.locks;
+        this.counts = localSource.counts;
+        this.table = localSource.table;
+        this.scanStart = localSource.scanStart;
+        localSource.createNewRep(DEFAULT_HASH_TABLE_SIZE,
+                localSource.locks.length);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
+        int h = spread(key.hashCode());
+        AtomicReferenceArray<Node<K, V>> t = this.lockStripe(h);
+        try {
+            int i = h & (t.length() - 1);
+            t.set(i, new Node<>(key, value, t.get(i)));
+        } finally {
+            this.unlockStripe(h);
+        }
+        this.addedOne(h, t);
+    }
+
+    @Override
+    public final Pair<K, V> remove(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+        int h = spread(key.hashCode());
+        Node<K, V> target;
+        AtomicReferenceArray<Node<K, V>> t = this.lockStripe(h);
+        try {
+            int i = h & (t.length() - 1);
+            Node<K, V> head = t.get(i);
+            target = find(head, key);
+            t.set(i, without(head, target, null));
+            this.counts.decrementAndGet(h & (this.locks.length - 1));
+        } finally {
+            this.unlockStripe(h);
+        }
+        return new SimplePair<>(target.key, target.value);
+    }
+
+    @Override
+    public final Pair<K, V> removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+        Pair<K, V> removed = null;
+        /*
+         * Each pass looks at every bucket of the table once, starting from the
+         * hint; another pass is needed only if the table grew, and so moved
+         * entries, during the pass
+         */
+        while (removed == null && this.size() > 0) {
+            AtomicReferenceArray<Node<K, V>> t = this.table;
+            int mask = t.length() - 1;
+            int start = this.scanStart & mask;
+            int k = 0;
+            while (removed == null && k < t.length()) {
+                int i = (start + k) & mask;
+                if (t.get(i) != null) {
+                    removed = this.removeHead(i);
+                    if (removed != null) {
+                        this.scanStart = i;
+                    }
+                }
+                k++;
+            }
+        }
+        assert removed != null : "Violation of: this /= empty_set";
+        if (removed == null) {
+            /*
+             * Another thread emptied this first; with assertion-checking
+             * enabled it cannot get here because of assert above
+             */
+            throw new NoSuchElementException();
+        }
+        return removed;
+    }
+
+    @Override
+    public final V value(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+        int h = spread(key.hashCode());
+        AtomicReferenceArray<Node<K, V>> t = this.table;
+        return find(t.get(h & (t.length() - 1)), key).value;
+    }
+
+    @Override
+    public final boolean hasKey(K key) {
+        assert key != null : "Violation of: key is not null";
+        int h = spread(key.hashCode());
+        AtomicReferenceArray<Node<K, V>> t = this.table;
+        return find(t.get(h & (t.length() - 1)), key) != null;
+    }
+
+    @Override
+    public final int size() {
+        int size = 0;
+        for (int s = 0; s < this.counts.length(); s++) {
+            size += this.counts.get(s);
+        }
+        return size;
+    }
+
+    @Override
+    public final Iterator<Pair<K, V>> iterator() {
+        return new Map4ConcurrentIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code Map4Concurrent}.
+     */
+    private final class Map4ConcurrentIterator
+            implements Iterator<Pair<K, V>> {
+
+        /**
+         * Table being iterated over.
+         */
+        private final AtomicReferenceArray<Node<K, V>> iteratedTable;
+
+        /**
+         * Bucket after the one from which the next node comes.
+         */
+        private int nextBucket;
+
+        /**
+         * Node to be returned next, or null if there is none.
+         */
+        private Node<K, V> nextNode;
+
+        /**
+         * No-argument constructor.
+         */
+        Map4ConcurrentIterator() {
+            this.iteratedTable = Map4Concurrent.this.table;
+            this.nextBucket = 0;
+            this.nextNode = null;
+            this.advance();
+        }
+
+        /**
+         * Moves {@code nextNode} to the first node of the next non-empty
+         * bucket, or to null if there is none.
+         */
+        private void advance() {
+            while (this.nextNode == null
+                    && this.nextBucket < this.iteratedTable.length()) {
+                this.nextNode = this.iteratedTable.get(this.nextBucket);
+                this.nextBucket++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.nextNode != null;
+        }
+
+        @Override
+        public Pair<K, V> next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            Node<K, V> p = this.nextNode;
+            this.nextNode = p.next;
+            this.advance();
+            return new SimplePair<>(p.key, p.value);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods (overridden for thread safety) ---------------------------
+     */
+
+    @Override
+    public final V replaceValue(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+        int h = spread(key.hashCode());
+        Node<K, V> target;
+        AtomicReferenceArray<Node<K, V>> t = this.lockStripe(h);
+        try {
+            int i = h & (t.length() - 1);
+            Node<K, V> head = t.get(i);
+            target = find(head, key);
+            t.set(i, without(head, target, new Node<>(key, value, null)));
+        } finally {
+            this.unlockStripe(h);
+        }
+        return target.value;
+    }
+
+    /*
+     * Atomic methods ---------------------------------------------------------
+     */
+
+    /**
+     * Adds the pair ({@code key}, {@code value}) to {@code this} if
+     * {@code key} is not already in DOMAIN({@code this}), as one atomic step,
+     * and returns the value that was already associated with {@code key}, or
+     * null.
+     *
+     * @param key
+     *            the key to be added
+     * @param value
+     *            the associated value to be added
+     * @return the value already associated with {@code key}, or null
+     * @aliases references key, value
+     * @updates this
+     * @ensures <pre>
+     * if key is in DOMAIN(#this) then
+     *   this = #this  and  (key, addIfAbsent) is in #this
+     * else
+     *   this = #this union {(key, value)}  and  addIfAbsent = null
+     * </pre>
+     */
+    public final V addIfAbsent(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        int h = spread(key.hashCode());
+        V existing = null;
+        AtomicReferenceArray<Node<K, V>> t = this.lockStripe(h);
+        try {
+            int i = h & (t.length() - 1);
+            Node<K, V> head = t.get(i);
+            Node<K, V> found = find(head, key);
+            if (found != null) {
+                existing = found.value;
+            } else {
+                t.set(i, new Node<>(key, value, head));
+            }
+        } finally {
+            this.unlockStripe(h);
+        }
+        if (existing == null) {
+            this.addedOne(h, t);
+        }
+        return existing;
+    }
+
+    /**
+     * Associates with {@code key} the result of combining its current value
+     * with {@code value} by {@code combine}, or {@code value} itself if
+     * {@code key} is not in DOMAIN({@code this}), as one atomic step, and
+     * returns the new associated value.
+     *
+     * @param key
+     *            the key whose value is updated
+     * @param value
+     *            the value to be combined or added
+     * @param combine
+     *            the function combining the current value with {@code value}
+     * @return the value now associated with {@code key}
+     * @aliases references key, value
+     * @updates this
+     * @requires [combine has no side effects on this and returns non-null]
+     * @ensures <pre>
+     * if key is in DOMAIN(#this) then
+     *   this = (#this \ {(key, #this(key))}) union
+     *          {(key, combine(#this(key), value))}
+     * else
+     *   this = #this union {(key, value)}  and
+     * merge = this(key)
+     * </pre>
+     */
+    public final V merge(K key, V value, BinaryOperator<V> combine) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert combine != null : "Violation of: combine is not null";
+        int h = spread(key.hashCode());
+        V merged;
+        boolean added = false;
+        AtomicReferenceArray<Node<K, V>> t = this.lockStripe(h);
+        try {
+            int i = h & (t.length() - 1);
+            Node<K, V> head = t.get(i);
+            Node<K, V> found = find(head, key);
+            if (found != null) {
+                merged = combine.apply(found.value, value);
+                t.set(i, without(head, found, new Node<>(key, merged, null)));
+            } else {
+                merged = value;
+                t.set(i, new Node<>(key, value, head));
+                added = true;
+            }
+        } finally {
+            this.unlockStripe(h);
+        }
+        if (added) {
+            this.addedOne(h, t);
+        }
+        return merged;
+    }
+
+}
@@ -0,0 +1,164 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+import components.map.Map;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Measures the throughput of several threads counting keys in one shared map,
+ * comparing {@code Map4Concurrent} with a {@code Map4} guarded by a single
+ * global lock, for 1 up to the number of available processors threads.
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public final class Map4ConcurrentThroughput {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private Map4ConcurrentThroughput() {
+    }
+
+    /**
+     * Number of distinct keys counted.
+     */
+    private static final int DISTINCT_KEYS = 100_000;
+
+    /**
+     * Number of untimed rounds done before the timed one, to let the JIT
+     * compiler settle.
+     */
+    private static final int WARM_UP_RUNS = 2;
+
+    /**
+     * Number of nanoseconds per second.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Number of counts per million counts.
+     */
+    private static final double MILLION = 1e6;
+
+    /**
+     * Strategy for counting one key in a shared map.
+     */
+    private interface Counter {
+
+        /**
+         * Adds 1 to the count of {@code key}.
+         *
+         * @param key
+         *            the key counted
+         */
+        void count(Integer key);
+
+    }
+
+    /**
+     * Runs {@code threads} threads that together count {@code keys} in
+     * {@code counter}, each thread taking every {@code threads}-th key, and
+     * returns the elapsed time.
+     *
+     * @param counter
+     *            the shared counter
+     * @param keys
+     *            the keys to be counted
+     * @param threads
+     *            the number of threads
+     * @return the elapsed time in nanoseconds
+     * @requires threads > 0
+     */
+    private static long run(Counter counter, Integer[] keys, int threads) {
+        assert threads > 0 : "Violation of: threads > 0";
+        AtomicInteger nextThread = new AtomicInteger(0);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                int first = nextThread.getAndIncrement();
+                for (int i = first; i < keys.length; i += threads) {
+                    counter.count(keys[i]);
+                }
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread w : workers) {
+            w.start();
+        }
+        for (Thread w : workers) {
+            try {
+                w.join();
+            } catch (InterruptedException e) {
+                throw new AssertionError("Interrupted while joining");
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Returns a {@code Counter} using a new {@code Map4Concurrent}.
+     *
+     * @return the counter
+     */
+    private static Counter concurrentCounter() {
+        Map4Concurrent<Integer, Integer> map = new Map4Concurrent<>();
+        return (key) -> map.merge(key, 1, Integer::sum);
+    }
+
+    /**
+     * Returns a {@code Counter} using a new {@code Map4} guarded by one lock.
+     *
+     * @return the counter
+     */
+    private static Counter globalLockCounter() {
+        Map<Integer, Integer> map = new Map4<>();
+        return (key) -> {
+            synchronized (map) {
+                if (map.hasKey(key)) {
+                    map.replaceValue(key, map.value(key) + 1);
+                } else {
+                    map.add(key, 1);
+                }
+            }
+        };
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+        out.print("Number of keys counted: ");
+        int n = in.nextInteger();
+        Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = (int) ((i * 2654435761L) % DISTINCT_KEYS);
+        }
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        out.println();
+        out.println("Throughput in millions of counts per second");
+        out.println("Threads\tglobal lock\tMap4Concurrent");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            for (int i = 0; i < WARM_UP_RUNS; i++) {
+                run(globalLockCounter(), keys, threads);
+                run(concurrentCounter(), keys, threads);
+            }
+            long locked = run(globalLockCounter(), keys, threads);
+            long concurrent = run(concurrentCounter(), keys, threads);
+            double lockedRate = n / (locked / NANOS_PER_SECOND) / MILLION;
+            double concurrentRate = n / (concurrent / NANOS_PER_SECOND)
+                    / MILLION;
+            out.println(threads + "\t" + lockedRate + "\t" + concurrentRate);
+        }
+        in.close();
+        out.close();
+    }
+
+}
@@ -0,0 +1,166 @@
+import components.map.Map;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Reports how evenly a {@code Map4} spreads its keys over its buckets: the
+ * histogram of bucket sizes (in the format of {@code HashingExploration}),
+ * the longest chain, the load factor, and the fraction of empty buckets.
+ *
+ * <p>
+ * The main method reads text lines from a file (whose name is supplied by the
+ * user), puts the distinct lines as keys in one {@code Map4} per standard
+ * {@code HashFunction}, and reports on each of them. The {@code report} method
+ * can be used the same way on any live {@code Map4}.
+ * </p>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public final class Map4DistributionReport {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private Map4DistributionReport() {
+    }
+
+    /**
+     * Outputs the histogram of {@code bucketSizes}, one bar per bucket.
+     *
+     * @param out
+     *            the output stream
+     * @param bucketSizes
+     *            the number of entries in each bucket
+     * @updates out.content
+     * @requires out.is_open
+     * @ensures <pre>
+     * out.content = #out.content * [histogram of bucketSizes]
+     * </pre>
+     */
+    public static void histogram(SimpleWriter out, int[] bucketSizes) {
+        assert out != null : "Violation of: out is not null";
+        assert bucketSizes != null : "Violation of: bucketSizes is not null";
+        out.println("Bucket\tHits\tBar");
+        out.println("------\t----\t---");
+        for (int i = 0; i < bucketSizes.length; i++) {
+            out.print(i + "\t" + bucketSizes[i] + "\t");
+            for (int j = 0; j < bucketSizes[i]; j++) {
+                out.print("*");
+            }
+            out.println();
+        }
+    }
+
+    /**
+     * Outputs the number of entries, the longest chain, the load factor, and
+     * the fraction of empty buckets of the histogram {@code bucketSizes}.
+     *
+     * @param out
+     *            the output stream
+     * @param bucketSizes
+     *            the number of entries in each bucket
+     * @updates out.content
+     * @requires out.is_open  and  |bucketSizes| > 0
+     * @ensures <pre>
+     * out.content = #out.content * [summary of bucketSizes]
+     * </pre>
+     */
+    public static void summary(SimpleWriter out, int[] bucketSizes) {
+        assert out != null : "Violation of: out is not null";
+        assert bucketSizes != null : "Violation of: bucketSizes is not null";
+        assert bucketSizes.length > 0 : "Violation of: |bucketSizes| > 0";
+        int total = 0;
+        int maxChain = 0;
+        int empty = 0;
+        for (int size : bucketSizes) {
+            total += size;
+            maxChain = Math.max(maxChain, size);
+            if (size == 0) {
+                empty++;
+            }
+        }
+        out.println("Total:\t\t" + total);
+        out.println("Max chain:\t" + maxChain);
+        out.println("Load factor:\t" + (double) total / bucketSizes.length);
+        out.println("Empty buckets:\t" + (double) empty / bucketSizes.length);
+    }
+
+    /**
+     * Outputs the histogram and summary of the buckets of {@code map}.
+     *
+     * @param <K>
+     *            type of {@code Map4} keys
+     * @param <V>
+     *            type of {@code Map4} values
+     * @param out
+     *            the output stream
+     * @param map
+     *            the {@code Map4} reported on
+     * @updates out.content
+     * @requires out.is_open
+     * @ensures <pre>
+     * out.content = #out.content * [histogram and summary of buckets of map]
+     * </pre>
+     */
+    public static <K, V> void report(SimpleWriter out, Map4<K, V> map) {
+        assert out != null : "Violation of: out is not null";
+        assert map != null : "Violation of: map is not null";
+        int[] bucketSizes = map.bucketSizes();
+        histogram(out, bucketSizes);
+        out.println();
+        summary(out, bucketSizes);
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+        /*
+         * Get hash table size and file name.
+         */
+        out.print("Hash table size: ");
+        int hashTableSize = in.nextInteger();
+        out.print("Text file name: ");
+        String textFileName = in.nextLine();
+        /*
+         * Put the distinct lines in one map per hash function.
+         */
+        HashFunctions[] functions = HashFunctions.values();
+        @SuppressWarnings("unchecked")
+        Map4<String, Integer>[] maps = new Map4[functions.length];
+        for (int i = 0; i < functions.length; i++) {
+            maps[i] = new Map4<>(hashTableSize, functions[i]);
+        }
+        SimpleReader textFile = new SimpleReader1L(textFileName);
+        int lineNumber = 0;
+        while (!textFile.atEOS()) {
+            String line = textFile.nextLine();
+            if (!maps[0].hasKey(line)) {
+                for (Map<String, Integer> map : maps) {
+                    map.add(line, lineNumber);
+                }
+            }
+            lineNumber++;
+        }
+        textFile.close();
+        /*
+         * Report results.
+         */
+        for (int i = 0; i < functions.length; i++) {
+            out.println();
+            out.println("Hash function: " + functions[i]);
+            report(out, maps[i]);
+        }
+        in.close();
+        out.close();
+    }
+
+}
@@ -0,0 +1,135 @@
+import java.util.Arrays;
+
+import components.map.Map;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Measures the latency of individual {@code add} and {@code value} calls on a
+ * growing {@code Map4b}, comparing stop-the-world growth with incremental
+ * growth, and reports percentiles of the observed latencies.
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public final class Map4RehashLatency {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private Map4RehashLatency() {
+    }
+
+    /**
+     * Initial size of the hash tables, so that the runs go through many
+     * growths.
+     */
+    private static final int INITIAL_HASH_TABLE_SIZE = 101;
+
+    /**
+     * Number of untimed runs done before the timed one, to let the JIT
+     * compiler settle.
+     */
+    private static final int WARM_UP_RUNS = 3;
+
+    /**
+     * Percentiles reported, as fractions.
+     */
+    private static final double[] PERCENTILES = { 0.5, 0.9, 0.99, 0.999,
+            0.9999 };
+
+    /**
+     * Number of nanoseconds per microsecond.
+     */
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    /**
+     * Adds keys 0 through {@code n - 1} to a new {@code Map4b}, looking up a
+     * previously added key after each add, and records the latency of each
+     * call.
+     *
+     * @param n
+     *            the number of keys
+     * @param incremental
+     *            whether the map grows incrementally
+     * @return the latencies, in nanoseconds, of the 2 * n timed calls
+     * @requires n > 0
+     * @ensures |run| = 2 * n
+     */
+    private static long[] run(int n, boolean incremental) {
+        assert n > 0 : "Violation of: n > 0";
+        Map<Integer, Integer> map = new Map4b<>(INITIAL_HASH_TABLE_SIZE,
+                incremental);
+        long[] latencies = new long[2 * n];
+        for (int i = 0; i < n; i++) {
+            Integer key = i;
+            long start = System.nanoTime();
+            map.add(key, key);
+            long middle = System.nanoTime();
+            map.value(i / 2);
+            long end = System.nanoTime();
+            latencies[2 * i] = middle - start;
+            latencies[2 * i + 1] = end - middle;
+        }
+        return latencies;
+    }
+
+    /**
+     * Outputs the percentiles and the maximum of {@code latencies}.
+     *
+     * @param out
+     *            the output stream
+     * @param label
+     *            the name of the run
+     * @param latencies
+     *            the latencies, in nanoseconds
+     * @updates out.content, latencies
+     * @requires out.is_open  and  |latencies| > 0
+     * @ensures <pre>
+     * out.content = #out.content * [report of percentiles of #latencies]  and
+     * perms(latencies, #latencies)
+     * </pre>
+     */
+    private static void report(SimpleWriter out, String label,
+            long[] latencies) {
+        assert out != null : "Violation of: out is not null";
+        assert latencies.length > 0 : "Violation of: |latencies| > 0";
+        Arrays.sort(latencies);
+        out.print(label);
+        for (double p : PERCENTILES) {
+            int index = (int) Math.min(latencies.length - 1,
+                    Math.round(p * latencies.length));
+            out.print("\t" + latencies[index] / NANOS_PER_MICRO);
+        }
+        out.println("\t" + latencies[latencies.length - 1] / NANOS_PER_MICRO);
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+        out.print("Number of keys: ");
+        int n = in.nextInteger();
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            run(n, false);
+            run(n, true);
+        }
+        long[] stopTheWorld = run(n, false);
+        long[] incremental = run(n, true);
+        out.println();
+        out.println("Latency of add/value calls in microseconds");
+        out.println("Mode\t\tp50\tp90\tp99\tp99.9\tp99.99\tmax");
+        report(out, "stop-the-world", stopTheWorld);
+        report(out, "incremental", incremental);
+        in.close();
+        out.close();
+    }
+
+}
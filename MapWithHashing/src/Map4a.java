@@ -0,0 +1,627 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.map.Map;
+import components.map.MapSecondary;
+
+/**
+ * {@code Map} represented as an open-addressing hash table (linear probing over
+ * parallel key and value arrays) that grows as needed, with implementations of
+ * primary methods.
+ *
+ * <p>
+ * When the table fills up past its maximum load, a table of twice the size is
+ * allocated and the entries of the old table are moved over a few slots at a
+ * time by each subsequent call of {@code add}, {@code remove},
+ * {@code removeAny}, and {@code value}, so no single call ever has to rehash
+ * the whole table. While such a migration is in progress, lookups consult both
+ * tables.
+ * </p>
+ *
+ * <p>
+ * {@code removeAny} starts its search of the current table from a
+ * first-non-empty-slot hint, and takes entries still in the old table from
+ * the migration front, so emptying the map with {@code removeAny} is linear
+ * overall.
+ * </p>
+ *
+ * @param <K>
+ *            type of {@code Map} domain (key) entries
+ * @param <V>
+ *            type of {@code Map} range (associated value) entries
+ * @convention <pre>
+ * |$this.keys| = |$this.values|  and
+ * [|$this.keys| is a power of 2]  and
+ * 4 * $this.count < 3 * |$this.keys|  and
+ * [every key in $this.keys is reachable by linear probing from slot
+ *  (SPREAD(key.hashCode()) mod |$this.keys|) without passing a null key]  and
+ * $this.count = [number of non-null entries in $this.keys]  and
+ * 0 <= $this.firstNonEmpty <= |$this.keys|  and
+ * [every entry of $this.keys before index $this.firstNonEmpty is null]  and
+ * if $this.oldKeys = null then
+ *   $this.oldCount = 0
+ * else
+ *   |$this.oldKeys| = |$this.oldValues|  and
+ *   0 <= $this.migrated <= |$this.oldKeys|  and
+ *   [every entry of $this.oldKeys before index $this.migrated is null
+ *    or TOMBSTONE]  and
+ *   [every non-TOMBSTONE key in $this.oldKeys is reachable by linear probing
+ *    from slot (SPREAD(key.hashCode()) mod |$this.oldKeys|) without passing
+ *    a null key]  and
+ *   $this.oldCount = [number of non-null, non-TOMBSTONE entries in
+ *                     $this.oldKeys]  and
+ *   [no key appears in both $this.keys and $this.oldKeys]
+ * </pre>
+ * @correspondence <pre>
+ * this = {(key, value): (K, V)
+ *          where ([(key, value) is at the same index of $this.keys and
+ *                  $this.values]  or
+ *                 [(key, value) is at the same index of $this.oldKeys and
+ *                  $this.oldValues, and key is not TOMBSTONE])}
+ * </pre>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public class Map4a<K, V> extends MapSecondary<K, V> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default size of hash table.
+     */
+    private static final int DEFAULT_HASH_TABLE_SIZE = 128;
+
+    /**
+     * Smallest size of hash table.
+     */
+    private static final int MIN_HASH_TABLE_SIZE = 2;
+
+    /**
+     * Number of old-table slots moved to the new table by each call of
+     * {@code add}, {@code remove}, or {@code value} during a migration.
+     */
+    private static final int MIGRATION_STEP = 8;
+
+    /**
+     * Marker left in a slot of the old table once its entry has been moved or
+     * removed, so that linear probing in the old table still passes over it.
+     */
+    private static final Object TOMBSTONE = new Object();
+
+    /**
+     * Keys of the current table.
+     */
+    private K[] keys;
+
+    /**
+     * Values of the current table, parallel to {@code keys}.
+     */
+    private V[] values;
+
+    /**
+     * Number of entries in the current table.
+     */
+    private int count;
+
+    /**
+     * Index at or before the first non-null slot of the current table, from
+     * which {@code removeAny} starts its search.
+     */
+    private int firstNonEmpty;
+
+    /**
+     * Keys of the table being migrated, or null when no migration is in
+     * progress.
+     */
+    private K[] oldKeys;
+
+    /**
+     * Values of the table being migrated, parallel to {@code oldKeys}.
+     */
+    private V[] oldValues;
+
+    /**
+     * Number of entries still to be moved out of the old table.
+     */
+    private int oldCount;
+
+    /**
+     * Index of the next old-table slot to be moved.
+     */
+    private int migrated;
+
+    /**
+     * Mixes the high bits of {@code h} into the low bits, so that the low bits
+     * used to pick a slot depend on the whole hash code.
+     *
+     * @param h
+     *            the hash code
+     * @return the spread hash code
+     */
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the smallest power of 2 that is at least {@code n} (and at least
+     * {@code MIN_HASH_TABLE_SIZE}).
+     *
+     * @param n
+     *            the requested size
+     * @return the table size
+     * @requires n > 0
+     * @ensures <pre>
+     * [tableSizeFor is a power of 2]  and  tableSizeFor >= n  and
+     * tableSizeFor >= MIN_HASH_TABLE_SIZE
+     * </pre>
+     */
+    private static int tableSizeFor(int n) {
+        assert n > 0 : "Violation of: n > 0";
+        int size = MIN_HASH_TABLE_SIZE;
+        while (size < n) {
+            size *= 2;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the index of the slot of {@code table} holding {@code key}, or
+     * -1 if {@code key} is not in {@code table}.
+     *
+     * @param <K>
+     *            type of keys
+     * @param table
+     *            the keys of the table to be searched
+     * @param key
+     *            the key to be searched for
+     * @return the index of {@code key} in {@code table}, or -1
+     * @requires <pre>
+     * [|table| is a power of 2]  and  [table contains at least one null]
+     * </pre>
+     * @ensures <pre>
+     * if key is in entries(table) then table[indexOf] = key
+     * else indexOf = -1
+     * </pre>
+     */
+    private static <K> int indexOf(K[] table, K key) {
+        int mask = table.length - 1;
+        int i = spread(key.hashCode()) & mask;
+        int index = -1;
+        while (index < 0 && table[i] != null) {
+            if (table[i] != TOMBSTONE && table[i].equals(key)) {
+                index = i;
+            }
+            i = (i + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Places ({@code key}, {@code value}) in the first free slot on the probe
+     * sequence of {@code key} in the current table.
+     *
+     * @param key
+     *            the key to be placed
+     * @param value
+     *            the value to be placed
+     * @updates this.keys, this.values, this.firstNonEmpty
+     * @requires <pre>
+     * key is not in entries($this.keys)  and
+     * [$this.keys contains at least two nulls]
+     * </pre>
+     * @ensures <pre>
+     * [(key, value) is placed in $this.keys and $this.values]
+     * </pre>
+     */
+    private void place(K key, V value) {
+        int mask = this.keys.length - 1;
+        int i = spread(key.hashCode()) & mask;
+        while (this.keys[i] != null) {
+            i = (i + 1) & mask;
+        }
+        this.keys[i] = key;
+        this.values[i] = value;
+        this.firstNonEmpty = Math.min(this.firstNonEmpty, i);
+    }
+
+    /**
+     * Empties slot {@code i} of the current table and shifts back any later
+     * entries of the same probe run that could otherwise no longer be reached.
+     *
+     * @param i
+     *            the index of the slot to be emptied
+     * @updates this.keys, this.values
+     * @requires 0 <= i < |$this.keys|  and  $this.keys[i] /= null
+     * @ensures <pre>
+     * [the entry at slot i of #$this.keys is gone, and every other entry is
+     *  still reachable by linear probing]
+     * </pre>
+     */
+    private void deleteSlot(int i) {
+        int mask = this.keys.length - 1;
+        int hole = i;
+        int j = (hole + 1) & mask;
+        while (this.keys[j] != null) {
+            int home = spread(this.keys[j].hashCode()) & mask;
+            /*
+             * The entry at j may move into the hole unless its home slot lies
+             * cyclically in (hole, j]
+             */
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                this.keys[hole] = this.keys[j];
+                this.values[hole] = this.values[j];
+                hole = j;
+            }
+            j = (j + 1) & mask;
+        }
+        this.keys[hole] = null;
+        this.values[hole] = null;
+    }
+
+    /**
+     * Moves up to {@code steps} slots of the old table into the current table,
+     * and drops the old table once it is empty.
+     *
+     * @param steps
+     *            the maximum number of old-table slots to move
+     * @updates this
+     * @requires steps > 0
+     * @ensures this = #this
+     */
+    @SuppressWarnings("unchecked")
+    private void migrate(int steps) {
+        int stop = Math.min(this.migrated + steps, this.oldKeys.length);
+        while (this.migrated < stop) {
+            K key = this.oldKeys[this.migrated];
+            if (key != null && key != TOMBSTONE) {
+                this.place(key, this.oldValues[this.migrated]);
+                this.count++;
+                this.oldCount--;
+                /*
+                 * Leave a marker rather than a null so that probe runs of the
+                 * remaining old entries are not cut short
+                 */
+                this.oldKeys[this.migrated] = (K) TOMBSTONE;
+                this.oldValues[this.migrated] = null;
+            }
+            this.migrated++;
+        }
+        if (this.oldCount == 0 || this.migrated == this.oldKeys.length) {
+            this.oldKeys = null;
+            this.oldValues = null;
+            this.oldCount = 0;
+            this.migrated = 0;
+        }
+    }
+
+    /**
+     * Makes room for one more entry in the current table, starting a migration
+     * to a table twice as large if the current one is too full.
+     *
+     * @updates this
+     * @ensures this = #this  and  4 * ($this.count + 1) < 3 * |$this.keys|
+     */
+    @SuppressWarnings("unchecked")
+    private void ensureRoomForOne() {
+        if (4 * (this.count + 1) >= 3 * this.keys.length) {
+            /*
+             * A migration always ends before the current table fills up:
+             * the old table held fewer than 3/4 * |$this.oldKeys| entries, and
+             * each add moves MIGRATION_STEP old slots before placing one new
+             * entry, so the current table has fewer than
+             * (3/4 + 1/MIGRATION_STEP) * |$this.oldKeys| entries by the time
+             * the last old slot is moved, well below its maximum load of
+             * 3/2 * |$this.oldKeys|
+             */
+            assert this.oldKeys == null : ""
+                    + "Violation of: no migration is in progress";
+            this.oldKeys = this.keys;
+            this.oldValues = this.values;
+            this.oldCount = this.count;
+            this.migrated = 0;
+            /*
+             * With "new K[...]" in place of "new Object[...]" it does not
+             * compile; as shown, it results in a warning about an unchecked
+             * cast, though it cannot fail.
+             */
+            this.keys = (K[]) new Object[2 * this.oldKeys.length];
+            this.values = (V[]) new Object[2 * this.oldKeys.length];
+            this.count = 0;
+            this.firstNonEmpty = this.keys.length;
+        }
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param hashTableSize
+     *            the requested size of the hash table
+     * @requires hashTableSize > 0
+     * @ensures <pre>
+     * |$this.keys| = tableSizeFor(hashTableSize)  and
+     * [all entries of $this.keys and $this.values are null]  and
+     * $this.count = 0  and  $this.oldKeys = null
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep(int hashTableSize) {
+        int size = tableSizeFor(hashTableSize);
+        this.keys = (K[]) new Object[size];
+        this.values = (V[]) new Object[size];
+        this.count = 0;
+        this.firstNonEmpty = size;
+        this.oldKeys = null;
+        this.oldValues = null;
+        this.oldCount = 0;
+        this.migrated = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Map4a() {
+
+        this.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+
+    }
+
+    /**
+     * Constructor resulting in a hash table of at least {@code hashTableSize}
+     * slots.
+     *
+     * @param hashTableSize
+     *            initial size of hash table
+     * @requires hashTableSize > 0
+     * @ensures this = {}
+     */
+    public Map4a(int hashTableSize) {
+
+        this.createNewRep(hashTableSize);
+
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Map<K, V> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+    }
+
+    @Override
+    public final void transferFrom(Map<K, V> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Map4a<?, ?> : ""
+                + "Violation of: source is of dynamic type Map4a<?,?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Map4a<?,?>,
+         * and the ?,? must be K,V or the call would not have compiled.
+         */
+        Map4a<K, V> localSource = (Map4a<K, V>) source;
+        this.keys = localSource.keys;
+        this.values = localSource.values;
+        this.count = localSource.count;
+        this.firstNonEmpty = localSource.firstNonEmpty;
+        this.oldKeys = localSource.oldKeys;
+        this.oldValues = localSource.oldValues;
+        this.oldCount = localSource.oldCount;
+        this.migrated = localSource.migrated;
+        localSource.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
+        if (this.oldKeys != null) {
+            this.migrate(MIGRATION_STEP);
+        }
+        this.ensureRoomForOne();
+        this.place(key, value);
+        this.count++;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Pair<K, V> remove(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+        if (this.oldKeys != null) {
+            this.migrate(MIGRATION_STEP);
+        }
+        Pair<K, V> removed;
+        int i = indexOf(this.keys, key);
+        if (i >= 0) {
+            removed = new SimplePair<>(this.keys[i], this.values[i]);
+            this.deleteSlot(i);
+            this.count--;
+        } else {
+            i = indexOf(this.oldKeys, key);
+            removed = new SimplePair<>(this.oldKeys[i], this.oldValues[i]);
+            this.oldKeys[i] = (K) TOMBSTONE;
+            this.oldValues[i] = null;
+            this.oldCount--;
+            if (this.oldCount == 0) {
+                this.oldKeys = null;
+                this.oldValues = null;
+                this.migrated = 0;
+            }
+        }
+        return removed;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Pair<K, V> removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+        if (this.oldKeys != null) {
+            this.migrate(MIGRATION_STEP);
+        }
+        Pair<K, V> removed;
+        if (this.count > 0) {
+            while (this.keys[this.firstNonEmpty] == null) {
+                this.firstNonEmpty++;
+            }
+            int i = this.firstNonEmpty;
+            removed = new SimplePair<>(this.keys[i], this.values[i]);
+            /*
+             * deleteSlot only shifts entries into slots that were occupied,
+             * so every slot before firstNonEmpty stays null
+             */
+            this.deleteSlot(i);
+            this.count--;
+        } else {
+            /*
+             * Every entry left is in the old table, at or after the migration
+             * front
+             */
+            while (this.oldKeys[this.migrated] == null
+                    || this.oldKeys[this.migrated] == TOMBSTONE) {
+                this.migrated++;
+            }
+            int i = this.migrated;
+            removed = new SimplePair<>(this.oldKeys[i], this.oldValues[i]);
+            this.oldKeys[i] = (K) TOMBSTONE;
+            this.oldValues[i] = null;
+            this.oldCount--;
+            this.migrated++;
+            if (this.oldCount == 0) {
+                this.oldKeys = null;
+                this.oldValues = null;
+                this.migrated = 0;
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public final V value(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+        if (this.oldKeys != null) {
+            this.migrate(MIGRATION_STEP);
+        }
+        V value;
+        int i = indexOf(this.keys, key);
+        if (i >= 0) {
+            value = this.values[i];
+        } else {
+            value = this.oldValues[indexOf(this.oldKeys, key)];
+        }
+        return value;
+    }
+
+    @Override
+    public final boolean hasKey(K key) {
+        assert key != null : "Violation of: key is not null";
+        return indexOf(this.keys, key) >= 0 || (this.oldKeys != null
+                && indexOf(this.oldKeys, key) >= 0);
+    }
+
+    @Override
+    public final int size() {
+        return this.count + this.oldCount;
+    }
+
+    @Override
+    public final Iterator<Pair<K, V>> iterator() {
+        return new Map4aIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Map4a}.
+     */
+    private final class Map4aIterator implements Iterator<Pair<K, V>> {
+
+        /**
+         * Number of elements seen already (i.e., |~this.seen|).
+         */
+        private int numberSeen;
+
+        /**
+         * Index of the next slot to look at, counting the slots of the current
+         * table first and then those of the old table.
+         */
+        private int slot;
+
+        /**
+         * No-argument constructor.
+         */
+        Map4aIterator() {
+            this.numberSeen = 0;
+            this.slot = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.numberSeen < Map4a.this.size();
+        }
+
+        @Override
+        public Pair<K, V> next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            this.numberSeen++;
+            K[] table = Map4a.this.keys;
+            V[] tableValues = Map4a.this.values;
+            int i = this.slot;
+            if (i >= table.length) {
+                table = Map4a.this.oldKeys;
+                tableValues = Map4a.this.oldValues;
+                i -= Map4a.this.keys.length;
+            }
+            while (table[i] == null || table[i] == TOMBSTONE) {
+                i++;
+                this.slot++;
+                if (i == table.length) {
+                    table = Map4a.this.oldKeys;
+                    tableValues = Map4a.this.oldValues;
+                    i = 0;
+                }
+            }
+            this.slot++;
+            return new SimplePair<>(table[i], tableValues[i]);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
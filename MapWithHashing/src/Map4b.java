@@ -0,0 +1,514 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.map.Map;
+import components.map.Map1L;
+import components.map.MapSecondary;
+
+/**
+ * {@code Map} represented as a hash table using {@code Map}s for the buckets
+ * that grows as entries are added, with implementations of primary methods.
+ *
+ * <p>
+ * When the number of entries exceeds the number of buckets, the hash table is
+ * replaced by one about twice as large. In stop-the-world mode all entries are
+ * rehashed at once by the call that triggers the growth. In incremental mode
+ * each later call of {@code add}, {@code remove}, and {@code value} moves a
+ * bounded number of buckets from the old table to the new one, and lookups
+ * consult both tables until the old one is empty.
+ * </p>
+ *
+ * <p>
+ * {@code removeAny} resumes its search for a non-empty bucket where the last
+ * search stopped, so emptying the map with {@code removeAny} takes time
+ * proportional to its size plus its number of buckets, not their product.
+ * </p>
+ *
+ * @param <K>
+ *            type of {@code Map} domain (key) entries
+ * @param <V>
+ *            type of {@code Map} range (associated value) entries
+ * @convention <pre>
+ * |$this.hashTable| > 0  and
+ * for all i: integer, pf: PARTIAL_FUNCTION, x: K
+ *     where (0 <= i  and  i < |$this.hashTable|  and
+ *            <pf> = $this.hashTable[i, i+1)  and
+ *            x is in DOMAIN(pf))
+ *   ([computed result of x.hashCode()] mod |$this.hashTable| = i))  and
+ * for all i: integer
+ *     where (0 <= i  and  i < |$this.hashTable|)
+ *   ([entry at position i in $this.hashTable is not null])  and
+ * 0 <= $this.firstNonEmpty <= |$this.hashTable|  and
+ * [every bucket of $this.hashTable before index $this.firstNonEmpty is
+ *  empty]  and
+ * if $this.oldTable = null then
+ *   $this.migrated = 0
+ * else
+ *   0 <= $this.migrated <= |$this.oldTable|  and
+ *   [$this.oldTable satisfies the same conditions as $this.hashTable]  and
+ *   [every bucket of $this.oldTable before index $this.migrated is empty]  and
+ *   [no key is in both $this.hashTable and $this.oldTable]  and
+ * $this.size = [total number of entries in the buckets of $this.hashTable
+ *               and $this.oldTable]
+ * </pre>
+ * @correspondence <pre>
+ * this = [union of the buckets of $this.hashTable and $this.oldTable]
+ * </pre>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public class Map4b<K, V> extends MapSecondary<K, V> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default size of hash table.
+     */
+    private static final int DEFAULT_HASH_TABLE_SIZE = 101;
+
+    /**
+     * Number of old buckets moved to the new hash table by each call of
+     * {@code add}, {@code remove}, or {@code value} in incremental mode.
+     */
+    private static final int MIGRATION_STEP = 4;
+
+    /**
+     * Whether growth is spread over later calls rather than done at once.
+     */
+    private final boolean incremental;
+
+    /**
+     * Buckets for hashing.
+     */
+    private Map<K, V>[] hashTable;
+
+    /**
+     * Index in {@code hashTable} before which every bucket is empty, so that
+     * {@code removeAny} need not scan those buckets again.
+     */
+    private int firstNonEmpty;
+
+    /**
+     * Buckets of the hash table being migrated, or null.
+     */
+    private Map<K, V>[] oldTable;
+
+    /**
+     * Index of the next bucket of {@code oldTable} to be migrated.
+     */
+    private int migrated;
+
+    /**
+     * Total size of abstract {@code this}.
+     */
+    private int size;
+
+    /**
+     * Computes {@code a} mod {@code b} as % should have been defined to work.
+     *
+     * @param a
+     *            the number being reduced
+     * @param b
+     *            the modulus
+     * @return the result of a mod b, which satisfies 0 <= {@code mod} < b
+     * @requires b > 0
+     * @ensures <pre>
+     * 0 <= mod  and  mod < b  and
+     * there exists k: integer (a = k * b + mod)
+     * </pre>
+     */
+    private static int mod(int a, int b) {
+        assert b > 0 : "Violation of: b > 0";
+        int mod = a % b;
+        if (mod < 0) {
+            mod += b;
+        }
+        return mod;
+    }
+
+    /**
+     * Returns a new hash table of {@code hashTableSize} empty buckets.
+     *
+     * @param <K>
+     *            type of keys
+     * @param <V>
+     *            type of values
+     * @param hashTableSize
+     *            the size of the hash table
+     * @return the new hash table
+     * @requires hashTableSize > 0
+     * @ensures <pre>
+     * |newTable| = hashTableSize  and
+     * for all i: integer
+     *     where (0 <= i  and  i < |newTable|)
+     *   (newTable[i, i+1) = <{}>)
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private static <K, V> Map<K, V>[] newTable(int hashTableSize) {
+        /*
+         * With "new Map<K, V>[...]" in place of "new Map[...]" it does not
+         * compile; as shown, it results in a warning about an unchecked
+         * conversion, though it cannot fail.
+         */
+        Map<K, V>[] table = new Map[hashTableSize];
+        for (int i = 0; i < hashTableSize; i++) {
+            table[i] = new Map1L<K, V>();
+        }
+        return table;
+    }
+
+    /**
+     * Returns the bucket of {@code key} in the old hash table if that bucket
+     * has not been migrated yet, or null otherwise.
+     *
+     * @param key
+     *            the key
+     * @return the unmigrated old bucket of {@code key}, or null
+     */
+    private Map<K, V> oldBucket(K key) {
+        Map<K, V> bucket = null;
+        if (this.oldTable != null) {
+            int i = mod(key.hashCode(), this.oldTable.length);
+            if (i >= this.migrated) {
+                bucket = this.oldTable[i];
+            }
+        }
+        return bucket;
+    }
+
+    /**
+     * Moves up to {@code steps} buckets of the old hash table into the new
+     * one, and drops the old hash table once all of its buckets are moved.
+     *
+     * @param steps
+     *            the maximum number of buckets to move
+     * @updates this
+     * @requires steps > 0
+     * @ensures this = #this
+     */
+    private void migrate(int steps) {
+        int stop = Math.min(this.migrated + steps, this.oldTable.length);
+        while (this.migrated < stop) {
+            Map<K, V> bucket = this.oldTable[this.migrated];
+            while (bucket.size() > 0) {
+                Pair<K, V> p = bucket.removeAny();
+                int i = mod(p.key().hashCode(), this.hashTable.length);
+                this.hashTable[i].add(p.key(), p.value());
+                this.firstNonEmpty = Math.min(this.firstNonEmpty, i);
+            }
+            this.migrated++;
+        }
+        if (this.migrated == this.oldTable.length) {
+            this.oldTable = null;
+            this.migrated = 0;
+        }
+    }
+
+    /**
+     * Moves some buckets of the old hash table, if any, into the new one.
+     *
+     * @updates this
+     * @ensures this = #this
+     */
+    private void migrateStep() {
+        if (this.oldTable != null) {
+            this.migrate(MIGRATION_STEP);
+        }
+    }
+
+    /**
+     * Replaces the hash table by one about twice as large if {@code this} has
+     * more entries than buckets.
+     *
+     * @updates this
+     * @ensures this = #this
+     */
+    private void growIfFull() {
+        if (this.size > this.hashTable.length) {
+            if (this.oldTable != null) {
+                this.migrate(this.oldTable.length);
+            }
+            this.oldTable = this.hashTable;
+            this.migrated = 0;
+            this.hashTable = newTable(2 * this.oldTable.length + 1);
+            this.firstNonEmpty = this.hashTable.length;
+            if (!this.incremental) {
+                this.migrate(this.oldTable.length);
+            }
+        }
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param hashTableSize
+     *            the size of the hash table
+     * @requires hashTableSize > 0
+     * @ensures <pre>
+     * |$this.hashTable| = hashTableSize  and
+     * for all i: integer
+     *     where (0 <= i  and  i < |$this.hashTable|)
+     *   ($this.hashTable[i, i+1) = <{}>)  and
+     * $this.firstNonEmpty = hashTableSize  and
+     * $this.oldTable = null  and
+     * $this.size = 0
+     * </pre>
+     */
+    private void createNewRep(int hashTableSize) {
+        this.hashTable = newTable(hashTableSize);
+        this.firstNonEmpty = hashTableSize;
+        this.oldTable = null;
+        this.migrated = 0;
+        this.size = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor, using incremental growth.
+     */
+    public Map4b() {
+
+        this(DEFAULT_HASH_TABLE_SIZE, true);
+
+    }
+
+    /**
+     * Constructor resulting in a hash table of initial size
+     * {@code hashTableSize}, growing incrementally if {@code incremental} and
+     * all at once otherwise.
+     *
+     * @param hashTableSize
+     *            initial size of hash table
+     * @param incremental
+     *            whether growth is spread over later calls
+     * @requires hashTableSize > 0
+     * @ensures this = {}
+     */
+    public Map4b(int hashTableSize, boolean incremental) {
+
+        this.incremental = incremental;
+        this.createNewRep(hashTableSize);
+
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Map<K, V> newInstance() {
+        try {
+            return this.getClass()
+                    .getConstructor(int.class, boolean.class)
+                    .newInstance(DEFAULT_HASH_TABLE_SIZE, this.incremental);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+    }
+
+    @Override
+    public final void transferFrom(Map<K, V> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Map4b<?, ?> : ""
+                + "Violation of: source is of dynamic type Map4b<?,?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Map4b<?,?>,
+         * and the ?,? must be K,V or the call would not have compiled.
+         */
+        Map4b<K, V> localSource = (Map4b<K, V>) source;
+        this.hashTable = localSource.hashTable;
+        this.firstNonEmpty = localSource.firstNonEmpty;
+        this.oldTable = localSource.oldTable;
+        this.migrated = localSource.migrated;
+        this.size = localSource.size;
+        localSource.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
+        this.migrateStep();
+        this.size++;
+        int bucket = mod(key.hashCode(), this.hashTable.length);
+        this.hashTable[bucket].add(key, value);
+        this.firstNonEmpty = Math.min(this.firstNonEmpty, bucket);
+        this.growIfFull();
+    }
+
+    @Override
+    public final Pair<K, V> remove(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+        this.migrateStep();
+        this.size--;
+        int i = mod(key.hashCode(), this.hashTable.length);
+        Map<K, V> bucket = this.hashTable[i];
+        if (!bucket.hasKey(key)) {
+            bucket = this.oldBucket(key);
+        } else if (i == this.firstNonEmpty && bucket.size() == 1) {
+            this.firstNonEmpty++;
+        }
+        return bucket.remove(key);
+    }
+
+    @Override
+    public final Pair<K, V> removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+        this.migrateStep();
+        this.size--;
+        /*
+         * Resume the scan at the first bucket not known to be empty; if every
+         * bucket of the new table is empty, the entry is in an unmigrated old
+         * bucket, and skipping empty old buckets migrates them, since they
+         * have nothing to move, so neither scan goes over a bucket twice
+         * between growths
+         */
+        while (this.firstNonEmpty < this.hashTable.length
+                && this.hashTable[this.firstNonEmpty].size() == 0) {
+            this.firstNonEmpty++;
+        }
+        Map<K, V> bucket;
+        if (this.firstNonEmpty < this.hashTable.length) {
+            bucket = this.hashTable[this.firstNonEmpty];
+        } else {
+            while (this.oldTable[this.migrated].size() == 0) {
+                this.migrated++;
+            }
+            bucket = this.oldTable[this.migrated];
+        }
+        return bucket.removeAny();
+    }
+
+    @Override
+    public final V value(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+        this.migrateStep();
+        Map<K, V> bucket = this.hashTable[mod(key.hashCode(),
+                this.hashTable.length)];
+        if (!bucket.hasKey(key)) {
+            bucket = this.oldBucket(key);
+        }
+        return bucket.value(key);
+    }
+
+    @Override
+    public final boolean hasKey(K key) {
+        assert key != null : "Violation of: key is not null";
+        int bucket = mod(key.hashCode(), this.hashTable.length);
+        boolean hasKey = this.hashTable[bucket].hasKey(key);
+        if (!hasKey) {
+            Map<K, V> old = this.oldBucket(key);
+            hasKey = old != null && old.hasKey(key);
+        }
+        return hasKey;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<Pair<K, V>> iterator() {
+        return new Map4bIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Map4b}.
+     */
+    private final class Map4bIterator implements Iterator<Pair<K, V>> {
+
+        /**
+         * Number of elements seen already (i.e., |~this.seen|).
+         */
+        private int numberSeen;
+
+        /**
+         * Hash table from which current bucket iterator comes.
+         */
+        private Map<K, V>[] currentTable;
+
+        /**
+         * Bucket from which current bucket iterator comes.
+         */
+        private int currentBucket;
+
+        /**
+         * Bucket iterator from which next element will come.
+         */
+        private Iterator<Pair<K, V>> bucketIterator;
+
+        /**
+         * No-argument constructor.
+         */
+        Map4bIterator() {
+            this.numberSeen = 0;
+            this.currentTable = Map4b.this.hashTable;
+            this.currentBucket = 0;
+            this.bucketIterator = this.currentTable[0].iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.numberSeen < Map4b.this.size;
+        }
+
+        @Override
+        public Pair<K, V> next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            this.numberSeen++;
+            while (!this.bucketIterator.hasNext()) {
+                this.currentBucket++;
+                if (this.currentBucket == this.currentTable.length) {
+                    /*
+                     * Only unmigrated buckets of the old table are left
+                     */
+                    this.currentTable = Map4b.this.oldTable;
+                    this.currentBucket = Map4b.this.migrated;
+                }
+                this.bucketIterator = this.currentTable[this.currentBucket]
+                        .iterator();
+            }
+            return this.bucketIterator.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
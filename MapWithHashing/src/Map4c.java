@@ -0,0 +1,660 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.map.Map;
+import components.map.MapSecondary;
+
+/**
+ * {@code Map<String, Integer>} represented as an open-addressing hash table
+ * (linear probing over a {@code String} key array and a parallel {@code int}
+ * count array), with implementations of primary methods and of
+ * {@code increment} and {@code addTo}, which update a count with a single
+ * probe and without boxing.
+ *
+ * <p>
+ * Besides whole {@code String} keys, counts can be updated for a word given as
+ * a range of characters in a longer {@code String}, so that counting the words
+ * of a line allocates a new {@code String} only for a word that is not yet a
+ * key.
+ * </p>
+ *
+ * <p>
+ * This is the canonical copy of this class. TagCloud and WordCounter, which are
+ * built as separate projects, each keep a copy of it (identical apart from this
+ * paragraph); a fix made here must be made to both copies too.
+ * </p>
+ *
+ * @convention <pre>
+ * |$this.keys| = |$this.counts|  and
+ * [|$this.keys| is a power of 2]  and
+ * 4 * $this.size < 3 * |$this.keys|  and
+ * 0 <= $this.firstNonEmpty <= |$this.keys|  and
+ * [every entry of $this.keys before index $this.firstNonEmpty is null]  and
+ * [every key in $this.keys is reachable by linear probing from slot
+ *  (SPREAD(key.hashCode()) mod |$this.keys|) without passing a null key]  and
+ * $this.size = [number of non-null entries in $this.keys]
+ * </pre>
+ * @correspondence <pre>
+ * this = {(key, count): (string of character, integer)
+ *          where ([key and count are at the same index of $this.keys and
+ *                  $this.counts])}
+ * </pre>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public class Map4c extends MapSecondary<String, Integer> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default size of hash table.
+     */
+    private static final int DEFAULT_HASH_TABLE_SIZE = 1024;
+
+    /**
+     * Smallest size of hash table.
+     */
+    private static final int MIN_HASH_TABLE_SIZE = 2;
+
+    /**
+     * Multiplier of the polynomial hash computed by {@code String.hashCode}.
+     */
+    private static final int HASH_MULTIPLIER = 31;
+
+    /**
+     * Keys of the hash table.
+     */
+    private String[] keys;
+
+    /**
+     * Counts of the hash table, parallel to {@code keys}.
+     */
+    private int[] counts;
+
+    /**
+     * Index in {@code keys} before which every slot is null, so that
+     * {@code removeAny} need not scan those slots again.
+     */
+    private int firstNonEmpty;
+
+    /**
+     * Total size of abstract {@code this}.
+     */
+    private int size;
+
+    /**
+     * Mixes the high bits of {@code h} into the low bits, so that the low bits
+     * used to pick a slot depend on the whole hash code.
+     *
+     * @param h
+     *            the hash code
+     * @return the spread hash code
+     */
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the hash code of {@code text[start, end)}, computed the same way
+     * as {@code String.hashCode}.
+     *
+     * @param text
+     *            the text containing the word
+     * @param start
+     *            the index of the first character of the word
+     * @param end
+     *            the index after the last character of the word
+     * @return the hash code of the word
+     * @requires 0 <= start <= end <= |text|
+     * @ensures hashCode = [text[start, end).hashCode()]
+     */
+    private static int hashCode(String text, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = HASH_MULTIPLIER * h + text.charAt(i);
+        }
+        return h;
+    }
+
+    /**
+     * Reports whether {@code key} is the word {@code text[start, end)}.
+     *
+     * @param key
+     *            the key
+     * @param text
+     *            the text containing the word
+     * @param start
+     *            the index of the first character of the word
+     * @param end
+     *            the index after the last character of the word
+     * @return true iff key = text[start, end)
+     * @requires 0 <= start <= end <= |text|
+     * @ensures isWord = (key = text[start, end))
+     */
+    private static boolean isWord(String key, String text, int start,
+            int end) {
+        return key.length() == end - start
+                && key.regionMatches(0, text, start, end - start);
+    }
+
+    /**
+     * Returns the smallest power of 2 that is at least {@code n} (and at least
+     * {@code MIN_HASH_TABLE_SIZE}).
+     *
+     * @param n
+     *            the requested size
+     * @return the table size
+     * @requires n > 0
+     * @ensures <pre>
+     * [tableSizeFor is a power of 2]  and  tableSizeFor >= n  and
+     * tableSizeFor >= MIN_HASH_TABLE_SIZE
+     * </pre>
+     */
+    private static int tableSizeFor(int n) {
+        assert n > 0 : "Violation of: n > 0";
+        int size = MIN_HASH_TABLE_SIZE;
+        while (size < n) {
+            size *= 2;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the slot holding {@code key} or, if {@code key} is not in
+     * {@code this}, the null slot where it would be placed.
+     *
+     * @param key
+     *            the key
+     * @return the slot for {@code key}
+     * @ensures <pre>
+     * if key is in DOMAIN(this) then $this.keys[slotOf] = key
+     * else $this.keys[slotOf] = null  and
+     *      [slotOf is the slot where linear probing for key stops]
+     * </pre>
+     */
+    private int slotOf(String key) {
+        int mask = this.keys.length - 1;
+        int i = spread(key.hashCode()) & mask;
+        while (this.keys[i] != null && !this.keys[i].equals(key)) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the slot holding the word {@code text[start, end)} or, if that
+     * word is not in {@code this}, the null slot where it would be placed.
+     *
+     * @param text
+     *            the text containing the word
+     * @param start
+     *            the index of the first character of the word
+     * @param end
+     *            the index after the last character of the word
+     * @return the slot for the word
+     * @requires 0 <= start <= end <= |text|
+     * @ensures <pre>
+     * if text[start, end) is in DOMAIN(this)
+     * then $this.keys[slotOf] = text[start, end)
+     * else $this.keys[slotOf] = null  and
+     *      [slotOf is the slot where linear probing for text[start, end)
+     *       stops]
+     * </pre>
+     */
+    private int slotOf(String text, int start, int end) {
+        int mask = this.keys.length - 1;
+        int i = spread(hashCode(text, start, end)) & mask;
+        while (this.keys[i] != null
+                && !isWord(this.keys[i], text, start, end)) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * Empties slot {@code i} and shifts back any later entries of the same
+     * probe run that could otherwise no longer be reached.
+     *
+     * @param i
+     *            the index of the slot to be emptied
+     * @updates this.keys, this.counts
+     * @requires 0 <= i < |$this.keys|  and  $this.keys[i] /= null
+     * @ensures <pre>
+     * [the entry at slot i of #$this.keys is gone, and every other entry is
+     *  still reachable by linear probing]
+     * </pre>
+     */
+    private void deleteSlot(int i) {
+        int mask = this.keys.length - 1;
+        int hole = i;
+        int j = (hole + 1) & mask;
+        while (this.keys[j] != null) {
+            int home = spread(this.keys[j].hashCode()) & mask;
+            /*
+             * The entry at j may move into the hole unless its home slot lies
+             * cyclically in (hole, j]
+             */
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                this.keys[hole] = this.keys[j];
+                this.counts[hole] = this.counts[j];
+                hole = j;
+            }
+            j = (j + 1) & mask;
+        }
+        this.keys[hole] = null;
+        this.counts[hole] = 0;
+    }
+
+    /**
+     * Stores ({@code key}, {@code count}) in the null slot {@code i} and, if
+     * the table is then too full, rehashes everything into a table twice as
+     * large.
+     *
+     * @param i
+     *            the slot where {@code key} belongs
+     * @param key
+     *            the new key
+     * @param count
+     *            the count of the new key
+     * @updates this
+     * @requires <pre>
+     * key is not in DOMAIN(this)  and  $this.keys[i] = null  and
+     * [slot i is where linear probing for key stops]
+     * </pre>
+     * @ensures this = #this union {(key, count)}
+     */
+    private void insertAt(int i, String key, int count) {
+        this.keys[i] = key;
+        this.counts[i] = count;
+        this.firstNonEmpty = Math.min(this.firstNonEmpty, i);
+        this.size++;
+        if (4 * this.size >= 3 * this.keys.length) {
+            String[] oldKeys = this.keys;
+            int[] oldCounts = this.counts;
+            this.keys = new String[2 * oldKeys.length];
+            this.counts = new int[2 * oldKeys.length];
+            this.firstNonEmpty = this.keys.length;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != null) {
+                    int slot = this.slotOf(oldKeys[j]);
+                    this.keys[slot] = oldKeys[j];
+                    this.counts[slot] = oldCounts[j];
+                    this.firstNonEmpty = Math.min(this.firstNonEmpty, slot);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param hashTableSize
+     *            the requested size of the hash table
+     * @requires hashTableSize > 0
+     * @ensures <pre>
+     * |$this.keys| = tableSizeFor(hashTableSize)  and
+     * [all entries of $this.keys are null]  and
+     * $this.firstNonEmpty = |$this.keys|  and  $this.size = 0
+     * </pre>
+     */
+    private void createNewRep(int hashTableSize) {
+        int tableSize = tableSizeFor(hashTableSize);
+        this.keys = new String[tableSize];
+        this.counts = new int[tableSize];
+        this.firstNonEmpty = tableSize;
+        this.size = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Map4c() {
+
+        this.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+
+    }
+
+    /**
+     * Constructor resulting in a hash table of at least {@code hashTableSize}
+     * slots.
+     *
+     * @param hashTableSize
+     *            initial size of hash table
+     * @requires hashTableSize > 0
+     * @ensures this = {}
+     */
+    public Map4c(int hashTableSize) {
+
+        this.createNewRep(hashTableSize);
+
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @Override
+    public final Map<String, Integer> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+    }
+
+    @Override
+    public final void transferFrom(Map<String, Integer> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Map4c : ""
+                + "Violation of: source is of dynamic type Map4c";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case.
+         */
+        Map4c localSource = (Map4c) source;
+        this.keys = localSource.keys;
+        this.counts = localSource.counts;
+        this.firstNonEmpty = localSource.firstNonEmpty;
+        this.size = localSource.size;
+        localSource.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(String key, Integer value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
+        this.insertAt(this.slotOf(key), key, value);
+    }
+
+    @Override
+    public final Pair<String, Integer> remove(String key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+        int i = this.slotOf(key);
+        Pair<String, Integer> removed = new SimplePair<>(this.keys[i],
+                this.counts[i]);
+        this.deleteSlot(i);
+        this.size--;
+        return removed;
+    }
+
+    @Override
+    public final Pair<String, Integer> removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+        /*
+         * Deleting a slot only fills slots that held entries already, so every
+         * slot before firstNonEmpty stays null, and the scan resumes there
+         */
+        while (this.keys[this.firstNonEmpty] == null) {
+            this.firstNonEmpty++;
+        }
+        int i = this.firstNonEmpty;
+        Pair<String, Integer> removed = new SimplePair<>(this.keys[i],
+                this.counts[i]);
+        this.deleteSlot(i);
+        this.size--;
+        return removed;
+    }
+
+    @Override
+    public final Integer value(String key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+        return this.counts[this.slotOf(key)];
+    }
+
+    @Override
+    public final boolean hasKey(String key) {
+        assert key != null : "Violation of: key is not null";
+        return this.keys[this.slotOf(key)] != null;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<Pair<String, Integer>> iterator() {
+        return new Map4cIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Map4c}.
+     */
+    private final class Map4cIterator
+            implements Iterator<Pair<String, Integer>> {
+
+        /**
+         * Number of elements seen already (i.e., |~this.seen|).
+         */
+        private int numberSeen;
+
+        /**
+         * Index of the next slot to look at.
+         */
+        private int slot;
+
+        /**
+         * No-argument constructor.
+         */
+        Map4cIterator() {
+            this.numberSeen = 0;
+            this.slot = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.numberSeen < Map4c.this.size;
+        }
+
+        @Override
+        public Pair<String, Integer> next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            this.numberSeen++;
+            while (Map4c.this.keys[this.slot] == null) {
+                this.slot++;
+            }
+            Pair<String, Integer> next = new SimplePair<>(
+                    Map4c.this.keys[this.slot], Map4c.this.counts[this.slot]);
+            this.slot++;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @Override
+    public final Integer replaceValue(String key, Integer value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+        int i = this.slotOf(key);
+        int old = this.counts[i];
+        this.counts[i] = value;
+        return old;
+    }
+
+    /*
+     * Counting methods -------------------------------------------------------
+     */
+
+    /**
+     * Adds {@code delta} to the count of {@code key}, first adding
+     * {@code key} with count 0 if it is not in {@code this}, and returns the
+     * new count.
+     *
+     * @param key
+     *            the key whose count is updated
+     * @param delta
+     *            the amount added to the count
+     * @return the new count of {@code key}
+     * @aliases reference key
+     * @updates this
+     * @ensures <pre>
+     * if key is in DOMAIN(#this) then
+     *   this = (#this \ {(key, #this(key))}) union
+     *          {(key, #this(key) + delta)}
+     * else
+     *   this = #this union {(key, delta)}  and
+     * addTo = this(key)
+     * </pre>
+     */
+    public final int addTo(String key, int delta) {
+        assert key != null : "Violation of: key is not null";
+        int i = this.slotOf(key);
+        int count = delta;
+        if (this.keys[i] != null) {
+            count += this.counts[i];
+            this.counts[i] = count;
+        } else {
+            this.insertAt(i, key, count);
+        }
+        return count;
+    }
+
+    /**
+     * Adds 1 to the count of {@code key}, first adding {@code key} with count
+     * 0 if it is not in {@code this}, and returns the new count.
+     *
+     * @param key
+     *            the key whose count is incremented
+     * @return the new count of {@code key}
+     * @aliases reference key
+     * @updates this
+     * @ensures <pre>
+     * if key is in DOMAIN(#this) then
+     *   this = (#this \ {(key, #this(key))}) union {(key, #this(key) + 1)}
+     * else
+     *   this = #this union {(key, 1)}  and
+     * increment = this(key)
+     * </pre>
+     */
+    public final int increment(String key) {
+        assert key != null : "Violation of: key is not null";
+        return this.addTo(key, 1);
+    }
+
+    /**
+     * Adds {@code delta} to the count of the word {@code text[start, end)},
+     * first adding that word with count 0 if it is not in {@code this}, and
+     * returns the new count. A new {@code String} is created only if the word
+     * is not yet in {@code this}.
+     *
+     * @param text
+     *            the text containing the word
+     * @param start
+     *            the index of the first character of the word
+     * @param end
+     *            the index after the last character of the word
+     * @param delta
+     *            the amount added to the count
+     * @return the new count of the word
+     * @updates this
+     * @requires 0 <= start <= end <= |text|
+     * @ensures <pre>
+     * if text[start, end) is in DOMAIN(#this) then
+     *   this = (#this \ {(text[start, end), #this(text[start, end)))}) union
+     *          {(text[start, end), #this(text[start, end)) + delta)}
+     * else
+     *   this = #this union {(text[start, end), delta)}  and
+     * addTo = this(text[start, end))
+     * </pre>
+     */
+    public final int addTo(String text, int start, int end, int delta) {
+        assert text != null : "Violation of: text is not null";
+        assert 0 <= start : "Violation of: 0 <= start";
+        assert start <= end : "Violation of: start <= end";
+        assert end <= text.length() : "Violation of: end <= |text|";
+        int i = this.slotOf(text, start, end);
+        int count = delta;
+        if (this.keys[i] != null) {
+            count += this.counts[i];
+            this.counts[i] = count;
+        } else {
+            this.insertAt(i, text.substring(start, end), count);
+        }
+        return count;
+    }
+
+    /**
+     * Adds 1 to the count of the word {@code text[start, end)}, first adding
+     * that word with count 0 if it is not in {@code this}, and returns the new
+     * count. A new {@code String} is created only if the word is not yet in
+     * {@code this}.
+     *
+     * @param text
+     *            the text containing the word
+     * @param start
+     *            the index of the first character of the word
+     * @param end
+     *            the index after the last character of the word
+     * @return the new count of the word
+     * @updates this
+     * @requires 0 <= start <= end <= |text|
+     * @ensures <pre>
+     * if text[start, end) is in DOMAIN(#this) then
+     *   this = (#this \ {(text[start, end), #this(text[start, end)))}) union
+     *          {(text[start, end), #this(text[start, end)) + 1)}
+     * else
+     *   this = #this union {(text[start, end), 1)}  and
+     * increment = this(text[start, end))
+     * </pre>
+     */
+    public final int increment(String text, int start, int end) {
+        return this.addTo(text, start, end, 1);
+    }
+
+    /**
+     * Returns the count of {@code key}, or 0 if {@code key} is not in
+     * {@code this}, without boxing.
+     *
+     * @param key
+     *            the key whose count is reported
+     * @return the count of {@code key}
+     * @ensures <pre>
+     * if key is in DOMAIN(this) then count = this(key) else count = 0
+     * </pre>
+     */
+    public final int count(String key) {
+        assert key != null : "Violation of: key is not null";
+        return this.counts[this.slotOf(key)];
+    }
+
+}
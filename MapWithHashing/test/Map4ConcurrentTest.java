@@ -0,0 +1,151 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code Map4Concurrent} using a small hash
+ * table, so that the tests grow the table, plus test cases for the atomic
+ * methods used from several threads.
+ */
+public class Map4ConcurrentTest extends MapTest {
+
+    /**
+     * Size of hash table to be used in tests.
+     */
+    private static final int TEST_HASH_TABLE_SIZE = 2;
+
+    /**
+     * Number of lock stripes to be used in tests.
+     */
+    private static final int TEST_STRIPES = 2;
+
+    /**
+     * Number of threads used in the concurrent test cases.
+     */
+    private static final int THREADS = 4;
+
+    /**
+     * Number of distinct keys used in the concurrent test cases.
+     */
+    private static final int KEYS = 500;
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new Map4Concurrent<String, String>(TEST_HASH_TABLE_SIZE,
+                TEST_STRIPES);
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+    /**
+     * Runs {@code task} on {@code THREADS} threads at once and waits for all
+     * of them to finish.
+     *
+     * @param task
+     *            the task to be run
+     */
+    private static void runOnThreads(Runnable task) {
+        Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            threads[i] = new Thread(task);
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                throw new AssertionError("Interrupted while joining");
+            }
+        }
+    }
+
+    @Test
+    public final void testMergeFromSeveralThreads() {
+        /*
+         * Set up variables
+         */
+        Map4Concurrent<String, Integer> m = new Map4Concurrent<>(
+                TEST_HASH_TABLE_SIZE, TEST_STRIPES);
+        Map<String, Integer> mExpected = new Map1L<>();
+        for (int i = 0; i < KEYS; i++) {
+            mExpected.add("k" + i, THREADS);
+        }
+        /*
+         * Call method under test
+         */
+        runOnThreads(() -> {
+            for (int i = 0; i < KEYS; i++) {
+                m.merge("k" + i, 1, Integer::sum);
+            }
+        });
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(mExpected, m);
+    }
+
+    @Test
+    public final void testAddIfAbsentFromSeveralThreads() {
+        /*
+         * Set up variables
+         */
+        Map4Concurrent<String, String> m = new Map4Concurrent<>(
+                TEST_HASH_TABLE_SIZE, TEST_STRIPES);
+        Map<String, String> mExpected = new Map1L<>();
+        for (int i = 0; i < KEYS; i++) {
+            mExpected.add("k" + i, "v" + i);
+        }
+        /*
+         * Call method under test
+         */
+        runOnThreads(() -> {
+            for (int i = 0; i < KEYS; i++) {
+                m.addIfAbsent("k" + i, "v" + i);
+            }
+        });
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(mExpected, m);
+        assertEquals(KEYS, m.size());
+    }
+
+    @Test
+    public final void testRemoveAnyFromSeveralThreads() {
+        /*
+         * Set up variables
+         */
+        Map4Concurrent<String, String> m = new Map4Concurrent<>(
+                TEST_HASH_TABLE_SIZE, TEST_STRIPES);
+        Map<String, String> mExpected = new Map1L<>();
+        for (int i = 0; i < KEYS * THREADS; i++) {
+            m.add("k" + i, "v" + i);
+            mExpected.add("k" + i, "v" + i);
+        }
+        Map<String, String> removed = new Map1L<>();
+        /*
+         * Call method under test; each thread removes KEYS entries, so this
+         * is never empty when a thread calls removeAny
+         */
+        runOnThreads(() -> {
+            for (int i = 0; i < KEYS; i++) {
+                Map.Pair<String, String> p = m.removeAny();
+                synchronized (removed) {
+                    removed.add(p.key(), p.value());
+                }
+            }
+        });
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(0, m.size());
+        assertEquals(mExpected, removed);
+    }
+
+}
@@ -0,0 +1,62 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code Map4a} using non-default constructor
+ * and hash table size 1, so that the tests grow the table.
+ */
+public class Map4aTest1 extends MapTest {
+
+    /**
+     * Size of hash table to be used in tests.
+     */
+    private static final int TEST_HASH_TABLE_SIZE = 1;
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new Map4a<String, String>(TEST_HASH_TABLE_SIZE);
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+    /**
+     * Tests that removeAny empties a map whose last growth is still migrating.
+     */
+    @Test
+    public final void testRemoveAnyDuringMigration() {
+        /*
+         * Set up variables; 97 entries leave the table from its last doubling
+         * (at 96 entries) part way through migration
+         */
+        final int n = 97;
+        Map<String, String> m = this.constructorTest();
+        Map<String, String> mExpected = this.constructorRef();
+        for (int i = 0; i < n; i++) {
+            m.add(Integer.toString(i), "v" + i);
+            mExpected.add(Integer.toString(i), "v" + i);
+        }
+        /*
+         * Call method under test
+         */
+        while (m.size() > 0) {
+            Map.Pair<String, String> p = m.removeAny();
+            assertTrue(mExpected.hasKey(p.key()));
+            assertEquals(mExpected.value(p.key()), p.value());
+            mExpected.remove(p.key());
+            assertEquals(mExpected.size(), m.size());
+        }
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(0, mExpected.size());
+    }
+
+}
@@ -0,0 +1,67 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code Map4b} using non-default
+ * constructor, hash table size 1, and incremental growth, so that the tests
+ * run while buckets are being migrated.
+ */
+public class Map4bTest1 extends MapTest {
+
+    /**
+     * Size of hash table to be used in tests.
+     */
+    private static final int TEST_HASH_TABLE_SIZE = 1;
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new Map4b<String, String>(TEST_HASH_TABLE_SIZE, true);
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+
+    @Test
+    public final void testRemoveAnyInterleavedWithAdd() {
+        /*
+         * Set up variables; adding an entry after each second removeAny puts
+         * entries back into buckets that removeAny has already passed
+         */
+        final int n = 300;
+        Map<String, String> m = this.constructorTest();
+        Map<String, String> mExpected = this.constructorRef();
+        for (int i = 0; i < n; i++) {
+            m.add(Integer.toString(i), "v" + i);
+            mExpected.add(Integer.toString(i), "v" + i);
+        }
+        /*
+         * Call method under test
+         */
+        int added = n;
+        while (m.size() > 0) {
+            Map.Pair<String, String> p = m.removeAny();
+            assertTrue(mExpected.hasKey(p.key()));
+            assertEquals(mExpected.value(p.key()), p.value());
+            mExpected.remove(p.key());
+            if (m.size() % 2 == 0 && added < 2 * n) {
+                m.add(Integer.toString(added), "v" + added);
+                mExpected.add(Integer.toString(added), "v" + added);
+                added++;
+            }
+            assertEquals(mExpected.size(), m.size());
+        }
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(0, mExpected.size());
+    }
+
+}
@@ -0,0 +1,317 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * JUnit test fixture for {@code Map4c}'s kernel methods and counting methods.
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public final class Map4cTest {
+
+    /**
+     * Size of hash table to be used in tests, small enough for the tests to
+     * grow the table.
+     */
+    private static final int TEST_HASH_TABLE_SIZE = 1;
+
+    /**
+     * Creates and returns a {@code Map4c} with the given entries.
+     *
+     * @param args
+     *            the (key, count) pairs for the map
+     * @return the constructed map
+     * @requires <pre>
+     * [args.length is even]  and
+     * [the 'key' entries in args are unique]  and
+     * [the 'count' entries in args are integers]
+     * </pre>
+     * @ensures createFromArgsTest = [pairs in args]
+     */
+    private static Map4c createFromArgsTest(String... args) {
+        assert args.length % 2 == 0 : "Violation of: args.length is even";
+        Map4c map = new Map4c(TEST_HASH_TABLE_SIZE);
+        for (int i = 0; i < args.length; i += 2) {
+            map.add(args[i], Integer.parseInt(args[i + 1]));
+        }
+        return map;
+    }
+
+    /**
+     * Creates and returns a {@code Map<String, Integer>} of the reference
+     * implementation type with the given entries.
+     *
+     * @param args
+     *            the (key, count) pairs for the map
+     * @return the constructed map
+     * @requires <pre>
+     * [args.length is even]  and
+     * [the 'key' entries in args are unique]  and
+     * [the 'count' entries in args are integers]
+     * </pre>
+     * @ensures createFromArgsRef = [pairs in args]
+     */
+    private static Map<String, Integer> createFromArgsRef(String... args) {
+        assert args.length % 2 == 0 : "Violation of: args.length is even";
+        Map<String, Integer> map = new Map1L<String, Integer>();
+        for (int i = 0; i < args.length; i += 2) {
+            map.add(args[i], Integer.parseInt(args[i + 1]));
+        }
+        return map;
+    }
+
+    @Test
+    public void testAddAndValue() {
+        /*
+         * Set up variables
+         */
+        Map4c m = createFromArgsTest("a", "1", "b", "2");
+        Map<String, Integer> mExpected = createFromArgsRef("a", "1", "b", "2",
+                "c", "3");
+        /*
+         * Call method under test
+         */
+        m.add("c", 3);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(mExpected, m);
+        assertEquals(Integer.valueOf(3), m.value("c"));
+    }
+
+    @Test
+    public void testRemove() {
+        /*
+         * Set up variables
+         */
+        Map4c m = createFromArgsTest("a", "1", "b", "2", "c", "3");
+        Map<String, Integer> mExpected = createFromArgsRef("a", "1", "c", "3");
+        /*
+         * Call method under test
+         */
+        Map.Pair<String, Integer> p = m.remove("b");
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(mExpected, m);
+        assertEquals("b", p.key());
+        assertEquals(Integer.valueOf(2), p.value());
+    }
+
+    @Test
+    public void testRemoveAnyLeavingEmpty() {
+        /*
+         * Set up variables
+         */
+        Map4c m = createFromArgsTest("a", "1");
+        Map<String, Integer> mExpected = createFromArgsRef();
+        /*
+         * Call method under test
+         */
+        Map.Pair<String, Integer> p = m.removeAny();
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(mExpected, m);
+        assertEquals("a", p.key());
+        assertEquals(Integer.valueOf(1), p.value());
+    }
+
+    @Test
+    public void testReplaceValue() {
+        /*
+         * Set up variables
+         */
+        Map4c m = createFromArgsTest("a", "1", "b", "2");
+        Map<String, Integer> mExpected = createFromArgsRef("a", "1", "b",
+                "7");
+        /*
+         * Call method under test
+         */
+        Integer old = m.replaceValue("b", 7);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(mExpected, m);
+        assertEquals(Integer.valueOf(2), old);
+    }
+
+    @Test
+    public void testIncrementNewKey() {
+        /*
+         * Set up variables
+         */
+        Map4c m = createFromArgsTest("a", "1");
+        Map<String, Integer> mExpected = createFromArgsRef("a", "1", "b", "1");
+        /*
+         * Call method under test
+         */
+        int count = m.increment("b");
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(mExpected, m);
+        assertEquals(1, count);
+    }
+
+    @Test
+    public void testIncrementExistingKey() {
+        /*
+         * Set up variables
+         */
+        Map4c m = createFromArgsTest("a", "1", "b", "4");
+        Map<String, Integer> mExpected = createFromArgsRef("a", "1", "b", "5");
+        /*
+         * Call method under test
+         */
+        int count = m.increment("b");
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(mExpected, m);
+        assertEquals(5, count);
+    }
+
+    @Test
+    public void testAddToExistingKey() {
+        /*
+         * Set up variables
+         */
+        Map4c m = createFromArgsTest("a", "1", "b", "4");
+        Map<String, Integer> mExpected = createFromArgsRef("a", "-2", "b",
+                "4");
+        /*
+         * Call method under test
+         */
+        int count = m.addTo("a", -3);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(mExpected, m);
+        assertEquals(-2, count);
+    }
+
+    @Test
+    public void testIncrementWordsInText() {
+        /*
+         * Set up variables
+         */
+        Map4c m = createFromArgsTest("the", "2");
+        Map<String, Integer> mExpected = createFromArgsRef("the", "4", "cat",
+                "1", "hat", "1");
+        String line = "the cat in the hat";
+        /*
+         * Call method under test
+         */
+        m.increment(line, 0, 3);
+        m.increment(line, 4, 7);
+        m.increment(line, 11, 14);
+        int count = m.increment(line, 15, 18);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(mExpected, m);
+        assertEquals(1, count);
+    }
+
+    @Test
+    public void testAddToWordInText() {
+        /*
+         * Set up variables
+         */
+        Map4c m = createFromArgsTest("in", "2");
+        Map<String, Integer> mExpected = createFromArgsRef("in", "12");
+        String line = "the cat in the hat";
+        /*
+         * Call method under test
+         */
+        int count = m.addTo(line, 8, 10, 10);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(mExpected, m);
+        assertEquals(12, count);
+    }
+
+    @Test
+    public void testCountMissingKey() {
+        /*
+         * Set up variables
+         */
+        Map4c m = createFromArgsTest("a", "1");
+        Map<String, Integer> mExpected = createFromArgsRef("a", "1");
+        /*
+         * Call method under test
+         */
+        int count = m.count("b");
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(mExpected, m);
+        assertEquals(0, count);
+    }
+
+    @Test
+    public void testIncrementManyKeys() {
+        /*
+         * Set up variables
+         */
+        final int n = 1000;
+        Map4c m = createFromArgsTest();
+        Map<String, Integer> mExpected = createFromArgsRef();
+        for (int i = 0; i < n; i++) {
+            mExpected.add("k" + i, 2);
+        }
+        /*
+         * Call method under test
+         */
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < n; i++) {
+                m.increment("k" + i);
+            }
+        }
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(mExpected, m);
+    }
+
+
+    @Test
+    public void testRemoveAnyInterleavedWithIncrement() {
+        /*
+         * Set up variables; incrementing a new key after each second
+         * removeAny can fill slots that removeAny has already passed
+         */
+        final int n = 300;
+        Map4c m = createFromArgsTest();
+        Map<String, Integer> mExpected = createFromArgsRef();
+        for (int i = 0; i < n; i++) {
+            m.increment("k" + i);
+            mExpected.add("k" + i, 1);
+        }
+        /*
+         * Call method under test
+         */
+        int added = n;
+        while (m.size() > 0) {
+            Map.Pair<String, Integer> p = m.removeAny();
+            assertEquals(mExpected.remove(p.key()), p);
+            if (m.size() % 2 == 0 && added < 2 * n) {
+                m.increment("k" + added);
+                mExpected.add("k" + added, 1);
+                added++;
+            }
+            assertEquals(mExpected.size(), m.size());
+        }
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(0, mExpected.size());
+    }
+
+}
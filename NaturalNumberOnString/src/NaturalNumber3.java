@@ -163,15 +163,13 @@ public class NaturalNumber3 extends NaturalNumberSecondary {
 
     @Override
     public String toString() {
+        /*
+         * The digits are already the ordinary depiction, so there is no need
+         * to take the number apart digit by digit
+         */
         String result = "0";
-        if (!this.isZero()) {
-            int bit = this.divideBy10();
-            if (!this.toString().equals("0")) {
-                result = this.toString() + bit;
-            } else {
-                result = "" + bit;
-            }
-            this.multiplyBy10(bit);
+        if (!this.digits.isEmpty()) {
+            result = this.digits;
         }
         return result;
     }
@@ -0,0 +1,933 @@
+import java.util.Arrays;
+
+import components.naturalnumber.NaturalNumber;
+import components.naturalnumber.NaturalNumberSecondary;
+
+/**
+ * {@code NaturalNumber} represented as an array of base-10^9 limbs, most
+ * significant first, followed by a partial limb of fewer than 9 decimal
+ * digits, with implementations of primary methods.
+ *
+ * <p>
+ * {@code multiplyBy10} appends its digit to the partial limb and, once that
+ * holds 9 digits, appends it to the array as a new least significant limb;
+ * {@code divideBy10} does the reverse. Both thus take amortized constant
+ * time, so building or taking apart an n-digit number digit by digit takes
+ * O(n) time rather than the O(n^2) of {@code NaturalNumber3}. Since the limbs
+ * are decimal, {@code toString} and the {@code String} constructor convert
+ * in O(n) time as well.
+ * </p>
+ *
+ * @convention <pre>
+ * 0 <= $this.length <= |$this.limbs|  and
+ * [all entries of $this.limbs[0, $this.length) are in [0, 10^9)]  and
+ * if $this.length > 0 then $this.limbs[0] > 0  and
+ * 0 <= $this.lowDigits < 9  and
+ * 0 <= $this.low < 10^($this.lowDigits)  and
+ * if $this.length = 0  and  $this.low = 0 then $this.lowDigits = 0
+ * </pre>
+ * @correspondence <pre>
+ * this = [the number whose base-10^9 digits, most significant first, are
+ *         $this.limbs[0, $this.length)] * 10^($this.lowDigits) + $this.low
+ * </pre>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public class NaturalNumber4 extends NaturalNumberSecondary {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Number of decimal digits in a limb.
+     */
+    private static final int LIMB_DIGITS = 9;
+
+    /**
+     * Initial length of the limbs array.
+     */
+    private static final int INITIAL_LENGTH = 4;
+
+    /**
+     * Base of the limbs.
+     */
+    private static final int LIMB_BASE = 1_000_000_000;
+
+    /**
+     * Operands with fewer limbs than this are multiplied by the schoolbook
+     * method rather than by Karatsuba's.
+     */
+    private static final int KARATSUBA_THRESHOLD = 40;
+
+    /**
+     * Powers of ten that fit in a limb, indexed by exponent.
+     */
+    private static final int[] POWERS_OF_TEN = { 1, 10, 100, 1_000, 10_000,
+            100_000, 1_000_000, 10_000_000, 100_000_000 };
+
+    /**
+     * Limbs, most significant first.
+     */
+    private int[] limbs;
+
+    /**
+     * Number of limbs in use.
+     */
+    private int length;
+
+    /**
+     * Partial limb of least significant digits.
+     */
+    private int low;
+
+    /**
+     * Number of digits in the partial limb.
+     */
+    private int lowDigits;
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.limbs = new int[INITIAL_LENGTH];
+        this.length = 0;
+        this.low = 0;
+        this.lowDigits = 0;
+    }
+
+    /**
+     * Reports the value of the decimal digits {@code s[start, end)}.
+     *
+     * @param s
+     *            the characters
+     * @param start
+     *            the index of the first digit
+     * @param end
+     *            the index past the last digit
+     * @return the value of the digits
+     * @requires <pre>
+     * 0 <= start <= end <= |s|  and  end - start <= 9  and
+     * [all characters of s[start, end) are '0' through '9']
+     * </pre>
+     * @ensures [parseLimb is the value of s[start, end)]
+     */
+    private static int parseLimb(CharSequence s, int start, int end) {
+        int x = 0;
+        for (int i = start; i < end; i++) {
+            x = x * RADIX + (s.charAt(i) - '0');
+        }
+        return x;
+    }
+
+    /**
+     * Sets this to the number whose ordinary depiction is {@code s}, reading
+     * the digits in place.
+     *
+     * @param s
+     *            the ordinary depiction of the number
+     * @replaces this
+     * @requires there exists n: NATURAL (s = TO_STRING(n))
+     * @ensures s = TO_STRING(this)
+     */
+    private void parse(CharSequence s) {
+        this.createNewRep();
+        if (s.length() > 1 || s.charAt(0) != '0') {
+            int fullLimbs = s.length() / LIMB_DIGITS;
+            this.limbs = new int[Math.max(INITIAL_LENGTH, fullLimbs)];
+            for (int i = 0; i < fullLimbs; i++) {
+                this.limbs[i] = parseLimb(s, LIMB_DIGITS * i,
+                        LIMB_DIGITS * (i + 1));
+            }
+            this.length = fullLimbs;
+            this.lowDigits = s.length() - LIMB_DIGITS * fullLimbs;
+            this.low = parseLimb(s, s.length() - this.lowDigits, s.length());
+        }
+    }
+
+    /**
+     * Reports the number of decimal digits of {@code x}.
+     *
+     * @param x
+     *            the value
+     * @return the number of digits
+     * @requires 0 < x < 10^9
+     * @ensures 10^(digitCount - 1) <= x < 10^digitCount
+     */
+    private static int digitCount(int x) {
+        int count = 1;
+        while (count < LIMB_DIGITS && x >= POWERS_OF_TEN[count]) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Writes the {@code digits} decimal digits of {@code x}, with leading
+     * zeros, into {@code buffer[0, digits)}.
+     *
+     * @param buffer
+     *            the characters written to
+     * @param x
+     *            the value written
+     * @param digits
+     *            the number of digits written
+     * @updates buffer
+     * @requires 0 <= x < 10^digits  and  digits <= |buffer|
+     * @ensures <pre>
+     * buffer[0, digits) = [x as digits decimal digits]  and
+     * [the other characters of buffer are unchanged]
+     * </pre>
+     */
+    private static void writeDigits(char[] buffer, int x, int digits) {
+        int rest = x;
+        for (int i = digits - 1; i >= 0; i--) {
+            buffer[i] = (char) ('0' + rest % RADIX);
+            rest /= RADIX;
+        }
+    }
+
+    /*
+     * The arithmetic below works on magnitudes: arrays of base-10^9 limbs,
+     * least significant first, without leading (most significant) zero limbs
+     * unless noted otherwise
+     */
+
+    /**
+     * Reports the magnitude of this.
+     *
+     * @return the limbs of this, least significant first
+     * @ensures [magnitude is the magnitude of this, with no leading zeros]
+     */
+    private int[] magnitude() {
+        int[] mag = new int[this.length + 1];
+        long scale = POWERS_OF_TEN[this.lowDigits];
+        long carry = this.low;
+        for (int i = 0; i < this.length; i++) {
+            long t = this.limbs[this.length - 1 - i] * scale + carry;
+            mag[i] = (int) (t % LIMB_BASE);
+            carry = t / LIMB_BASE;
+        }
+        mag[this.length] = (int) carry;
+        return trim(mag, mag.length);
+    }
+
+    /**
+     * Sets this to the number with magnitude {@code mag}.
+     *
+     * @param mag
+     *            the limbs, least significant first
+     * @replaces this
+     * @requires [mag has no leading zeros]
+     * @ensures [this is the number whose magnitude is mag]
+     */
+    private void setMagnitude(int[] mag) {
+        this.limbs = new int[Math.max(INITIAL_LENGTH, mag.length)];
+        for (int i = 0; i < mag.length; i++) {
+            this.limbs[i] = mag[mag.length - 1 - i];
+        }
+        this.length = mag.length;
+        this.low = 0;
+        this.lowDigits = 0;
+    }
+
+    /**
+     * Reports the magnitude of {@code n}.
+     *
+     * @param n
+     *            the number
+     * @return the limbs of n, least significant first
+     * @ensures [magnitudeOf is the magnitude of n, with no leading zeros]
+     */
+    private static int[] magnitudeOf(NaturalNumber n) {
+        int[] mag;
+        if (n instanceof NaturalNumber4) {
+            mag = ((NaturalNumber4) n).magnitude();
+        } else {
+            mag = new NaturalNumber4(n.toString()).magnitude();
+        }
+        return mag;
+    }
+
+    /**
+     * Reports {@code x[0, len)} without its leading zero limbs.
+     *
+     * @param x
+     *            the limbs
+     * @param len
+     *            the number of limbs of x considered
+     * @return the limbs without leading zeros
+     * @requires 0 <= len <= |x|
+     * @ensures [trim is x[0, len) without its leading zeros]
+     */
+    private static int[] trim(int[] x, int len) {
+        int n = len;
+        while (n > 0 && x[n - 1] == 0) {
+            n--;
+        }
+        int[] result = x;
+        if (n != x.length) {
+            result = Arrays.copyOf(x, n);
+        }
+        return result;
+    }
+
+    /**
+     * Compares magnitudes {@code a} and {@code b}.
+     *
+     * @param a
+     *            the first magnitude
+     * @param b
+     *            the second magnitude
+     * @return negative, zero, or positive as a is less than, equal to, or
+     *         greater than b
+     */
+    private static int compare(int[] a, int[] b) {
+        int result = Integer.compare(a.length, b.length);
+        int i = a.length - 1;
+        while (result == 0 && i >= 0) {
+            result = Integer.compare(a[i], b[i]);
+            i--;
+        }
+        return result;
+    }
+
+    /**
+     * Reports the sum of magnitudes {@code a} and {@code b}.
+     *
+     * @param a
+     *            the first magnitude
+     * @param b
+     *            the second magnitude
+     * @return the sum
+     * @ensures add = a + b
+     */
+    private static int[] add(int[] a, int[] b) {
+        int[] longer = a;
+        int[] shorter = b;
+        if (a.length < b.length) {
+            longer = b;
+            shorter = a;
+        }
+        int[] sum = new int[longer.length + 1];
+        int carry = 0;
+        for (int i = 0; i < longer.length; i++) {
+            int t = longer[i] + carry;
+            if (i < shorter.length) {
+                t += shorter[i];
+            }
+            carry = 0;
+            if (t >= LIMB_BASE) {
+                t -= LIMB_BASE;
+                carry = 1;
+            }
+            sum[i] = t;
+        }
+        sum[longer.length] = carry;
+        return trim(sum, sum.length);
+    }
+
+    /**
+     * Subtracts {@code b[0, bLen)} from {@code a[aOff, ...)} in place.
+     *
+     * @param a
+     *            the minuend and difference, leading zeros allowed
+     * @param aOff
+     *            the index in a of the limb subtracted from
+     * @param b
+     *            the subtrahend, leading zeros allowed
+     * @param bLen
+     *            the number of limbs of b
+     * @updates a
+     * @requires [a[aOff, |a|) >= b[0, bLen)]
+     * @ensures a[aOff, |a|) = #a[aOff, |a|) - b[0, bLen)
+     */
+    private static void subtractInPlace(int[] a, int aOff, int[] b,
+            int bLen) {
+        int borrow = 0;
+        int i = 0;
+        while (i < bLen || borrow != 0) {
+            int t = a[aOff + i] - borrow;
+            if (i < bLen) {
+                t -= b[i];
+            }
+            borrow = 0;
+            if (t < 0) {
+                t += LIMB_BASE;
+                borrow = 1;
+            }
+            a[aOff + i] = t;
+            i++;
+        }
+    }
+
+    /**
+     * Adds {@code b} to {@code a[aOff, ...)} in place.
+     *
+     * @param a
+     *            the addend and sum, leading zeros allowed
+     * @param aOff
+     *            the index in a of the limb added to
+     * @param b
+     *            the other addend, leading zeros allowed
+     * @updates a
+     * @requires [a[aOff, |a|) + b fits in |a| - aOff limbs]
+     * @ensures a[aOff, |a|) = #a[aOff, |a|) + b
+     */
+    private static void addInPlace(int[] a, int aOff, int[] b) {
+        int bLen = b.length;
+        while (bLen > 0 && b[bLen - 1] == 0) {
+            bLen--;
+        }
+        int carry = 0;
+        int i = 0;
+        while (i < bLen || carry != 0) {
+            int t = a[aOff + i] + carry;
+            if (i < bLen) {
+                t += b[i];
+            }
+            carry = 0;
+            if (t >= LIMB_BASE) {
+                t -= LIMB_BASE;
+                carry = 1;
+            }
+            a[aOff + i] = t;
+            i++;
+        }
+    }
+
+    /**
+     * Reports the sum of {@code a[aOff, aOff + aLen)} and
+     * {@code a[bOff, bOff + bLen)}, the halves of an operand in Karatsuba's
+     * method.
+     *
+     * @param a
+     *            the limbs
+     * @param aOff
+     *            the index of the first limb of the first half
+     * @param aLen
+     *            the number of limbs of the first half
+     * @param bOff
+     *            the index of the first limb of the second half
+     * @param bLen
+     *            the number of limbs of the second half
+     * @return the sum, with leading zeros
+     * @ensures |addHalves| = max(aLen, bLen) + 1
+     */
+    private static int[] addHalves(int[] a, int aOff, int aLen, int bOff,
+            int bLen) {
+        int[] sum = new int[Math.max(aLen, bLen) + 1];
+        System.arraycopy(a, aOff, sum, 0, aLen);
+        addInPlace(sum, 0, Arrays.copyOfRange(a, bOff, bOff + bLen));
+        return sum;
+    }
+
+    /**
+     * Reports the product of {@code a[aOff, aOff + aLen)} and
+     * {@code b[bOff, bOff + bLen)} computed by the schoolbook method.
+     *
+     * @param a
+     *            the limbs of the first factor
+     * @param aOff
+     *            the index of the first limb of the first factor
+     * @param aLen
+     *            the number of limbs of the first factor
+     * @param b
+     *            the limbs of the second factor
+     * @param bOff
+     *            the index of the first limb of the second factor
+     * @param bLen
+     *            the number of limbs of the second factor
+     * @return the product, with leading zeros
+     * @ensures |schoolbook| = aLen + bLen
+     */
+    private static int[] schoolbook(int[] a, int aOff, int aLen, int[] b,
+            int bOff, int bLen) {
+        int[] product = new int[aLen + bLen];
+        for (int i = 0; i < aLen; i++) {
+            long ai = a[aOff + i];
+            long carry = 0;
+            if (ai != 0) {
+                for (int j = 0; j < bLen; j++) {
+                    long t = product[i + j] + ai * b[bOff + j] + carry;
+                    product[i + j] = (int) (t % LIMB_BASE);
+                    carry = t / LIMB_BASE;
+                }
+            }
+            product[i + bLen] = (int) carry;
+        }
+        return product;
+    }
+
+    /**
+     * Reports the product of {@code a[aOff, aOff + aLen)} and
+     * {@code b[bOff, bOff + bLen)} computed by Karatsuba's method, falling
+     * back to the schoolbook method for short operands.
+     *
+     * @param a
+     *            the limbs of the first factor
+     * @param aOff
+     *            the index of the first limb of the first factor
+     * @param aLen
+     *            the number of limbs of the first factor
+     * @param b
+     *            the limbs of the second factor
+     * @param bOff
+     *            the index of the first limb of the second factor
+     * @param bLen
+     *            the number of limbs of the second factor
+     * @return the product, with leading zeros
+     * @ensures |karatsuba| = aLen + bLen
+     */
+    private static int[] karatsuba(int[] a, int aOff, int aLen, int[] b,
+            int bOff, int bLen) {
+        int[] product;
+        if (aLen < bLen) {
+            product = karatsuba(b, bOff, bLen, a, aOff, aLen);
+        } else if (bLen < KARATSUBA_THRESHOLD) {
+            product = schoolbook(a, aOff, aLen, b, bOff, bLen);
+        } else if (2 * bLen <= aLen) {
+            /*
+             * Unbalanced: multiply b by slices of a as long as b
+             */
+            product = new int[aLen + bLen];
+            for (int off = 0; off < aLen; off += bLen) {
+                int len = Math.min(bLen, aLen - off);
+                addInPlace(product, off,
+                        karatsuba(a, aOff + off, len, b, bOff, bLen));
+            }
+        } else {
+            /*
+             * a = a1 * B^m + a0 and b = b1 * B^m + b0, so a * b = z2 * B^2m +
+             * z1 * B^m + z0 with z1 = (a0 + a1)(b0 + b1) - z2 - z0
+             */
+            int m = aLen / 2;
+            int[] z0 = karatsuba(a, aOff, m, b, bOff, m);
+            int[] z2 = karatsuba(a, aOff + m, aLen - m, b, bOff + m,
+                    bLen - m);
+            int[] aSum = addHalves(a, aOff, m, aOff + m, aLen - m);
+            int[] bSum = addHalves(b, bOff, m, bOff + m, bLen - m);
+            int[] z1 = karatsuba(aSum, 0, aSum.length, bSum, 0, bSum.length);
+            subtractInPlace(z1, 0, z0, z0.length);
+            subtractInPlace(z1, 0, z2, z2.length);
+            product = new int[aLen + bLen];
+            System.arraycopy(z0, 0, product, 0, z0.length);
+            addInPlace(product, 2 * m, z2);
+            addInPlace(product, m, z1);
+        }
+        return product;
+    }
+
+    /**
+     * Reports the product of magnitudes {@code a} and {@code b}.
+     *
+     * @param a
+     *            the first magnitude
+     * @param b
+     *            the second magnitude
+     * @return the product
+     * @ensures multiply = a * b
+     */
+    private static int[] multiply(int[] a, int[] b) {
+        int[] product = new int[0];
+        if (a.length > 0 && b.length > 0) {
+            product = karatsuba(a, 0, a.length, b, 0, b.length);
+            product = trim(product, product.length);
+        }
+        return product;
+    }
+
+    /**
+     * Multiplies {@code a} by the single limb {@code d} into a new array one
+     * limb longer.
+     *
+     * @param a
+     *            the magnitude
+     * @param d
+     *            the multiplier
+     * @return the product, with leading zeros
+     * @requires 0 <= d < LIMB_BASE
+     * @ensures multiplyByLimb = a * d  and  |multiplyByLimb| = |a| + 1
+     */
+    private static int[] multiplyByLimb(int[] a, int d) {
+        int[] product = new int[a.length + 1];
+        long carry = 0;
+        for (int i = 0; i < a.length; i++) {
+            long t = (long) a[i] * d + carry;
+            product[i] = (int) (t % LIMB_BASE);
+            carry = t / LIMB_BASE;
+        }
+        product[a.length] = (int) carry;
+        return product;
+    }
+
+    /**
+     * Divides {@code a[0, len)} by the single limb {@code d} in place and
+     * reports the remainder.
+     *
+     * @param a
+     *            the dividend and quotient, leading zeros allowed
+     * @param len
+     *            the number of limbs of a considered
+     * @param d
+     *            the divisor
+     * @return the remainder
+     * @updates a
+     * @requires 0 < d < LIMB_BASE  and  0 <= len <= |a|
+     * @ensures <pre>
+     * #a[0, len) = a[0, len) * d + divideByLimb  and
+     * 0 <= divideByLimb < d
+     * </pre>
+     */
+    private static int divideByLimb(int[] a, int len, int d) {
+        long remainder = 0;
+        for (int i = len - 1; i >= 0; i--) {
+            long t = remainder * LIMB_BASE + a[i];
+            a[i] = (int) (t / d);
+            remainder = t % d;
+        }
+        return (int) remainder;
+    }
+
+    /**
+     * Divides magnitude {@code u} by magnitude {@code v} using Knuth's
+     * Algorithm D.
+     *
+     * @param u
+     *            the dividend
+     * @param v
+     *            the divisor
+     * @return the quotient and the remainder, in that order
+     * @requires |v| > 0
+     * @ensures <pre>
+     * u = divide[0] * v + divide[1]  and  divide[1] < v
+     * </pre>
+     */
+    private static int[][] divide(int[] u, int[] v) {
+        int[][] result = new int[2][];
+        int n = v.length;
+        if (compare(u, v) < 0) {
+            result[0] = new int[0];
+            result[1] = u;
+        } else if (n == 1) {
+            int[] q = Arrays.copyOf(u, u.length);
+            int r = divideByLimb(q, q.length, v[0]);
+            result[0] = trim(q, q.length);
+            result[1] = trim(new int[] { r }, 1);
+        } else {
+            /*
+             * Normalize so that the leading limb of the divisor is at least
+             * half the base, which keeps each estimated quotient limb within 2
+             * of the true one
+             */
+            int d = LIMB_BASE / (v[n - 1] + 1);
+            int[] un = multiplyByLimb(u, d);
+            int[] vn = trim(multiplyByLimb(v, d), n + 1);
+            long vTop = vn[n - 1];
+            long vNext = vn[n - 2];
+            int m = u.length - n;
+            int[] q = new int[m + 1];
+            for (int j = m; j >= 0; j--) {
+                long num = (long) un[j + n] * LIMB_BASE + un[j + n - 1];
+                long qHat = num / vTop;
+                long rHat = num % vTop;
+                while (rHat < LIMB_BASE && (qHat >= LIMB_BASE
+                        || qHat * vNext > rHat * LIMB_BASE + un[j + n - 2])) {
+                    qHat--;
+                    rHat += vTop;
+                }
+                /*
+                 * un[j, j + n] -= qHat * vn
+                 */
+                long carry = 0;
+                int borrow = 0;
+                for (int i = 0; i < n; i++) {
+                    long p = qHat * vn[i] + carry;
+                    carry = p / LIMB_BASE;
+                    long t = un[i + j] - p % LIMB_BASE - borrow;
+                    borrow = 0;
+                    if (t < 0) {
+                        t += LIMB_BASE;
+                        borrow = 1;
+                    }
+                    un[i + j] = (int) t;
+                }
+                long top = un[j + n] - carry - borrow;
+                if (top < 0) {
+                    /*
+                     * qHat was one too large: add vn back
+                     */
+                    qHat--;
+                    int c = 0;
+                    for (int i = 0; i < n; i++) {
+                        int t = un[i + j] + vn[i] + c;
+                        c = 0;
+                        if (t >= LIMB_BASE) {
+                            t -= LIMB_BASE;
+                            c = 1;
+                        }
+                        un[i + j] = t;
+                    }
+                    top += c;
+                }
+                un[j + n] = (int) top;
+                q[j] = (int) qHat;
+            }
+            divideByLimb(un, n, d);
+            result[0] = trim(q, q.length);
+            result[1] = trim(un, n);
+        }
+        return result;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public NaturalNumber4() {
+        this.createNewRep();
+    }
+
+    /**
+     * Constructor from {@code int}.
+     *
+     * @param i
+     *            {@code int} to initialize from
+     */
+    public NaturalNumber4(int i) {
+        assert i >= 0 : "Violation of: i >= 0";
+        this.parse(Integer.toString(i));
+    }
+
+    /**
+     * Constructor from {@code String}.
+     *
+     * @param s
+     *            {@code String} to initialize from
+     */
+    public NaturalNumber4(String s) {
+        assert s != null : "Violation of: s is not null";
+        assert s.matches("0|[1-9]\\d*") : ""
+                + "Violation of: there exists n: NATURAL (s = TO_STRING(n))";
+        this.parse(s);
+    }
+
+    /**
+     * Constructor from {@code NaturalNumber}.
+     *
+     * @param n
+     *            {@code NaturalNumber} to initialize from
+     */
+    public NaturalNumber4(NaturalNumber n) {
+        assert n != null : "Violation of: n is not null";
+        this.parse(n.toString());
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @Override
+    public final NaturalNumber newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(NaturalNumber source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof NaturalNumber4 : ""
+                + "Violation of: source is of dynamic type NaturalNumber4";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case.
+         */
+        NaturalNumber4 localSource = (NaturalNumber4) source;
+        this.limbs = localSource.limbs;
+        this.length = localSource.length;
+        this.low = localSource.low;
+        this.lowDigits = localSource.lowDigits;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void multiplyBy10(int k) {
+        assert 0 <= k : "Violation of: 0 <= k";
+        assert k < RADIX : "Violation of: k < 10";
+
+        if (this.length > 0 || this.low > 0 || k > 0) {
+            this.low = this.low * RADIX + k;
+            this.lowDigits++;
+            if (this.lowDigits == LIMB_DIGITS) {
+                if (this.length == this.limbs.length) {
+                    this.limbs = Arrays.copyOf(this.limbs, 2 * this.length);
+                }
+                this.limbs[this.length] = this.low;
+                this.length++;
+                this.low = 0;
+                this.lowDigits = 0;
+            }
+        }
+    }
+
+    @Override
+    public final int divideBy10() {
+        if (this.lowDigits == 0 && this.length > 0) {
+            this.length--;
+            this.low = this.limbs[this.length];
+            this.lowDigits = LIMB_DIGITS;
+        }
+        int k = this.low % RADIX;
+        this.low /= RADIX;
+        if (this.lowDigits > 0) {
+            this.lowDigits--;
+        }
+        if (this.length == 0 && this.low == 0) {
+            this.lowDigits = 0;
+        }
+        return k;
+    }
+
+    @Override
+    public final boolean isZero() {
+        return this.length == 0 && this.low == 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(
+                LIMB_DIGITS * this.length + this.lowDigits + 1);
+        this.appendTo(sb);
+        return sb.toString();
+    }
+
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @Override
+    public final int compareTo(NaturalNumber n) {
+        assert n != null : "Violation of: n is not null";
+        return Integer.signum(compare(this.magnitude(), magnitudeOf(n)));
+    }
+
+    @Override
+    public final void add(NaturalNumber n) {
+        assert n != null : "Violation of: n is not null";
+        this.setMagnitude(add(this.magnitude(), magnitudeOf(n)));
+    }
+
+    @Override
+    public final void subtract(NaturalNumber n) {
+        assert n != null : "Violation of: n is not null";
+        int[] a = this.magnitude();
+        int[] b = magnitudeOf(n);
+        assert compare(a, b) >= 0 : "Violation of: this >= n";
+        subtractInPlace(a, 0, b, b.length);
+        this.setMagnitude(trim(a, a.length));
+    }
+
+    @Override
+    public final void multiply(NaturalNumber n) {
+        assert n != null : "Violation of: n is not null";
+        this.setMagnitude(multiply(this.magnitude(), magnitudeOf(n)));
+    }
+
+    @Override
+    public final NaturalNumber divide(NaturalNumber n) {
+        assert n != null : "Violation of: n is not null";
+        assert !n.isZero() : "Violation of: n > 0";
+        int[][] qr = divide(this.magnitude(), magnitudeOf(n));
+        this.setMagnitude(qr[0]);
+        NaturalNumber4 remainder = new NaturalNumber4();
+        remainder.setMagnitude(qr[1]);
+        NaturalNumber result = this.newInstance();
+        result.transferFrom(remainder);
+        return result;
+    }
+
+    @Override
+    public final void power(int p) {
+        assert p >= 0 : "Violation of: p >= 0";
+        int[] base = this.magnitude();
+        int[] result = { 1 };
+        int e = p;
+        while (e > 0) {
+            if (e % 2 == 1) {
+                result = multiply(result, base);
+            }
+            e /= 2;
+            if (e > 0) {
+                base = multiply(base, base);
+            }
+        }
+        this.setMagnitude(result);
+    }
+
+    @Override
+    public final void setFromString(String s) {
+        assert s != null : "Violation of: s is not null";
+        assert s.matches("0|[1-9]\\d*") : ""
+                + "Violation of: there exists n: NATURAL (s = TO_STRING(n))";
+        this.parse(s);
+    }
+
+    /*
+     * Conversion methods ------------------------------------------------------
+     */
+
+    /**
+     * Appends the ordinary depiction of this to {@code sb}, nine digits at a
+     * time through a small scratch array, so that a builder reused across
+     * calls converts numbers without allocating in proportion to their
+     * length.
+     *
+     * @param sb
+     *            the builder appended to
+     * @updates sb
+     * @ensures sb = #sb * TO_STRING(this)
+     */
+    public final void appendTo(StringBuilder sb) {
+        assert sb != null : "Violation of: sb is not null";
+        char[] buffer = new char[LIMB_DIGITS];
+        if (this.length == 0) {
+            int digits = 1;
+            if (this.low > 0) {
+                digits = digitCount(this.low);
+            }
+            writeDigits(buffer, this.low, digits);
+            sb.append(buffer, 0, digits);
+        } else {
+            int firstDigits = digitCount(this.limbs[0]);
+            sb.ensureCapacity(sb.length() + firstDigits
+                    + LIMB_DIGITS * (this.length - 1) + this.lowDigits);
+            writeDigits(buffer, this.limbs[0], firstDigits);
+            sb.append(buffer, 0, firstDigits);
+            for (int i = 1; i < this.length; i++) {
+                writeDigits(buffer, this.limbs[i], LIMB_DIGITS);
+                sb.append(buffer, 0, LIMB_DIGITS);
+            }
+            writeDigits(buffer, this.low, this.lowDigits);
+            sb.append(buffer, 0, this.lowDigits);
+        }
+    }
+
+}
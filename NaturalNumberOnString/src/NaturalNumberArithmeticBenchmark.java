@@ -0,0 +1,124 @@
+import components.naturalnumber.NaturalNumber;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Measures the time {@code add}, {@code multiply}, {@code divide}, and
+ * {@code power} take on numbers of a given number of digits, for
+ * {@code NaturalNumber3} (which inherits them from
+ * {@code NaturalNumberSecondary}) and {@code NaturalNumber4} (which
+ * overrides them with limb arithmetic).
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public final class NaturalNumberArithmeticBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private NaturalNumberArithmeticBenchmark() {
+    }
+
+    /**
+     * Exponent used for {@code power}.
+     */
+    private static final int EXPONENT = 4;
+
+    /**
+     * Number of nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Reports the ordinary depiction of a number of {@code digits} digits,
+     * cycling through 1, 2, ..., 9 starting from {@code first}.
+     *
+     * @param digits
+     *            the number of digits
+     * @param first
+     *            the first digit
+     * @return the ordinary depiction
+     * @requires digits > 0  and  0 < first < 10
+     * @ensures [|digitString| = digits]
+     */
+    private static String digitString(int digits, int first) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < digits; i++) {
+            sb.append(1 + (first - 1 + i) % (NaturalNumber.RADIX - 1));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Times each operation on copies of {@code x} and {@code y} of the dynamic
+     * type of {@code nn} and outputs the times in milliseconds.
+     *
+     * @param out
+     *            the output stream
+     * @param label
+     *            the name of the implementation
+     * @param nn
+     *            a number of the type to be measured
+     * @param x
+     *            the first operand
+     * @param y
+     *            the second operand
+     * @updates out.content
+     * @requires out.is_open  and  y > 0  and  x >= y
+     * @ensures out.content = #out.content * [times of the operations]
+     */
+    private static void measure(SimpleWriter out, String label,
+            NaturalNumber nn, NaturalNumber x, NaturalNumber y) {
+        NaturalNumber a = nn.newInstance();
+        NaturalNumber b = nn.newInstance();
+        b.copyFrom(y);
+        out.print(label);
+
+        a.copyFrom(x);
+        long start = System.nanoTime();
+        a.add(b);
+        out.print("\t" + (System.nanoTime() - start) / NANOS_PER_MILLI);
+
+        a.copyFrom(x);
+        start = System.nanoTime();
+        a.multiply(b);
+        out.print("\t" + (System.nanoTime() - start) / NANOS_PER_MILLI);
+
+        a.copyFrom(x);
+        start = System.nanoTime();
+        a.divide(b);
+        out.print("\t" + (System.nanoTime() - start) / NANOS_PER_MILLI);
+
+        a.copyFrom(y);
+        start = System.nanoTime();
+        a.power(EXPONENT);
+        out.println("\t" + (System.nanoTime() - start) / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+        out.print("Number of digits: ");
+        int digits = in.nextInteger();
+        NaturalNumber x = new NaturalNumber4(digitString(digits, 1));
+        NaturalNumber y = new NaturalNumber4(
+                digitString(Math.max(1, digits / 2), 5));
+        out.println();
+        out.println("Times in milliseconds; x has n digits, y has n/2");
+        out.println("class\tx + y\tx * y\tx / y\ty ^ " + EXPONENT);
+        measure(out, "NN3", new NaturalNumber3(), x, y);
+        measure(out, "NN4", new NaturalNumber4(), x, y);
+        in.close();
+        out.close();
+    }
+
+}
@@ -0,0 +1,111 @@
+import components.naturalnumber.NaturalNumber;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Measures the time to convert n-digit numbers to and from their ordinary
+ * depictions: the {@code String} constructor and {@code toString} of
+ * {@code NaturalNumber3} and {@code NaturalNumber4}, and
+ * {@code NaturalNumber4.appendTo} into a reused {@code StringBuilder}, for
+ * n = 1000, 10000, ... up to a given limit.
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public final class NaturalNumberConversionBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private NaturalNumberConversionBenchmark() {
+    }
+
+    /**
+     * Smallest number of digits measured.
+     */
+    private static final int MIN_DIGITS = 1000;
+
+    /**
+     * Factor between successive numbers of digits measured.
+     */
+    private static final int FACTOR = 10;
+
+    /**
+     * Number of times each conversion is repeated; the average is reported.
+     */
+    private static final int REPEATS = 10;
+
+    /**
+     * Number of nanoseconds per microsecond.
+     */
+    private static final double NANOS_PER_MICRO = 1e3;
+
+    /**
+     * Reports the ordinary depiction of a number of {@code digits} digits.
+     *
+     * @param digits
+     *            the number of digits
+     * @return the ordinary depiction
+     * @requires digits > 0
+     * @ensures [|digitString| = digits]
+     */
+    private static String digitString(int digits) {
+        StringBuilder sb = new StringBuilder(digits);
+        for (int i = 0; i < digits; i++) {
+            sb.append(1 + i % (NaturalNumber.RADIX - 1));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+        out.print("Maximum number of digits: ");
+        int maxDigits = in.nextInteger();
+        out.println();
+        out.println("Average times in microseconds");
+        out.println("digits\tNN3(s)\tNN3 str\tNN4(s)\tNN4 str\tappendTo");
+        StringBuilder sb = new StringBuilder();
+        for (int n = MIN_DIGITS; n <= maxDigits; n *= FACTOR) {
+            String s = digitString(n);
+            long[] times = new long[5];
+            for (int r = 0; r < REPEATS; r++) {
+                long start = System.nanoTime();
+                NaturalNumber3 n3 = new NaturalNumber3(s);
+                times[0] += System.nanoTime() - start;
+                start = System.nanoTime();
+                String s3 = n3.toString();
+                times[1] += System.nanoTime() - start;
+                start = System.nanoTime();
+                NaturalNumber4 n4 = new NaturalNumber4(s);
+                times[2] += System.nanoTime() - start;
+                start = System.nanoTime();
+                String s4 = n4.toString();
+                times[3] += System.nanoTime() - start;
+                start = System.nanoTime();
+                sb.setLength(0);
+                n4.appendTo(sb);
+                times[4] += System.nanoTime() - start;
+                if (!s3.equals(s) || !s4.equals(s) || sb.length() != n) {
+                    throw new AssertionError("Wrong conversion");
+                }
+            }
+            out.print(n);
+            for (long t : times) {
+                out.print("\t" + t / REPEATS / NANOS_PER_MICRO);
+            }
+            out.println();
+        }
+        in.close();
+        out.close();
+    }
+
+}
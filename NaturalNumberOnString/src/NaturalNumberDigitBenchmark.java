@@ -0,0 +1,120 @@
+import components.naturalnumber.NaturalNumber;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Measures the time to build an n-digit number one digit at a time with
+ * {@code multiplyBy10} and to take it apart again with {@code divideBy10}, for
+ * {@code NaturalNumber3} and {@code NaturalNumber4}, for n = 1000, 10000, ...
+ * up to a given limit.
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public final class NaturalNumberDigitBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private NaturalNumberDigitBenchmark() {
+    }
+
+    /**
+     * Smallest number of digits measured.
+     */
+    private static final int MIN_DIGITS = 1000;
+
+    /**
+     * Factor between successive numbers of digits measured.
+     */
+    private static final int FACTOR = 10;
+
+    /**
+     * Number of nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Builds and takes apart an {@code n}-digit number in {@code nn}, and
+     * reports the time each step took.
+     *
+     * @param nn
+     *            the number used
+     * @param n
+     *            the number of digits
+     * @return the elapsed times of the two steps, in nanoseconds
+     * @updates nn
+     * @requires nn = 0  and  n > 0
+     * @ensures nn = 0
+     */
+    private static long[] run(NaturalNumber nn, int n) {
+        long[] times = new long[2];
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            nn.multiplyBy10(1 + i % (NaturalNumber.RADIX - 1));
+        }
+        times[0] = System.nanoTime() - start;
+        start = System.nanoTime();
+        int digits = 0;
+        while (!nn.isZero()) {
+            nn.divideBy10();
+            digits++;
+        }
+        times[1] = System.nanoTime() - start;
+        if (digits != n) {
+            throw new AssertionError("Wrong number of digits");
+        }
+        return times;
+    }
+
+    /**
+     * Measures a new instance of the dynamic type of {@code nn} and outputs
+     * the times in milliseconds.
+     *
+     * @param out
+     *            the output stream
+     * @param label
+     *            the name of the implementation
+     * @param nn
+     *            a number of the type to be measured
+     * @param n
+     *            the number of digits
+     * @updates out.content
+     * @requires out.is_open  and  n > 0
+     * @ensures out.content = #out.content * [times of the run]
+     */
+    private static void measure(SimpleWriter out, String label,
+            NaturalNumber nn, int n) {
+        long[] times = run(nn.newInstance(), n);
+        out.print(n + "\t" + label);
+        for (long t : times) {
+            out.print("\t" + t / NANOS_PER_MILLI);
+        }
+        out.println();
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+        out.print("Maximum number of digits: ");
+        int maxDigits = in.nextInteger();
+        out.println();
+        out.println("Times in milliseconds");
+        out.println("digits\tclass\tbuild\ttake apart");
+        for (int n = MIN_DIGITS; n <= maxDigits; n *= FACTOR) {
+            measure(out, "NN3", new NaturalNumber3(), n);
+            measure(out, "NN4", new NaturalNumber4(), n);
+        }
+        in.close();
+        out.close();
+    }
+
+}
@@ -0,0 +1,312 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import components.naturalnumber.NaturalNumber;
+import components.naturalnumber.NaturalNumber1L;
+
+/**
+ * Customized JUnit test fixture for {@code NaturalNumber4}, plus test cases
+ * for numbers of many limbs and for the overridden arithmetic methods.
+ */
+public class NaturalNumber4Test extends NaturalNumberTest {
+
+    @Override
+    protected final NaturalNumber constructorTest() {
+
+        return new NaturalNumber4();
+    }
+
+    @Override
+    protected final NaturalNumber constructorTest(int i) {
+
+        return new NaturalNumber4(i);
+    }
+
+    @Override
+    protected final NaturalNumber constructorTest(String s) {
+
+        return new NaturalNumber4(s);
+    }
+
+    @Override
+    protected final NaturalNumber constructorTest(NaturalNumber n) {
+
+        return new NaturalNumber4(n);
+    }
+
+    @Override
+    protected final NaturalNumber constructorRef() {
+
+        return new NaturalNumber1L();
+    }
+
+    @Override
+    protected final NaturalNumber constructorRef(int i) {
+
+        return new NaturalNumber1L(i);
+    }
+
+    @Override
+    protected final NaturalNumber constructorRef(String s) {
+
+        return new NaturalNumber1L(s);
+    }
+
+    @Override
+    protected final NaturalNumber constructorRef(NaturalNumber n) {
+
+        return new NaturalNumber1L(n);
+    }
+
+    @Test
+    public final void testMultiplyBy10ManyDigits() {
+        /*
+         * Set up variables
+         */
+        final int digits = 1000;
+        NaturalNumber n = this.constructorTest();
+        NaturalNumber nExpected = this.constructorRef();
+        /*
+         * Call method under test
+         */
+        for (int i = 0; i < digits; i++) {
+            n.multiplyBy10((i + 1) % NaturalNumber.RADIX);
+            nExpected.multiplyBy10((i + 1) % NaturalNumber.RADIX);
+        }
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(nExpected, n);
+        assertEquals(nExpected.toString(), n.toString());
+    }
+
+    @Test
+    public final void testDivideBy10ManyDigits() {
+        /*
+         * Set up variables
+         */
+        final int digits = 1000;
+        final int remaining = 95;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < digits; i++) {
+            sb.append((i + 1) % NaturalNumber.RADIX);
+        }
+        NaturalNumber n = this.constructorTest(sb.toString());
+        NaturalNumber nExpected = this.constructorRef(
+                sb.substring(0, remaining));
+        /*
+         * Call method under test
+         */
+        for (int i = digits - 1; i >= remaining; i--) {
+            int k = n.divideBy10();
+            assertEquals((i + 1) % NaturalNumber.RADIX, k);
+        }
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(nExpected, n);
+        assertEquals(nExpected.toString(), n.toString());
+    }
+
+    /**
+     * Reports a number of {@code digits} decimal digits, cycling through
+     * 9, 8, ..., 1, 0 starting from {@code first}.
+     *
+     * @param digits
+     *            the number of digits
+     * @param first
+     *            the first digit
+     * @return the ordinary depiction of the number
+     * @requires digits > 0  and  0 < first < 10
+     * @ensures [|digitString| = digits]
+     */
+    private static String digitString(int digits, int first) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < digits; i++) {
+            sb.append((first + NaturalNumber.RADIX - i % NaturalNumber.RADIX)
+                    % NaturalNumber.RADIX);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public final void testAddCarryingThroughLimbs() {
+        /*
+         * Set up variables
+         */
+        NaturalNumber n = this.constructorTest("999999999999999999999");
+        NaturalNumber m = this.constructorTest(1);
+        NaturalNumber nExpected = this.constructorRef("1000000000000000000000");
+        NaturalNumber mExpected = this.constructorRef(1);
+        /*
+         * Call method under test
+         */
+        n.add(m);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(nExpected, n);
+        assertEquals(mExpected, m);
+    }
+
+    @Test
+    public final void testSubtractBorrowingThroughLimbs() {
+        /*
+         * Set up variables
+         */
+        NaturalNumber n = this.constructorTest("1000000000000000000000");
+        NaturalNumber m = this.constructorTest(1);
+        NaturalNumber nExpected = this.constructorRef("999999999999999999999");
+        NaturalNumber mExpected = this.constructorRef(1);
+        /*
+         * Call method under test
+         */
+        n.subtract(m);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(nExpected, n);
+        assertEquals(mExpected, m);
+    }
+
+    @Test
+    public final void testMultiplyLarge() {
+        /*
+         * Set up variables
+         */
+        final int digits = 2000;
+        String x = digitString(digits, 9);
+        String y = digitString(digits + 1, 7);
+        NaturalNumber n = this.constructorTest(x);
+        NaturalNumber m = this.constructorTest(y);
+        NaturalNumber nExpected = this.constructorRef(x);
+        NaturalNumber mExpected = this.constructorRef(y);
+        nExpected.multiply(mExpected);
+        /*
+         * Call method under test
+         */
+        n.multiply(m);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(nExpected, n);
+        assertEquals(mExpected, m);
+    }
+
+    @Test
+    public final void testDivideLarge() {
+        /*
+         * Set up variables
+         */
+        final int digits = 500;
+        String x = digitString(2 * digits, 9);
+        String y = digitString(digits, 3);
+        NaturalNumber n = this.constructorTest(x);
+        NaturalNumber m = this.constructorTest(y);
+        NaturalNumber nExpected = this.constructorRef(x);
+        NaturalNumber mExpected = this.constructorRef(y);
+        NaturalNumber rExpected = nExpected.divide(mExpected);
+        /*
+         * Call method under test
+         */
+        NaturalNumber r = n.divide(m);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(nExpected, n);
+        assertEquals(mExpected, m);
+        assertEquals(rExpected, r);
+    }
+
+    @Test
+    public final void testDivideNeedingAddBack() {
+        /*
+         * Set up variables; for this pair the estimated quotient limb of
+         * Algorithm D passes its two-limb check but is still one too large,
+         * so the divisor has to be added back
+         */
+        NaturalNumber n = this.constructorTest(
+                "999999999999999998000000001499999999");
+        NaturalNumber m = this.constructorTest("1500000001499999999");
+        NaturalNumber nExpected = this.constructorRef("666666665999999999");
+        NaturalNumber mExpected = this.constructorRef("1500000001499999999");
+        NaturalNumber rExpected = this.constructorRef("1166666668999999998");
+        /*
+         * Call method under test
+         */
+        NaturalNumber r = n.divide(m);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(nExpected, n);
+        assertEquals(mExpected, m);
+        assertEquals(rExpected, r);
+    }
+
+    @Test
+    public final void testPower() {
+        /*
+         * Set up variables
+         */
+        final int p = 100;
+        NaturalNumber n = this.constructorTest(123456789);
+        NaturalNumber nExpected = this.constructorRef(123456789);
+        nExpected.power(p);
+        /*
+         * Call method under test
+         */
+        n.power(p);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(nExpected, n);
+    }
+
+    @Test
+    public final void testSetFromStringLarge() {
+        /*
+         * Set up variables
+         */
+        final int digits = 1000;
+        String s = digitString(digits, 1);
+        NaturalNumber n = this.constructorTest(42);
+        NaturalNumber nExpected = this.constructorRef(s);
+        /*
+         * Call method under test
+         */
+        n.setFromString(s);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(nExpected, n);
+        assertEquals(s, n.toString());
+    }
+
+    @Test
+    public final void testAppendToReusedBuilder() {
+        /*
+         * Set up variables
+         */
+        final int digits = 100;
+        String s = digitString(digits, 1);
+        NaturalNumber4 n = new NaturalNumber4(s);
+        NaturalNumber4 m = new NaturalNumber4(s.substring(0, digits - 5));
+        NaturalNumber4 zero = new NaturalNumber4();
+        StringBuilder sb = new StringBuilder("n = ");
+        /*
+         * Call method under test
+         */
+        n.appendTo(sb);
+        sb.append(", m = ");
+        m.appendTo(sb);
+        sb.append(", zero = ");
+        zero.appendTo(sb);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals("n = " + s + ", m = " + s.substring(0, digits - 5)
+                + ", zero = 0", sb.toString());
+    }
+
+}
@@ -0,0 +1,339 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.sequence.Sequence;
+import components.sequence.SequenceSecondary;
+
+/**
+ * {@code Sequence} represented as a growable circular array, with
+ * implementations of primary methods.
+ *
+ * <p>
+ * Entry {@code pos} of the sequence is kept at index
+ * {@code (front + pos) mod |entries|} of the array, whose length is a power of
+ * two. {@code entry} and {@code replaceEntry} take constant time; {@code add}
+ * and {@code remove} shift whichever side of {@code pos} is shorter, so they
+ * take amortized constant time at either end and O(min(pos, |this| - pos))
+ * time in general. The array doubles when full and halves when less than a
+ * quarter full.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code Sequence} entries
+ * @convention <pre>
+ * [|$this.entries| is a power of 2]  and
+ * |$this.entries| >= INITIAL_CAPACITY  and
+ * 0 <= $this.front < |$this.entries|  and
+ * 0 <= $this.length <= |$this.entries|  and
+ * [the $this.length entries of $this.entries starting at index $this.front,
+ *  wrapping around, are not null, and all others are null]
+ * </pre>
+ * @correspondence <pre>
+ * this = [the $this.length entries of $this.entries starting at index
+ *         $this.front, wrapping around]
+ * </pre>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public class Sequence4<T> extends SequenceSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Initial (and smallest) length of the entries array.
+     */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Entries, starting at index front and wrapping around.
+     */
+    private T[] entries;
+
+    /**
+     * Index in entries of the first entry.
+     */
+    private int front;
+
+    /**
+     * Number of entries.
+     */
+    private int length;
+
+    /**
+     * Reports the index in {@code this.entries} of entry {@code pos}.
+     *
+     * @param pos
+     *            the position in this
+     * @return the index in this.entries
+     * @requires 0 <= pos <= |this.entries|
+     * @ensures index = (this.front + pos) mod |this.entries|
+     */
+    private int index(int pos) {
+        return (this.front + pos) & (this.entries.length - 1);
+    }
+
+    /**
+     * Moves the entries to a new array of length {@code capacity}, starting at
+     * index 0.
+     *
+     * @param capacity
+     *            the length of the new array
+     * @updates this.entries, this.front
+     * @requires <pre>
+     * [capacity is a power of 2]  and  capacity >= this.length
+     * </pre>
+     * @ensures <pre>
+     * |this.entries| = capacity  and  this.front = 0  and
+     * [this is unchanged]
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void resize(int capacity) {
+        T[] old = this.entries;
+        this.entries = (T[]) (new Object[capacity]);
+        int firstPart = Math.min(this.length, old.length - this.front);
+        System.arraycopy(old, this.front, this.entries, 0, firstPart);
+        System.arraycopy(old, 0, this.entries, firstPart,
+                this.length - firstPart);
+        this.front = 0;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep() {
+        this.entries = (T[]) (new Object[INITIAL_CAPACITY]);
+        this.front = 0;
+        this.length = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Sequence4() {
+        this.createNewRep();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Sequence<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(Sequence<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Sequence4<?> : ""
+                + "Violation of: source is of dynamic type Sequence4<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Sequence4<?>,
+         * and the ? must be T or the call would not have compiled.
+         */
+        Sequence4<T> localSource = (Sequence4<T>) source;
+        this.entries = localSource.entries;
+        this.front = localSource.front;
+        this.length = localSource.length;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(int pos, T x) {
+        assert x != null : "Violation of: x is not null";
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos <= this.length() : "Violation of: pos <= |this|";
+
+        if (this.length == this.entries.length) {
+            this.resize(2 * this.entries.length);
+        }
+        int mask = this.entries.length - 1;
+        if (pos < this.length / 2) {
+            /*
+             * Shift the entries before pos one place toward the front
+             */
+            this.front = (this.front - 1) & mask;
+            for (int i = 0; i < pos; i++) {
+                this.entries[this.index(i)] = this.entries[this.index(i + 1)];
+            }
+        } else {
+            /*
+             * Shift the entries from pos on one place toward the back
+             */
+            for (int i = this.length; i > pos; i--) {
+                this.entries[this.index(i)] = this.entries[this.index(i - 1)];
+            }
+        }
+        this.entries[this.index(pos)] = x;
+        this.length++;
+    }
+
+    @Override
+    public final T remove(int pos) {
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos < this.length() : "Violation of: pos < |this|";
+
+        T x = this.entries[this.index(pos)];
+        if (pos < this.length / 2) {
+            for (int i = pos; i > 0; i--) {
+                this.entries[this.index(i)] = this.entries[this.index(i - 1)];
+            }
+            this.entries[this.front] = null;
+            this.front = this.index(1);
+        } else {
+            for (int i = pos; i < this.length - 1; i++) {
+                this.entries[this.index(i)] = this.entries[this.index(i + 1)];
+            }
+            this.entries[this.index(this.length - 1)] = null;
+        }
+        this.length--;
+        if (this.entries.length > INITIAL_CAPACITY
+                && this.length < this.entries.length / 4) {
+            this.resize(this.entries.length / 2);
+        }
+        return x;
+    }
+
+    @Override
+    public final int length() {
+        return this.length;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Sequence4Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Sequence4}.
+     */
+    private final class Sequence4Iterator implements Iterator<T> {
+
+        /**
+         * Position of the next entry.
+         */
+        private int currentPos;
+
+        /**
+         * No-argument constructor.
+         */
+        private Sequence4Iterator() {
+            this.currentPos = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.currentPos < Sequence4.this.length;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x = Sequence4.this.entries[Sequence4.this
+                    .index(this.currentPos)];
+            this.currentPos++;
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @Override
+    public final T entry(int pos) {
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos < this.length() : "Violation of: pos < |this|";
+
+        return this.entries[this.index(pos)];
+    }
+
+    @Override
+    public final T replaceEntry(int pos, T x) {
+        assert x != null : "Violation of: x is not null";
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos < this.length() : "Violation of: pos < |this|";
+
+        int i = this.index(pos);
+        T old = this.entries[i];
+        this.entries[i] = x;
+        return old;
+    }
+
+    @Override
+    public final void append(Sequence<T> s) {
+        assert s != null : "Violation of: s is not null";
+        assert s != this : "Violation of: s is not this";
+
+        int newLength = this.length + s.length();
+        int capacity = this.entries.length;
+        while (capacity < newLength) {
+            capacity *= 2;
+        }
+        if (capacity != this.entries.length) {
+            this.resize(capacity);
+        }
+        for (T x : s) {
+            this.entries[this.index(this.length)] = x;
+            this.length++;
+        }
+        s.clear();
+    }
+
+    @Override
+    public final void flip() {
+        int i = 0;
+        int j = this.length - 1;
+        while (i < j) {
+            int a = this.index(i);
+            int b = this.index(j);
+            T tmp = this.entries[a];
+            this.entries[a] = this.entries[b];
+            this.entries[b] = tmp;
+            i++;
+            j--;
+        }
+    }
+
+}
@@ -0,0 +1,667 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.sequence.Sequence;
+import components.sequence.SequenceSecondary;
+
+/**
+ * {@code Sequence} represented as a persistent rope: a height-balanced (AVL)
+ * binary tree whose in-order traversal is the sequence, with each node
+ * recording the size of its subtree, with implementations of primary methods.
+ *
+ * <p>
+ * Nodes are never modified once built; every update builds the O(log n) nodes
+ * on the paths it changes and shares the rest. All operations reduce to
+ * {@code join} (concatenate two trees around an entry) and {@code take} and
+ * {@code drop} (split a tree at a position), each of which takes O(log n)
+ * time. So {@code add}, {@code remove}, {@code entry}, {@code replaceEntry},
+ * {@code append}, {@code insert} and {@code extract} take O(log n) time when
+ * the other sequence is also a {@code Sequence5}, and {@code flip} takes
+ * linear time.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code Sequence} entries
+ * @convention <pre>
+ * [every node reachable from $this.root has
+ *   height = 1 + max(height of left, height of right)  and
+ *   size = 1 + size of left + size of right  and
+ *   |height of left - height of right| <= 1  and
+ *   entry /= null,
+ *  where the height and size of a null tree are 0]
+ * </pre>
+ * @correspondence <pre>
+ * this = [the entries of the nodes reachable from $this.root, in order]
+ * </pre>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public class Sequence5<T> extends SequenceSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Node class for the rope; never modified once constructed, and static so
+     * that subtrees shared between sequences by {@code extract}, {@code insert}
+     * and {@code append} keep no reference to the sequence that built them.
+     *
+     * @param <T>
+     *            type of entries
+     */
+    private static final class Node<T> {
+
+        /**
+         * Left subtree, holding the entries before this one.
+         */
+        private final Node<T> left;
+
+        /**
+         * Entry.
+         */
+        private final T entry;
+
+        /**
+         * Right subtree, holding the entries after this one.
+         */
+        private final Node<T> right;
+
+        /**
+         * Height of this subtree.
+         */
+        private final int height;
+
+        /**
+         * Number of entries in this subtree.
+         */
+        private final int size;
+
+        /**
+         * Constructor from subtrees and entry.
+         *
+         * @param left
+         *            the left subtree
+         * @param entry
+         *            the entry
+         * @param right
+         *            the right subtree
+         */
+        private Node(Node<T> left, T entry, Node<T> right) {
+            this.left = left;
+            this.entry = entry;
+            this.right = right;
+            this.height = 1 + Math.max(height(left), height(right));
+            this.size = 1 + size(left) + size(right);
+        }
+
+    }
+
+    /**
+     * Root of the rope, null if empty.
+     */
+    private Node<T> root;
+
+    /**
+     * Reports the height of {@code t}.
+     *
+     * @param t
+     *            the tree
+     * @return the height of t
+     * @ensures height = [height of t, 0 if t = null]
+     */
+    private static int height(Node<?> t) {
+        int h = 0;
+        if (t != null) {
+            h = t.height;
+        }
+        return h;
+    }
+
+    /**
+     * Reports the number of entries in {@code t}.
+     *
+     * @param t
+     *            the tree
+     * @return the size of t
+     * @ensures size = [number of entries in t, 0 if t = null]
+     */
+    private static int size(Node<?> t) {
+        int n = 0;
+        if (t != null) {
+            n = t.size;
+        }
+        return n;
+    }
+
+    /**
+     * Builds a tree holding {@code left * <x> * right} from two trees whose
+     * heights differ by at most 2, rotating once or twice if they differ by 2.
+     *
+     * @param left
+     *            the entries before x
+     * @param x
+     *            the middle entry
+     * @param right
+     *            the entries after x
+     * @return the balanced tree
+     * @requires <pre>
+     * [left and right satisfy the convention]  and
+     * |height(left) - height(right)| <= 2
+     * </pre>
+     * @ensures <pre>
+     * [balance satisfies the convention]  and
+     * [entries of balance] = [entries of left] * <x> * [entries of right]
+     * </pre>
+     */
+    private Node<T> balance(Node<T> left, T x, Node<T> right) {
+        int hl = height(left);
+        int hr = height(right);
+        Node<T> result;
+        if (hl > hr + 1) {
+            if (height(left.left) >= height(left.right)) {
+                result = new Node<T>(left.left, left.entry,
+                        new Node<T>(left.right, x, right));
+            } else {
+                Node<T> lr = left.right;
+                result = new Node<T>(
+                        new Node<T>(left.left, left.entry, lr.left), lr.entry,
+                        new Node<T>(lr.right, x, right));
+            }
+        } else if (hr > hl + 1) {
+            if (height(right.right) >= height(right.left)) {
+                result = new Node<T>(new Node<T>(left, x, right.left),
+                        right.entry, right.right);
+            } else {
+                Node<T> rl = right.left;
+                result = new Node<T>(new Node<T>(left, x, rl.left), rl.entry,
+                        new Node<T>(rl.right, right.entry, right.right));
+            }
+        } else {
+            result = new Node<T>(left, x, right);
+        }
+        return result;
+    }
+
+    /**
+     * Builds a tree holding {@code left * <x> * right} from two trees of any
+     * heights, descending the taller one's spine to where the other fits.
+     *
+     * @param left
+     *            the entries before x
+     * @param x
+     *            the middle entry
+     * @param right
+     *            the entries after x
+     * @return the joined tree
+     * @requires [left and right satisfy the convention]
+     * @ensures <pre>
+     * [join satisfies the convention]  and
+     * [entries of join] = [entries of left] * <x> * [entries of right]
+     * </pre>
+     */
+    private Node<T> join(Node<T> left, T x, Node<T> right) {
+        int hl = height(left);
+        int hr = height(right);
+        Node<T> result;
+        if (hl > hr + 1) {
+            result = this.balance(left.left, left.entry,
+                    this.join(left.right, x, right));
+        } else if (hr > hl + 1) {
+            result = this.balance(this.join(left, x, right.left), right.entry,
+                    right.right);
+        } else {
+            result = new Node<T>(left, x, right);
+        }
+        return result;
+    }
+
+    /**
+     * Builds a tree holding {@code left * right}.
+     *
+     * @param left
+     *            the first entries
+     * @param right
+     *            the last entries
+     * @return the concatenated tree
+     * @requires [left and right satisfy the convention]
+     * @ensures <pre>
+     * [concat satisfies the convention]  and
+     * [entries of concat] = [entries of left] * [entries of right]
+     * </pre>
+     */
+    private Node<T> concat(Node<T> left, Node<T> right) {
+        Node<T> result;
+        if (left == null) {
+            result = right;
+        } else if (right == null) {
+            result = left;
+        } else {
+            int n = left.size;
+            result = this.join(this.take(left, n - 1), this.get(left, n - 1),
+                    right);
+        }
+        return result;
+    }
+
+    /**
+     * Builds a tree holding the first {@code k} entries of {@code t}.
+     *
+     * @param t
+     *            the tree
+     * @param k
+     *            the number of entries to keep
+     * @return the tree of the first k entries
+     * @requires <pre>
+     * [t satisfies the convention]  and  0 <= k <= size(t)
+     * </pre>
+     * @ensures <pre>
+     * [take satisfies the convention]  and
+     * [entries of take] = [entries of t][0, k)
+     * </pre>
+     */
+    private Node<T> take(Node<T> t, int k) {
+        Node<T> result;
+        if (k == 0) {
+            result = null;
+        } else if (k == t.size) {
+            result = t;
+        } else {
+            int leftSize = size(t.left);
+            if (k <= leftSize) {
+                result = this.take(t.left, k);
+            } else {
+                result = this.join(t.left, t.entry,
+                        this.take(t.right, k - leftSize - 1));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Builds a tree holding all but the first {@code k} entries of {@code t}.
+     *
+     * @param t
+     *            the tree
+     * @param k
+     *            the number of entries to drop
+     * @return the tree of the remaining entries
+     * @requires <pre>
+     * [t satisfies the convention]  and  0 <= k <= size(t)
+     * </pre>
+     * @ensures <pre>
+     * [drop satisfies the convention]  and
+     * [entries of drop] = [entries of t][k, size(t))
+     * </pre>
+     */
+    private Node<T> drop(Node<T> t, int k) {
+        Node<T> result;
+        if (k == 0) {
+            result = t;
+        } else if (k == t.size) {
+            result = null;
+        } else {
+            int leftSize = size(t.left);
+            if (k <= leftSize) {
+                result = this.join(this.drop(t.left, k), t.entry, t.right);
+            } else {
+                result = this.drop(t.right, k - leftSize - 1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reports the entry at position {@code pos} of {@code t}.
+     *
+     * @param t
+     *            the tree
+     * @param pos
+     *            the position
+     * @return the entry at pos
+     * @requires 0 <= pos < size(t)
+     * @ensures get = [entries of t][pos, pos+1)
+     */
+    private T get(Node<T> t, int pos) {
+        Node<T> n = t;
+        int p = pos;
+        int leftSize = size(n.left);
+        while (p != leftSize) {
+            if (p < leftSize) {
+                n = n.left;
+            } else {
+                p -= leftSize + 1;
+                n = n.right;
+            }
+            leftSize = size(n.left);
+        }
+        return n.entry;
+    }
+
+    /**
+     * Builds a tree like {@code t} but with {@code x} at position {@code pos}.
+     *
+     * @param t
+     *            the tree
+     * @param pos
+     *            the position
+     * @param x
+     *            the new entry
+     * @return the updated tree
+     * @requires 0 <= pos < size(t)
+     * @ensures <pre>
+     * [entries of set] = [entries of t][0, pos) * <x> *
+     *                    [entries of t][pos+1, size(t))
+     * </pre>
+     */
+    private Node<T> set(Node<T> t, int pos, T x) {
+        int leftSize = size(t.left);
+        Node<T> result;
+        if (pos < leftSize) {
+            result = new Node<T>(this.set(t.left, pos, x), t.entry, t.right);
+        } else if (pos > leftSize) {
+            result = new Node<T>(t.left, t.entry,
+                    this.set(t.right, pos - leftSize - 1, x));
+        } else {
+            result = new Node<T>(t.left, x, t.right);
+        }
+        return result;
+    }
+
+    /**
+     * Builds a perfectly balanced tree holding {@code entries[lo, hi)}.
+     *
+     * @param entries
+     *            the entries
+     * @param lo
+     *            the first index
+     * @param hi
+     *            one past the last index
+     * @return the tree
+     * @requires <pre>
+     * 0 <= lo <= hi <= |entries|  and  [entries[lo, hi) are not null]
+     * </pre>
+     * @ensures <pre>
+     * [build satisfies the convention]  and
+     * [entries of build] = entries[lo, hi)
+     * </pre>
+     */
+    private Node<T> build(T[] entries, int lo, int hi) {
+        Node<T> result = null;
+        if (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            result = new Node<T>(this.build(entries, lo, mid), entries[mid],
+                    this.build(entries, mid + 1, hi));
+        }
+        return result;
+    }
+
+    /**
+     * Removes all entries of {@code s} and returns them as a tree, in
+     * constant time if {@code s} is a {@code Sequence5} and in linear time
+     * otherwise.
+     *
+     * @param s
+     *            the sequence
+     * @return the tree of the entries of s
+     * @clears s
+     * @ensures [entries of treeOf] = #s
+     */
+    @SuppressWarnings("unchecked")
+    private Node<T> treeOf(Sequence<T> s) {
+        Node<T> result;
+        if (s instanceof Sequence5<?>) {
+            Sequence5<T> localS = (Sequence5<T>) s;
+            result = localS.root;
+        } else {
+            T[] entries = (T[]) (new Object[s.length()]);
+            int i = 0;
+            for (T x : s) {
+                entries[i] = x;
+                i++;
+            }
+            result = this.build(entries, 0, entries.length);
+        }
+        s.clear();
+        return result;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.root = null;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Sequence5() {
+        this.createNewRep();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Sequence<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(Sequence<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Sequence5<?> : ""
+                + "Violation of: source is of dynamic type Sequence5<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Sequence5<?>,
+         * and the ? must be T or the call would not have compiled.
+         */
+        Sequence5<T> localSource = (Sequence5<T>) source;
+        this.root = localSource.root;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(int pos, T x) {
+        assert x != null : "Violation of: x is not null";
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos <= this.length() : "Violation of: pos <= |this|";
+
+        this.root = this.join(this.take(this.root, pos), x,
+                this.drop(this.root, pos));
+    }
+
+    @Override
+    public final T remove(int pos) {
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos < this.length() : "Violation of: pos < |this|";
+
+        T x = this.get(this.root, pos);
+        this.root = this.concat(this.take(this.root, pos),
+                this.drop(this.root, pos + 1));
+        return x;
+    }
+
+    @Override
+    public final int length() {
+        return size(this.root);
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Sequence5Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Sequence5}.
+     * Since nodes are never modified, the iterator walks the tree as it was
+     * when the iterator was constructed.
+     */
+    private final class Sequence5Iterator implements Iterator<T> {
+
+        /**
+         * Nodes whose entries and right subtrees remain to be visited, the
+         * next one on top.
+         */
+        private final Deque<Node<T>> pending;
+
+        /**
+         * No-argument constructor.
+         */
+        private Sequence5Iterator() {
+            this.pending = new ArrayDeque<Node<T>>();
+            this.pushLeftSpine(Sequence5.this.root);
+        }
+
+        /**
+         * Pushes {@code t} and its leftmost descendants onto
+         * {@code this.pending}.
+         *
+         * @param t
+         *            the tree
+         * @updates this.pending
+         */
+        private void pushLeftSpine(Node<T> t) {
+            Node<T> n = t;
+            while (n != null) {
+                this.pending.push(n);
+                n = n.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.pending.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            Node<T> n = this.pending.pop();
+            this.pushLeftSpine(n.right);
+            return n.entry;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @Override
+    public final T entry(int pos) {
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos < this.length() : "Violation of: pos < |this|";
+
+        return this.get(this.root, pos);
+    }
+
+    @Override
+    public final T replaceEntry(int pos, T x) {
+        assert x != null : "Violation of: x is not null";
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos < this.length() : "Violation of: pos < |this|";
+
+        T old = this.get(this.root, pos);
+        this.root = this.set(this.root, pos, x);
+        return old;
+    }
+
+    @Override
+    public final void append(Sequence<T> s) {
+        assert s != null : "Violation of: s is not null";
+        assert s != this : "Violation of: s is not this";
+
+        this.root = this.concat(this.root, this.treeOf(s));
+    }
+
+    @Override
+    public final void insert(int pos, Sequence<T> s) {
+        assert s != null : "Violation of: s is not null";
+        assert s != this : "Violation of: s is not this";
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos <= this.length() : "Violation of: pos <= |this|";
+
+        this.root = this.concat(
+                this.concat(this.take(this.root, pos), this.treeOf(s)),
+                this.drop(this.root, pos));
+    }
+
+    @Override
+    public final void extract(int pos1, int pos2, Sequence<T> s) {
+        assert s != null : "Violation of: s is not null";
+        assert s != this : "Violation of: s is not this";
+        assert 0 <= pos1 : "Violation of: 0 <= pos1";
+        assert pos1 <= pos2 : "Violation of: pos1 <= pos2";
+        assert pos2 <= this.length() : "Violation of: pos2 <= |this|";
+
+        Node<T> middle = this.take(this.drop(this.root, pos1), pos2 - pos1);
+        this.root = this.concat(this.take(this.root, pos1),
+                this.drop(this.root, pos2));
+        s.clear();
+        if (s instanceof Sequence5<?>) {
+            @SuppressWarnings("unchecked")
+            Sequence5<T> localS = (Sequence5<T>) s;
+            localS.root = middle;
+        } else {
+            Sequence5<T> extracted = new Sequence5<T>();
+            extracted.root = middle;
+            for (T x : extracted) {
+                s.add(s.length(), x);
+            }
+        }
+    }
+
+    @Override
+    public final void flip() {
+        @SuppressWarnings("unchecked")
+        T[] entries = (T[]) (new Object[this.length()]);
+        int i = entries.length;
+        for (T x : this) {
+            i--;
+            entries[i] = x;
+        }
+        this.root = this.build(entries, 0, entries.length);
+    }
+
+}
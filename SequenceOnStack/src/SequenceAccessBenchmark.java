@@ -0,0 +1,154 @@
+import components.sequence.Sequence;
+import components.sequence.Sequence1L;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Measures {@code Sequence1L} and {@code Sequence4} on two random-access
+ * workloads: the one of the BL code generator, which appends byte codes and
+ * back-patches jump targets with {@code replaceEntry}, and the one of
+ * {@code SequenceSmooth.smooth}, which reads neighboring entries with
+ * {@code entry}.
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public final class SequenceAccessBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private SequenceAccessBenchmark() {
+    }
+
+    /**
+     * Placeholder byte code for a jump target not yet known.
+     */
+    private static final int DUMMY = 0;
+
+    /**
+     * Byte code of a conditional jump.
+     */
+    private static final int JUMP_IF_NOT = 1;
+
+    /**
+     * Byte code of a primitive instruction.
+     */
+    private static final int PRIMITIVE = 2;
+
+    /**
+     * Maximum nesting of blocks in the generated code.
+     */
+    private static final int MAX_DEPTH = 50;
+
+    /**
+     * Number of nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Generates about {@code n} byte codes into {@code cp} the way the code
+     * generator does for nested IF statements: each IF emits a conditional
+     * jump and a placeholder target, then its body, and then patches the
+     * target with the current length of {@code cp}.
+     *
+     * @param cp
+     *            the generated code
+     * @param n
+     *            the number of byte codes
+     * @updates cp
+     * @requires cp = <>
+     * @ensures |cp| >= n
+     */
+    private static void generate(Sequence<Integer> cp, int n) {
+        int[] pending = new int[MAX_DEPTH];
+        int depth = 0;
+        int step = 0;
+        while (cp.length() < n || depth > 0) {
+            step++;
+            if (cp.length() < n && depth < MAX_DEPTH && step % 3 == 0) {
+                cp.add(cp.length(), JUMP_IF_NOT);
+                pending[depth] = cp.length();
+                depth++;
+                cp.add(cp.length(), DUMMY);
+            } else if (depth > 0 && (step % 5 == 0 || cp.length() >= n)) {
+                depth--;
+                cp.replaceEntry(pending[depth], cp.length());
+            } else {
+                cp.add(cp.length(), PRIMITIVE);
+            }
+        }
+    }
+
+    /**
+     * Sets {@code s2} to the averages of neighboring entries of {@code s1},
+     * as {@code SequenceSmooth.smooth} does.
+     *
+     * @param s1
+     *            the sequence to smooth
+     * @param s2
+     *            the resulting sequence
+     * @replaces s2
+     * @requires |s1| >= 1
+     * @ensures |s2| = |s1| - 1
+     */
+    private static void smooth(Sequence<Integer> s1, Sequence<Integer> s2) {
+        s2.clear();
+        for (int i = 0; i < s1.length() - 1; i++) {
+            s2.add(i, (s1.entry(i) + s1.entry(i + 1)) / 2);
+        }
+    }
+
+    /**
+     * Runs both workloads on new instances of the dynamic type of {@code s}
+     * and outputs the times in milliseconds.
+     *
+     * @param out
+     *            the output stream
+     * @param label
+     *            the name of the implementation
+     * @param s
+     *            a sequence of the type to be measured
+     * @param n
+     *            the size of the workloads
+     * @updates out.content
+     * @requires out.is_open  and  n > 0
+     * @ensures out.content = #out.content * [times of the workloads]
+     */
+    private static void measure(SimpleWriter out, String label,
+            Sequence<Integer> s, int n) {
+        Sequence<Integer> cp = s.newInstance();
+        long start = System.nanoTime();
+        generate(cp, n);
+        long generateTime = System.nanoTime() - start;
+        Sequence<Integer> smoothed = s.newInstance();
+        start = System.nanoTime();
+        smooth(cp, smoothed);
+        long smoothTime = System.nanoTime() - start;
+        out.println(label + "\t" + generateTime / NANOS_PER_MILLI + "\t"
+                + smoothTime / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+        out.print("Number of byte codes: ");
+        int n = in.nextInteger();
+        out.println();
+        out.println("Times in milliseconds");
+        out.println("class\tgenerate\tsmooth");
+        measure(out, "Seq1L", new Sequence1L<Integer>(), n);
+        measure(out, "Seq4", new Sequence4<Integer>(), n);
+        in.close();
+        out.close();
+    }
+
+}
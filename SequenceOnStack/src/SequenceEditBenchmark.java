@@ -0,0 +1,146 @@
+import java.util.Random;
+
+import components.sequence.Sequence;
+import components.sequence.Sequence1L;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Measures {@code Sequence1L}, {@code Sequence4} and {@code Sequence5} on
+ * random-position edits of a large sequence, as made by
+ * {@code Statement.addToBlock} and {@code removeFromBlock} on the blocks of a
+ * large generated BL program: single adds and removes at random positions,
+ * and cutting a random range and pasting it at another random position.
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public final class SequenceEditBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private SequenceEditBenchmark() {
+    }
+
+    /**
+     * Seed of the random edits, the same for every implementation.
+     */
+    private static final long SEED = 2231;
+
+    /**
+     * Number of nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Makes {@code edits} single-entry edits at random positions of {@code s}:
+     * alternately an add and a remove, so the length of {@code s} does not
+     * change.
+     *
+     * @param s
+     *            the sequence
+     * @param edits
+     *            the number of edits
+     * @param rnd
+     *            the source of positions
+     * @updates s
+     * @requires |s| > 0
+     * @ensures |s| = |#s|
+     */
+    private static void addAndRemove(Sequence<Integer> s, int edits,
+            Random rnd) {
+        for (int i = 0; i < edits; i++) {
+            if (i % 2 == 0) {
+                s.add(rnd.nextInt(s.length() + 1), i);
+            } else {
+                s.remove(rnd.nextInt(s.length()));
+            }
+        }
+    }
+
+    /**
+     * Makes {@code edits} cut-and-paste edits on {@code s}: each extracts a
+     * random range and inserts it at a random position of what remains.
+     *
+     * @param s
+     *            the sequence
+     * @param edits
+     *            the number of edits
+     * @param rnd
+     *            the source of positions
+     * @updates s
+     * @ensures [s is a permutation of #s]
+     */
+    private static void cutAndPaste(Sequence<Integer> s, int edits,
+            Random rnd) {
+        Sequence<Integer> cut = s.newInstance();
+        for (int i = 0; i < edits; i++) {
+            int pos1 = rnd.nextInt(s.length() + 1);
+            int pos2 = pos1 + rnd.nextInt(s.length() - pos1 + 1);
+            s.extract(pos1, pos2, cut);
+            s.insert(rnd.nextInt(s.length() + 1), cut);
+        }
+    }
+
+    /**
+     * Runs both workloads on a new instance of the dynamic type of {@code s}
+     * of length {@code n} and outputs the times in milliseconds.
+     *
+     * @param out
+     *            the output stream
+     * @param label
+     *            the name of the implementation
+     * @param s
+     *            a sequence of the type to be measured
+     * @param n
+     *            the length of the sequence
+     * @param edits
+     *            the number of edits of each workload
+     * @updates out.content
+     * @requires out.is_open  and  n > 0
+     * @ensures out.content = #out.content * [times of the workloads]
+     */
+    private static void measure(SimpleWriter out, String label,
+            Sequence<Integer> s, int n, int edits) {
+        Sequence<Integer> block = s.newInstance();
+        for (int i = 0; i < n; i++) {
+            block.add(block.length(), i);
+        }
+        Random rnd = new Random(SEED);
+        long start = System.nanoTime();
+        addAndRemove(block, edits, rnd);
+        long singleTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        cutAndPaste(block, edits, rnd);
+        long rangeTime = System.nanoTime() - start;
+        out.println(label + "\t" + singleTime / NANOS_PER_MILLI + "\t"
+                + rangeTime / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+        out.print("Length of sequence: ");
+        int n = in.nextInteger();
+        out.print("Number of edits: ");
+        int edits = in.nextInteger();
+        out.println();
+        out.println("Times in milliseconds");
+        out.println("class\tadd/remove\tcut/paste");
+        measure(out, "Seq1L", new Sequence1L<Integer>(), n, edits);
+        measure(out, "Seq4", new Sequence4<Integer>(), n, edits);
+        measure(out, "Seq5", new Sequence5<Integer>(), n, edits);
+        in.close();
+        out.close();
+    }
+
+}
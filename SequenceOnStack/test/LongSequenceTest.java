@@ -0,0 +1,132 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import components.sequence.Sequence;
+
+/**
+ * JUnit test fixture for {@code Sequence<String>} implementations with their
+ * own representation of long sequences: the test cases of
+ * {@code SequenceTest} plus test cases for longer sequences and for the
+ * secondary methods those implementations override.
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public abstract class LongSequenceTest extends SequenceTest {
+
+    @Test
+    public final void testEntryAndReplaceEntry() {
+        /*
+         * Set up variables
+         */
+        Sequence<String> s = this.constructorTest();
+        Sequence<String> sExpected = this.constructorRef();
+        for (String x : new String[] { "red", "blue", "green" }) {
+            s.add(0, x);
+            sExpected.add(0, x);
+        }
+        sExpected.replaceEntry(1, "yellow");
+        /*
+         * Call method under test
+         */
+        String entry = s.entry(0);
+        String old = s.replaceEntry(1, "yellow");
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals("green", entry);
+        assertEquals("blue", old);
+        assertEquals(sExpected, s);
+    }
+
+    @Test
+    public final void testAddAndRemoveAtBothEndsAndMiddle() {
+        /*
+         * Set up variables
+         */
+        final int n = 1000;
+        final int third = 3;
+        Sequence<String> s = this.constructorTest();
+        Sequence<String> sExpected = this.constructorRef();
+        /*
+         * Call method under test
+         */
+        for (int i = 0; i < n; i++) {
+            int pos = 0;
+            if (i % third == 1) {
+                pos = s.length();
+            } else if (i % third == 2) {
+                pos = s.length() / third;
+            }
+            s.add(pos, "e" + i);
+            sExpected.add(pos, "e" + i);
+        }
+        assertEquals(sExpected, s);
+        for (int i = 0; i < n - 1; i++) {
+            int pos = 0;
+            if (i % third == 1) {
+                pos = s.length() - 1;
+            } else if (i % third == 2) {
+                pos = 2 * s.length() / third;
+            }
+            assertEquals(sExpected.remove(pos), s.remove(pos));
+        }
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(sExpected, s);
+    }
+
+    @Test
+    public final void testAppend() {
+        /*
+         * Set up variables
+         */
+        final int n = 20;
+        Sequence<String> s = this.constructorTest();
+        Sequence<String> t = this.constructorTest();
+        Sequence<String> sExpected = this.constructorRef();
+        Sequence<String> tExpected = this.constructorRef();
+        for (int i = 0; i < n; i++) {
+            s.add(0, "s" + i);
+            sExpected.add(0, "s" + i);
+            t.add(t.length(), "t" + i);
+        }
+        for (int i = 0; i < n; i++) {
+            sExpected.add(sExpected.length(), "t" + i);
+        }
+        /*
+         * Call method under test
+         */
+        s.append(t);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(sExpected, s);
+        assertEquals(tExpected, t);
+    }
+
+    @Test
+    public final void testFlip() {
+        /*
+         * Set up variables
+         */
+        final int n = 11;
+        Sequence<String> s = this.constructorTest();
+        Sequence<String> sExpected = this.constructorRef();
+        for (int i = 0; i < n; i++) {
+            s.add(0, "e" + i);
+            sExpected.add(sExpected.length(), "e" + i);
+        }
+        /*
+         * Call method under test
+         */
+        s.flip();
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(sExpected, s);
+    }
+
+}
@@ -0,0 +1,19 @@
+import components.sequence.Sequence;
+import components.sequence.Sequence1L;
+
+/**
+ * Customized JUnit test fixture for {@code Sequence4}.
+ */
+public class Sequence4Test extends LongSequenceTest {
+
+    @Override
+    protected final Sequence<String> constructorTest() {
+        return new Sequence4<String>();
+    }
+
+    @Override
+    protected final Sequence<String> constructorRef() {
+        return new Sequence1L<String>();
+    }
+
+}
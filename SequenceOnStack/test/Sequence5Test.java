@@ -0,0 +1,157 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import components.sequence.Sequence;
+import components.sequence.Sequence1L;
+
+/**
+ * Customized JUnit test fixture for {@code Sequence5}, plus test cases for
+ * {@code insert} and {@code extract} and for random edits on a sequence large
+ * enough to need rebalancing.
+ */
+public class Sequence5Test extends LongSequenceTest {
+
+    @Override
+    protected final Sequence<String> constructorTest() {
+        return new Sequence5<String>();
+    }
+
+    @Override
+    protected final Sequence<String> constructorRef() {
+        return new Sequence1L<String>();
+    }
+
+    @Test
+    public final void testInsert() {
+        /*
+         * Set up variables
+         */
+        final int n = 30;
+        final int pos = 17;
+        Sequence<String> s = this.constructorTest();
+        Sequence<String> t = this.constructorTest();
+        Sequence<String> sExpected = this.constructorRef();
+        Sequence<String> tExpected = this.constructorRef();
+        for (int i = 0; i < n; i++) {
+            s.add(i, "s" + i);
+            sExpected.add(i, "s" + i);
+            t.add(i, "t" + i);
+        }
+        for (int i = 0; i < n; i++) {
+            sExpected.add(pos + i, "t" + i);
+        }
+        /*
+         * Call method under test
+         */
+        s.insert(pos, t);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(sExpected, s);
+        assertEquals(tExpected, t);
+    }
+
+    @Test
+    public final void testExtract() {
+        /*
+         * Set up variables
+         */
+        final int n = 40;
+        final int pos1 = 5;
+        final int pos2 = 31;
+        Sequence<String> s = this.constructorTest();
+        Sequence<String> t = this.constructorTest();
+        Sequence<String> sExpected = this.constructorRef();
+        Sequence<String> tExpected = this.constructorRef();
+        t.add(0, "old");
+        for (int i = 0; i < n; i++) {
+            s.add(i, "s" + i);
+            if (pos1 <= i && i < pos2) {
+                tExpected.add(tExpected.length(), "s" + i);
+            } else {
+                sExpected.add(sExpected.length(), "s" + i);
+            }
+        }
+        /*
+         * Call method under test
+         */
+        s.extract(pos1, pos2, t);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(sExpected, s);
+        assertEquals(tExpected, t);
+    }
+
+    @Test
+    public final void testExtractIntoOtherImplementation() {
+        /*
+         * Set up variables
+         */
+        final int n = 10;
+        final int pos1 = 2;
+        final int pos2 = 6;
+        Sequence<String> s = this.constructorTest();
+        Sequence<String> t = this.constructorRef();
+        Sequence<String> sExpected = this.constructorRef();
+        Sequence<String> tExpected = this.constructorRef();
+        for (int i = 0; i < n; i++) {
+            s.add(i, "s" + i);
+            if (pos1 <= i && i < pos2) {
+                tExpected.add(tExpected.length(), "s" + i);
+            } else {
+                sExpected.add(sExpected.length(), "s" + i);
+            }
+        }
+        /*
+         * Call method under test
+         */
+        s.extract(pos1, pos2, t);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(sExpected, s);
+        assertEquals(tExpected, t);
+    }
+
+    @Test
+    public final void testRandomEdits() {
+        /*
+         * Set up variables
+         */
+        final int n = 3000;
+        final int kinds = 4;
+        Random rnd = new Random(2231);
+        Sequence<String> s = this.constructorTest();
+        Sequence<String> sExpected = this.constructorRef();
+        /*
+         * Call method under test
+         */
+        for (int i = 0; i < n; i++) {
+            int kind = rnd.nextInt(kinds);
+            if (kind == 0 && s.length() > 0) {
+                int pos = rnd.nextInt(s.length());
+                assertEquals(sExpected.remove(pos), s.remove(pos));
+            } else if (kind == 1 && s.length() > 0) {
+                int pos = rnd.nextInt(s.length());
+                assertEquals(sExpected.replaceEntry(pos, "r" + i),
+                        s.replaceEntry(pos, "r" + i));
+            } else {
+                int pos = rnd.nextInt(s.length() + 1);
+                s.add(pos, "a" + i);
+                sExpected.add(pos, "a" + i);
+            }
+        }
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(sExpected, s);
+        for (int i = 0; i < s.length(); i++) {
+            assertEquals(sExpected.entry(i), s.entry(i));
+        }
+    }
+
+}
@@ -9,6 +9,12 @@ import components.set.SetSecondary;
  * {@code Set} represented as a {@code BinaryTree} (maintained as a binary
  * search tree) of elements with implementations of primary methods.
  *
+ * <p>
+ * This is the canonical copy of this class. SetOnQueue, which is built as a
+ * separate project, keeps a copy of it (identical apart from this paragraph)
+ * for its benchmarks; a fix made here must be made to that copy too.
+ * </p>
+ *
  * @param <T>
  *            type of {@code Set} elements
  * @mathdefinitions <pre>
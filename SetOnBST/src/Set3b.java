@@ -0,0 +1,506 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.binarytree.BinaryTree;
+import components.binarytree.BinaryTree1;
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * {@code Set} represented as a {@code BinaryTree} (maintained as an AVL tree,
+ * i.e., a height-balanced binary search tree) of elements with implementations
+ * of primary methods.
+ *
+ * <p>
+ * Each label of the tree carries an element together with the height of the
+ * subtree it roots, so that rebalancing after {@code add} and {@code remove}
+ * needs only the labels along one root-to-leaf path. The height of the tree is
+ * therefore O(log n) whatever the order in which elements arrive, and so is
+ * the execution-time performance (and the recursion depth) of {@code add},
+ * {@code remove}, {@code removeAny}, and {@code contains}.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code Set} elements
+ * @mathdefinitions <pre>
+ * IS_AVL(
+ *   tree: binary tree of Label
+ *  ): boolean satisfies
+ *  [tree satisfies the binary search tree properties as described in the
+ *   slides with the ordering reported by compareTo for the data of its
+ *   labels, including that it has no duplicate data]  and
+ *  [for every subtree st = (label, left, right) of tree,
+ *   label.height = height(st)  and  |height(left) - height(right)| <= 1]
+ * </pre>
+ * @convention IS_AVL($this.tree)
+ * @correspondence this = {x: T where (x is the data of a label in $this.tree)}
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public class Set3b<T extends Comparable<T>> extends SetSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Label of a {@code BinaryTree} node: an element and the height of the
+     * subtree rooted at the node.
+     *
+     * @param <T>
+     *            type of element
+     */
+    private static final class Label<T> {
+
+        /**
+         * Element in node.
+         */
+        private T data;
+
+        /**
+         * Height of the subtree rooted at the node.
+         */
+        private int height;
+
+        /**
+         * Constructor for a label of a leaf.
+         *
+         * @param data
+         *            the element
+         */
+        private Label(T data) {
+            this.data = data;
+            this.height = 1;
+        }
+
+    }
+
+    /**
+     * Elements included in {@code this}.
+     */
+    private BinaryTree<Label<T>> tree;
+
+    /**
+     * Returns the height of {@code t}, read from its root label.
+     *
+     * @param <T>
+     *            type of elements
+     * @param t
+     *            the {@code BinaryTree}
+     * @return the height of t
+     * @requires IS_AVL(t)
+     * @ensures heightOf = height(t)
+     */
+    private static <T> int heightOf(BinaryTree<Label<T>> t) {
+        int height = 0;
+        if (t.size() > 0) {
+            height = t.root().height;
+        }
+        return height;
+    }
+
+    /**
+     * Assembles {@code label}, {@code left}, and {@code right} into {@code t},
+     * setting the height in {@code label}.
+     *
+     * @param <T>
+     *            type of elements
+     * @param label
+     *            the root label
+     * @param left
+     *            the left subtree
+     * @param right
+     *            the right subtree
+     * @param t
+     *            the assembled {@code BinaryTree}
+     * @updates label
+     * @clears left, right
+     * @replaces t
+     * @requires IS_AVL(left)  and  IS_AVL(right)
+     * @ensures <pre>
+     * t = compose(label, #left, #right)  and
+     * label.height = 1 + max(height(#left), height(#right))
+     * </pre>
+     */
+    private static <T> void join(Label<T> label, BinaryTree<Label<T>> left,
+            BinaryTree<Label<T>> right, BinaryTree<Label<T>> t) {
+        label.height = 1 + Math.max(heightOf(left), heightOf(right));
+        t.assemble(label, left, right);
+    }
+
+    /**
+     * Assembles {@code label}, {@code left}, and {@code right} into {@code t},
+     * rotating once or twice if the heights of {@code left} and {@code right}
+     * differ by 2.
+     *
+     * @param <T>
+     *            type of elements
+     * @param label
+     *            the root label
+     * @param left
+     *            the left subtree
+     * @param right
+     *            the right subtree
+     * @param t
+     *            the assembled {@code BinaryTree}
+     * @updates label
+     * @clears left, right
+     * @replaces t
+     * @requires <pre>
+     * IS_AVL(left)  and  IS_AVL(right)  and
+     * |height(left) - height(right)| <= 2  and
+     * [every data in left < label.data < every data in right]
+     * </pre>
+     * @ensures <pre>
+     * IS_AVL(t)  and
+     * labels(t) = labels(#left) union {label} union labels(#right)
+     * </pre>
+     */
+    private static <T> void rebalance(Label<T> label,
+            BinaryTree<Label<T>> left, BinaryTree<Label<T>> right,
+            BinaryTree<Label<T>> t) {
+        int hl = heightOf(left);
+        int hr = heightOf(right);
+        if (hl > hr + 1) {
+            BinaryTree<Label<T>> ll = t.newInstance();
+            BinaryTree<Label<T>> lr = t.newInstance();
+            Label<T> y = left.disassemble(ll, lr);
+            if (heightOf(ll) >= heightOf(lr)) {
+                /*
+                 * Single right rotation
+                 */
+                join(label, lr, right, left);
+                join(y, ll, left, t);
+            } else {
+                /*
+                 * Left-right double rotation
+                 */
+                BinaryTree<Label<T>> lrl = t.newInstance();
+                BinaryTree<Label<T>> lrr = t.newInstance();
+                Label<T> z = lr.disassemble(lrl, lrr);
+                join(y, ll, lrl, left);
+                join(label, lrr, right, lr);
+                join(z, left, lr, t);
+            }
+        } else if (hr > hl + 1) {
+            BinaryTree<Label<T>> rl = t.newInstance();
+            BinaryTree<Label<T>> rr = t.newInstance();
+            Label<T> y = right.disassemble(rl, rr);
+            if (heightOf(rr) >= heightOf(rl)) {
+                /*
+                 * Single left rotation
+                 */
+                join(label, left, rl, right);
+                join(y, right, rr, t);
+            } else {
+                /*
+                 * Right-left double rotation
+                 */
+                BinaryTree<Label<T>> rll = t.newInstance();
+                BinaryTree<Label<T>> rlr = t.newInstance();
+                Label<T> z = rl.disassemble(rll, rlr);
+                join(label, left, rll, right);
+                join(y, rlr, rr, rl);
+                join(z, right, rl, t);
+            }
+        } else {
+            join(label, left, right, t);
+        }
+    }
+
+    /**
+     * Returns whether {@code x} is in {@code t}.
+     *
+     * @param <T>
+     *            type of elements
+     * @param t
+     *            the {@code BinaryTree} to be searched
+     * @param x
+     *            the element to be searched for
+     * @return true if t contains x, false otherwise
+     * @requires IS_AVL(t)
+     * @ensures isInTree = (x is the data of a label in t)
+     */
+    private static <T extends Comparable<T>> boolean isInTree(
+            BinaryTree<Label<T>> t, T x) {
+        assert t != null : "Violation of: t is not null";
+        assert x != null : "Violation of: x is not null";
+
+        boolean isInTree = false;
+        if (t.size() > 0) {
+            BinaryTree<Label<T>> left = t.newInstance();
+            BinaryTree<Label<T>> right = t.newInstance();
+            Label<T> root = t.disassemble(left, right);
+            int c = root.data.compareTo(x);
+            if (c > 0) {
+                isInTree = isInTree(left, x);
+            } else if (c < 0) {
+                isInTree = isInTree(right, x);
+            } else {
+                isInTree = true;
+            }
+            t.assemble(root, left, right);
+        }
+        return isInTree;
+    }
+
+    /**
+     * Inserts {@code x} in {@code t}.
+     *
+     * @param <T>
+     *            type of elements
+     * @param t
+     *            the {@code BinaryTree} to be searched
+     * @param x
+     *            the element to be inserted
+     * @aliases reference {@code x}
+     * @updates t
+     * @requires IS_AVL(t) and x is not the data of a label in t
+     * @ensures IS_AVL(t) and data(t) = data(#t) union {x}
+     */
+    private static <T extends Comparable<T>> void insertInTree(
+            BinaryTree<Label<T>> t, T x) {
+        assert t != null : "Violation of: t is not null";
+        assert x != null : "Violation of: x is not null";
+
+        BinaryTree<Label<T>> left = t.newInstance();
+        BinaryTree<Label<T>> right = t.newInstance();
+        if (t.size() > 0) {
+            Label<T> root = t.disassemble(left, right);
+            if (root.data.compareTo(x) > 0) {
+                insertInTree(left, x);
+            } else {
+                insertInTree(right, x);
+            }
+            rebalance(root, left, right, t);
+        } else {
+            t.assemble(new Label<>(x), left, right);
+        }
+    }
+
+    /**
+     * Removes and returns the label with the smallest (left-most) element in
+     * {@code t}.
+     *
+     * @param <T>
+     *            type of elements
+     * @param t
+     *            the {@code BinaryTree} from which to remove the label
+     * @return the label with the smallest element in the given
+     *         {@code BinaryTree}
+     * @updates t
+     * @requires IS_AVL(t) and |t| > 0
+     * @ensures <pre>
+     * IS_AVL(t)  and  removeSmallest = [the smallest label in #t]  and
+     *  labels(t) = labels(#t) \ {removeSmallest}
+     * </pre>
+     */
+    private static <T> Label<T> removeSmallest(BinaryTree<Label<T>> t) {
+        assert t != null : "Violation of: t is not null";
+        assert t.size() > 0 : "Violation of: |t| > 0";
+
+        BinaryTree<Label<T>> left = t.newInstance();
+        BinaryTree<Label<T>> right = t.newInstance();
+        Label<T> root = t.disassemble(left, right);
+        Label<T> smallest = root;
+        if (left.size() > 0) {
+            smallest = removeSmallest(left);
+            rebalance(root, left, right, t);
+        } else {
+            t.transferFrom(right);
+        }
+        return smallest;
+    }
+
+    /**
+     * Finds element {@code x} in {@code t}, removes it from {@code t}, and
+     * returns it.
+     *
+     * @param <T>
+     *            type of elements
+     * @param t
+     *            the {@code BinaryTree} from which to remove {@code x}
+     * @param x
+     *            the element to be removed
+     * @return the removed element
+     * @updates t
+     * @requires IS_AVL(t) and x is the data of a label in t
+     * @ensures <pre>
+     * IS_AVL(t)  and  removeFromTree = x  and
+     *  data(t) = data(#t) \ {x}
+     * </pre>
+     */
+    private static <T extends Comparable<T>> T removeFromTree(
+            BinaryTree<Label<T>> t, T x) {
+        assert t != null : "Violation of: t is not null";
+        assert x != null : "Violation of: x is not null";
+        assert t.size() > 0 : "Violation of: x is in data(t)";
+
+        T removed;
+        BinaryTree<Label<T>> left = t.newInstance();
+        BinaryTree<Label<T>> right = t.newInstance();
+        Label<T> root = t.disassemble(left, right);
+        int c = root.data.compareTo(x);
+        if (c > 0) {
+            removed = removeFromTree(left, x);
+            rebalance(root, left, right, t);
+        } else if (c < 0) {
+            removed = removeFromTree(right, x);
+            rebalance(root, left, right, t);
+        } else {
+            removed = root.data;
+            if (right.size() > 0) {
+                Label<T> successor = removeSmallest(right);
+                rebalance(successor, left, right, t);
+            } else {
+                t.transferFrom(left);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.tree = new BinaryTree1<>();
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Set3b() {
+        this.createNewRep();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Set<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(Set<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Set3b<?> : ""
+                + "Violation of: source is of dynamic type Set3b<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Set3b<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        Set3b<T> localSource = (Set3b<T>) source;
+        this.tree = localSource.tree;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert !this.contains(x) : "Violation of: x is not in this";
+
+        insertInTree(this.tree, x);
+    }
+
+    @Override
+    public final T remove(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.contains(x) : "Violation of: x is in this";
+
+        return removeFromTree(this.tree, x);
+    }
+
+    @Override
+    public final T removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        return removeSmallest(this.tree).data;
+    }
+
+    @Override
+    public final boolean contains(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        return isInTree(this.tree, x);
+    }
+
+    @Override
+    public final int size() {
+        return this.tree.size();
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Set3bIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Set3b}, giving
+     * the elements in increasing order.
+     */
+    private final class Set3bIterator implements Iterator<T> {
+
+        /**
+         * In-order iterator over the labels of the tree.
+         */
+        private Iterator<Label<T>> labels;
+
+        /**
+         * No-argument constructor.
+         */
+        private Set3bIterator() {
+            this.labels = Set3b.this.tree.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.labels.hasNext();
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            return this.labels.next().data;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,965 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.queue.Queue;
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * {@code Set} represented as a red-black tree of nodes with parent links, done
+ * "bare-handed", with implementations of primary methods.
+ *
+ * <p>
+ * Unlike {@code Set3a} and {@code Set3b}, which disassemble and reassemble a
+ * {@code BinaryTree} at every level and recurse, all the methods here walk
+ * the tree with loops. {@code contains}, {@code remove}, {@code removeAny},
+ * and iteration allocate nothing (apart from the iterator object), and
+ * {@code add} allocates only the new node. Execution-time performance of
+ * {@code add}, {@code remove}, {@code removeAny}, and {@code contains} is
+ * O(log n) whatever the order in which elements arrive.
+ * </p>
+ *
+ * <p>
+ * Besides the {@code Set} methods, {@code floor} and {@code ceiling} find the
+ * nearest elements to a given value in O(log n), {@code range} iterates over
+ * the elements between two values in O(log n + k) for k elements, and
+ * {@code loadSorted} builds the tree from already-sorted input in O(n).
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code Set} elements
+ * @convention <pre>
+ * [$this.nil is not null and is black]  and
+ * [$this.root is $this.nil or points to the root node of a binary tree of
+ *  nodes whose missing children are $this.nil]  and
+ * [$this.root.parent = $this.nil, and for every other node n in the tree,
+ *  n.parent is the node of which n is a child]  and
+ * [the data in the nodes satisfy the binary search tree properties with
+ *  the ordering reported by compareTo for T, with no duplicates]  and
+ * [$this.root is black]  and
+ * [no red node has a red child]  and
+ * [every path from a node down to $this.nil passes the same number of
+ *  black nodes]  and
+ * $this.size = [number of nodes in the tree]
+ * </pre>
+ * @correspondence this = [set of data in the nodes of the tree]
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public class Set3c<T extends Comparable<T>> extends SetSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Node class for red-black tree nodes.
+     */
+    private final class Node {
+
+        /**
+         * Data in node, or, if this is the "smart" nil Node, irrelevant.
+         */
+        private T data;
+
+        /**
+         * Left child, or the nil Node.
+         */
+        private Node left;
+
+        /**
+         * Right child, or the nil Node.
+         */
+        private Node right;
+
+        /**
+         * Parent, or the nil Node for the root.
+         */
+        private Node parent;
+
+        /**
+         * Whether the node is red (otherwise it is black).
+         */
+        private boolean red;
+
+    }
+
+    /**
+     * "Smart node" standing for every missing child and for the parent of the
+     * root.
+     */
+    private Node nil;
+
+    /**
+     * Root node of the tree, or {@code nil} if the tree is empty.
+     */
+    private Node root;
+
+    /**
+     * Number of elements in {@code this}.
+     */
+    private int size;
+
+    /**
+     * Checks that the subtree rooted at {@code n} satisfies the parts of the
+     * convention that concern a single subtree, and reports its black height.
+     *
+     * @param n
+     *            the root of the subtree
+     * @param parent
+     *            the node that should be the parent of n
+     * @param lo
+     *            an element every element of the subtree must exceed, or null
+     * @param hi
+     *            an element every element of the subtree must precede, or
+     *            null
+     * @return the number of black nodes other than $this.nil on every path
+     *         from n down to $this.nil (or if assertion checking is off,
+     *         irrelevant); otherwise reports a violated assertion
+     */
+    private int blackHeight(Node n, Node parent, T lo, T hi) {
+        int height = 0;
+        if (n != this.nil) {
+            assert n.parent == parent : ""
+                    + "Violation of: [for every node n in the tree other than"
+                    + " $this.root, n.parent is the node of which n is a"
+                    + " child]";
+            assert (lo == null || lo.compareTo(n.data) < 0)
+                    && (hi == null || n.data.compareTo(hi) < 0) : ""
+                            + "Violation of: [the data in the nodes satisfy"
+                            + " the binary search tree properties, with no"
+                            + " duplicates]";
+            assert !n.red || (!n.left.red && !n.right.red) : ""
+                    + "Violation of: [no red node has a red child]";
+            int left = this.blackHeight(n.left, n, lo, n.data);
+            int right = this.blackHeight(n.right, n, n.data, hi);
+            assert left == right : ""
+                    + "Violation of: [every path from a node down to"
+                    + " $this.nil passes the same number of black nodes]";
+            height = left;
+            if (!n.red) {
+                height++;
+            }
+        }
+        return height;
+    }
+
+    /**
+     * Checks that the convention repeated below holds for the current
+     * representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * [$this.nil is not null and is black]  and
+     * [$this.root is $this.nil or points to the root node of a binary tree of
+     *  nodes whose missing children are $this.nil]  and
+     * [$this.root.parent = $this.nil, and for every other node n in the tree,
+     *  n.parent is the node of which n is a child]  and
+     * [the data in the nodes satisfy the binary search tree properties with
+     *  the ordering reported by compareTo for T, with no duplicates]  and
+     * [$this.root is black]  and
+     * [no red node has a red child]  and
+     * [every path from a node down to $this.nil passes the same number of
+     *  black nodes]  and
+     * $this.size = [number of nodes in the tree]
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert this.nil != null && !this.nil.red : ""
+                + "Violation of: [$this.nil is not null and is black]";
+        assert !this.root.red : "Violation of: [$this.root is black]";
+        this.blackHeight(this.root, this.nil, null, null);
+        int count = 0;
+        if (this.root != this.nil) {
+            Node n = this.minimum(this.root);
+            while (n != this.nil) {
+                count++;
+                n = this.successor(n);
+            }
+        }
+        assert count == this.size : ""
+                + "Violation of: $this.size = [number of nodes in the tree]";
+        return true;
+    }
+
+    /**
+     * Returns the node holding {@code x}, or {@code nil} if there is none.
+     *
+     * @param x
+     *            the element to be searched for
+     * @return the node holding x, or nil
+     * @ensures <pre>
+     * if x is in this then findNode.data = x  else  findNode = $this.nil
+     * </pre>
+     */
+    private Node findNode(T x) {
+        Node n = this.root;
+        int c = 1;
+        while (n != this.nil && c != 0) {
+            c = x.compareTo(n.data);
+            if (c < 0) {
+                n = n.left;
+            } else if (c > 0) {
+                n = n.right;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Returns the node with the smallest element in the subtree rooted at
+     * {@code n}.
+     *
+     * @param n
+     *            the root of the subtree
+     * @return the left-most node of the subtree
+     * @requires n /= $this.nil
+     * @ensures [minimum is the left-most node of the subtree rooted at n]
+     */
+    private Node minimum(Node n) {
+        Node m = n;
+        while (m.left != this.nil) {
+            m = m.left;
+        }
+        return m;
+    }
+
+    /**
+     * Returns the node with the next larger element after that in {@code n}.
+     *
+     * @param n
+     *            the node
+     * @return the in-order successor of n, or nil if n holds the largest
+     *         element
+     * @requires n /= $this.nil
+     * @ensures [successor is the in-order successor of n, or $this.nil]
+     */
+    private Node successor(Node n) {
+        Node s;
+        if (n.right != this.nil) {
+            s = this.minimum(n.right);
+        } else {
+            Node child = n;
+            s = n.parent;
+            while (s != this.nil && child == s.right) {
+                child = s;
+                s = s.parent;
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Replaces the subtree rooted at {@code u} by the subtree rooted at
+     * {@code v} in the parent of {@code u}.
+     *
+     * @param u
+     *            the root of the subtree to be replaced
+     * @param v
+     *            the root of the replacing subtree, possibly nil
+     * @updates this.root, u.parent, v.parent
+     * @requires u /= $this.nil
+     */
+    private void replace(Node u, Node v) {
+        if (u.parent == this.nil) {
+            this.root = v;
+        } else if (u == u.parent.left) {
+            u.parent.left = v;
+        } else {
+            u.parent.right = v;
+        }
+        v.parent = u.parent;
+    }
+
+    /**
+     * Rotates the subtree rooted at {@code x} to the left, so that its right
+     * child takes its place.
+     *
+     * @param x
+     *            the root of the subtree
+     * @updates this.root, [nodes around x]
+     * @requires x.right /= $this.nil
+     */
+    private void rotateLeft(Node x) {
+        Node y = x.right;
+        x.right = y.left;
+        if (y.left != this.nil) {
+            y.left.parent = x;
+        }
+        this.replace(x, y);
+        y.left = x;
+        x.parent = y;
+    }
+
+    /**
+     * Rotates the subtree rooted at {@code x} to the right, so that its left
+     * child takes its place.
+     *
+     * @param x
+     *            the root of the subtree
+     * @updates this.root, [nodes around x]
+     * @requires x.left /= $this.nil
+     */
+    private void rotateRight(Node x) {
+        Node y = x.left;
+        x.left = y.right;
+        if (y.right != this.nil) {
+            y.right.parent = x;
+        }
+        this.replace(x, y);
+        y.right = x;
+        x.parent = y;
+    }
+
+    /**
+     * Restores the red-black properties after the red node {@code z} has
+     * been linked in as a leaf.
+     *
+     * @param z
+     *            the new node
+     * @updates this.root, [nodes on the path from z to the root]
+     * @requires [the convention holds except that z and z.parent may both be
+     *           red]
+     * @ensures [the convention holds]
+     */
+    private void fixAfterAdd(Node z) {
+        Node n = z;
+        while (n.parent.red) {
+            Node p = n.parent;
+            Node g = p.parent;
+            if (p == g.left) {
+                Node uncle = g.right;
+                if (uncle.red) {
+                    p.red = false;
+                    uncle.red = false;
+                    g.red = true;
+                    n = g;
+                } else {
+                    if (n == p.right) {
+                        n = p;
+                        this.rotateLeft(n);
+                    }
+                    n.parent.red = false;
+                    g.red = true;
+                    this.rotateRight(g);
+                }
+            } else {
+                Node uncle = g.left;
+                if (uncle.red) {
+                    p.red = false;
+                    uncle.red = false;
+                    g.red = true;
+                    n = g;
+                } else {
+                    if (n == p.left) {
+                        n = p;
+                        this.rotateRight(n);
+                    }
+                    n.parent.red = false;
+                    g.red = true;
+                    this.rotateLeft(g);
+                }
+            }
+        }
+        this.root.red = false;
+    }
+
+    /**
+     * Restores the red-black properties after a black node has been unlinked
+     * from above {@code x}, leaving {@code x} one black node short.
+     *
+     * @param x
+     *            the node that took the place of the unlinked node, possibly
+     *            nil (with {@code x.parent} set)
+     * @updates this.root, [nodes on the path from x to the root]
+     * @requires <pre>
+     * [the convention holds except that paths through x pass one black node
+     *  fewer than the others]
+     * </pre>
+     * @ensures [the convention holds]
+     */
+    private void fixAfterRemove(Node x) {
+        Node n = x;
+        while (n != this.root && !n.red) {
+            Node p = n.parent;
+            if (n == p.left) {
+                Node w = p.right;
+                if (w.red) {
+                    w.red = false;
+                    p.red = true;
+                    this.rotateLeft(p);
+                    w = p.right;
+                }
+                if (!w.left.red && !w.right.red) {
+                    w.red = true;
+                    n = p;
+                } else {
+                    if (!w.right.red) {
+                        w.left.red = false;
+                        w.red = true;
+                        this.rotateRight(w);
+                        w = p.right;
+                    }
+                    w.red = p.red;
+                    p.red = false;
+                    w.right.red = false;
+                    this.rotateLeft(p);
+                    n = this.root;
+                }
+            } else {
+                Node w = p.left;
+                if (w.red) {
+                    w.red = false;
+                    p.red = true;
+                    this.rotateRight(p);
+                    w = p.left;
+                }
+                if (!w.left.red && !w.right.red) {
+                    w.red = true;
+                    n = p;
+                } else {
+                    if (!w.left.red) {
+                        w.right.red = false;
+                        w.red = true;
+                        this.rotateLeft(w);
+                        w = p.left;
+                    }
+                    w.red = p.red;
+                    p.red = false;
+                    w.left.red = false;
+                    this.rotateRight(p);
+                    n = this.root;
+                }
+            }
+        }
+        n.red = false;
+    }
+
+    /**
+     * Unlinks node {@code z} from the tree and returns its element.
+     *
+     * @param z
+     *            the node to be removed
+     * @return the element in z
+     * @updates this
+     * @requires z is a node of the tree
+     * @ensures removeNode = z.data  and  this = #this \ {z.data}
+     */
+    private T removeNode(Node z) {
+        Node y = z;
+        boolean removedRed = y.red;
+        Node x;
+        if (z.left == this.nil) {
+            x = z.right;
+            this.replace(z, z.right);
+        } else if (z.right == this.nil) {
+            x = z.left;
+            this.replace(z, z.left);
+        } else {
+            y = this.minimum(z.right);
+            removedRed = y.red;
+            x = y.right;
+            if (y.parent == z) {
+                x.parent = y;
+            } else {
+                this.replace(y, y.right);
+                y.right = z.right;
+                y.right.parent = y;
+            }
+            this.replace(z, y);
+            y.left = z.left;
+            y.left.parent = y;
+            y.red = z.red;
+        }
+        if (!removedRed) {
+            this.fixAfterRemove(x);
+        }
+        this.size--;
+        return z.data;
+    }
+
+    /**
+     * Returns the node with the smallest element at least {@code x}, or
+     * {@code nil} if there is none.
+     *
+     * @param x
+     *            the bound
+     * @return the node with the smallest element >= x, or nil
+     * @ensures <pre>
+     * if there exists y: T (y is in this and y >= x)
+     *  then ceilingNode.data = [smallest such y]
+     *  else ceilingNode = $this.nil
+     * </pre>
+     */
+    private Node ceilingNode(T x) {
+        Node best = this.nil;
+        Node n = this.root;
+        while (n != this.nil) {
+            int c = x.compareTo(n.data);
+            if (c < 0) {
+                best = n;
+                n = n.left;
+            } else if (c > 0) {
+                n = n.right;
+            } else {
+                best = n;
+                n = this.nil;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the node with the largest element at most {@code x}, or
+     * {@code nil} if there is none.
+     *
+     * @param x
+     *            the bound
+     * @return the node with the largest element <= x, or nil
+     * @ensures <pre>
+     * if there exists y: T (y is in this and y <= x)
+     *  then floorNode.data = [largest such y]
+     *  else floorNode = $this.nil
+     * </pre>
+     */
+    private Node floorNode(T x) {
+        Node best = this.nil;
+        Node n = this.root;
+        while (n != this.nil) {
+            int c = x.compareTo(n.data);
+            if (c > 0) {
+                best = n;
+                n = n.right;
+            } else if (c < 0) {
+                n = n.left;
+            } else {
+                best = n;
+                n = this.nil;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the depth at which {@code buildSorted} colors nodes red for a
+     * tree of {@code n} nodes: the depth of its bottom level if that level is
+     * not full, and otherwise a depth with no nodes, so that every path from
+     * the root to nil passes the same number of black nodes.
+     *
+     * @param n
+     *            the number of nodes
+     * @return the depth of the red nodes
+     * @requires n >= 0
+     * @ensures <pre>
+     * redDepth = [number of levels of a tree of n nodes built by
+     *             buildSorted, minus 1 if its bottom level is not full]
+     * </pre>
+     */
+    private static int redDepth(int n) {
+        int depth = 0;
+        for (int m = n - 1; m >= 0; m = m / 2 - 1) {
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * Builds a tree of the first {@code n} entries of {@code q}, which are in
+     * increasing order, and returns its root.
+     *
+     * @param q
+     *            the entries to be used
+     * @param n
+     *            the number of entries to be used
+     * @param depth
+     *            the depth of the root of the tree built
+     * @param red
+     *            the depth at which nodes are colored red
+     * @return the root of the tree built, or nil if n = 0
+     * @updates q
+     * @requires 0 <= n <= |q|  and  [q is in strictly increasing order]
+     * @ensures <pre>
+     * #q = [entries in the tree built, in order] * q  and
+     * [the tree built is as balanced as possible, with its nodes at depth
+     *  red colored red and all others black]
+     * </pre>
+     */
+    private Node buildSorted(Queue<T> q, int n, int depth, int red) {
+        Node node = this.nil;
+        if (n > 0) {
+            int leftSize = (n - 1) / 2;
+            Node left = this.buildSorted(q, leftSize, depth + 1, red);
+            node = new Node();
+            node.data = q.dequeue();
+            node.red = depth == red;
+            node.parent = this.nil;
+            node.left = left;
+            if (left != this.nil) {
+                left.parent = node;
+            }
+            node.right = this.buildSorted(q, n - 1 - leftSize, depth + 1,
+                    red);
+            if (node.right != this.nil) {
+                node.right.parent = node;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.nil = new Node();
+        this.nil.left = this.nil;
+        this.nil.right = this.nil;
+        this.nil.parent = this.nil;
+        this.root = this.nil;
+        this.size = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Set3c() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Set<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(Set<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Set3c<?> : ""
+                + "Violation of: source is of dynamic type Set3c<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Set3c<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        Set3c<T> localSource = (Set3c<T>) source;
+        this.nil = localSource.nil;
+        this.root = localSource.root;
+        this.size = localSource.size;
+        localSource.createNewRep();
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert !this.contains(x) : "Violation of: x is not in this";
+
+        Node parent = this.nil;
+        Node n = this.root;
+        boolean goLeft = false;
+        while (n != this.nil) {
+            parent = n;
+            goLeft = x.compareTo(n.data) < 0;
+            if (goLeft) {
+                n = n.left;
+            } else {
+                n = n.right;
+            }
+        }
+        Node z = new Node();
+        z.data = x;
+        z.left = this.nil;
+        z.right = this.nil;
+        z.parent = parent;
+        z.red = true;
+        if (parent == this.nil) {
+            this.root = z;
+        } else if (goLeft) {
+            parent.left = z;
+        } else {
+            parent.right = z;
+        }
+        this.size++;
+        this.fixAfterAdd(z);
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T remove(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.contains(x) : "Violation of: x is in this";
+
+        T removed = this.removeNode(this.findNode(x));
+
+        assert this.conventionHolds();
+
+        return removed;
+    }
+
+    @Override
+    public final T removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        T removed = this.removeNode(this.root);
+
+        assert this.conventionHolds();
+
+        return removed;
+    }
+
+    @Override
+    public final boolean contains(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        return this.findNode(x) != this.nil;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Set3cIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Set3c}, giving
+     * the elements in increasing order.
+     */
+    private final class Set3cIterator implements Iterator<T> {
+
+        /**
+         * Next node to be returned, or nil once all have been returned.
+         */
+        private Node current;
+
+        /**
+         * No-argument constructor.
+         */
+        private Set3cIterator() {
+            if (Set3c.this.root == Set3c.this.nil) {
+                this.current = Set3c.this.nil;
+            } else {
+                this.current = Set3c.this.minimum(Set3c.this.root);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current != Set3c.this.nil;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x = this.current.data;
+            this.current = Set3c.this.successor(this.current);
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Reports the largest element of {@code this} that is at most {@code x},
+     * or null if there is none.
+     *
+     * @param x
+     *            the bound
+     * @return the largest element <= x, or null
+     * @aliases reference returned by {@code floor}
+     * @ensures <pre>
+     * if there exists y: T (y is in this and y <= x)
+     *  then floor = [largest such y]
+     *  else floor = null
+     * </pre>
+     */
+    public final T floor(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        return this.floorNode(x).data;
+    }
+
+    /**
+     * Reports the smallest element of {@code this} that is at least {@code x},
+     * or null if there is none.
+     *
+     * @param x
+     *            the bound
+     * @return the smallest element >= x, or null
+     * @aliases reference returned by {@code ceiling}
+     * @ensures <pre>
+     * if there exists y: T (y is in this and y >= x)
+     *  then ceiling = [smallest such y]
+     *  else ceiling = null
+     * </pre>
+     */
+    public final T ceiling(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        return this.ceilingNode(x).data;
+    }
+
+    /**
+     * Returns the elements of {@code this} from {@code lo} to {@code hi}
+     * (both inclusive), for iteration in increasing order. The result must
+     * not be used after {@code this} is changed.
+     *
+     * @param lo
+     *            the lower bound
+     * @param hi
+     *            the upper bound
+     * @return the elements in [lo, hi], in increasing order
+     * @ensures <pre>
+     * range = [the elements y of this with lo <= y <= hi, in increasing
+     *          order]
+     * </pre>
+     */
+    public final Iterable<T> range(T lo, T hi) {
+        assert lo != null : "Violation of: lo is not null";
+        assert hi != null : "Violation of: hi is not null";
+
+        return () -> new RangeIterator(this.ceilingNode(lo), hi);
+    }
+
+    /**
+     * Replaces the elements of {@code this} by the entries of {@code q},
+     * which must already be in increasing order, in time linear in |q|.
+     *
+     * @param q
+     *            the elements in increasing order
+     * @replaces this
+     * @clears q
+     * @requires [q is in strictly increasing order]
+     * @ensures this = entries(#q)
+     */
+    public final void loadSorted(Queue<T> q) {
+        assert q != null : "Violation of: q is not null";
+
+        this.createNewRep();
+        int n = q.length();
+        this.root = this.buildSorted(q, n, 0, redDepth(n));
+        this.size = n;
+
+        assert this.conventionHolds();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for the elements of
+     * {@code Set3c} up to a bound, in increasing order.
+     */
+    private final class RangeIterator implements Iterator<T> {
+
+        /**
+         * Next node to be returned, or nil once all have been returned.
+         */
+        private Node current;
+
+        /**
+         * Largest element that may be returned.
+         */
+        private final T hi;
+
+        /**
+         * Constructor.
+         *
+         * @param first
+         *            the first node to be returned, or nil
+         * @param hi
+         *            the upper bound
+         */
+        private RangeIterator(Node first, T hi) {
+            this.hi = hi;
+            this.current = first;
+            this.stopPastHi();
+        }
+
+        /**
+         * Sets {@code current} to nil if its element is above {@code hi}.
+         */
+        private void stopPastHi() {
+            if (this.current != Set3c.this.nil
+                    && this.current.data.compareTo(this.hi) > 0) {
+                this.current = Set3c.this.nil;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current != Set3c.this.nil;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x = this.current.data;
+            this.current = Set3c.this.successor(this.current);
+            this.stopPastHi();
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,216 @@
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import components.set.Set;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Compares the {@code BinaryTree}-based {@code Set3a} and {@code Set3b} with
+ * the node-based {@code Set3c}: for n elements in random order, measures the
+ * time to add them, to look up each of them and a missing neighbor, and to
+ * remove them, together with the bytes allocated per lookup and per removal.
+ *
+ * <p>
+ * Allocation is read from the HotSpot per-thread allocation counter; on a
+ * virtual machine without one it is reported as -1.
+ * </p>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public final class SetEngineBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private SetEngineBenchmark() {
+    }
+
+    /**
+     * Seed for the order of the elements, so that every run and every
+     * implementation sees the same order.
+     */
+    private static final long SEED = 2231;
+
+    /**
+     * Number of untimed runs done before the timed one, to let the JIT
+     * compiler settle.
+     */
+    private static final int WARM_UP_RUNS = 3;
+
+    /**
+     * Number of nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Number of values measured per run: time and bytes allocated for each of
+     * the add, contains, and remove phases.
+     */
+    private static final int MEASURES = 6;
+
+    /**
+     * Returns the number of bytes allocated so far by the current thread, or
+     * -1 if the virtual machine cannot tell.
+     *
+     * @return the bytes allocated by the current thread, or -1
+     */
+    private static long allocatedBytes() {
+        long bytes = -1;
+        java.lang.management.ThreadMXBean bean = ManagementFactory
+                .getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            bytes = ((com.sun.management.ThreadMXBean) bean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the even numbers 0, 2, ..., 2 * (n - 1) in random order.
+     *
+     * @param n
+     *            the number of elements
+     * @return the shuffled elements
+     * @ensures <pre>
+     * |shuffled| = n  and  [shuffled is a permutation of 0, 2, ..., 2(n-1)]
+     * </pre>
+     */
+    private static Integer[] shuffled(int n) {
+        Integer[] a = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = 2 * i;
+        }
+        Random random = new Random(SEED);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Integer tmp = a[i];
+            a[i] = a[j];
+            a[j] = tmp;
+        }
+        return a;
+    }
+
+    /**
+     * Adds {@code elements} to {@code s}, looks up every element and its
+     * (missing) successor, and removes {@code elements} again, measuring the
+     * time taken and bytes allocated by each phase.
+     *
+     * @param s
+     *            the set used
+     * @param elements
+     *            the elements to be added
+     * @param missing
+     *            the successors of {@code elements}, boxed in advance
+     * @return the time in nanoseconds and bytes allocated of the add,
+     *         contains, and remove phases, in that order
+     * @updates s
+     * @requires <pre>
+     * s = {}  and  [entries in elements are distinct and even]  and
+     * |missing| = |elements|
+     * </pre>
+     * @ensures s = {}  and  |run| = MEASURES
+     */
+    private static long[] run(Set<Integer> s, Integer[] elements,
+            Integer[] missing) {
+        assert s != null : "Violation of: s is not null";
+        assert s.size() == 0 : "Violation of: s = {}";
+        long[] m = new long[MEASURES];
+        int hits = 0;
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (Integer x : elements) {
+            s.add(x);
+        }
+        m[0] = System.nanoTime() - start;
+        m[1] = allocatedBytes() - bytes;
+        bytes = allocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < elements.length; i++) {
+            if (s.contains(elements[i])) {
+                hits++;
+            }
+            if (s.contains(missing[i])) {
+                hits++;
+            }
+        }
+        m[2] = System.nanoTime() - start;
+        m[3] = allocatedBytes() - bytes;
+        bytes = allocatedBytes();
+        start = System.nanoTime();
+        for (Integer x : elements) {
+            s.remove(x);
+        }
+        m[4] = System.nanoTime() - start;
+        m[5] = allocatedBytes() - bytes;
+        /*
+         * Use hits so the lookups cannot be optimized away
+         */
+        if (hits != elements.length) {
+            throw new AssertionError("Set lookups are wrong");
+        }
+        return m;
+    }
+
+    /**
+     * Measures new instances of the dynamic type of {@code s} and outputs one
+     * line of results.
+     *
+     * @param out
+     *            the output stream
+     * @param s
+     *            a set of the type to be measured
+     * @param elements
+     *            the elements to be added
+     * @param missing
+     *            the successors of {@code elements}, boxed in advance
+     * @updates out.content
+     * @requires <pre>
+     * out.is_open  and  [entries in elements are distinct and even]  and
+     * |missing| = |elements|  and  |elements| > 0
+     * </pre>
+     * @ensures out.content = #out.content * [one line of results for s]
+     */
+    private static void measure(SimpleWriter out, Set<Integer> s,
+            Integer[] elements, Integer[] missing) {
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            run(s.newInstance(), elements, missing);
+        }
+        long[] m = run(s.newInstance(), elements, missing);
+        int n = elements.length;
+        out.println(s.getClass().getName() + "\t" + m[0] / NANOS_PER_MILLI
+                + "\t" + m[2] / NANOS_PER_MILLI + "\t" + m[4] / NANOS_PER_MILLI
+                + "\t" + m[3] / (2 * n) + "\t\t" + m[5] / n);
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+        out.print("Number of elements: ");
+        int n = in.nextInteger();
+        Integer[] elements = shuffled(n);
+        Integer[] missing = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            missing[i] = elements[i] + 1;
+        }
+        out.println();
+        out.println("Times in milliseconds, allocation in bytes per call");
+        out.println("class\tadd\tcontains\tremove\t"
+                + "bytes/contains\tbytes/remove");
+        measure(out, new Set3a<Integer>(), elements, missing);
+        measure(out, new Set3b<Integer>(), elements, missing);
+        measure(out, new Set3c<Integer>(), elements, missing);
+        in.close();
+        out.close();
+    }
+
+}
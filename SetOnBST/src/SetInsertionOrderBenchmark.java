@@ -0,0 +1,215 @@
+import java.util.Random;
+
+import components.set.Set;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Measures the time {@code Set3a} and {@code Set3b} take to add n elements and
+ * then look each of them up, for random, ascending, descending, and zig-zag
+ * (alternately smallest and largest remaining) insertion orders, with n
+ * doubling from {@code FIRST_SIZE} up to a size supplied by the user.
+ *
+ * <p>
+ * The unbalanced {@code Set3a} recurses once per level of its tree, so on
+ * sorted input it may run out of stack; such runs are reported as
+ * "overflow".
+ * </p>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public final class SetInsertionOrderBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private SetInsertionOrderBenchmark() {
+    }
+
+    /**
+     * Smallest number of elements measured.
+     */
+    private static final int FIRST_SIZE = 1000;
+
+    /**
+     * Seed for the random order, so that every run sees the same order.
+     */
+    private static final long SEED = 2231;
+
+    /**
+     * Number of untimed runs done before the timed one, to let the JIT
+     * compiler settle.
+     */
+    private static final int WARM_UP_RUNS = 2;
+
+    /**
+     * Number of nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Names of the insertion orders, in the order of the columns reported.
+     */
+    private static final String[] ORDERS = { "random", "ascending",
+            "descending", "zig-zag" };
+
+    /**
+     * Returns 0, 1, ..., n - 1 in the insertion order with index
+     * {@code order} in {@code ORDERS}.
+     *
+     * @param n
+     *            the number of elements
+     * @param order
+     *            the index of the insertion order
+     * @return the elements in that order
+     * @requires 0 <= order < |ORDERS|
+     * @ensures [elements is a permutation of 0, 1, ..., n - 1]
+     */
+    private static Integer[] elements(int n, int order) {
+        Integer[] a = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            switch (order) {
+                case 1:
+                    a[i] = i;
+                    break;
+                case 2:
+                    a[i] = n - 1 - i;
+                    break;
+                case 3:
+                    if (i % 2 == 0) {
+                        a[i] = i / 2;
+                    } else {
+                        a[i] = n - 1 - i / 2;
+                    }
+                    break;
+                default:
+                    a[i] = i;
+                    break;
+            }
+        }
+        if (order == 0) {
+            Random random = new Random(SEED);
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                Integer tmp = a[i];
+                a[i] = a[j];
+                a[j] = tmp;
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Adds {@code elements} to {@code s} and then looks each of them up,
+     * returning the time this took.
+     *
+     * @param s
+     *            the set used
+     * @param elements
+     *            the elements to be added
+     * @return the elapsed time in nanoseconds
+     * @updates s
+     * @requires s = {}  and  [entries in elements are distinct]
+     * @ensures s = [entries in elements]
+     */
+    private static long run(Set<Integer> s, Integer[] elements) {
+        assert s != null : "Violation of: s is not null";
+        assert s.size() == 0 : "Violation of: s = {}";
+        int hits = 0;
+        long start = System.nanoTime();
+        for (Integer x : elements) {
+            s.add(x);
+        }
+        for (Integer x : elements) {
+            if (s.contains(x)) {
+                hits++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        /*
+         * Use hits so the lookups cannot be optimized away
+         */
+        if (hits != elements.length) {
+            throw new AssertionError("Element missing from set");
+        }
+        return elapsed;
+    }
+
+    /**
+     * Measures new instances of the dynamic type of {@code s} on
+     * {@code elements} and returns the result as text.
+     *
+     * @param s
+     *            a set of the type to be measured
+     * @param elements
+     *            the elements to be added
+     * @return the elapsed time in milliseconds, or "overflow"
+     * @requires [entries in elements are distinct]
+     */
+    private static String measure(Set<Integer> s, Integer[] elements) {
+        String result;
+        try {
+            for (int i = 0; i < WARM_UP_RUNS; i++) {
+                run(s.newInstance(), elements);
+            }
+            result = Double.toString(
+                    run(s.newInstance(), elements) / NANOS_PER_MILLI);
+        } catch (StackOverflowError e) {
+            result = "overflow";
+        }
+        return result;
+    }
+
+    /**
+     * Measures new instances of the dynamic type of {@code s} on n elements
+     * in each of the insertion orders and outputs one line of results.
+     *
+     * @param out
+     *            the output stream
+     * @param s
+     *            a set of the type to be measured
+     * @param n
+     *            the number of elements
+     * @updates out.content
+     * @requires out.is_open  and  n > 0
+     * @ensures out.content = #out.content * [one line of times for s]
+     */
+    private static void measureOrders(SimpleWriter out, Set<Integer> s,
+            int n) {
+        out.print(n + "\t" + s.getClass().getName());
+        for (int order = 0; order < ORDERS.length; order++) {
+            out.print("\t" + measure(s, elements(n, order)));
+        }
+        out.println();
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+        out.print("Largest number of elements: ");
+        int maxSize = in.nextInteger();
+        out.println();
+        out.println("Times in milliseconds to add n elements and find them");
+        out.print("n\tclass");
+        for (String order : ORDERS) {
+            out.print("\t" + order);
+        }
+        out.println();
+        for (int n = FIRST_SIZE; n <= maxSize; n *= 2) {
+            measureOrders(out, new Set3a<Integer>(), n);
+            measureOrders(out, new Set3b<Integer>(), n);
+        }
+        in.close();
+        out.close();
+    }
+
+}
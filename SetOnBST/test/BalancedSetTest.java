@@ -0,0 +1,96 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import components.set.Set;
+
+/**
+ * JUnit test fixture for {@code Set<String>} implementations kept as balanced
+ * search trees: the test cases of {@code SetTest} plus test cases for sorted
+ * insertion orders, which would degrade an unbalanced tree into a list.
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public abstract class BalancedSetTest extends SetTest {
+
+    /**
+     * Number of elements used in the sorted-order test cases.
+     */
+    protected static final int N = 1000;
+
+    /**
+     * Returns the {@code i}-th element used in the sorted-order test cases,
+     * zero-padded so that string order matches numeric order.
+     *
+     * @param i
+     *            the index of the element
+     * @return the element
+     */
+    protected static String element(int i) {
+        return String.format("%04d", i);
+    }
+
+    /*
+     * Test cases for sorted insertion orders
+     */
+
+    @Test
+    public final void testAddSortedIteratesInOrder() {
+        /*
+         * Set up variables
+         */
+        Set<String> s = this.constructorTest();
+        Set<String> sExpected = this.constructorRef();
+        for (int i = 0; i < N; i++) {
+            sExpected.add(element(i));
+        }
+        /*
+         * Call method under test
+         */
+        for (int i = 0; i < N; i++) {
+            s.add(element(i));
+        }
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(sExpected, s);
+        int i = 0;
+        for (String x : s) {
+            assertEquals(element(i), x);
+            i++;
+        }
+    }
+
+    @Test
+    public final void testRemoveDescendingAfterAddAscending() {
+        /*
+         * Set up variables
+         */
+        Set<String> s = this.constructorTest();
+        Set<String> sExpected = this.constructorRef();
+        for (int i = 0; i < N; i++) {
+            s.add(element(i));
+            if (i % 2 == 0) {
+                sExpected.add(element(i));
+            }
+        }
+        /*
+         * Call method under test
+         */
+        for (int i = N - 1; i > 0; i -= 2) {
+            String x = s.remove(element(i));
+            assertEquals(element(i), x);
+        }
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(sExpected, s);
+        String x = s.removeAny();
+        assertTrue(sExpected.contains(x));
+        sExpected.remove(x);
+        assertEquals(sExpected, s);
+    }
+
+}
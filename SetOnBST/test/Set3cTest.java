@@ -0,0 +1,143 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import components.queue.Queue;
+import components.queue.Queue1L;
+import components.set.Set;
+import components.set.Set1L;
+
+/**
+ * Customized JUnit test fixture for {@code Set3c}, plus test cases for the
+ * ordered queries, sorted loading, and random edits; with assertion checking
+ * on, {@code Set3c} also checks its red-black convention after every change.
+ */
+public class Set3cTest extends BalancedSetTest {
+
+    @Override
+    protected final Set<String> constructorTest() {
+        return new Set3c<String>();
+    }
+
+    @Override
+    protected final Set<String> constructorRef() {
+        return new Set1L<String>();
+    }
+
+    @Test
+    public final void testFloorAndCeiling() {
+        /*
+         * Set up variables
+         */
+        Set3c<String> s = new Set3c<>();
+        s.add("b");
+        s.add("d");
+        s.add("f");
+        /*
+         * Call methods under test and assert that values of variables match
+         * expectations
+         */
+        assertEquals("d", s.floor("e"));
+        assertEquals("d", s.floor("d"));
+        assertEquals(null, s.floor("a"));
+        assertEquals("f", s.ceiling("e"));
+        assertEquals("b", s.ceiling("b"));
+        assertEquals(null, s.ceiling("g"));
+    }
+
+    @Test
+    public final void testRange() {
+        /*
+         * Set up variables
+         */
+        Set3c<String> s = new Set3c<>();
+        for (int i = 0; i < N; i++) {
+            s.add(element(i));
+        }
+        /*
+         * Call method under test
+         */
+        StringBuilder found = new StringBuilder();
+        for (String x : s.range("0097", "0101a")) {
+            found.append(x).append(' ');
+        }
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals("0097 0098 0099 0100 0101 ", found.toString());
+        assertEquals(N, s.size());
+    }
+
+    @Test
+    public final void testLoadSorted() {
+        /*
+         * Set up variables
+         */
+        Set3c<String> s = new Set3c<>();
+        s.add("stale");
+        Set<String> sExpected = this.constructorRef();
+        Queue<String> q = new Queue1L<>();
+        for (int i = 0; i < N; i++) {
+            q.enqueue(element(i));
+            sExpected.add(element(i));
+        }
+        /*
+         * Call method under test
+         */
+        s.loadSorted(q);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(sExpected, s);
+        assertEquals(0, q.length());
+        s.add("zzzz");
+        assertEquals(element(N - 1), s.remove(element(N - 1)));
+        assertEquals("zzzz", s.ceiling(element(N - 1)));
+    }
+
+
+    @Test
+    public final void testLoadSortedEverySizeThenRandomEdits() {
+        /*
+         * Set up variables
+         */
+        final int maxSize = 130;
+        final int edits = 3000;
+        final int kinds = 3;
+        Random rnd = new Random(2231);
+        for (int n = 0; n <= maxSize; n++) {
+            Set3c<String> s = new Set3c<>();
+            Set<String> sExpected = this.constructorRef();
+            Queue<String> q = new Queue1L<>();
+            for (int i = 0; i < n; i++) {
+                q.enqueue(element(2 * i));
+                sExpected.add(element(2 * i));
+            }
+            /*
+             * Call methods under test
+             */
+            s.loadSorted(q);
+            assertEquals(sExpected, s);
+            for (int k = 0; k < edits / (n + 1); k++) {
+                String x = element(rnd.nextInt(2 * maxSize));
+                int kind = rnd.nextInt(kinds);
+                if (kind == 0 && s.size() > 0) {
+                    String y = s.removeAny();
+                    sExpected.remove(y);
+                } else if (sExpected.contains(x)) {
+                    assertEquals(sExpected.remove(x), s.remove(x));
+                } else {
+                    s.add(x);
+                    sExpected.add(x);
+                }
+            }
+            /*
+             * Assert that values of variables match expectations
+             */
+            assertEquals(sExpected, s);
+        }
+    }
+
+}
@@ -0,0 +1,385 @@
+import java.lang.reflect.Array;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * {@code Set} represented as a hash table of singly linked chains, done
+ * "bare-handed", that doubles in size as needed, with implementations of
+ * primary methods.
+ *
+ * <p>
+ * Execution-time performance of {@code add}, {@code remove}, and
+ * {@code contains} is O(1) on average, so unlike {@code Set2} membership does
+ * not require a pass over all the elements.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code Set} elements
+ * @convention <pre>
+ * [|$this.buckets| is a power of 2]  and
+ * $this.size <= |$this.buckets|  and
+ * 0 <= $this.firstNonEmpty <= |$this.buckets|  and
+ * [every chain in $this.buckets is null-terminated]  and
+ * [every node in the chain at $this.buckets[i] holds an element x with
+ *  SPREAD(x.hashCode()) mod |$this.buckets| = i]  and
+ * [every bucket before index $this.firstNonEmpty is null]  and
+ * [no element appears in two nodes]  and
+ * $this.size = [total number of nodes in the chains of $this.buckets]
+ * </pre>
+ * @correspondence <pre>
+ * this = [set of elements in the nodes of the chains of $this.buckets]
+ * </pre>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public class Set4<T> extends SetSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default size of hash table.
+     */
+    private static final int DEFAULT_HASH_TABLE_SIZE = 128;
+
+    /**
+     * Node class for singly linked chain nodes.
+     */
+    private final class Node {
+
+        /**
+         * Data in node.
+         */
+        private T data;
+
+        /**
+         * Next node in singly linked chain, or null.
+         */
+        private Node next;
+
+    }
+
+    /**
+     * Buckets of the hash table.
+     */
+    private Node[] buckets;
+
+    /**
+     * Number of elements in {@code this}.
+     */
+    private int size;
+
+    /**
+     * Index at or before the first non-empty bucket, from which
+     * {@code removeAny} starts its search.
+     */
+    private int firstNonEmpty;
+
+    /**
+     * Mixes the high bits of {@code h} into the low bits, so that the low bits
+     * used to pick a bucket depend on the whole hash code.
+     *
+     * @param h
+     *            the hash code
+     * @return the spread hash code
+     */
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the smallest power of 2 that is at least {@code n}.
+     *
+     * @param n
+     *            the requested size
+     * @return the table size
+     * @requires n > 0
+     * @ensures [tableSizeFor is a power of 2]  and  tableSizeFor >= n
+     */
+    private static int tableSizeFor(int n) {
+        assert n > 0 : "Violation of: n > 0";
+        int size = 1;
+        while (size < n) {
+            size *= 2;
+        }
+        return size;
+    }
+
+    /**
+     * Returns a new array of {@code n} empty buckets.
+     *
+     * @param n
+     *            the number of buckets
+     * @return the new buckets
+     * @ensures newBuckets = [array of n nulls]
+     */
+    @SuppressWarnings("unchecked")
+    private Node[] newBuckets(int n) {
+        return (Node[]) Array.newInstance(Node.class, n);
+    }
+
+    /**
+     * Returns the index of the bucket for {@code x}.
+     *
+     * @param x
+     *            the element
+     * @return the bucket index
+     * @ensures bucketOf = SPREAD(x.hashCode()) mod |$this.buckets|
+     */
+    private int bucketOf(T x) {
+        return spread(x.hashCode()) & (this.buckets.length - 1);
+    }
+
+    /**
+     * Doubles the number of buckets, relinking the existing nodes into the new
+     * buckets.
+     *
+     * @updates this.buckets, this.firstNonEmpty
+     * @ensures |$this.buckets| = 2 * |#$this.buckets|
+     */
+    private void grow() {
+        Node[] old = this.buckets;
+        this.buckets = this.newBuckets(2 * old.length);
+        this.firstNonEmpty = 0;
+        for (Node chain : old) {
+            Node p = chain;
+            while (p != null) {
+                Node next = p.next;
+                int i = this.bucketOf(p.data);
+                p.next = this.buckets[i];
+                this.buckets[i] = p;
+                p = next;
+            }
+        }
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param hashTableSize
+     *            the size of the hash table
+     * @requires hashTableSize > 0
+     * @ensures <pre>
+     * |$this.buckets| = [smallest power of 2 that is at least hashTableSize]
+     *  and  $this.size = 0
+     * </pre>
+     */
+    private void createNewRep(int hashTableSize) {
+        this.buckets = this.newBuckets(tableSizeFor(hashTableSize));
+        this.size = 0;
+        this.firstNonEmpty = this.buckets.length;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Set4() {
+        this.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+    }
+
+    /**
+     * Constructor resulting in a hash table of at least size
+     * {@code hashTableSize}.
+     *
+     * @param hashTableSize
+     *            initial size of hash table
+     * @requires hashTableSize > 0
+     */
+    public Set4(int hashTableSize) {
+        assert hashTableSize > 0 : "Violation of: hashTableSize > 0";
+        this.createNewRep(hashTableSize);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Set<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+    }
+
+    @Override
+    public final void transferFrom(Set<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Set4<?> : ""
+                + "Violation of: source is of dynamic type Set4<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Set4<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        Set4<T> localSource = (Set4<T>) source;
+        this.buckets = localSource.buckets;
+        this.size = localSource.size;
+        this.firstNonEmpty = localSource.firstNonEmpty;
+        localSource.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert !this.contains(x) : "Violation of: x is not in this";
+        if (this.size == this.buckets.length) {
+            this.grow();
+        }
+        int i = this.bucketOf(x);
+        Node p = new Node();
+        p.data = x;
+        p.next = this.buckets[i];
+        this.buckets[i] = p;
+        this.firstNonEmpty = Math.min(this.firstNonEmpty, i);
+        this.size++;
+    }
+
+    @Override
+    public final T remove(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.contains(x) : "Violation of: x is in this";
+        int i = this.bucketOf(x);
+        Node p = this.buckets[i];
+        T result;
+        if (p.data.equals(x)) {
+            result = p.data;
+            this.buckets[i] = p.next;
+        } else {
+            while (!p.next.data.equals(x)) {
+                p = p.next;
+            }
+            result = p.next.data;
+            p.next = p.next.next;
+        }
+        this.size--;
+        return result;
+    }
+
+    @Override
+    public final T removeAny() {
+        assert this.size() > 0 : "Violation of: |this| > 0";
+        while (this.buckets[this.firstNonEmpty] == null) {
+            this.firstNonEmpty++;
+        }
+        Node p = this.buckets[this.firstNonEmpty];
+        this.buckets[this.firstNonEmpty] = p.next;
+        this.size--;
+        return p.data;
+    }
+
+    @Override
+    public final boolean contains(T x) {
+        assert x != null : "Violation of: x is not null";
+        Node p = this.buckets[this.bucketOf(x)];
+        while (p != null && !p.data.equals(x)) {
+            p = p.next;
+        }
+        return p != null;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Set4Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Set4}.
+     */
+    private final class Set4Iterator implements Iterator<T> {
+
+        /**
+         * Index of the bucket holding {@code current}.
+         */
+        private int bucket;
+
+        /**
+         * Next node to be returned, or null once all have been returned.
+         */
+        private Node current;
+
+        /**
+         * No-argument constructor.
+         */
+        private Set4Iterator() {
+            this.bucket = -1;
+            this.current = null;
+            this.advanceBucket();
+        }
+
+        /**
+         * Moves {@code current} to the first node of the next non-empty
+         * bucket, or to null if there is none.
+         */
+        private void advanceBucket() {
+            Node[] buckets = Set4.this.buckets;
+            this.bucket++;
+            while (this.bucket < buckets.length
+                    && buckets[this.bucket] == null) {
+                this.bucket++;
+            }
+            if (this.bucket < buckets.length) {
+                this.current = buckets[this.bucket];
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current != null;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x = this.current.data;
+            this.current = this.current.next;
+            if (this.current == null) {
+                this.advanceBucket();
+            }
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
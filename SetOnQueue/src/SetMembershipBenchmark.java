@@ -0,0 +1,173 @@
+import java.util.Random;
+
+import components.set.Set;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Measures the time {@code Set2}, {@code Set3a}, and {@code Set4} take to add
+ * n distinct elements in random order, test membership of each of them and of
+ * n elements not in the set, and remove them all again, for n doubling from
+ * {@code FIRST_SIZE} up to a size supplied by the user.
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public final class SetMembershipBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private SetMembershipBenchmark() {
+    }
+
+    /**
+     * Smallest number of elements measured.
+     */
+    private static final int FIRST_SIZE = 1000;
+
+    /**
+     * Seed for the order of the elements, so that every run and every
+     * implementation sees the same order.
+     */
+    private static final long SEED = 2231;
+
+    /**
+     * Number of untimed runs done before the timed one, to let the JIT
+     * compiler settle.
+     */
+    private static final int WARM_UP_RUNS = 2;
+
+    /**
+     * Number of nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Returns the even numbers 0, 2, ..., 2 * (n - 1) in random order.
+     *
+     * @param n
+     *            the number of elements
+     * @return the shuffled elements
+     * @ensures <pre>
+     * |shuffled| = n  and  [shuffled is a permutation of 0, 2, ..., 2(n-1)]
+     * </pre>
+     */
+    private static Integer[] shuffled(int n) {
+        Integer[] a = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = 2 * i;
+        }
+        Random random = new Random(SEED);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Integer tmp = a[i];
+            a[i] = a[j];
+            a[j] = tmp;
+        }
+        return a;
+    }
+
+    /**
+     * Adds {@code elements} to {@code s}, looks up every element and its
+     * successor (which is not in {@code s}), and removes {@code elements}
+     * again, returning the time each of these three phases took.
+     *
+     * @param s
+     *            the set used
+     * @param elements
+     *            the elements to be added
+     * @return the times of the add, contains, and remove phases, in
+     *         nanoseconds
+     * @updates s
+     * @requires s = {}  and  [entries in elements are distinct and even]
+     * @ensures |run| = 3
+     */
+    private static long[] run(Set<Integer> s, Integer[] elements) {
+        assert s != null : "Violation of: s is not null";
+        assert s.size() == 0 : "Violation of: s = {}";
+        long[] times = new long[3];
+        int hits = 0;
+        long start = System.nanoTime();
+        for (Integer x : elements) {
+            s.add(x);
+        }
+        times[0] = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (Integer x : elements) {
+            if (s.contains(x)) {
+                hits++;
+            }
+            if (s.contains(x + 1)) {
+                hits++;
+            }
+        }
+        times[1] = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (Integer x : elements) {
+            s.remove(x);
+        }
+        times[2] = System.nanoTime() - start;
+        /*
+         * Use hits so the lookups cannot be optimized away
+         */
+        if (hits > elements.length) {
+            throw new AssertionError("Odd elements found in set");
+        }
+        return times;
+    }
+
+    /**
+     * Measures new instances of the dynamic type of {@code s} on
+     * {@code elements} and outputs one line of results.
+     *
+     * @param out
+     *            the output stream
+     * @param s
+     *            a set of the type to be measured
+     * @param elements
+     *            the elements to be added
+     * @updates out.content
+     * @requires out.is_open  and  [entries in elements are distinct and even]
+     * @ensures out.content = #out.content * [one line of times for s]
+     */
+    private static void measure(SimpleWriter out, Set<Integer> s,
+            Integer[] elements) {
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            run(s.newInstance(), elements);
+        }
+        long[] times = run(s.newInstance(), elements);
+        out.print(elements.length + "\t" + s.getClass().getName());
+        for (long t : times) {
+            out.print("\t" + t / NANOS_PER_MILLI);
+        }
+        out.println();
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+        out.print("Largest number of elements: ");
+        int maxSize = in.nextInteger();
+        out.println();
+        out.println("Times in milliseconds");
+        out.println("n\tclass\tadd\tcontains\tremove");
+        for (int n = FIRST_SIZE; n <= maxSize; n *= 2) {
+            Integer[] elements = shuffled(n);
+            measure(out, new Set2<Integer>(), elements);
+            measure(out, new Set3a<Integer>(), elements);
+            measure(out, new Set4<Integer>(), elements);
+        }
+        in.close();
+        out.close();
+    }
+
+}
@@ -0,0 +1,20 @@
+import components.set.Set;
+import components.set.Set1L;
+
+/**
+ * Customized JUnit test fixture for {@code Set4} using hash table size 1, so
+ * that the tests grow the table.
+ */
+public class Set4Test1 extends SetTest {
+
+    @Override
+    protected final Set<String> constructorTest() {
+        return new Set4<String>(1);
+    }
+
+    @Override
+    protected final Set<String> constructorRef() {
+        return new Set1L<String>();
+    }
+
+}
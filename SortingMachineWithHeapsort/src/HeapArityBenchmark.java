@@ -0,0 +1,178 @@
+import java.util.Comparator;
+
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+import components.sortingmachine.SortingMachine;
+
+/**
+ * Measures the time to heap sort n entries with {@code SortingMachine5a} and
+ * with {@code SortingMachine5d} at several arities, for entries carrying
+ * payloads of several sizes (so that comparisons touch more or fewer cache
+ * lines of memory).
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public final class HeapArityBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private HeapArityBenchmark() {
+    }
+
+    /**
+     * Entry sorted in the benchmark: an integer key and a payload that is
+     * carried along but not compared.
+     */
+    private static final class Entry {
+
+        /**
+         * Key compared by the order.
+         */
+        private final int key;
+
+        /**
+         * Payload carried with the key.
+         */
+        private final long[] payload;
+
+        /**
+         * Constructor from key and payload size.
+         *
+         * @param key
+         *            the key
+         * @param payloadLongs
+         *            the number of longs in the payload
+         */
+        private Entry(int key, int payloadLongs) {
+            this.key = key;
+            this.payload = new long[payloadLongs];
+        }
+
+    }
+
+    /**
+     * Payload sizes measured, in longs.
+     */
+    private static final int[] PAYLOAD_LONGS = { 0, 8, 64 };
+
+    /**
+     * Arities of {@code SortingMachine5d} measured.
+     */
+    private static final int[] ARITIES = { 2, 4, 8 };
+
+    /**
+     * Multiplier of the linear congruential generator for the keys.
+     */
+    private static final int MULTIPLIER = 1_664_525;
+
+    /**
+     * Increment of the linear congruential generator for the keys.
+     */
+    private static final int INCREMENT = 1_013_904_223;
+
+    /**
+     * Number of untimed runs done before the timed one, to let the JIT
+     * compiler settle.
+     */
+    private static final int WARM_UP_RUNS = 2;
+
+    /**
+     * Number of nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Order of entries by key.
+     */
+    private static final Comparator<Entry> BY_KEY = (e1,
+            e2) -> Integer.compare(e1.key, e2.key);
+
+    /**
+     * Adds {@code entries} to {@code m}, changes it to extraction mode, and
+     * removes them all again in order, returning the time this took.
+     *
+     * @param m
+     *            the sorting machine used
+     * @param entries
+     *            the entries to be sorted
+     * @return the elapsed time in nanoseconds
+     * @updates m
+     * @requires m.insertion_mode  and  m.contents = {}
+     * @ensures m = (false, m.order, {})
+     */
+    private static long run(SortingMachine<Entry> m, Entry[] entries) {
+        long start = System.nanoTime();
+        for (Entry e : entries) {
+            m.add(e);
+        }
+        m.changeToExtractionMode();
+        int previous = Integer.MIN_VALUE;
+        while (m.size() > 0) {
+            int key = m.removeFirst().key;
+            if (key < previous) {
+                throw new AssertionError("Entries out of order");
+            }
+            previous = key;
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Measures new instances of the dynamic type (and arity) of {@code m} on
+     * {@code entries} and returns the time in milliseconds.
+     *
+     * @param m
+     *            a sorting machine of the type to be measured
+     * @param entries
+     *            the entries to be sorted
+     * @return the elapsed time of the timed run, in milliseconds
+     */
+    private static double measure(SortingMachine<Entry> m, Entry[] entries) {
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            run(m.newInstance(), entries);
+        }
+        return run(m.newInstance(), entries) / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+        out.print("Number of entries: ");
+        int n = in.nextInteger();
+        out.println();
+        out.println("Times in milliseconds to sort n entries");
+        out.print("payload bytes\t5a");
+        for (int d : ARITIES) {
+            out.print("\t5d(" + d + ")");
+        }
+        out.println();
+        for (int payloadLongs : PAYLOAD_LONGS) {
+            Entry[] entries = new Entry[n];
+            int x = 0;
+            for (int i = 0; i < n; i++) {
+                x = MULTIPLIER * x + INCREMENT;
+                entries[i] = new Entry(x, payloadLongs);
+            }
+            out.print(Long.BYTES * payloadLongs + "\t\t"
+                    + measure(new SortingMachine5a<>(BY_KEY), entries));
+            for (int d : ARITIES) {
+                out.print("\t"
+                        + measure(new SortingMachine5d<>(BY_KEY, d), entries));
+            }
+            out.println();
+        }
+        in.close();
+        out.close();
+    }
+
+}
@@ -0,0 +1,149 @@
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+import components.sortingmachine.SortingMachine;
+
+/**
+ * Measures the time to heap sort n pseudo-random integers with the generic
+ * {@code SortingMachine5a<Integer>} and with the unboxed
+ * {@code SortingMachine5i}, together with the number of bytes each allocates.
+ *
+ * <p>
+ * Allocation is read from the HotSpot per-thread allocation counter; on a
+ * virtual machine without one it is reported as -1.
+ * </p>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public final class IntHeapsortBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private IntHeapsortBenchmark() {
+    }
+
+    /**
+     * Multiplier of the linear congruential generator for the integers.
+     */
+    private static final int MULTIPLIER = 1_664_525;
+
+    /**
+     * Increment of the linear congruential generator for the integers.
+     */
+    private static final int INCREMENT = 1_013_904_223;
+
+    /**
+     * Number of nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Returns the number of bytes allocated so far by the current thread, or
+     * -1 if the virtual machine cannot tell.
+     *
+     * @return the bytes allocated by the current thread, or -1
+     */
+    private static long allocatedBytes() {
+        long bytes = -1;
+        java.lang.management.ThreadMXBean bean = ManagementFactory
+                .getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            bytes = ((com.sun.management.ThreadMXBean) bean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return bytes;
+    }
+
+    /**
+     * Sorts n pseudo-random integers with {@code SortingMachine5a<Integer>}
+     * and checks the result.
+     *
+     * @param n
+     *            the number of integers
+     * @return the elapsed time in nanoseconds
+     */
+    private static long sortBoxed(int n) {
+        long start = System.nanoTime();
+        SortingMachine<Integer> m = new SortingMachine5a<>(
+                Comparator.<Integer>naturalOrder());
+        int x = 0;
+        for (int i = 0; i < n; i++) {
+            x = MULTIPLIER * x + INCREMENT;
+            m.add(x);
+        }
+        m.changeToExtractionMode();
+        int previous = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            int y = m.removeFirst();
+            if (y < previous) {
+                throw new AssertionError("Entries out of order");
+            }
+            previous = y;
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Sorts n pseudo-random integers with {@code SortingMachine5i} and checks
+     * the result.
+     *
+     * @param n
+     *            the number of integers
+     * @return the elapsed time in nanoseconds
+     */
+    private static long sortUnboxed(int n) {
+        long start = System.nanoTime();
+        SortingMachine5i m = new SortingMachine5i();
+        int x = 0;
+        for (int i = 0; i < n; i++) {
+            x = MULTIPLIER * x + INCREMENT;
+            m.add(x);
+        }
+        m.changeToExtractionMode();
+        int previous = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            int y = m.removeFirstInt();
+            if (y < previous) {
+                throw new AssertionError("Entries out of order");
+            }
+            previous = y;
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+        out.print("Number of integers: ");
+        int n = in.nextInteger();
+        out.print("Also sort boxed with SortingMachine5a (y/n)? ");
+        boolean boxed = in.nextLine().startsWith("y");
+        out.println();
+        out.println("class\t\tms\tbytes allocated");
+        if (boxed) {
+            long bytes = allocatedBytes();
+            long time = sortBoxed(n);
+            out.println("SortingMachine5a\t" + time / NANOS_PER_MILLI + "\t"
+                    + (allocatedBytes() - bytes));
+        }
+        long bytes = allocatedBytes();
+        long time = sortUnboxed(n);
+        out.println("SortingMachine5i\t" + time / NANOS_PER_MILLI + "\t"
+                + (allocatedBytes() - bytes));
+        in.close();
+        out.close();
+    }
+
+}
@@ -0,0 +1,146 @@
+import java.util.Comparator;
+
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+import components.sortingmachine.SortingMachine;
+
+/**
+ * Measures, for {@code SortingMachine5a} and {@code SortingMachine5q} holding
+ * n entries, the time from {@code changeToExtractionMode} to the first entry
+ * being removed, to the first k entries being removed, and to the machine
+ * being drained.
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public final class LazyExtractionBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private LazyExtractionBenchmark() {
+    }
+
+    /**
+     * Multiplier of the linear congruential generator for the entries.
+     */
+    private static final int MULTIPLIER = 1_664_525;
+
+    /**
+     * Increment of the linear congruential generator for the entries.
+     */
+    private static final int INCREMENT = 1_013_904_223;
+
+    /**
+     * Number of untimed runs done before the timed one, to let the JIT
+     * compiler settle.
+     */
+    private static final int WARM_UP_RUNS = 2;
+
+    /**
+     * Number of nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Adds {@code entries} to {@code m}, changes it to extraction mode, and
+     * drains it, recording the times at which the first entry, the first
+     * {@code k} entries, and all entries had been removed.
+     *
+     * @param m
+     *            the sorting machine used
+     * @param entries
+     *            the entries to be sorted
+     * @param k
+     *            the number of entries in the second measurement
+     * @return the three elapsed times since changeToExtractionMode, in
+     *         nanoseconds
+     * @updates m
+     * @requires m.insertion_mode  and  m.contents = {}  and
+     *           1 <= k <= |entries|
+     * @ensures m = (false, m.order, {})
+     */
+    private static long[] run(SortingMachine<Integer> m, Integer[] entries,
+            int k) {
+        for (Integer e : entries) {
+            m.add(e);
+        }
+        long[] times = new long[3];
+        long start = System.nanoTime();
+        m.changeToExtractionMode();
+        m.removeFirst();
+        times[0] = System.nanoTime() - start;
+        for (int i = 1; i < k; i++) {
+            m.removeFirst();
+        }
+        times[1] = System.nanoTime() - start;
+        while (m.size() > 0) {
+            m.removeFirst();
+        }
+        times[2] = System.nanoTime() - start;
+        return times;
+    }
+
+    /**
+     * Measures new instances of the dynamic type of {@code m} and outputs the
+     * times in milliseconds.
+     *
+     * @param out
+     *            the output stream
+     * @param label
+     *            the name of the implementation
+     * @param m
+     *            a sorting machine of the type to be measured
+     * @param entries
+     *            the entries to be sorted
+     * @param k
+     *            the number of entries in the second measurement
+     * @updates out.content
+     * @requires out.is_open  and  1 <= k <= |entries|
+     * @ensures out.content = #out.content * [times of the timed run]
+     */
+    private static void measure(SimpleWriter out, String label,
+            SortingMachine<Integer> m, Integer[] entries, int k) {
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            run(m.newInstance(), entries, k);
+        }
+        long[] times = run(m.newInstance(), entries, k);
+        out.print(label);
+        for (long t : times) {
+            out.print("\t" + t / NANOS_PER_MILLI);
+        }
+        out.println();
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+        out.print("Number of entries: ");
+        int n = in.nextInteger();
+        out.print("Number of entries removed first (k): ");
+        int k = in.nextInteger();
+        Integer[] entries = new Integer[n];
+        int x = 0;
+        for (int i = 0; i < n; i++) {
+            x = MULTIPLIER * x + INCREMENT;
+            entries[i] = x;
+        }
+        Comparator<Integer> order = Comparator.naturalOrder();
+        out.println();
+        out.println("Times in milliseconds since changeToExtractionMode");
+        out.println("Machine\tfirst\tfirst k\tall");
+        measure(out, "5a", new SortingMachine5a<>(order), entries, k);
+        measure(out, "5q", new SortingMachine5q<>(order), entries, k);
+        in.close();
+        out.close();
+    }
+
+}
@@ -0,0 +1,120 @@
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+import components.sortingmachine.SortingMachine;
+
+/**
+ * Measures the time {@code changeToExtractionMode} takes on a machine holding
+ * n entries, for {@code SortingMachine5a} and for {@code SortingMachine5p}
+ * building its heap in pools of 1, 2, 4, ... threads up to the number of
+ * available processors.
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public final class ParallelHeapBuildBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private ParallelHeapBuildBenchmark() {
+    }
+
+    /**
+     * Multiplier of the linear congruential generator for the entries.
+     */
+    private static final int MULTIPLIER = 1_664_525;
+
+    /**
+     * Increment of the linear congruential generator for the entries.
+     */
+    private static final int INCREMENT = 1_013_904_223;
+
+    /**
+     * Number of untimed runs done before the timed one, to let the JIT
+     * compiler settle.
+     */
+    private static final int WARM_UP_RUNS = 2;
+
+    /**
+     * Number of nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Adds {@code entries} to {@code m} and returns the time that changing it
+     * to extraction mode took.
+     *
+     * @param m
+     *            the sorting machine used
+     * @param entries
+     *            the entries to be added
+     * @return the elapsed time of changeToExtractionMode in nanoseconds
+     * @updates m
+     * @requires m.insertion_mode  and  m.contents = {}
+     * @ensures m = (false, m.order, [multiset of entries])
+     */
+    private static long run(SortingMachine<Integer> m, Integer[] entries) {
+        for (Integer e : entries) {
+            m.add(e);
+        }
+        long start = System.nanoTime();
+        m.changeToExtractionMode();
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Measures new instances of the dynamic type of {@code m} on
+     * {@code entries} and returns the time in milliseconds.
+     *
+     * @param m
+     *            a sorting machine of the type to be measured
+     * @param entries
+     *            the entries to be added
+     * @return the elapsed time of the timed run, in milliseconds
+     */
+    private static double measure(SortingMachine<Integer> m,
+            Integer[] entries) {
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            run(m.newInstance(), entries);
+        }
+        return run(m.newInstance(), entries) / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+        out.print("Number of entries: ");
+        int n = in.nextInteger();
+        Integer[] entries = new Integer[n];
+        int x = 0;
+        for (int i = 0; i < n; i++) {
+            x = MULTIPLIER * x + INCREMENT;
+            entries[i] = x;
+        }
+        Comparator<Integer> order = Comparator.naturalOrder();
+        out.println();
+        out.println("Times in milliseconds to change to extraction mode");
+        out.println("5a\t\t" + measure(new SortingMachine5a<>(order), entries));
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= processors; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            out.println("5p(" + threads + ")\t\t"
+                    + measure(new SortingMachine5p<>(order, pool), entries));
+            pool.shutdown();
+        }
+        in.close();
+        out.close();
+    }
+
+}
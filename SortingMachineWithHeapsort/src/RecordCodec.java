@@ -0,0 +1,100 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Conversion between values of type {@code T} and the bytes of the records
+ * that represent them in the run files of {@code SortingMachine5e}.
+ *
+ * @param <T>
+ *            type of values converted
+ * @mathdefinitions <pre>
+ * IS_CODEC (
+ *   c: RecordCodec
+ *  ) : boolean is
+ *  for all x: T
+ *   ([value decoded from the bytes c.encode(x)] = x)
+ * </pre>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public interface RecordCodec<T> {
+
+    /**
+     * Reports the bytes of the record representing {@code x}.
+     *
+     * @param x
+     *            the value to be encoded
+     * @return the bytes of the record
+     * @requires x is not null
+     * @ensures [encode is the record representing x]
+     */
+    byte[] encode(T x);
+
+    /**
+     * Reports the value represented by the record in
+     * {@code bytes[offset, offset + length)}.
+     *
+     * @param bytes
+     *            the array holding the record
+     * @param offset
+     *            the index of the first byte of the record
+     * @param length
+     *            the number of bytes in the record
+     * @return the value represented by the record
+     * @requires <pre>
+     * 0 <= offset  and  0 <= length  and  offset + length <= |bytes|  and
+     * [bytes[offset, offset + length) = encode(x) for some x]
+     * </pre>
+     * @ensures encode(decode) = bytes[offset, offset + length)
+     */
+    T decode(byte[] bytes, int offset, int length);
+
+    /**
+     * Reports a codec for {@code String}s, representing each one by its UTF-8
+     * bytes.
+     *
+     * @return the codec
+     * @ensures IS_CODEC(strings)
+     */
+    static RecordCodec<String> strings() {
+        return new RecordCodec<String>() {
+
+            @Override
+            public byte[] encode(String x) {
+                return x.getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String decode(byte[] bytes, int offset, int length) {
+                return new String(bytes, offset, length,
+                        StandardCharsets.UTF_8);
+            }
+
+        };
+    }
+
+    /**
+     * Reports a codec for {@code Integer}s, representing each one by its four
+     * big-endian bytes.
+     *
+     * @return the codec
+     * @ensures IS_CODEC(integers)
+     */
+    static RecordCodec<Integer> integers() {
+        return new RecordCodec<Integer>() {
+
+            @Override
+            public byte[] encode(Integer x) {
+                return ByteBuffer.allocate(Integer.BYTES).putInt(x).array();
+            }
+
+            @Override
+            public Integer decode(byte[] bytes, int offset, int length) {
+                return ByteBuffer.wrap(bytes, offset, length).getInt();
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,515 @@
+import java.lang.reflect.Constructor;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.queue.Queue;
+import components.queue.Queue1L;
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine} represented as a {@code Queue} and an array (using an
+ * embedding of heap sort on a d-ary heap), with implementations of primary
+ * methods.
+ *
+ * <p>
+ * Each node of the heap has up to {@code arity} children, stored next to
+ * each other, so a heap of n entries has about log_arity(n) levels and each
+ * level's children share a few cache lines. Sifting down uses Floyd's
+ * bottom-up method: the hole at the top is moved down along the path of first
+ * children all the way to a leaf, which needs only arity - 1 comparisons per
+ * level, and the entry to be placed is then sifted up from there, which
+ * rarely goes more than a level or two.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @mathdefinitions <pre>
+ * IS_TOTAL_PREORDER (
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all x, y, z: T
+ *   ((r(x, y) or r(y, x))  and
+ *    (if (r(x, y) and r(y, z)) then r(x, z)))
+ *
+ * SUBTREE_IS_HEAP (
+ *   a: string of T,
+ *   d: integer,
+ *   start: integer,
+ *   stop: integer,
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  [the subtree of a (when a is interpreted as a complete d-ary tree, where
+ *   the children of index i are at indices d * i + 1 through d * i + d)
+ *   rooted at index start and only through entry stop of a satisfies the
+ *   heap ordering property according to the relation r]
+ * </pre>
+ * @convention <pre>
+ * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method])
+ *  and
+ * $this.arity >= 2  and
+ * if $this.insertionMode then
+ *   $this.heapSize = 0
+ * else
+ *   $this.entries = <>  and
+ *   0 <= $this.heapSize <= |$this.heap|  and
+ *   [entries of $this.heap[0, $this.heapSize) are not null]  and
+ *   SUBTREE_IS_HEAP($this.heap, $this.arity, 0, $this.heapSize - 1,
+ *     [relation computed by $this.machineOrder.compare method])
+ * </pre>
+ * @correspondence <pre>
+ * if $this.insertionMode then
+ *   this = (true, $this.machineOrder, multiset_entries($this.entries))
+ * else
+ *   this = (false, $this.machineOrder,
+ *           multiset_entries($this.heap[0, $this.heapSize)))
+ * </pre>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public class SortingMachine5d<T> extends SortingMachineSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default number of children per node.
+     */
+    private static final int DEFAULT_ARITY = 4;
+
+    /**
+     * Order.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Number of children per node.
+     */
+    private int arity;
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Entries.
+     */
+    private Queue<T> entries;
+
+    /**
+     * Heap.
+     */
+    private T[] heap;
+
+    /**
+     * Heap size.
+     */
+    private int heapSize;
+
+    /**
+     * Places {@code x} in the subtree of the d-ary heap {@code array} rooted
+     * at {@code top}, whose root is a hole and whose other nodes form heaps,
+     * turning that whole subtree into a heap. The hole is moved down to a leaf
+     * by promoting the first child at each level, and {@code x} is then
+     * sifted up from there, but not above {@code top}.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the complete d-ary tree
+     * @param d
+     *            the number of children per node
+     * @param top
+     *            the index of the root of the "subtree"
+     * @param last
+     *            the index of the last entry in the heap
+     * @param x
+     *            the entry to be placed
+     * @param order
+     *            total preorder for sorting
+     * @updates array
+     * @requires <pre>
+     * d >= 2  and  0 <= top <= last < |array|  and
+     * [for every child c of top, SUBTREE_IS_HEAP(array, d, c, last,
+     *     [relation computed by order.compare method])]  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * SUBTREE_IS_HEAP(array, d, top, last,
+     *     [relation computed by order.compare method])  and
+     * [the entries of the subtree are those of #array with the entry at
+     *  top replaced by x]  and
+     * [the other entries in array are the same as in #array]
+     * </pre>
+     */
+    private static <T> void siftDown(T[] array, int d, int top, int last,
+            T x, Comparator<T> order) {
+        /*
+         * Move the hole down to a leaf
+         */
+        int hole = top;
+        int child = d * hole + 1;
+        while (child <= last) {
+            int first = child;
+            int end = Math.min(child + d - 1, last);
+            for (int c = child + 1; c <= end; c++) {
+                if (order.compare(array[c], array[first]) < 0) {
+                    first = c;
+                }
+            }
+            array[hole] = array[first];
+            hole = first;
+            child = d * hole + 1;
+        }
+        /*
+         * Sift x up from the leaf, but not above top
+         */
+        while (hole > top && order.compare(x, array[(hole - 1) / d]) < 0) {
+            array[hole] = array[(hole - 1) / d];
+            hole = (hole - 1) / d;
+        }
+        array[hole] = x;
+    }
+
+    /**
+     * Constructs and returns an array representing a d-ary heap with the
+     * entries from the given {@code Queue}.
+     *
+     * @param <T>
+     *            type of {@code Queue} and array entries
+     * @param q
+     *            the {@code Queue} with the entries for the heap
+     * @param d
+     *            the number of children per node
+     * @param order
+     *            the total preorder for sorting
+     * @return the array representation of a heap
+     * @clears q
+     * @requires <pre>
+     * d >= 2  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * SUBTREE_IS_HEAP(buildHeap, d, 0, |buildHeap| - 1,
+     *     [relation computed by order.compare method])  and
+     * perms(buildHeap, #q)
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T[] buildHeap(Queue<T> q, int d,
+            Comparator<T> order) {
+        /*
+         * With "new T[...]" in place of "new Object[...]" it does not compile;
+         * as shown, it results in a warning about an unchecked cast, though it
+         * cannot fail.
+         */
+        T[] heap = (T[]) (new Object[q.length()]);
+        for (int i = 0; i < heap.length; i++) {
+            heap[i] = q.dequeue();
+        }
+        int last = heap.length - 1;
+        for (int top = (last - 1) / d; top >= 0 && last > 0; top--) {
+            siftDown(heap, d, top, last, heap[top], order);
+        }
+        return heap;
+    }
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * $this.arity >= 2  and
+     * if $this.insertionMode then
+     *   $this.heapSize = 0
+     * else
+     *   $this.entries = <>  and
+     *   0 <= $this.heapSize <= |$this.heap|  and
+     *   [entries of $this.heap[0, $this.heapSize) are not null]  and
+     *   SUBTREE_IS_HEAP($this.heap, $this.arity, 0, $this.heapSize - 1,
+     *     [relation computed by $this.machineOrder.compare method])
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert this.arity >= 2 : "Violation of: $this.arity >= 2";
+        if (this.insertionMode) {
+            assert this.heapSize == 0 : "Violation of: $this.heapSize = 0";
+        } else {
+            assert this.entries.length() == 0 : ""
+                    + "Violation of: $this.entries = <>";
+            assert 0 <= this.heapSize && this.heapSize <= this.heap.length : ""
+                    + "Violation of: 0 <= $this.heapSize <= |$this.heap|";
+            for (int i = 0; i < this.heapSize; i++) {
+                assert this.heap[i] != null : ""
+                        + "Violation of: [entries of $this.heap[0,"
+                        + " $this.heapSize) are not null]";
+                /*
+                 * The parent of the entry at index i > 0 is at index
+                 * (i - 1) / d, where d is the arity
+                 */
+                int parent = (i - 1) / this.arity;
+                assert i == 0 || this.machineOrder.compare(this.heap[parent],
+                        this.heap[i]) <= 0 : ""
+                                + "Violation of: SUBTREE_IS_HEAP($this.heap,"
+                                + " $this.arity, 0, $this.heapSize - 1,"
+                                + " [relation computed by"
+                                + " $this.machineOrder.compare method])";
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param d
+     *            the number of children per node
+     * @requires <pre>
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])  and
+     * d >= 2
+     * </pre>
+     * @ensures <pre>
+     * $this.insertionMode = true  and
+     * $this.machineOrder = order  and
+     * $this.arity = d  and
+     * $this.entries = <>  and
+     * $this.heapSize = 0
+     * </pre>
+     */
+    private void createNewRep(Comparator<T> order, int d) {
+        this.insertionMode = true;
+        this.machineOrder = order;
+        this.arity = d;
+        this.entries = new Queue1L<T>();
+        this.heap = null;
+        this.heapSize = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order, using a 4-ary heap.
+     *
+     * @param order
+     *            total preorder for sorting
+     */
+    public SortingMachine5d(Comparator<T> order) {
+        this.createNewRep(order, DEFAULT_ARITY);
+
+        assert this.conventionHolds();
+    }
+
+    /**
+     * Constructor from order and number of children per heap node.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param arity
+     *            the number of children per node
+     * @requires arity >= 2
+     */
+    public SortingMachine5d(Comparator<T> order, int arity) {
+        assert arity >= 2 : "Violation of: arity >= 2";
+        this.createNewRep(order, arity);
+
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final SortingMachine<T> newInstance() {
+        try {
+            Constructor<?> c = this.getClass()
+                    .getConstructor(Comparator.class, int.class);
+            return (SortingMachine<T>) c.newInstance(this.machineOrder,
+                    this.arity);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.machineOrder, this.arity);
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine5d<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine5d<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine5d<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+        SortingMachine5d<T> localSource = (SortingMachine5d<T>) source;
+        this.insertionMode = localSource.insertionMode;
+        this.machineOrder = localSource.machineOrder;
+        this.arity = localSource.arity;
+        this.entries = localSource.entries;
+        this.heap = localSource.heap;
+        this.heapSize = localSource.heapSize;
+        localSource.createNewRep(localSource.machineOrder, localSource.arity);
+
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        this.entries.enqueue(x);
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        this.heap = buildHeap(this.entries, this.arity, this.machineOrder);
+        this.insertionMode = false;
+        this.heapSize = this.heap.length;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+
+        T first = this.heap[0];
+        this.heapSize--;
+        T last = this.heap[this.heapSize];
+        this.heap[this.heapSize] = null;
+        if (this.heapSize > 0) {
+            siftDown(this.heap, this.arity, 0, this.heapSize - 1, last,
+                    this.machineOrder);
+        }
+
+        assert this.conventionHolds();
+
+        return first;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+        int size = this.heapSize;
+        if (this.insertionMode) {
+            size = this.entries.length();
+        }
+        return size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine5dIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code SortingMachine5d}.
+     */
+    private final class SortingMachine5dIterator implements Iterator<T> {
+
+        /**
+         * Representation iterator when in insertion mode.
+         */
+        private Iterator<T> queueIterator;
+
+        /**
+         * Representation iterator count when in extraction mode.
+         */
+        private int arrayCurrentIndex;
+
+        /**
+         * No-argument constructor.
+         */
+        private SortingMachine5dIterator() {
+            if (SortingMachine5d.this.insertionMode) {
+                this.queueIterator = SortingMachine5d.this.entries.iterator();
+            } else {
+                this.arrayCurrentIndex = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean hasNext;
+            if (SortingMachine5d.this.insertionMode) {
+                hasNext = this.queueIterator.hasNext();
+            } else {
+                int heapSize = SortingMachine5d.this.heapSize;
+                hasNext = this.arrayCurrentIndex < heapSize;
+            }
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T next;
+            if (SortingMachine5d.this.insertionMode) {
+                next = this.queueIterator.next();
+            } else {
+                next = SortingMachine5d.this.heap[this.arrayCurrentIndex];
+                this.arrayCurrentIndex++;
+            }
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,1126 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine} represented as sorted runs, most of them spilled to
+ * temporary files, that are merged lazily in extraction mode, with
+ * implementations of primary methods.
+ *
+ * <p>
+ * In insertion mode at most {@code runCapacity} entries are kept in memory.
+ * When that many have been added they are sorted and written as one run to a
+ * temporary file, and the buffer is reused. A run file is open only while it
+ * is being written or read, so the number of runs is not limited by the
+ * number of files a process may have open.
+ * </p>
+ *
+ * <p>
+ * At most {@code mergeWidth} runs are merged at once. If there are more,
+ * {@code changeToExtractionMode} first merges groups of up to
+ * {@code mergeWidth} run files into longer run files, deleting the shorter
+ * ones, until few enough are left. It then sorts the entries left in memory
+ * (as the last run) and builds a heap of the runs ordered by their first
+ * entries; {@code removeFirst} then takes the first entry of the first run and
+ * sifts that run down the heap, reading the run files sequentially through
+ * buffered file channels. Each run file is deleted once it has been read to
+ * the end. Memory use is thus about {@code runCapacity} entries plus
+ * {@code mergeWidth} read buffers, and at most {@code mergeWidth} files are
+ * open at once, however many entries the machine holds.
+ * </p>
+ *
+ * <p>
+ * Run files are created in the directory given to the constructor, or in the
+ * default temporary-file directory if none is given.
+ * {@code clear}, {@code transferFrom} (for the machine transferred to), and
+ * {@code close} delete the run files still held, so a machine that is not
+ * emptied by {@code removeFirst} should be closed (e.g., in a
+ * try-with-resources statement) or cleared when it is no longer needed;
+ * otherwise its run files are deleted only when the JVM exits.
+ * </p>
+ *
+ * <p>
+ * A run file is a sequence of records, each a four-byte length followed by
+ * the bytes given by the machine's {@code RecordCodec}. Errors reading or
+ * writing run files are reported as {@code UncheckedIOException}s.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @mathdefinitions <pre>
+ * IS_TOTAL_PREORDER (
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all x, y, z: T
+ *   ((r(x, y) or r(y, x))  and
+ *    (if (r(x, y) and r(y, z)) then r(x, z)))
+ *
+ * IS_SORTED (
+ *   s: string of T,
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all x, y: T where (<x, y> is substring of s) (r(x, y))
+ *
+ * RUN_ENTRIES (
+ *   f: Path,
+ *   p: integer
+ *  ) : string of T is
+ *  [the entries decoded from the records of file f from byte p to its end]
+ * </pre>
+ * @convention <pre>
+ * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method])
+ *  and
+ * $this.runCapacity > 0  and  $this.mergeWidth >= 2  and
+ * [$this.codec is a codec for T]  and
+ * 0 <= $this.runCount <= |$this.runs|  and
+ * [$this.runs[0, $this.runCount) are distinct files that exist in
+ *  $this.runDirectory, or in the default temporary-file directory if
+ *  $this.runDirectory = null]  and
+ * $this.size = [total number of entries in all the runs and the buffer]  and
+ * if $this.insertionMode then
+ *   0 <= $this.bufferSize <= |$this.buffer| <= $this.runCapacity  and
+ *   [entries of $this.buffer[0, $this.bufferSize) are not null]  and
+ *   $this.mergeSize = 0  and
+ *   [each of $this.runs[0, $this.runCount) holds a string of entries that
+ *    IS_SORTED by the relation computed by $this.machineOrder.compare]
+ * else
+ *   $this.runCount = 0  and
+ *   0 <= $this.mergeSize <= |$this.merge| = |$this.heads| <=
+ *     $this.mergeWidth  and
+ *   [each of $this.merge[0, $this.mergeSize) has more entries, or is in
+ *    memory]  and
+ *   [<$this.heads[i]> * [remaining entries of $this.merge[i]] IS_SORTED by
+ *    the relation computed by $this.machineOrder.compare, for each i]  and
+ *   [$this.heads[0, $this.mergeSize) satisfies the heap ordering property
+ *    according to the relation computed by $this.machineOrder.compare]
+ * </pre>
+ * @correspondence <pre>
+ * if $this.insertionMode then
+ *   this = (true, $this.machineOrder,
+ *           multiset_entries($this.buffer[0, $this.bufferSize)) union
+ *           [union of multiset_entries(RUN_ENTRIES($this.runs[i], 0))
+ *            for 0 <= i < $this.runCount])
+ * else
+ *   this = (false, $this.machineOrder,
+ *           [union of {$this.heads[i]} and the remaining entries of
+ *            $this.merge[i] for 0 <= i < $this.mergeSize])
+ * </pre>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public class SortingMachine5e<T> extends SortingMachineSecondary<T>
+        implements AutoCloseable {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default number of entries kept in memory in insertion mode.
+     */
+    private static final int DEFAULT_RUN_CAPACITY = 1 << 20;
+
+    /**
+     * Default maximum number of runs merged at once.
+     */
+    private static final int DEFAULT_MERGE_WIDTH = 64;
+
+    /**
+     * Initial length of the in-memory buffer.
+     */
+    private static final int INITIAL_BUFFER_LENGTH = 16;
+
+    /**
+     * Size in bytes of the buffers through which run files are read and
+     * written.
+     */
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    /**
+     * Order.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Codec for the records of run files.
+     */
+    private RecordCodec<T> codec;
+
+    /**
+     * Maximum number of entries kept in memory in insertion mode.
+     */
+    private int runCapacity;
+
+    /**
+     * Maximum number of runs merged at once.
+     */
+    private int mergeWidth;
+
+    /**
+     * Directory in which run files are created, or null for the default
+     * temporary-file directory.
+     */
+    private Path runDirectory;
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Entries not yet spilled to a run file.
+     */
+    private T[] buffer;
+
+    /**
+     * Number of entries in buffer.
+     */
+    private int bufferSize;
+
+    /**
+     * Run files not yet handed over to the merge.
+     */
+    private Path[] runs;
+
+    /**
+     * Number of run files.
+     */
+    private int runCount;
+
+    /**
+     * Runs being merged in extraction mode, in heap order of their heads.
+     */
+    private Run[] merge;
+
+    /**
+     * First entry of each run being merged.
+     */
+    private T[] heads;
+
+    /**
+     * Number of runs being merged.
+     */
+    private int mergeSize;
+
+    /**
+     * Number of entries.
+     */
+    private int size;
+
+    /**
+     * Sorted run of entries, read in order.
+     */
+    private abstract class Run implements Iterator<T> {
+
+        /**
+         * Reports a new {@code Run} with the entries of this one not yet
+         * read, leaving this one unchanged.
+         *
+         * @return the copy
+         * @ensures [copy has the remaining entries of this]
+         */
+        abstract Run copy();
+
+        /**
+         * Releases the resources of this {@code Run}.
+         */
+        abstract void close();
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /**
+     * Run of entries in a slice of an array.
+     */
+    private final class ArrayRun extends Run {
+
+        /**
+         * The array.
+         */
+        private final T[] array;
+
+        /**
+         * Index of the next entry.
+         */
+        private int next;
+
+        /**
+         * Index past the last entry.
+         */
+        private final int end;
+
+        /**
+         * Constructor.
+         *
+         * @param array
+         *            the array
+         * @param start
+         *            index of the first entry
+         * @param end
+         *            index past the last entry
+         */
+        private ArrayRun(T[] array, int start, int end) {
+            this.array = array;
+            this.next = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next < this.end;
+        }
+
+        @Override
+        public T next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T x = this.array[this.next];
+            this.next++;
+            return x;
+        }
+
+        @Override
+        Run copy() {
+            return new ArrayRun(this.array, this.next, this.end);
+        }
+
+        @Override
+        void close() {
+        }
+
+    }
+
+    /**
+     * Run of entries in a run file, read with positional reads through a
+     * channel that is open only from the first read to the end of the file.
+     */
+    private final class FileRun extends Run {
+
+        /**
+         * The run file.
+         */
+        private final Path path;
+
+        /**
+         * Whether the run file is deleted when this {@code FileRun} is closed.
+         */
+        private final boolean owner;
+
+        /**
+         * Channel reading the run file, or null if it is not open.
+         */
+        private FileChannel channel;
+
+        /**
+         * Size of the run file.
+         */
+        private final long end;
+
+        /**
+         * Position in the run file of the first byte not yet in buffer.
+         */
+        private long position;
+
+        /**
+         * Bytes read from the run file and not yet decoded, allocated on
+         * first use.
+         */
+        private ByteBuffer buffer;
+
+        /**
+         * Constructor.
+         *
+         * @param path
+         *            the run file
+         * @param start
+         *            position in the run file of the first record to read
+         * @param owner
+         *            whether to delete the run file when this is closed
+         */
+        private FileRun(Path path, long start, boolean owner) {
+            this.path = path;
+            this.owner = owner;
+            this.channel = null;
+            try {
+                this.end = Files.size(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.position = start;
+            this.buffer = null;
+        }
+
+        /**
+         * Reads from the run file until {@code this.buffer} holds at least
+         * {@code n} bytes not yet decoded.
+         *
+         * @param n
+         *            the number of bytes needed
+         * @requires [the run file holds at least n more bytes]
+         */
+        private void fill(int n) {
+            if (this.buffer == null) {
+                this.buffer = ByteBuffer.allocate(Math.max(BLOCK_SIZE, n));
+                this.buffer.flip();
+            }
+            if (this.buffer.remaining() < n) {
+                if (n > this.buffer.capacity()) {
+                    ByteBuffer larger = ByteBuffer.allocate(n);
+                    larger.put(this.buffer);
+                    this.buffer = larger;
+                } else {
+                    this.buffer.compact();
+                }
+                try {
+                    if (this.channel == null) {
+                        this.channel = FileChannel.open(this.path,
+                                StandardOpenOption.READ);
+                    }
+                    while (this.buffer.position() < n) {
+                        int read = this.channel.read(this.buffer,
+                                this.position);
+                        if (read < 0) {
+                            throw new IOException("Truncated run file");
+                        }
+                        this.position += read;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                this.buffer.flip();
+            }
+        }
+
+        /**
+         * Closes the channel, if it is open, and drops the read buffer.
+         */
+        private void release() {
+            this.buffer = null;
+            if (this.channel != null) {
+                try {
+                    this.channel.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    this.channel = null;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return (this.buffer != null && this.buffer.hasRemaining())
+                    || this.position < this.end;
+        }
+
+        @Override
+        public T next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.fill(Integer.BYTES);
+            int length = this.buffer.getInt();
+            this.fill(length);
+            int offset = this.buffer.arrayOffset() + this.buffer.position();
+            T x = SortingMachine5e.this.codec.decode(this.buffer.array(),
+                    offset, length);
+            this.buffer.position(this.buffer.position() + length);
+            if (!this.hasNext()) {
+                this.release();
+            }
+            return x;
+        }
+
+        @Override
+        Run copy() {
+            long start = this.position;
+            if (this.buffer != null) {
+                start -= this.buffer.remaining();
+            }
+            return new FileRun(this.path, start, false);
+        }
+
+        @Override
+        void close() {
+            this.release();
+            if (this.owner) {
+                deleteRun(this.path);
+            }
+        }
+
+    }
+
+    /**
+     * Deletes run file {@code path}, if it still exists.
+     *
+     * @param path
+     *            the run file
+     */
+    private static void deleteRun(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the entries of {@code entries}, in order, to a new run file.
+     *
+     * @param entries
+     *            the entries to be written
+     * @return the new run file
+     * @updates entries
+     * @ensures <pre>
+     * RUN_ENTRIES(writeRun, 0) = #entries.unseen  and  entries.unseen = <>
+     * </pre>
+     */
+    private Path writeRun(Iterator<T> entries) {
+        Path path = null;
+        try {
+            if (this.runDirectory == null) {
+                path = Files.createTempFile("sortingmachine", ".run");
+            } else {
+                path = Files.createTempFile(this.runDirectory, "sortingmachine",
+                        ".run");
+            }
+            /*
+             * Last resort for a machine that is never emptied, cleared, or
+             * closed
+             */
+            path.toFile().deleteOnExit();
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.WRITE)) {
+                ByteBuffer out = ByteBuffer.allocate(BLOCK_SIZE);
+                while (entries.hasNext()) {
+                    byte[] record = this.codec.encode(entries.next());
+                    if (out.remaining() < Integer.BYTES + record.length) {
+                        out.flip();
+                        while (out.hasRemaining()) {
+                            channel.write(out);
+                        }
+                        out.clear();
+                    }
+                    if (out.remaining() < Integer.BYTES + record.length) {
+                        /*
+                         * Record larger than the block: write it by itself
+                         */
+                        ByteBuffer large = ByteBuffer
+                                .allocate(Integer.BYTES + record.length);
+                        large.putInt(record.length).put(record).flip();
+                        while (large.hasRemaining()) {
+                            channel.write(large);
+                        }
+                    } else {
+                        out.putInt(record.length).put(record);
+                    }
+                }
+                out.flip();
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+            }
+        } catch (IOException e) {
+            if (path != null) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw new UncheckedIOException(e);
+        }
+        return path;
+    }
+
+    /**
+     * Adds run file {@code path} at the end of {@code this.runs}.
+     *
+     * @param path
+     *            the run file
+     * @updates this.runs, this.runCount
+     * @ensures <pre>
+     * this.runs[0, this.runCount) = #this.runs[0, #this.runCount) * <path>
+     * </pre>
+     */
+    private void addRun(Path path) {
+        if (this.runCount == this.runs.length) {
+            this.runs = Arrays.copyOf(this.runs, 2 * this.runCount);
+        }
+        this.runs[this.runCount] = path;
+        this.runCount++;
+    }
+
+    /**
+     * Sorts the entries in memory and writes them as a new run file, leaving
+     * the buffer empty.
+     *
+     * @updates this.buffer, this.runs, this.runCount
+     * @requires this.bufferSize > 0
+     * @ensures <pre>
+     * this.bufferSize = 0  and
+     * [this.runs[this.runCount - 1] holds the entries of #this.buffer[0,
+     *  #this.bufferSize) in sorted order]
+     * </pre>
+     */
+    private void spill() {
+        Arrays.sort(this.buffer, 0, this.bufferSize, this.machineOrder);
+        this.addRun(
+                this.writeRun(new ArrayRun(this.buffer, 0, this.bufferSize)));
+        Arrays.fill(this.buffer, 0, this.bufferSize, null);
+        this.bufferSize = 0;
+    }
+
+    /**
+     * Sifts the run at index {@code top} of the merge heap down to its place
+     * by its head.
+     *
+     * @param top
+     *            the index of the run to sift down
+     * @updates this.merge, this.heads
+     * @requires <pre>
+     * 0 <= top < this.mergeSize  and
+     * [the merge heap would satisfy the heap ordering property except for
+     *  the head at index top]
+     * </pre>
+     * @ensures <pre>
+     * [this.heads[0, this.mergeSize) satisfies the heap ordering property]
+     *  and  [this.merge and this.heads are permuted in the same way]
+     * </pre>
+     */
+    private void siftDown(int top) {
+        int i = top;
+        Run run = this.merge[i];
+        T head = this.heads[i];
+        int child = 2 * i + 1;
+        while (child < this.mergeSize) {
+            if (child + 1 < this.mergeSize && this.machineOrder
+                    .compare(this.heads[child + 1], this.heads[child]) < 0) {
+                child++;
+            }
+            if (this.machineOrder.compare(this.heads[child], head) < 0) {
+                this.merge[i] = this.merge[child];
+                this.heads[i] = this.heads[child];
+                i = child;
+                child = 2 * i + 1;
+            } else {
+                child = this.mergeSize;
+            }
+        }
+        this.merge[i] = run;
+        this.heads[i] = head;
+    }
+
+    /**
+     * Makes {@code sources[0, n)} the runs being merged, in heap order of
+     * their heads.
+     *
+     * @param sources
+     *            the runs to be merged
+     * @param n
+     *            the number of runs to be merged
+     * @updates this.merge, this.heads, this.mergeSize
+     * @requires <pre>
+     * 0 <= n <= |sources|  and
+     * [each of sources[0, n) holds a string of entries that IS_SORTED by the
+     *  relation computed by this.machineOrder.compare]
+     * </pre>
+     * @ensures <pre>
+     * [this.merge[0, this.mergeSize) are the runs of sources[0, n) that had
+     *  entries, and this.heads[0, this.mergeSize) their first entries, in heap
+     *  order]  and
+     * [the runs of sources[0, n) that had no entries are closed]
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void startMerge(Run[] sources, int n) {
+        this.merge = (Run[]) Array.newInstance(Run.class, n);
+        this.heads = (T[]) (new Object[n]);
+        this.mergeSize = 0;
+        for (int i = 0; i < n; i++) {
+            Run run = sources[i];
+            if (run.hasNext()) {
+                this.merge[this.mergeSize] = run;
+                this.heads[this.mergeSize] = run.next();
+                this.mergeSize++;
+            } else {
+                run.close();
+            }
+        }
+        for (int i = this.mergeSize / 2 - 1; i >= 0; i--) {
+            this.siftDown(i);
+        }
+    }
+
+    /**
+     * Removes and reports the first entry of the runs being merged, closing
+     * the run it came from if that run has no more entries.
+     *
+     * @return the first entry
+     * @updates this.merge, this.heads, this.mergeSize
+     * @requires this.mergeSize > 0
+     * @ensures <pre>
+     * [nextMerged is the first entry, by the relation computed by
+     *  this.machineOrder.compare, of the runs being merged, and it is no longer
+     *  in them]
+     * </pre>
+     */
+    private T nextMerged() {
+        T first = this.heads[0];
+        Run run = this.merge[0];
+        if (run.hasNext()) {
+            this.heads[0] = run.next();
+        } else {
+            run.close();
+            this.mergeSize--;
+            this.merge[0] = this.merge[this.mergeSize];
+            this.heads[0] = this.heads[this.mergeSize];
+            this.merge[this.mergeSize] = null;
+            this.heads[this.mergeSize] = null;
+        }
+        if (this.mergeSize > 0) {
+            this.siftDown(0);
+        }
+        return first;
+    }
+
+    /**
+     * Merges run files of {@code this.runs} into longer run files until at
+     * most {@code maxRuns} are left.
+     *
+     * <p>
+     * Each merge takes up to {@code this.mergeWidth} runs from the front of
+     * {@code this.runs} and adds the merged run at the end, so runs are merged
+     * in passes, the shortest first. The first merge takes only as many runs
+     * as make every later merge take exactly {@code this.mergeWidth}, so that
+     * no long run is merged more often than necessary.
+     * </p>
+     *
+     * @param maxRuns
+     *            the number of run files that may be left
+     * @updates this.runs, this.runCount
+     * @requires maxRuns > 0  and  this.mergeSize = 0
+     * @ensures <pre>
+     * this.runCount <= maxRuns  and
+     * [the runs of this.runs[0, this.runCount) hold the same entries as the
+     *  runs of #this.runs[0, #this.runCount)]  and
+     * [the run files of #this.runs not in this.runs are deleted]
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void mergeRuns(int maxRuns) {
+        Run[] group = (Run[]) Array.newInstance(Run.class, this.mergeWidth);
+        while (this.runCount > maxRuns) {
+            int width = Math.min(this.mergeWidth,
+                    (this.runCount - maxRuns - 1) % (this.mergeWidth - 1) + 2);
+            for (int i = 0; i < width; i++) {
+                group[i] = new FileRun(this.runs[i], 0, true);
+            }
+            System.arraycopy(this.runs, width, this.runs, 0,
+                    this.runCount - width);
+            Arrays.fill(this.runs, this.runCount - width, this.runCount, null);
+            this.runCount -= width;
+            this.startMerge(group, width);
+            Arrays.fill(group, null);
+            this.addRun(this.writeRun(new Iterator<T>() {
+
+                @Override
+                public boolean hasNext() {
+                    return SortingMachine5e.this.mergeSize > 0;
+                }
+
+                @Override
+                public T next() {
+                    return SortingMachine5e.this.nextMerged();
+                }
+
+            }));
+        }
+        this.merge = null;
+        this.heads = null;
+    }
+
+    /**
+     * Deletes all the run files still held, closing any that are open.
+     *
+     * @updates this.runs, this.merge
+     * @ensures <pre>
+     * [the run files of #this.runs[0, #this.runCount) and of
+     *  #this.merge[0, #this.mergeSize) are closed and deleted]
+     * </pre>
+     */
+    private void releaseRuns() {
+        for (int i = 0; i < this.runCount; i++) {
+            deleteRun(this.runs[i]);
+            this.runs[i] = null;
+        }
+        for (int i = 0; i < this.mergeSize; i++) {
+            this.merge[i].close();
+            this.merge[i] = null;
+        }
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param recordCodec
+     *            codec for the records of run files
+     * @param capacity
+     *            maximum number of entries kept in memory
+     * @param width
+     *            maximum number of runs merged at once
+     * @param directory
+     *            directory in which run files are created, or null
+     * @requires <pre>
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])  and
+     * capacity > 0  and  width >= 2
+     * </pre>
+     * @ensures <pre>
+     * $this.insertionMode = true  and
+     * $this.machineOrder = order  and
+     * $this.codec = recordCodec  and
+     * $this.runCapacity = capacity  and  $this.mergeWidth = width  and
+     * $this.runDirectory = directory  and
+     * $this.bufferSize = 0  and  $this.runCount = 0  and
+     * $this.mergeSize = 0  and  $this.size = 0
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep(Comparator<T> order, RecordCodec<T> recordCodec,
+            int capacity, int width, Path directory) {
+        this.insertionMode = true;
+        this.machineOrder = order;
+        this.codec = recordCodec;
+        this.runCapacity = capacity;
+        this.mergeWidth = width;
+        this.runDirectory = directory;
+        this.buffer = (T[]) (new Object[Math.min(capacity,
+                INITIAL_BUFFER_LENGTH)]);
+        this.bufferSize = 0;
+        this.runs = new Path[1];
+        this.runCount = 0;
+        this.merge = null;
+        this.heads = null;
+        this.mergeSize = 0;
+        this.size = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order and codec, with the default memory budget and
+     * merge width.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param codec
+     *            codec for the records of run files
+     */
+    public SortingMachine5e(Comparator<T> order, RecordCodec<T> codec) {
+        this(order, codec, DEFAULT_RUN_CAPACITY, DEFAULT_MERGE_WIDTH);
+    }
+
+    /**
+     * Constructor from order, codec, and memory budget, with the default
+     * merge width.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param codec
+     *            codec for the records of run files
+     * @param runCapacity
+     *            maximum number of entries kept in memory in insertion mode
+     */
+    public SortingMachine5e(Comparator<T> order, RecordCodec<T> codec,
+            int runCapacity) {
+        this(order, codec, runCapacity, DEFAULT_MERGE_WIDTH);
+    }
+
+    /**
+     * Constructor from order, codec, memory budget, and merge width.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param codec
+     *            codec for the records of run files
+     * @param runCapacity
+     *            maximum number of entries kept in memory in insertion mode
+     * @param mergeWidth
+     *            maximum number of runs merged at once, and so of run files
+     *            open at once
+     */
+    public SortingMachine5e(Comparator<T> order, RecordCodec<T> codec,
+            int runCapacity, int mergeWidth) {
+        this(order, codec, runCapacity, mergeWidth, null);
+    }
+
+    /**
+     * Constructor from order, codec, memory budget, merge width, and the
+     * directory in which run files are created.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param codec
+     *            codec for the records of run files
+     * @param runCapacity
+     *            maximum number of entries kept in memory in insertion mode
+     * @param mergeWidth
+     *            maximum number of runs merged at once, and so of run files
+     *            open at once
+     * @param runDirectory
+     *            existing directory in which run files are created, or null
+     *            for the default temporary-file directory
+     */
+    public SortingMachine5e(Comparator<T> order, RecordCodec<T> codec,
+            int runCapacity, int mergeWidth, Path runDirectory) {
+        assert codec != null : "Violation of: codec is not null";
+        assert runCapacity > 0 : "Violation of: runCapacity > 0";
+        assert mergeWidth >= 2 : "Violation of: mergeWidth >= 2";
+        this.createNewRep(order, codec, runCapacity, mergeWidth, runDirectory);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final SortingMachine<T> newInstance() {
+        try {
+            Constructor<?> c = this.getClass().getConstructor(Comparator.class,
+                    RecordCodec.class, int.class, int.class, Path.class);
+            return (SortingMachine<T>) c.newInstance(this.machineOrder,
+                    this.codec, this.runCapacity, this.mergeWidth,
+                    this.runDirectory);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.releaseRuns();
+        this.createNewRep(this.machineOrder, this.codec, this.runCapacity,
+                this.mergeWidth, this.runDirectory);
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine5e<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine5e<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine5e<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+        SortingMachine5e<T> localSource = (SortingMachine5e<T>) source;
+        this.releaseRuns();
+        this.insertionMode = localSource.insertionMode;
+        this.machineOrder = localSource.machineOrder;
+        this.codec = localSource.codec;
+        this.runCapacity = localSource.runCapacity;
+        this.mergeWidth = localSource.mergeWidth;
+        this.runDirectory = localSource.runDirectory;
+        this.buffer = localSource.buffer;
+        this.bufferSize = localSource.bufferSize;
+        this.runs = localSource.runs;
+        this.runCount = localSource.runCount;
+        this.merge = localSource.merge;
+        this.heads = localSource.heads;
+        this.mergeSize = localSource.mergeSize;
+        this.size = localSource.size;
+        localSource.createNewRep(localSource.machineOrder, localSource.codec,
+                localSource.runCapacity, localSource.mergeWidth,
+                localSource.runDirectory);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        if (this.bufferSize == this.runCapacity) {
+            this.spill();
+        } else if (this.bufferSize == this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer,
+                    Math.min(this.runCapacity, 2 * this.buffer.length));
+        }
+        this.buffer[this.bufferSize] = x;
+        this.bufferSize++;
+        this.size++;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        /*
+         * Leave room in the final merge for the entries still in memory
+         */
+        this.mergeRuns(this.mergeWidth - 1);
+        Arrays.sort(this.buffer, 0, this.bufferSize, this.machineOrder);
+        Run[] sources = (Run[]) Array.newInstance(Run.class,
+                this.runCount + 1);
+        for (int i = 0; i < this.runCount; i++) {
+            sources[i] = new FileRun(this.runs[i], 0, true);
+            this.runs[i] = null;
+        }
+        sources[this.runCount] = new ArrayRun(this.buffer, 0, this.bufferSize);
+        this.startMerge(sources, this.runCount + 1);
+        this.runCount = 0;
+        this.insertionMode = false;
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+
+        T first = this.nextMerged();
+        this.size--;
+        return first;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine5eIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code SortingMachine5e}, going through the runs one after another.
+     */
+    private final class SortingMachine5eIterator implements Iterator<T> {
+
+        /**
+         * Runs still to be gone through, in order.
+         */
+        private final Run[] parts;
+
+        /**
+         * Index in parts of the run being gone through.
+         */
+        private int current;
+
+        /**
+         * No-argument constructor.
+         */
+        @SuppressWarnings("unchecked")
+        private SortingMachine5eIterator() {
+            SortingMachine5e<T> m = SortingMachine5e.this;
+            if (m.insertionMode) {
+                this.parts = (Run[]) Array
+                        .newInstance(Run.class, m.runCount + 1);
+                for (int i = 0; i < m.runCount; i++) {
+                    this.parts[i] = m.new FileRun(m.runs[i], 0, false);
+                }
+                this.parts[m.runCount] = m.new ArrayRun(m.buffer, 0,
+                        m.bufferSize);
+            } else {
+                this.parts = (Run[]) Array
+                        .newInstance(Run.class, m.mergeSize + 1);
+                this.parts[0] = m.new ArrayRun(m.heads, 0, m.mergeSize);
+                for (int i = 0; i < m.mergeSize; i++) {
+                    this.parts[i + 1] = m.merge[i].copy();
+                }
+            }
+            this.current = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (this.current < this.parts.length - 1
+                    && !this.parts[this.current].hasNext()) {
+                this.parts[this.current] = null;
+                this.current++;
+            }
+            return this.parts[this.current].hasNext();
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            return this.parts[this.current].next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Deletes the run files of {@code this} and empties it, leaving it in
+     * insertion mode, as {@code clear} does.
+     *
+     * @clears this
+     */
+    @Override
+    public final void close() {
+        this.clear();
+    }
+
+}
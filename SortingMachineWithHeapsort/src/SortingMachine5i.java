@@ -0,0 +1,400 @@
+import java.lang.reflect.Constructor;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine<Integer>} represented as a single {@code int} array
+ * (using an embedding of heap sort, with the sift-down of
+ * {@code ArraySiftDownMain}), with implementations of primary methods.
+ *
+ * <p>
+ * Entries are kept unboxed, and compared with {@code <} rather than through a
+ * {@code Comparator}. Besides the {@code SortingMachine} methods, which box
+ * and unbox each {@code Integer} at the interface, {@code add(int)} and
+ * {@code removeFirstInt()} move {@code int}s in and out without allocating,
+ * so sorting n entries allocates only the array (which grows geometrically in
+ * insertion mode). The order is either increasing or decreasing; decreasing
+ * order is handled by storing the bitwise complement of each entry, which
+ * reverses {@code <} without overflow.
+ * </p>
+ *
+ * @mathdefinitions <pre>
+ * SUBTREE_IS_HEAP (
+ *   a: string of integer,
+ *   start: integer,
+ *   stop: integer,
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  [the subtree of a (when a is interpreted as a complete binary tree) rooted
+ *   at index start and only through entry stop of a satisfies the heap
+ *   ordering property according to the relation r]
+ *
+ * KEY (
+ *   x: integer,
+ *   ascending: boolean
+ *  ) : integer is
+ *  if ascending then x else -x - 1
+ * </pre>
+ * @convention <pre>
+ * |$this.keys| > 0  and  0 <= $this.count <= |$this.keys|  and
+ * if not $this.insertionMode then
+ *   SUBTREE_IS_HEAP($this.keys, 0, $this.count - 1, <=)
+ * </pre>
+ * @correspondence <pre>
+ * this = ($this.insertionMode,
+ *         [natural order if $this.ascending, else its reverse],
+ *         {KEY(k, $this.ascending): k is in $this.keys[0, $this.count)})
+ * </pre>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public class SortingMachine5i extends SortingMachineSecondary<Integer> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Initial length of the array.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Whether entries come out in increasing order.
+     */
+    private boolean ascending;
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Keys of the entries: the entries themselves if {@code ascending}, their
+     * bitwise complements otherwise.
+     */
+    private int[] keys;
+
+    /**
+     * Number of entries.
+     */
+    private int count;
+
+    /**
+     * Exchanges entries at indices {@code i} and {@code j} of {@code array}.
+     *
+     * @param array
+     *            the array whose entries are to be exchanged
+     * @param i
+     *            one index
+     * @param j
+     *            the other index
+     * @updates array
+     * @requires 0 <= i < |array| and 0 <= j < |array|
+     * @ensures array = [#array with entries at indices i and j exchanged]
+     */
+    private static void exchangeEntries(int[] array, int i, int j) {
+        if (i != j) {
+            int tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+
+    /**
+     * Given an array that represents a complete binary tree and an index
+     * referring to the root of a subtree that would be a heap except for its
+     * root, sifts the root down to turn that whole subtree into a heap.
+     *
+     * @param array
+     *            the complete binary tree
+     * @param top
+     *            the index of the root of the "subtree"
+     * @param last
+     *            the index of the last entry in the heap
+     * @updates array
+     * @requires <pre>
+     * 0 <= top  and  last < |array.entries|  and
+     * SUBTREE_IS_HEAP(array, 2 * top + 1, last, <=)  and
+     * SUBTREE_IS_HEAP(array, 2 * top + 2, last, <=)
+     * [subtree rooted at {@code top} is a complete binary tree]
+     * </pre>
+     * @ensures <pre>
+     * SUBTREE_IS_HEAP(array, top, last, <=)  and
+     * perms(array, #array)  and
+     * [the entries in array outside the subtree are the same as in #array]
+     * </pre>
+     */
+    private static void siftDown(int[] array, int top, int last) {
+        int i = top;
+        boolean done = false;
+        while (!done) {
+            int left = 2 * i + 1;
+            int smaller = i;
+            if (left <= last && array[left] < array[smaller]) {
+                smaller = left;
+            }
+            if (left + 1 <= last && array[left + 1] < array[smaller]) {
+                smaller = left + 1;
+            }
+            if (smaller == i) {
+                done = true;
+            } else {
+                exchangeEntries(array, i, smaller);
+                i = smaller;
+            }
+        }
+    }
+
+    /**
+     * Returns the key stored for entry {@code x}, which is also the entry
+     * stored for key {@code x}.
+     *
+     * @param x
+     *            the entry or key
+     * @return the key or entry
+     * @ensures keyOf = KEY(x, $this.ascending)
+     */
+    private int keyOf(int x) {
+        int key = x;
+        if (!this.ascending) {
+            key = ~x;
+        }
+        return key;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param isAscending
+     *            whether entries come out in increasing order
+     * @ensures <pre>
+     * $this.insertionMode = true  and  $this.ascending = isAscending  and
+     * $this.count = 0
+     * </pre>
+     */
+    private void createNewRep(boolean isAscending) {
+        this.ascending = isAscending;
+        this.insertionMode = true;
+        this.keys = new int[INITIAL_CAPACITY];
+        this.count = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor, for increasing order.
+     */
+    public SortingMachine5i() {
+        this.createNewRep(true);
+    }
+
+    /**
+     * Constructor from direction of order.
+     *
+     * @param ascending
+     *            whether entries come out in increasing order
+     */
+    public SortingMachine5i(boolean ascending) {
+        this.createNewRep(ascending);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @Override
+    public final SortingMachine<Integer> newInstance() {
+        try {
+            Constructor<?> c = this.getClass().getConstructor(boolean.class);
+            return (SortingMachine5i) c.newInstance(this.ascending);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.ascending);
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<Integer> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine5i : ""
+                + "Violation of: source is of dynamic type SortingMachine5i";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case.
+         */
+        SortingMachine5i localSource = (SortingMachine5i) source;
+        this.ascending = localSource.ascending;
+        this.insertionMode = localSource.insertionMode;
+        this.keys = localSource.keys;
+        this.count = localSource.count;
+        localSource.createNewRep(localSource.ascending);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(Integer x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        this.add(x.intValue());
+    }
+
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        for (int top = this.count / 2 - 1; top >= 0; top--) {
+            siftDown(this.keys, top, this.count - 1);
+        }
+        this.insertionMode = false;
+    }
+
+    @Override
+    public final Integer removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+
+        return this.removeFirstInt();
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<Integer> order() {
+        Comparator<Integer> order = Comparator.naturalOrder();
+        if (!this.ascending) {
+            order = Comparator.reverseOrder();
+        }
+        return order;
+    }
+
+    @Override
+    public final int size() {
+        return this.count;
+    }
+
+    @Override
+    public final Iterator<Integer> iterator() {
+        return new SortingMachine5iIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code SortingMachine5i}.
+     */
+    private final class SortingMachine5iIterator implements Iterator<Integer> {
+
+        /**
+         * Index of the next key to be returned.
+         */
+        private int current;
+
+        /**
+         * No-argument constructor.
+         */
+        private SortingMachine5iIterator() {
+            this.current = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current < SortingMachine5i.this.count;
+        }
+
+        @Override
+        public Integer next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            int key = SortingMachine5i.this.keys[this.current];
+            this.current++;
+            return SortingMachine5i.this.keyOf(key);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Adds {@code x} to the contents of {@code this} without boxing it.
+     *
+     * @param x
+     *            the element to be added
+     * @updates this.contents
+     * @requires this.insertion_mode
+     * @ensures this.contents = #this.contents union {x}
+     */
+    public final void add(int x) {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        if (this.count == this.keys.length) {
+            int[] larger = new int[2 * this.keys.length];
+            System.arraycopy(this.keys, 0, larger, 0, this.count);
+            this.keys = larger;
+        }
+        this.keys[this.count] = this.keyOf(x);
+        this.count++;
+    }
+
+    /**
+     * Removes and returns some "first" ("smallest" or, for decreasing order,
+     * "largest") entry from the contents of {@code this}, without boxing it.
+     *
+     * @return the entry removed
+     * @updates this.contents
+     * @requires not this.insertion_mode and this.contents /= {}
+     * @ensures <pre>
+     * removeFirstInt is in #this.contents  and
+     * this.contents = #this.contents \ {removeFirstInt}  and
+     * for all x: integer where (x is in this.contents)
+     *   ([relation computed by this.order.compare method](removeFirstInt, x))
+     * </pre>
+     */
+    public final int removeFirstInt() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+
+        int first = this.keys[0];
+        this.count--;
+        this.keys[0] = this.keys[this.count];
+        siftDown(this.keys, 0, this.count - 1);
+        return this.keyOf(first);
+    }
+
+}
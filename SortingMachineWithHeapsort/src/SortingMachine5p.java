@@ -0,0 +1,515 @@
+import java.lang.reflect.Constructor;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import components.queue.Queue;
+import components.queue.Queue1L;
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine} represented as a {@code Queue} and an array (using an
+ * embedding of heap sort), with implementations of primary methods, that
+ * builds its heap in parallel when changing to extraction mode.
+ *
+ * <p>
+ * The heap is built as in {@code SortingMachine5a}: each subtree is heapified
+ * by heapifying its two child subtrees and then sifting its root down. The
+ * two child subtrees are disjoint, so for large subtrees they are heapified as
+ * separate fork-join tasks; subtrees smaller than {@code SEQUENTIAL_THRESHOLD}
+ * entries are heapified on the current thread. The O(n) work thus spreads
+ * over the cores of the pool, leaving a sequential sift-down of O(log n) per
+ * level near the root. {@code removeFirst} is unchanged.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @mathdefinitions <pre>
+ * IS_TOTAL_PREORDER (
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all x, y, z: T
+ *   ((r(x, y) or r(y, x))  and
+ *    (if (r(x, y) and r(y, z)) then r(x, z)))
+ *
+ * SUBTREE_IS_HEAP (
+ *   a: string of T,
+ *   start: integer,
+ *   stop: integer,
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  [the subtree of a (when a is interpreted as a complete binary tree) rooted
+ *   at index start and only through entry stop of a satisfies the heap
+ *   ordering property according to the relation r]
+ * </pre>
+ * @convention <pre>
+ * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method])
+ *  and
+ * if $this.insertionMode then
+ *   $this.heapSize = 0
+ * else
+ *   $this.entries = <>  and
+ *   0 <= $this.heapSize <= |$this.heap|  and
+ *   [entries of $this.heap[0, $this.heapSize) are not null]  and
+ *   SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,
+ *     [relation computed by $this.machineOrder.compare method])
+ * </pre>
+ * @correspondence <pre>
+ * if $this.insertionMode then
+ *   this = (true, $this.machineOrder, multiset_entries($this.entries))
+ * else
+ *   this = (false, $this.machineOrder,
+ *           multiset_entries($this.heap[0, $this.heapSize)))
+ * </pre>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public class SortingMachine5p<T> extends SortingMachineSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Subtrees with fewer entries than this are heapified without forking.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+
+    /**
+     * Order.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Pool in which the heap is built.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Entries.
+     */
+    private Queue<T> entries;
+
+    /**
+     * Heap.
+     */
+    private T[] heap;
+
+    /**
+     * Heap size.
+     */
+    private int heapSize;
+
+    /**
+     * Given an array that represents a complete binary tree and an index
+     * referring to the root of a subtree that would be a heap except for its
+     * root, sifts the root down to turn that whole subtree into a heap.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the complete binary tree
+     * @param top
+     *            the index of the root of the "subtree"
+     * @param last
+     *            the index of the last entry in the heap
+     * @param order
+     *            total preorder for sorting
+     * @updates array
+     * @requires <pre>
+     * 0 <= top  and  last < |array|  and
+     * SUBTREE_IS_HEAP(array, 2 * top + 1, last,
+     *     [relation computed by order.compare method])  and
+     * SUBTREE_IS_HEAP(array, 2 * top + 2, last,
+     *     [relation computed by order.compare method])  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * SUBTREE_IS_HEAP(array, top, last,
+     *     [relation computed by order.compare method])  and
+     * perms(array, #array)  and
+     * [the entries in array outside the subtree are the same as in #array]
+     * </pre>
+     */
+    private static <T> void siftDown(T[] array, int top, int last,
+            Comparator<T> order) {
+        int i = top;
+        T x = array[i];
+        int child = 2 * i + 1;
+        while (child <= last) {
+            if (child < last
+                    && order.compare(array[child + 1], array[child]) < 0) {
+                child++;
+            }
+            if (order.compare(array[child], x) < 0) {
+                array[i] = array[child];
+                i = child;
+                child = 2 * i + 1;
+            } else {
+                child = last + 1;
+            }
+        }
+        array[i] = x;
+    }
+
+    /**
+     * Heapifies the subtree of the given array rooted at the given {@code top}
+     * on the current thread.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the complete binary tree
+     * @param top
+     *            the index of the root of the "subtree" to heapify
+     * @param last
+     *            the index of the last entry in the heap
+     * @param order
+     *            the total preorder for sorting
+     * @updates array
+     * @requires <pre>
+     * 0 <= top  and  last < |array|  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * SUBTREE_IS_HEAP(array, top, last,
+     *     [relation computed by order.compare method])  and
+     * perms(array, #array)  and
+     * [the entries in array outside the subtree are the same as in #array]
+     * </pre>
+     */
+    private static <T> void heapify(T[] array, int top, int last,
+            Comparator<T> order) {
+        int left = 2 * top + 1;
+        if (left <= last) {
+            heapify(array, left, last, order);
+            if (left + 1 <= last) {
+                heapify(array, left + 1, last, order);
+            }
+            siftDown(array, top, last, order);
+        }
+    }
+
+    /**
+     * Fork-join task heapifying one subtree of an array, forking tasks for its
+     * two child subtrees when the subtree is large.
+     *
+     * @param <T>
+     *            type of array entries
+     */
+    private static final class HeapifyTask<T> extends RecursiveAction {
+
+        /**
+         * Serial version identifier.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The complete binary tree.
+         */
+        private final T[] array;
+
+        /**
+         * The index of the root of the subtree to heapify.
+         */
+        private final int top;
+
+        /**
+         * The index of the last entry in the heap.
+         */
+        private final int last;
+
+        /**
+         * The total preorder for sorting.
+         */
+        private final Comparator<T> order;
+
+        /**
+         * Constructor.
+         *
+         * @param array
+         *            the complete binary tree
+         * @param top
+         *            the index of the root of the subtree to heapify
+         * @param last
+         *            the index of the last entry in the heap
+         * @param order
+         *            the total preorder for sorting
+         */
+        private HeapifyTask(T[] array, int top, int last,
+                Comparator<T> order) {
+            this.array = array;
+            this.top = top;
+            this.last = last;
+            this.order = order;
+        }
+
+        @Override
+        protected void compute() {
+            int left = 2 * this.top + 1;
+            /*
+             * The subtree rooted at top has about (last + 1) / (top + 1)
+             * entries
+             */
+            if ((this.last + 1) / (this.top + 1) < SEQUENTIAL_THRESHOLD
+                    || left + 1 > this.last) {
+                heapify(this.array, this.top, this.last, this.order);
+            } else {
+                invokeAll(
+                        new HeapifyTask<>(this.array, left, this.last,
+                                this.order),
+                        new HeapifyTask<>(this.array, left + 1, this.last,
+                                this.order));
+                siftDown(this.array, this.top, this.last, this.order);
+            }
+        }
+
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param forkJoinPool
+     *            pool in which the heap is built
+     * @requires IS_TOTAL_PREORDER([relation computed by order.compare method]
+     * @ensures <pre>
+     * $this.insertionMode = true  and
+     * $this.machineOrder = order  and
+     * $this.pool = forkJoinPool  and
+     * $this.entries = <>  and
+     * $this.heapSize = 0
+     * </pre>
+     */
+    private void createNewRep(Comparator<T> order, ForkJoinPool forkJoinPool) {
+        this.insertionMode = true;
+        this.machineOrder = order;
+        this.pool = forkJoinPool;
+        this.entries = new Queue1L<T>();
+        this.heap = null;
+        this.heapSize = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order, building heaps in the common fork-join pool.
+     *
+     * @param order
+     *            total preorder for sorting
+     */
+    public SortingMachine5p(Comparator<T> order) {
+        this.createNewRep(order, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor from order and the pool in which to build heaps.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param pool
+     *            pool in which the heap is built
+     */
+    public SortingMachine5p(Comparator<T> order, ForkJoinPool pool) {
+        assert pool != null : "Violation of: pool is not null";
+        this.createNewRep(order, pool);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final SortingMachine<T> newInstance() {
+        try {
+            Constructor<?> c = this.getClass()
+                    .getConstructor(Comparator.class, ForkJoinPool.class);
+            return (SortingMachine<T>) c.newInstance(this.machineOrder,
+                    this.pool);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.machineOrder, this.pool);
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine5p<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine5p<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine5p<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+        SortingMachine5p<T> localSource = (SortingMachine5p<T>) source;
+        this.insertionMode = localSource.insertionMode;
+        this.machineOrder = localSource.machineOrder;
+        this.pool = localSource.pool;
+        this.entries = localSource.entries;
+        this.heap = localSource.heap;
+        this.heapSize = localSource.heapSize;
+        localSource.createNewRep(localSource.machineOrder, localSource.pool);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        this.entries.enqueue(x);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        /*
+         * With "new T[...]" in place of "new Object[...]" it does not compile;
+         * as shown, it results in a warning about an unchecked cast, though it
+         * cannot fail.
+         */
+        this.heap = (T[]) (new Object[this.entries.length()]);
+        for (int i = 0; i < this.heap.length; i++) {
+            this.heap[i] = this.entries.dequeue();
+        }
+        if (this.heap.length > 1) {
+            this.pool.invoke(new HeapifyTask<>(this.heap, 0,
+                    this.heap.length - 1, this.machineOrder));
+        }
+        this.insertionMode = false;
+        this.heapSize = this.heap.length;
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+
+        T first = this.heap[0];
+        this.heapSize--;
+        this.heap[0] = this.heap[this.heapSize];
+        this.heap[this.heapSize] = null;
+        siftDown(this.heap, 0, this.heapSize - 1, this.machineOrder);
+        return first;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+        int size = this.heapSize;
+        if (this.insertionMode) {
+            size = this.entries.length();
+        }
+        return size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine5pIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code SortingMachine5p}.
+     */
+    private final class SortingMachine5pIterator implements Iterator<T> {
+
+        /**
+         * Representation iterator when in insertion mode.
+         */
+        private Iterator<T> queueIterator;
+
+        /**
+         * Representation iterator count when in extraction mode.
+         */
+        private int arrayCurrentIndex;
+
+        /**
+         * No-argument constructor.
+         */
+        private SortingMachine5pIterator() {
+            if (SortingMachine5p.this.insertionMode) {
+                this.queueIterator = SortingMachine5p.this.entries.iterator();
+            } else {
+                this.arrayCurrentIndex = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean hasNext;
+            if (SortingMachine5p.this.insertionMode) {
+                hasNext = this.queueIterator.hasNext();
+            } else {
+                int heapSize = SortingMachine5p.this.heapSize;
+                hasNext = this.arrayCurrentIndex < heapSize;
+            }
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T next;
+            if (SortingMachine5p.this.insertionMode) {
+                next = this.queueIterator.next();
+            } else {
+                next = SortingMachine5p.this.heap[this.arrayCurrentIndex];
+                this.arrayCurrentIndex++;
+            }
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,519 @@
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine} represented as an array that is sorted lazily by
+ * incremental quicksort, with implementations of primary methods.
+ *
+ * <p>
+ * Entries are added to the end of an array, so {@code changeToExtractionMode}
+ * takes constant time. Each {@code removeFirst} then partitions only the
+ * leftmost unsorted segment of the array, repeatedly, until its first entry
+ * is in its final place, and remembers the ends of the segments it has not
+ * finished on a stack. The first {@code removeFirst} thus takes expected O(n)
+ * time, taking the first k entries expected O(n + k log k), and draining the
+ * machine does the work of one quicksort, expected O(n log n). Partitioning
+ * is three-way, so runs of equal entries are placed all at once.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @mathdefinitions <pre>
+ * IS_TOTAL_PREORDER (
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all x, y, z: T
+ *   ((r(x, y) or r(y, x))  and
+ *    (if (r(x, y) and r(y, z)) then r(x, z)))
+ *
+ * IS_SORTED (
+ *   s: string of T,
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all x, y: T where (<x, y> is substring of s) (r(x, y))
+ *
+ * IS_SPLIT (
+ *   a: string of T,
+ *   i: integer,
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all x, y: T where (x is in entries(a[0, i))  and
+ *                         y is in entries(a[i, |a|)))
+ *   (r(x, y))
+ * </pre>
+ * @convention <pre>
+ * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method])
+ *  and
+ * 0 <= $this.first <= $this.sortedEnd <= $this.count <= |$this.entries|  and
+ * [entries of $this.entries[$this.first, $this.count) are not null]  and
+ * if $this.insertionMode then
+ *   $this.first = 0  and  $this.sortedEnd = 0  and  $this.stackSize = 0
+ * else
+ *   IS_SORTED($this.entries[$this.first, $this.sortedEnd),
+ *     [relation computed by $this.machineOrder.compare method])  and
+ *   0 <= $this.stackSize <= |$this.stack|  and
+ *   [for each entry e of $this.stack[0, $this.stackSize), with i = e if
+ *    e >= 0 and i = ~e otherwise:
+ *      IS_SPLIT($this.entries[$this.first, $this.count), i - $this.first,
+ *        [relation computed by $this.machineOrder.compare method])  and
+ *      if e < 0 then
+ *        [the entries at index i and above, up to the next split
+ *         recorded below it on the stack, are sorted as well]]  and
+ *   [the absolute values of the entries of $this.stack decrease from bottom
+ *    to top and all exceed $this.sortedEnd]  and
+ *   IS_SPLIT($this.entries[$this.first, $this.count),
+ *     $this.sortedEnd - $this.first,
+ *     [relation computed by $this.machineOrder.compare method])  and
+ *   if $this.stackSize = 0 then $this.sortedEnd = $this.count
+ * </pre>
+ * @correspondence <pre>
+ * this = ($this.insertionMode, $this.machineOrder,
+ *         multiset_entries($this.entries[$this.first, $this.count)))
+ * </pre>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public class SortingMachine5q<T> extends SortingMachineSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Initial length of the entries array.
+     */
+    private static final int INITIAL_LENGTH = 16;
+
+    /**
+     * Segments of at most this many entries are insertion sorted rather than
+     * partitioned.
+     */
+    private static final int INSERTION_SORT_CUTOFF = 16;
+
+    /**
+     * Order.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Entries.
+     */
+    private T[] entries;
+
+    /**
+     * Index of the first entry not yet removed.
+     */
+    private int first;
+
+    /**
+     * Index past the entries known to be in their final places.
+     */
+    private int sortedEnd;
+
+    /**
+     * Index past the last entry.
+     */
+    private int count;
+
+    /**
+     * Ends of the unsorted segments still to be partitioned, bitwise
+     * complemented when what follows the end is already sorted.
+     */
+    private int[] stack;
+
+    /**
+     * Number of segment ends on the stack.
+     */
+    private int stackSize;
+
+    /**
+     * Pushes {@code end} on the stack of segment ends.
+     *
+     * @param end
+     *            the (possibly complemented) segment end
+     * @updates this.stack, this.stackSize
+     * @ensures this.stack[0, this.stackSize) = #this.stack[0, #this.stackSize)
+     *          * <end>
+     */
+    private void push(int end) {
+        if (this.stackSize == this.stack.length) {
+            this.stack = Arrays.copyOf(this.stack, 2 * this.stack.length);
+        }
+        this.stack[this.stackSize] = end;
+        this.stackSize++;
+    }
+
+    /**
+     * Exchanges entries {@code i} and {@code j} of {@code array}.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the array
+     * @param i
+     *            one index
+     * @param j
+     *            the other index
+     * @updates array
+     * @requires 0 <= i < |array|  and  0 <= j < |array|
+     * @ensures [array is #array with entries i and j exchanged]
+     */
+    private static <T> void exchange(T[] array, int i, int j) {
+        T tmp = array[i];
+        array[i] = array[j];
+        array[j] = tmp;
+    }
+
+    /**
+     * Reports the index of the median of {@code array[i]}, {@code array[j]},
+     * and {@code array[k]}.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the array
+     * @param i
+     *            first index
+     * @param j
+     *            second index
+     * @param k
+     *            third index
+     * @param order
+     *            total preorder for sorting
+     * @return the index of the median
+     * @requires [i, j, and k are indexes of array]
+     * @ensures [array[medianOfThree] is the median of array[i], array[j],
+     *          array[k]]
+     */
+    private static <T> int medianOfThree(T[] array, int i, int j, int k,
+            Comparator<T> order) {
+        int median;
+        if (order.compare(array[i], array[j]) < 0) {
+            if (order.compare(array[j], array[k]) < 0) {
+                median = j;
+            } else if (order.compare(array[i], array[k]) < 0) {
+                median = k;
+            } else {
+                median = i;
+            }
+        } else {
+            if (order.compare(array[i], array[k]) < 0) {
+                median = i;
+            } else if (order.compare(array[j], array[k]) < 0) {
+                median = k;
+            } else {
+                median = j;
+            }
+        }
+        return median;
+    }
+
+    /**
+     * Sorts {@code array[lo, hi)} by insertion.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the array
+     * @param lo
+     *            index of the first entry
+     * @param hi
+     *            index past the last entry
+     * @param order
+     *            total preorder for sorting
+     * @updates array
+     * @requires 0 <= lo <= hi <= |array|
+     * @ensures <pre>
+     * IS_SORTED(array[lo, hi), [relation computed by order.compare method])
+     *  and  perms(array, #array)  and
+     * [the entries of array outside [lo, hi) are the same as in #array]
+     * </pre>
+     */
+    private static <T> void insertionSort(T[] array, int lo, int hi,
+            Comparator<T> order) {
+        for (int i = lo + 1; i < hi; i++) {
+            T x = array[i];
+            int j = i;
+            while (j > lo && order.compare(x, array[j - 1]) < 0) {
+                array[j] = array[j - 1];
+                j--;
+            }
+            array[j] = x;
+        }
+    }
+
+    /**
+     * Partitions the leftmost unsorted segment until the entry at
+     * {@code this.first} is in its final place.
+     *
+     * @updates this.entries, this.sortedEnd, this.stack, this.stackSize
+     * @requires <pre>
+     * not this.insertionMode  and  this.first = this.sortedEnd < this.count
+     * </pre>
+     * @ensures <pre>
+     * this.sortedEnd > this.first  and
+     * perms(this.entries, #this.entries)
+     * </pre>
+     */
+    private void sortFirst() {
+        T[] a = this.entries;
+        int lo = this.first;
+        while (this.sortedEnd == lo) {
+            this.stackSize--;
+            int hi = this.stack[this.stackSize];
+            if (hi < 0) {
+                /*
+                 * What follows is a run of entries equal to a pivot
+                 */
+                this.sortedEnd = ~hi;
+            } else if (hi - lo <= INSERTION_SORT_CUTOFF) {
+                insertionSort(a, lo, hi, this.machineOrder);
+                this.sortedEnd = hi;
+            } else {
+                int p = medianOfThree(a, lo, (lo + hi) >>> 1, hi - 1,
+                        this.machineOrder);
+                T pivot = a[p];
+                /*
+                 * Three-way partition: a[lo, lt) < pivot, a[lt, i) = pivot,
+                 * a[gt, hi) > pivot
+                 */
+                int lt = lo;
+                int i = lo;
+                int gt = hi;
+                while (i < gt) {
+                    int c = this.machineOrder.compare(a[i], pivot);
+                    if (c < 0) {
+                        exchange(a, lt, i);
+                        lt++;
+                        i++;
+                    } else if (c > 0) {
+                        gt--;
+                        exchange(a, i, gt);
+                    } else {
+                        i++;
+                    }
+                }
+                if (gt < hi) {
+                    this.push(hi);
+                }
+                if (lt > lo) {
+                    this.push(~gt);
+                    this.push(lt);
+                } else {
+                    this.sortedEnd = gt;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @ensures <pre>
+     * $this.insertionMode = true  and
+     * $this.machineOrder = order  and
+     * $this.first = 0  and  $this.sortedEnd = 0  and  $this.count = 0  and
+     * $this.stackSize = 0
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep(Comparator<T> order) {
+        this.insertionMode = true;
+        this.machineOrder = order;
+        /*
+         * With "new T[...]" in place of "new Object[...]" it does not compile;
+         * as shown, it results in a warning about an unchecked cast, though it
+         * cannot fail.
+         */
+        this.entries = (T[]) (new Object[INITIAL_LENGTH]);
+        this.first = 0;
+        this.sortedEnd = 0;
+        this.count = 0;
+        this.stack = null;
+        this.stackSize = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order.
+     *
+     * @param order
+     *            total preorder for sorting
+     */
+    public SortingMachine5q(Comparator<T> order) {
+        this.createNewRep(order);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final SortingMachine<T> newInstance() {
+        try {
+            Constructor<?> c = this.getClass()
+                    .getConstructor(Comparator.class);
+            return (SortingMachine<T>) c.newInstance(this.machineOrder);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.machineOrder);
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine5q<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine5q<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine5q<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+        SortingMachine5q<T> localSource = (SortingMachine5q<T>) source;
+        this.insertionMode = localSource.insertionMode;
+        this.machineOrder = localSource.machineOrder;
+        this.entries = localSource.entries;
+        this.first = localSource.first;
+        this.sortedEnd = localSource.sortedEnd;
+        this.count = localSource.count;
+        this.stack = localSource.stack;
+        this.stackSize = localSource.stackSize;
+        localSource.createNewRep(localSource.machineOrder);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        if (this.count == this.entries.length) {
+            this.entries = Arrays.copyOf(this.entries, 2 * this.count);
+        }
+        this.entries[this.count] = x;
+        this.count++;
+    }
+
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        this.stack = new int[INITIAL_LENGTH];
+        if (this.count > 0) {
+            this.push(this.count);
+        }
+        this.insertionMode = false;
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+
+        if (this.first == this.sortedEnd) {
+            this.sortFirst();
+        }
+        T x = this.entries[this.first];
+        this.entries[this.first] = null;
+        this.first++;
+        return x;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+        return this.count - this.first;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine5qIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code SortingMachine5q}.
+     */
+    private final class SortingMachine5qIterator implements Iterator<T> {
+
+        /**
+         * Index of the next entry.
+         */
+        private int currentIndex;
+
+        /**
+         * No-argument constructor.
+         */
+        private SortingMachine5qIterator() {
+            this.currentIndex = SortingMachine5q.this.first;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.currentIndex < SortingMachine5q.this.count;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T next = SortingMachine5q.this.entries[this.currentIndex];
+            this.currentIndex++;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
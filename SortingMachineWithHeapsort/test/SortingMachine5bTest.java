@@ -0,0 +1,104 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Comparator;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine5b} with a bound
+ * larger than any test case needs, plus test cases for the bound.
+ */
+public final class SortingMachine5bTest extends SortingMachineTest {
+
+    /**
+     * Bound used for the inherited test cases.
+     */
+    private static final int LARGE_BOUND = 100;
+
+    /**
+     * Order used for the bound test cases.
+     */
+    private static final Comparator<String> LT = String::compareTo;
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        return new SortingMachine5b<String>(order, LARGE_BOUND);
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+    @Test
+    public void testBoundKeepsFirstEntries() {
+        /*
+         * Set up variables
+         */
+        SortingMachine<String> m = new SortingMachine5b<>(LT, 3);
+        SortingMachine<String> mExpected = new SortingMachine1L<>(LT);
+        mExpected.add("b");
+        mExpected.add("c");
+        mExpected.add("d");
+        /*
+         * Call method under test
+         */
+        for (String x : new String[] { "h", "d", "f", "b", "g", "e", "c" }) {
+            m.add(x);
+        }
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(mExpected, m);
+        m.changeToExtractionMode();
+        assertEquals("b", m.removeFirst());
+        assertEquals("c", m.removeFirst());
+        assertEquals("d", m.removeFirst());
+        assertEquals(0, m.size());
+    }
+
+    @Test
+    public void testBoundKeepsEqualEntries() {
+        /*
+         * Set up variables
+         */
+        SortingMachine<String> m = new SortingMachine5b<>(LT, 2);
+        SortingMachine<String> mExpected = new SortingMachine1L<>(LT);
+        mExpected.add("a");
+        mExpected.add("a");
+        /*
+         * Call method under test
+         */
+        m.add("b");
+        m.add("a");
+        m.add("a");
+        m.add("a");
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(mExpected, m);
+    }
+
+    @Test
+    public void testBoundZero() {
+        /*
+         * Set up variables
+         */
+        SortingMachine<String> m = new SortingMachine5b<>(LT, 0);
+        SortingMachine<String> mExpected = new SortingMachine1L<>(LT);
+        mExpected.changeToExtractionMode();
+        /*
+         * Call method under test
+         */
+        m.add("a");
+        m.changeToExtractionMode();
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(mExpected, m);
+    }
+
+}
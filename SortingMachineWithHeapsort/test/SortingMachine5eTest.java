@@ -0,0 +1,190 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine5e}, with a memory
+ * budget small enough for the test cases to spill runs to disk.
+ */
+public final class SortingMachine5eTest extends SortingMachineTest {
+
+    /**
+     * Memory budget used in tests.
+     */
+    private static final int RUN_CAPACITY = 2;
+
+    /**
+     * Creates a new, empty directory for the run files of one machine, so that
+     * counting them is not disturbed by other machines, and has it deleted
+     * when the JVM exits.
+     *
+     * @return the new directory
+     */
+    private static Path newRunDirectory() {
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("sortingmachine5etest");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        dir.toFile().deleteOnExit();
+        return dir;
+    }
+
+    /**
+     * Reports the number of files in {@code dir}.
+     *
+     * @param dir
+     *            the directory
+     * @return the number of files
+     */
+    private static long runFiles(Path dir) {
+        long count = 0;
+        try (Stream<Path> files = Files.list(dir)) {
+            count = files.count();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        return new SortingMachine5e<String>(order, RecordCodec.strings(),
+                RUN_CAPACITY);
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+    @Test
+    public void testRemoveFirstMergingManyRuns() {
+        /*
+         * Set up variables
+         */
+        final int n = 10_000;
+        final int step = 7919;
+        final int runCapacity = 64;
+        SortingMachine<Integer> m = new SortingMachine5e<>(
+                Comparator.<Integer>naturalOrder(), RecordCodec.integers(),
+                runCapacity);
+        for (int i = 0; i < n; i++) {
+            m.add((i * step) % n);
+        }
+        /*
+         * Call method under test
+         */
+        m.changeToExtractionMode();
+        /*
+         * Assert that values of variables match expectations
+         */
+        for (int i = 0; i < n; i++) {
+            assertEquals(Integer.valueOf(i), m.removeFirst());
+        }
+        assertEquals(0, m.size());
+    }
+
+    @Test
+    public void testRemoveFirstOfLongRecords() {
+        /*
+         * Set up variables
+         */
+        final int length = 100_000;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        String longest = sb.toString();
+        String middle = longest.substring(1);
+        SortingMachine<String> m = this.constructorTest(
+                Comparator.<String>naturalOrder());
+        m.add(middle);
+        m.add(longest);
+        m.add("z");
+        /*
+         * Call method under test
+         */
+        m.changeToExtractionMode();
+        String first = m.removeFirst();
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(longest, first);
+        assertEquals(2, m.size());
+    }
+
+    @Test
+    public void testRemoveFirstWithIntermediateMerges() {
+        /*
+         * Set up variables; 10_000 / 16 = 625 runs merged 3 at a time need
+         * several intermediate passes
+         */
+        final int n = 10_000;
+        final int step = 7919;
+        final int runCapacity = 16;
+        final int mergeWidth = 3;
+        Path dir = newRunDirectory();
+        SortingMachine<Integer> m = new SortingMachine5e<>(
+                Comparator.<Integer>naturalOrder(), RecordCodec.integers(),
+                runCapacity, mergeWidth, dir);
+        for (int i = 0; i < n; i++) {
+            m.add((i * step) % n);
+        }
+        /*
+         * Call method under test
+         */
+        m.changeToExtractionMode();
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(n, m.size());
+        for (int i = 0; i < n; i++) {
+            assertEquals(Integer.valueOf(i), m.removeFirst());
+        }
+        assertEquals(0, m.size());
+        assertEquals(0, runFiles(dir));
+    }
+
+    @Test
+    public void testCloseDeletesRunFiles() {
+        /*
+         * Set up variables
+         */
+        final int n = 1000;
+        final int runCapacity = 10;
+        final int mergeWidth = 64;
+        Path dir = newRunDirectory();
+        SortingMachine5e<Integer> m = new SortingMachine5e<>(
+                Comparator.<Integer>naturalOrder(), RecordCodec.integers(),
+                runCapacity, mergeWidth, dir);
+        for (int i = n - 1; i >= 0; i--) {
+            m.add(i);
+        }
+        m.changeToExtractionMode();
+        m.removeFirst();
+        assertEquals(true, runFiles(dir) > 0);
+        /*
+         * Call method under test
+         */
+        m.close();
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(0, runFiles(dir));
+        assertEquals(0, m.size());
+        assertEquals(true, m.isInInsertionMode());
+    }
+
+}
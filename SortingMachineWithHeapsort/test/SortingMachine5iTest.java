@@ -0,0 +1,187 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * JUnit test fixture for {@code SortingMachine5i}'s kernel methods and
+ * unboxed methods.
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public final class SortingMachine5iTest {
+
+    /**
+     * Creates and returns a {@code SortingMachine5i} with the given entries
+     * and mode.
+     *
+     * @param ascending
+     *            whether entries come out in increasing order
+     * @param insertionMode
+     *            flag indicating the machine mode
+     * @param args
+     *            the entries for the {@code SortingMachine}
+     * @return the constructed {@code SortingMachine}
+     * @ensures <pre>
+     * createFromArgsTest = (insertionMode, [order], [multiset of args])
+     * </pre>
+     */
+    private static SortingMachine5i createFromArgsTest(boolean ascending,
+            boolean insertionMode, int... args) {
+        SortingMachine5i sm = new SortingMachine5i(ascending);
+        for (int x : args) {
+            sm.add(x);
+        }
+        if (!insertionMode) {
+            sm.changeToExtractionMode();
+        }
+        return sm;
+    }
+
+    /**
+     * Creates and returns a {@code SortingMachine<Integer>} of the reference
+     * implementation type with the given entries and mode.
+     *
+     * @param ascending
+     *            whether entries come out in increasing order
+     * @param insertionMode
+     *            flag indicating the machine mode
+     * @param args
+     *            the entries for the {@code SortingMachine}
+     * @return the constructed {@code SortingMachine}
+     * @ensures <pre>
+     * createFromArgsRef = (insertionMode, [order], [multiset of args])
+     * </pre>
+     */
+    private static SortingMachine<Integer> createFromArgsRef(
+            boolean ascending, boolean insertionMode, int... args) {
+        SortingMachine<Integer> sm = new SortingMachine1L<>(
+                new SortingMachine5i(ascending).order());
+        for (int x : args) {
+            sm.add(x);
+        }
+        if (!insertionMode) {
+            sm.changeToExtractionMode();
+        }
+        return sm;
+    }
+
+    @Test
+    public void testAddBoxed() {
+        /*
+         * Set up variables
+         */
+        SortingMachine<Integer> m = createFromArgsTest(true, true, 5, 1);
+        SortingMachine<Integer> mExpected = createFromArgsRef(true, true, 5,
+                1, 3);
+        /*
+         * Call method under test
+         */
+        m.add(Integer.valueOf(3));
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(mExpected, m);
+    }
+
+    @Test
+    public void testChangeToExtractionMode() {
+        /*
+         * Set up variables
+         */
+        SortingMachine5i m = createFromArgsTest(true, true, 5, 1, 3);
+        SortingMachine<Integer> mExpected = createFromArgsRef(true, false, 5,
+                1, 3);
+        /*
+         * Call method under test
+         */
+        m.changeToExtractionMode();
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(mExpected, m);
+    }
+
+    @Test
+    public void testRemoveFirstAscending() {
+        /*
+         * Set up variables
+         */
+        SortingMachine<Integer> m = createFromArgsTest(true, false, 5, 1, 3,
+                1);
+        SortingMachine<Integer> mExpected = createFromArgsRef(true, false, 5,
+                3, 1);
+        /*
+         * Call method under test
+         */
+        Integer first = m.removeFirst();
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(mExpected, m);
+        assertEquals(Integer.valueOf(1), first);
+    }
+
+    @Test
+    public void testRemoveFirstIntDescendingExtremes() {
+        /*
+         * Set up variables
+         */
+        SortingMachine5i m = createFromArgsTest(false, false,
+                Integer.MIN_VALUE, 0, Integer.MAX_VALUE, -1);
+        /*
+         * Call method under test and assert that values of variables match
+         * expectations
+         */
+        assertEquals(Integer.MAX_VALUE, m.removeFirstInt());
+        assertEquals(0, m.removeFirstInt());
+        assertEquals(-1, m.removeFirstInt());
+        assertEquals(Integer.MIN_VALUE, m.removeFirstInt());
+        assertEquals(0, m.size());
+    }
+
+    @Test
+    public void testSortManyInts() {
+        /*
+         * Set up variables
+         */
+        final int n = 10000;
+        final int step = 7919;
+        SortingMachine5i m = createFromArgsTest(true, true);
+        for (int i = 0; i < n; i++) {
+            m.add((i * step) % n);
+        }
+        /*
+         * Call methods under test
+         */
+        m.changeToExtractionMode();
+        /*
+         * Assert that values of variables match expectations
+         */
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, m.removeFirstInt());
+        }
+    }
+
+    @Test
+    public void testNewInstanceKeepsOrder() {
+        /*
+         * Set up variables
+         */
+        SortingMachine<Integer> m = createFromArgsTest(false, false, 2);
+        SortingMachine<Integer> mExpected = createFromArgsRef(false, true);
+        /*
+         * Call method under test
+         */
+        SortingMachine<Integer> fresh = m.newInstance();
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(mExpected, fresh);
+        assertEquals(m.order().compare(1, 2), fresh.order().compare(1, 2));
+    }
+
+}
@@ -0,0 +1,50 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Comparator;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine5p}, plus a test case
+ * large enough for the heap to be built by several tasks.
+ */
+public final class SortingMachine5pTest extends SortingMachineTest {
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        return new SortingMachine5p<String>(order);
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+    @Test
+    public void testRemoveFirstAfterParallelBuild() {
+        /*
+         * Set up variables
+         */
+        final int n = 100_000;
+        final int step = 7919;
+        SortingMachine<Integer> m = new SortingMachine5p<>(
+                Comparator.<Integer>naturalOrder());
+        for (int i = 0; i < n; i++) {
+            m.add((i * step) % n);
+        }
+        /*
+         * Call method under test
+         */
+        m.changeToExtractionMode();
+        /*
+         * Assert that values of variables match expectations
+         */
+        for (int i = 0; i < n; i++) {
+            assertEquals(Integer.valueOf(i), m.removeFirst());
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Comparator;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine5q}, plus test cases
+ * large enough for the entries to be partitioned.
+ */
+public final class SortingMachine5qTest extends SortingMachineTest {
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        return new SortingMachine5q<String>(order);
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+    @Test
+    public void testRemoveFirstDrainingManyEntries() {
+        /*
+         * Set up variables
+         */
+        final int n = 10_000;
+        final int step = 7919;
+        SortingMachine<Integer> m = new SortingMachine5q<>(
+                Comparator.<Integer>naturalOrder());
+        for (int i = 0; i < n; i++) {
+            m.add((i * step) % n);
+        }
+        m.changeToExtractionMode();
+        /*
+         * Call method under test and assert that values of variables match
+         * expectations
+         */
+        for (int i = 0; i < n; i++) {
+            assertEquals(Integer.valueOf(i), m.removeFirst());
+            assertEquals(n - i - 1, m.size());
+        }
+    }
+
+    @Test
+    public void testRemoveFirstWithManyEqualEntries() {
+        /*
+         * Set up variables
+         */
+        final int n = 10_000;
+        final int distinct = 3;
+        SortingMachine<Integer> m = new SortingMachine5q<>(
+                Comparator.<Integer>reverseOrder());
+        SortingMachine<Integer> mExpected = new SortingMachine1L<>(
+                Comparator.<Integer>reverseOrder());
+        for (int i = 0; i < n; i++) {
+            m.add(i % distinct);
+            mExpected.add(i % distinct);
+        }
+        m.changeToExtractionMode();
+        mExpected.changeToExtractionMode();
+        /*
+         * Call method under test and assert that values of variables match
+         * expectations
+         */
+        for (int i = 0; i < n / 2; i++) {
+            assertEquals(mExpected.removeFirst(), m.removeFirst());
+        }
+        assertEquals(mExpected, m);
+    }
+
+}
@@ -0,0 +1,302 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.stack.Stack;
+import components.stack.StackSecondary;
+
+/**
+ * {@code Stack} represented as a growable array, done "bare-handed", with
+ * implementations of primary methods and {@code top}, {@code replaceTop} and
+ * {@code flip} secondary methods.
+ *
+ * <p>
+ * Entries are kept in {@code entries[0, length)}, bottom first, so
+ * {@code push} and {@code pop} allocate nothing except when the array doubles
+ * (when full) or halves (when a quarter full, so that alternating pushes and
+ * pops at a size boundary do not resize every time). An array no longer than
+ * {@code SHRINK_THRESHOLD} is never halved, so a stack that repeatedly fills
+ * and empties, as in a parser, keeps its array instead of regrowing it each
+ * time. Popped slots are set to null so the array does not keep popped
+ * entries reachable.
+ * </p>
+ *
+ * <p>
+ * Execution-time performance of {@code push} and {@code pop} is amortized
+ * O(1), of {@code flip} is O(|this|), and of all other methods implemented in
+ * this class is O(1).
+ * </p>
+ *
+ * @param <T>
+ *            type of Stack entries
+ * @convention <pre>
+ * |$this.entries| >= INITIAL_CAPACITY  and
+ * 0 <= $this.length <= |$this.entries|  and
+ * [$this.entries[0, $this.length) are not null]  and
+ * [$this.entries[$this.length, |$this.entries|) are null]
+ * </pre>
+ * @correspondence this = rev($this.entries[0, $this.length))
+ */
+public class Stack3<T> extends StackSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Initial (and smallest) length of the entries array.
+     */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Length up to which the entries array is kept when the stack shrinks.
+     */
+    private static final int SHRINK_THRESHOLD = 1024;
+
+    /**
+     * Entries, bottom first.
+     */
+    private T[] entries;
+
+    /**
+     * Number of entries, i.e., length = |this|.
+     */
+    private int length;
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * |$this.entries| >= INITIAL_CAPACITY  and
+     * 0 <= $this.length <= |$this.entries|  and
+     * [$this.entries[0, $this.length) are not null]  and
+     * [$this.entries[$this.length, |$this.entries|) are null]
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert this.entries.length >= INITIAL_CAPACITY : ""
+                + "Violation of: |$this.entries| >= INITIAL_CAPACITY";
+        assert 0 <= this.length && this.length <= this.entries.length : ""
+                + "Violation of: 0 <= $this.length <= |$this.entries|";
+        for (int i = 0; i < this.entries.length; i++) {
+            assert (this.entries[i] != null) == (i < this.length) : ""
+                    + "Violation of: [$this.entries[0, $this.length) are not"
+                    + " null] and [$this.entries[$this.length,"
+                    + " |$this.entries|) are null]";
+        }
+        return true;
+    }
+
+    /**
+     * Moves the entries to a new array of length {@code capacity}.
+     *
+     * @param capacity
+     *            the length of the new array
+     * @updates this.entries
+     * @requires capacity >= this.length
+     * @ensures |this.entries| = capacity  and  [this is unchanged]
+     */
+    @SuppressWarnings("unchecked")
+    private void resize(int capacity) {
+        T[] old = this.entries;
+        this.entries = (T[]) (new Object[capacity]);
+        System.arraycopy(old, 0, this.entries, 0, this.length);
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep() {
+        this.entries = (T[]) (new Object[INITIAL_CAPACITY]);
+        this.length = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Stack3() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Stack<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(Stack<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Stack3<?> : ""
+                + "Violation of: source is of dynamic type Stack3<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Stack3<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        Stack3<T> localSource = (Stack3<T>) source;
+        this.entries = localSource.entries;
+        this.length = localSource.length;
+        localSource.createNewRep();
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void push(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        if (this.length == this.entries.length) {
+            this.resize(2 * this.entries.length);
+        }
+        this.entries[this.length] = x;
+        this.length++;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final T pop() {
+        assert this.length() > 0 : "Violation of: this /= <>";
+
+        this.length--;
+        T result = this.entries[this.length];
+        this.entries[this.length] = null;
+        if (this.entries.length > SHRINK_THRESHOLD
+                && this.length <= this.entries.length / 4) {
+            this.resize(this.entries.length / 2);
+        }
+
+        assert this.conventionHolds();
+
+        return result;
+    }
+
+    @Override
+    public final int length() {
+
+        assert this.conventionHolds();
+
+        return this.length;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Stack3Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Stack3}.
+     */
+    private final class Stack3Iterator implements Iterator<T> {
+
+        /**
+         * Index in entries of the next entry, or -1.
+         */
+        private int current;
+
+        /**
+         * No-argument constructor.
+         */
+        private Stack3Iterator() {
+            this.current = Stack3.this.length - 1;
+            assert Stack3.this.conventionHolds();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current >= 0;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x = Stack3.this.entries[this.current];
+            this.current--;
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @Override
+    public final T top() {
+        assert this.length() > 0 : "Violation of: this /= <>";
+
+        return this.entries[this.length - 1];
+    }
+
+    @Override
+    public final T replaceTop(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.length() > 0 : "Violation of: this /= <>";
+
+        T top = this.entries[this.length - 1];
+        this.entries[this.length - 1] = x;
+
+        assert this.conventionHolds();
+
+        return top;
+    }
+
+    @Override
+    public final void flip() {
+        int i = 0;
+        int j = this.length - 1;
+        while (i < j) {
+            T tmp = this.entries[i];
+            this.entries[i] = this.entries[j];
+            this.entries[j] = tmp;
+            i++;
+            j--;
+        }
+
+        assert this.conventionHolds();
+    }
+
+}
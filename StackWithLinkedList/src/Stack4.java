@@ -0,0 +1,438 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Exchanger;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import components.stack.Stack;
+import components.stack.StackSecondary;
+
+/**
+ * {@code Stack} represented as a singly linked list of immutable nodes whose
+ * top is swapped atomically (a Treiber stack), with implementations of primary
+ * methods and {@code top}, {@code replaceTop} and {@code flip} secondary
+ * methods, safe for use by many threads without locking.
+ *
+ * <p>
+ * {@code push}, {@code pop}, {@code replaceTop} and {@code flip} each read the
+ * top node, build what the new top should be, and install it with a single
+ * compare-and-set, retrying if another thread changed the top in between.
+ * Each node records the length of the stack it is the top of, so
+ * {@code length} is consistent with the entries without a lock. Iterators walk
+ * the nodes that were on the stack when the iterator was constructed.
+ * </p>
+ *
+ * <p>
+ * Optionally (see {@link #Stack4(int)}), a {@code push} or {@code pop} whose
+ * compare-and-set fails backs off to an elimination array: it waits briefly on
+ * a random slot for an operation of the opposite kind, and if one arrives the
+ * push hands its entry directly to the pop, and neither touches the top. This
+ * spreads contention away from the top when many threads push and pop at once.
+ * </p>
+ *
+ * <p>
+ * {@code clear}, {@code transferFrom} and {@code newInstance} are not atomic
+ * with respect to other operations on the same stacks, and the precondition
+ * this /= <> of {@code pop}, {@code top} and {@code replaceTop} must hold when
+ * the operation takes effect; {@code tryPop} does not require it.
+ * </p>
+ *
+ * @param <T>
+ *            type of Stack entries
+ * @convention <pre>
+ * [$this.top is not null]  and
+ * [$this.top.get() is null or points to the first node of a singly linked
+ *  list whose last node has null next]  and
+ * [the size of every node in that list is the number of nodes from it to the
+ *  end of the list]  and
+ * [if $this.eliminationWidth = 0 then $this.eliminationSlots is null, else
+ *  |$this.eliminationSlots| = $this.eliminationWidth and its entries are
+ *  not null]
+ * </pre>
+ * @correspondence this = [data in nodes starting at $this.top.get()]
+ */
+public class Stack4<T> extends StackSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Time a backed-off operation waits in an elimination slot for an
+     * operation of the opposite kind, in nanoseconds.
+     */
+    private static final long ELIMINATION_TIMEOUT_NANOS = 10_000;
+
+    /**
+     * Value a {@code pop} offers in an elimination slot, distinct from every
+     * entry.
+     */
+    private static final Object POP_REQUEST = new Object();
+
+    /**
+     * Node class for singly linked list nodes; never modified once
+     * constructed.
+     */
+    private final class Node {
+
+        /**
+         * Data in node.
+         */
+        private final T data;
+
+        /**
+         * Next node in singly linked list, or null.
+         */
+        private final Node next;
+
+        /**
+         * Number of nodes from this one to the end of the list.
+         */
+        private final int size;
+
+        /**
+         * Constructor.
+         *
+         * @param data
+         *            the data in the node
+         * @param next
+         *            the next node, or null
+         */
+        private Node(T data, Node next) {
+            this.data = data;
+            this.next = next;
+            if (next == null) {
+                this.size = 1;
+            } else {
+                this.size = next.size + 1;
+            }
+        }
+
+    }
+
+    /**
+     * Top node of singly linked list, or null.
+     */
+    private final AtomicReference<Node> top = new AtomicReference<Node>();
+
+    /**
+     * Number of slots in the elimination array, or 0 if elimination backoff
+     * is off.
+     */
+    private final int eliminationWidth;
+
+    /**
+     * Elimination array, or null if elimination backoff is off.
+     */
+    private final Exchanger<Object>[] eliminationSlots;
+
+    /**
+     * Tries to meet an operation of the opposite kind in a random slot of the
+     * elimination array, offering {@code offer}.
+     *
+     * @param offer
+     *            the entry to push, or POP_REQUEST to pop
+     * @return what the other operation offered, or null if none arrived in
+     *         time
+     * @requires this.eliminationSlots /= null
+     */
+    private Object exchange(Object offer) {
+        int i = ThreadLocalRandom.current()
+                .nextInt(this.eliminationSlots.length);
+        Object received = null;
+        try {
+            received = this.eliminationSlots[i].exchange(offer,
+                    ELIMINATION_TIMEOUT_NANOS, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            received = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            received = null;
+        }
+        return received;
+    }
+
+    /**
+     * Tries once to pop the top entry without waiting.
+     *
+     * @return the old top entry, or null if this = <> or another thread
+     *         changed the top first
+     * @updates this
+     * @ensures <pre>
+     * if tryPopOnce = null then
+     *   this = #this
+     * else
+     *   #this = <tryPopOnce> * this
+     * </pre>
+     */
+    private T tryPopOnce() {
+        Node h = this.top.get();
+        T result = null;
+        if (h != null && this.top.compareAndSet(h, h.next)) {
+            result = h.data;
+        }
+        return result;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.top.set(null);
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor, resulting in a stack without elimination
+     * backoff.
+     */
+    public Stack4() {
+        this.eliminationWidth = 0;
+        this.eliminationSlots = null;
+        this.createNewRep();
+    }
+
+    /**
+     * Constructor resulting in a stack with elimination backoff over
+     * {@code eliminationWidth} slots, or without it if
+     * {@code eliminationWidth} = 0.
+     *
+     * @param eliminationWidth
+     *            the number of slots in the elimination array
+     * @requires eliminationWidth >= 0
+     */
+    @SuppressWarnings("unchecked")
+    public Stack4(int eliminationWidth) {
+        assert eliminationWidth >= 0 : "Violation of: eliminationWidth >= 0";
+
+        this.eliminationWidth = eliminationWidth;
+        if (eliminationWidth == 0) {
+            this.eliminationSlots = null;
+        } else {
+            Exchanger<?>[] slots = new Exchanger<?>[eliminationWidth];
+            for (int i = 0; i < eliminationWidth; i++) {
+                slots[i] = new Exchanger<Object>();
+            }
+            this.eliminationSlots = (Exchanger<Object>[]) slots;
+        }
+        this.createNewRep();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Stack<T> newInstance() {
+        try {
+            return this.getClass().getConstructor(int.class)
+                    .newInstance(this.eliminationWidth);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(Stack<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Stack4<?> : ""
+                + "Violation of: source is of dynamic type Stack4<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Stack4<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        Stack4<T> localSource = (Stack4<T>) source;
+        this.top.set(localSource.top.getAndSet(null));
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void push(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        boolean done = false;
+        while (!done) {
+            Node h = this.top.get();
+            done = this.top.compareAndSet(h, new Node(x, h));
+            if (!done && this.eliminationSlots != null) {
+                done = this.exchange(x) == POP_REQUEST;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final T pop() {
+        assert this.top.get() != null : "Violation of: this /= <>";
+
+        T result = this.tryPopOnce();
+        while (result == null) {
+            if (this.eliminationSlots != null) {
+                Object received = this.exchange(POP_REQUEST);
+                if (received != null && received != POP_REQUEST) {
+                    result = (T) received;
+                }
+            }
+            if (result == null) {
+                result = this.tryPopOnce();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public final int length() {
+        Node h = this.top.get();
+        int length = 0;
+        if (h != null) {
+            length = h.size;
+        }
+        return length;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Stack4Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Stack4}.
+     */
+    private final class Stack4Iterator implements Iterator<T> {
+
+        /**
+         * Current node in the linked list.
+         */
+        private Node current;
+
+        /**
+         * No-argument constructor.
+         */
+        private Stack4Iterator() {
+            this.current = Stack4.this.top.get();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current != null;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x = this.current.data;
+            this.current = this.current.next;
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @Override
+    public final T top() {
+        Node h = this.top.get();
+        assert h != null : "Violation of: this /= <>";
+
+        return h.data;
+    }
+
+    @Override
+    public final T replaceTop(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        Node h = this.top.get();
+        assert h != null : "Violation of: this /= <>";
+        while (!this.top.compareAndSet(h, new Node(x, h.next))) {
+            h = this.top.get();
+            assert h != null : "Violation of: this /= <>";
+        }
+        return h.data;
+    }
+
+    @Override
+    public final void flip() {
+        Node h;
+        Node reversed;
+        do {
+            h = this.top.get();
+            reversed = null;
+            for (Node p = h; p != null; p = p.next) {
+                reversed = new Node(p.data, reversed);
+            }
+        } while (!this.top.compareAndSet(h, reversed));
+    }
+
+    /*
+     * Concurrent methods -----------------------------------------------------
+     */
+
+    /**
+     * Pops the top entry if there is one, for threads that cannot know that
+     * no other thread empties the stack first.
+     *
+     * @return the old top entry, or null if this = <>
+     * @updates this
+     * @ensures <pre>
+     * if #this = <> then
+     *   this = #this  and  tryPop = null
+     * else
+     *   #this = <tryPop> * this
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    public final T tryPop() {
+        T result = null;
+        boolean done = false;
+        while (!done) {
+            Node h = this.top.get();
+            if (h == null) {
+                done = true;
+            } else if (this.top.compareAndSet(h, h.next)) {
+                result = h.data;
+                done = true;
+            } else if (this.eliminationSlots != null) {
+                Object received = this.exchange(POP_REQUEST);
+                if (received != null && received != POP_REQUEST) {
+                    result = (T) received;
+                    done = true;
+                }
+            }
+        }
+        return result;
+    }
+
+}
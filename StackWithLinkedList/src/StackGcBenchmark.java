@@ -0,0 +1,154 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+import components.stack.Stack;
+
+/**
+ * Measures the garbage-collection pressure of {@code Stack2} and
+ * {@code Stack3} on the push/pop pattern of a parser or expression evaluator:
+ * many short bursts of pushes, each followed by as many pops. For each
+ * implementation it outputs the elapsed time, the bytes allocated by the
+ * running thread, and the number and total time of garbage collections.
+ *
+ * <p>
+ * The entries pushed are small {@code Integer}s, which are cached, so all the
+ * allocation measured is done by the stacks themselves. Run with assertion
+ * checking off.
+ * </p>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public final class StackGcBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private StackGcBenchmark() {
+    }
+
+    /**
+     * Number of nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Largest {@code Integer} value that {@code Integer.valueOf} caches.
+     */
+    private static final int CACHED_INTEGERS = 127;
+
+    /**
+     * Returns the number of bytes allocated so far by the current thread, or
+     * -1 if the virtual machine cannot report it.
+     *
+     * @return the number of bytes allocated
+     */
+    private static long allocatedBytes() {
+        long bytes = -1;
+        java.lang.management.ThreadMXBean bean = ManagementFactory
+                .getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            bytes = ((com.sun.management.ThreadMXBean) bean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the total number of garbage collections so far.
+     *
+     * @return the number of collections
+     */
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory
+                .getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * Returns the total time, in milliseconds, spent in garbage collections so
+     * far.
+     *
+     * @return the time of collections
+     */
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory
+                .getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+
+    /**
+     * Makes {@code bursts} bursts of {@code depth} pushes and {@code depth}
+     * pops on a new instance of the dynamic type of {@code s}, and outputs the
+     * time, allocation and garbage collections they caused.
+     *
+     * @param out
+     *            the output stream
+     * @param label
+     *            the name of the implementation
+     * @param s
+     *            a stack of the type to be measured
+     * @param bursts
+     *            the number of bursts
+     * @param depth
+     *            the number of pushes in each burst
+     * @updates out.content
+     * @requires out.is_open
+     * @ensures out.content = #out.content * [measurements]
+     */
+    private static void measure(SimpleWriter out, String label,
+            Stack<Integer> s, int bursts, int depth) {
+        Stack<Integer> stack = s.newInstance();
+        System.gc();
+        long count = gcCount();
+        long millis = gcMillis();
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < bursts; i++) {
+            for (int j = 0; j < depth; j++) {
+                stack.push(j % CACHED_INTEGERS);
+            }
+            for (int j = 0; j < depth; j++) {
+                stack.pop();
+            }
+        }
+        long time = System.nanoTime() - start;
+        bytes = allocatedBytes() - bytes;
+        count = gcCount() - count;
+        millis = gcMillis() - millis;
+        out.println(label + "\t" + time / NANOS_PER_MILLI + "\t" + bytes
+                + "\t" + count + "\t" + millis);
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+        out.print("Number of bursts: ");
+        int bursts = in.nextInteger();
+        out.print("Pushes per burst: ");
+        int depth = in.nextInteger();
+        out.println();
+        out.println("class\tms\tbytes allocated\tGCs\tGC ms");
+        measure(out, "Stack2", new Stack2<Integer>(), bursts, depth);
+        measure(out, "Stack3", new Stack3<Integer>(), bursts, depth);
+        in.close();
+        out.close();
+    }
+
+}
@@ -0,0 +1,139 @@
+import java.util.concurrent.CountDownLatch;
+
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+import components.stack.Stack;
+
+/**
+ * Measures the throughput of a stack shared by worker threads, as in a job
+ * scheduler: each thread repeatedly pushes a job and pops one. It compares
+ * {@code Stack2} and {@code Stack3} behind one global lock with the lock-free
+ * {@code Stack4}, without and with elimination backoff, for 1, 2, 4, ... up to
+ * a given number of threads.
+ *
+ * <p>
+ * Run with assertion checking off.
+ * </p>
+ *
+ * @author Huanli Gong, Ziyang Lin
+ *
+ */
+public final class StackThroughputBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private StackThroughputBenchmark() {
+    }
+
+    /**
+     * Width of the elimination array of the {@code Stack4} with elimination
+     * backoff.
+     */
+    private static final int ELIMINATION_WIDTH = 4;
+
+    /**
+     * Number of nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Job pushed by the workers; a single shared object, so the stacks do all
+     * the allocation.
+     */
+    private static final Integer JOB = 1;
+
+    /**
+     * Runs {@code threads} workers, each making {@code pairs} push/pop pairs
+     * on {@code s}, synchronizing on {@code s} around each operation if
+     * {@code locked}, and returns the number of operations per millisecond.
+     *
+     * @param s
+     *            the shared stack
+     * @param locked
+     *            whether to hold the lock of s around each operation
+     * @param threads
+     *            the number of worker threads
+     * @param pairs
+     *            the number of push/pop pairs per worker
+     * @return the operations per millisecond
+     * @requires threads > 0  and  pairs > 0
+     */
+    private static double throughput(Stack<Integer> s, boolean locked,
+            int threads, int pairs) {
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ready.countDown();
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < pairs; i++) {
+                    if (locked) {
+                        synchronized (s) {
+                            s.push(JOB);
+                        }
+                        synchronized (s) {
+                            s.pop();
+                        }
+                    } else {
+                        s.push(JOB);
+                        s.pop();
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        long start = 0;
+        try {
+            ready.await();
+            start = System.nanoTime();
+            go.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long time = System.nanoTime() - start;
+        return 2.0 * threads * pairs / (time / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+        out.print("Maximum number of threads: ");
+        int maxThreads = in.nextInteger();
+        out.print("Push/pop pairs per thread: ");
+        int pairs = in.nextInteger();
+        out.println();
+        out.println("Operations per millisecond");
+        out.println("threads\tStack2+lock\tStack3+lock\tStack4\tStack4+elim");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            out.println(threads + "\t"
+                    + throughput(new Stack2<Integer>(), true, threads, pairs)
+                    + "\t"
+                    + throughput(new Stack3<Integer>(), true, threads, pairs)
+                    + "\t"
+                    + throughput(new Stack4<Integer>(), false, threads, pairs)
+                    + "\t" + throughput(new Stack4<Integer>(ELIMINATION_WIDTH),
+                            false, threads, pairs));
+        }
+        in.close();
+        out.close();
+    }
+
+}
@@ -0,0 +1,73 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import components.stack.Stack;
+import components.stack.Stack1L;
+
+/**
+ * Customized JUnit test fixture for {@code Stack3}, plus test cases for
+ * {@code flip} and for growing and shrinking the array.
+ */
+public class Stack3Test extends StackTest {
+
+    @Override
+    protected final Stack<String> constructorTest() {
+        return new Stack3<String>();
+    }
+
+    @Override
+    protected final Stack<String> constructorRef() {
+        return new Stack1L<String>();
+    }
+
+    @Test
+    public final void testFlip() {
+        /*
+         * Set up variables
+         */
+        Stack<String> s = this.constructorTest();
+        Stack<String> sExpected = this.constructorRef();
+        for (String x : new String[] { "red", "green", "blue", "yellow" }) {
+            s.push(x);
+        }
+        for (String x : new String[] { "yellow", "blue", "green", "red" }) {
+            sExpected.push(x);
+        }
+        /*
+         * Call method under test
+         */
+        s.flip();
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(sExpected, s);
+    }
+
+    @Test
+    public final void testPushAndPopMany() {
+        /*
+         * Set up variables
+         */
+        final int n = 5000;
+        Stack<String> s = this.constructorTest();
+        Stack<String> sExpected = this.constructorRef();
+        /*
+         * Call method under test
+         */
+        for (int i = 0; i < n; i++) {
+            s.push("e" + i);
+            sExpected.push("e" + i);
+        }
+        assertEquals(sExpected, s);
+        for (int i = 0; i < n - 1; i++) {
+            assertEquals(sExpected.pop(), s.pop());
+        }
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(sExpected, s);
+        assertEquals(1, s.length());
+    }
+
+}
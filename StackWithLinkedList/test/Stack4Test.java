@@ -0,0 +1,176 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import components.stack.Stack;
+import components.stack.Stack1L;
+
+/**
+ * Customized JUnit test fixture for {@code Stack4}, plus test cases for
+ * {@code flip}, {@code tryPop}, and concurrent pushes and pops with and
+ * without elimination backoff.
+ */
+public class Stack4Test extends StackTest {
+
+    /**
+     * Number of threads in the concurrent test cases.
+     */
+    private static final int THREADS = 4;
+
+    /**
+     * Number of entries each thread pushes in the concurrent test cases.
+     */
+    private static final int PUSHES_PER_THREAD = 10000;
+
+    /**
+     * Width of the elimination array in the concurrent test cases.
+     */
+    private static final int ELIMINATION_WIDTH = 2;
+
+    @Override
+    protected final Stack<String> constructorTest() {
+        return new Stack4<String>();
+    }
+
+    @Override
+    protected final Stack<String> constructorRef() {
+        return new Stack1L<String>();
+    }
+
+    @Test
+    public final void testFlip() {
+        /*
+         * Set up variables
+         */
+        Stack<String> s = this.constructorTest();
+        Stack<String> sExpected = this.constructorRef();
+        for (String x : new String[] { "red", "green", "blue" }) {
+            s.push(x);
+        }
+        for (String x : new String[] { "blue", "green", "red" }) {
+            sExpected.push(x);
+        }
+        /*
+         * Call method under test
+         */
+        s.flip();
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(sExpected, s);
+        assertEquals(3, s.length());
+    }
+
+    @Test
+    public final void testTryPop() {
+        /*
+         * Set up variables
+         */
+        Stack4<String> s = new Stack4<String>();
+        Stack<String> sExpected = this.constructorRef();
+        s.push("red");
+        /*
+         * Call method under test
+         */
+        String first = s.tryPop();
+        String second = s.tryPop();
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals("red", first);
+        assertEquals(null, second);
+        assertEquals(sExpected, s);
+    }
+
+    /**
+     * Has {@code THREADS} threads each push {@code PUSHES_PER_THREAD} distinct
+     * entries onto {@code s}, popping one after each push but the last, and
+     * returns the entries popped.
+     *
+     * @param s
+     *            the stack
+     * @return the entries popped by all threads
+     * @updates s
+     * @ensures <pre>
+     * [s * concurrentPushAndPop is a permutation of the entries pushed]
+     * </pre>
+     */
+    private static List<Integer> concurrentPushAndPop(
+            Stack4<Integer> s) {
+        List<Integer> popped = Collections
+                .synchronizedList(new ArrayList<Integer>());
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int base = t * PUSHES_PER_THREAD;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < PUSHES_PER_THREAD; i++) {
+                    s.push(base + i);
+                    if (i % 2 == 1) {
+                        popped.add(s.pop());
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }
+        return popped;
+    }
+
+    /**
+     * Checks that the entries left in {@code s} and those in {@code popped}
+     * are together each entry pushed by {@code concurrentPushAndPop} exactly
+     * once.
+     *
+     * @param s
+     *            the stack
+     * @param popped
+     *            the entries popped
+     */
+    private static void assertNoneLostOrDuplicated(Stack4<Integer> s,
+            List<Integer> popped) {
+        List<Integer> all = new ArrayList<Integer>(popped);
+        for (Integer x : s) {
+            all.add(x);
+        }
+        Collections.sort(all);
+        assertEquals(THREADS * PUSHES_PER_THREAD, all.size());
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals(Integer.valueOf(i), all.get(i));
+        }
+        assertEquals(THREADS * PUSHES_PER_THREAD - popped.size(), s.length());
+    }
+
+    @Test
+    public final void testConcurrentPushAndPop() {
+        Stack4<Integer> s = new Stack4<Integer>();
+        List<Integer> popped = concurrentPushAndPop(s);
+        assertNoneLostOrDuplicated(s, popped);
+    }
+
+    @Test
+    public final void testConcurrentPushAndPopWithElimination() {
+        Stack4<Integer> s = new Stack4<Integer>(ELIMINATION_WIDTH);
+        List<Integer> popped = concurrentPushAndPop(s);
+        assertNoneLostOrDuplicated(s, popped);
+    }
+
+
+    @Test
+    public final void testConcurrentPushAndPopOnNewInstanceWithElimination() {
+        Stack4<Integer> s = (Stack4<Integer>) new Stack4<Integer>(
+                ELIMINATION_WIDTH).newInstance();
+        List<Integer> popped = concurrentPushAndPop(s);
+        assertNoneLostOrDuplicated(s, popped);
+    }
+
+}
@@ -2,7 +2,6 @@ import java.util.Comparator;
 
 import components.map.Map;
 import components.map.Map.Pair;
-import components.map.Map1L;
 import components.simplereader.SimpleReader;
 import components.simplereader.SimpleReader1L;
 import components.simplewriter.SimpleWriter;
@@ -54,36 +53,37 @@ public final class TagCloudGenerator {
     }
 
     /**
-     * Returns the first "word" (maximal length string of characters not in
-     * {@code SEPARATORS}) or "separator string" (maximal length string of
-     * characters in {@code SEPARATORS}) in the given {@code text} starting at
-     * the given {@code position}.
+     * Returns the index just past the first "word" (maximal length string of
+     * characters not in {@code SEPARATORS}) or "separator string" (maximal
+     * length string of characters in {@code SEPARATORS}) in the given
+     * {@code text} starting at the given {@code position}.
      *
      * @param text
-     *            the {@code String} from which to get the word or separator
+     *            the {@code String} in which to find the word or separator
      *            string
      * @param position
      *            the starting index
-     * @return the first word or separator string found in {@code text} starting
-     *         at index {@code position}
+     * @return the index just past the first word or separator string found in
+     *         {@code text} starting at index {@code position}
      * @requires 0 <= position < |text|
      * @ensures <pre>
-     * nextWordOrSeparator =
-     *   text[position, position + |nextWordOrSeparator|)  and
+     * position < endOfWordOrSeparator <= |text|  and
      * if entries(text[position, position + 1)) intersection entries(SEPARATORS) = {}
      * then
-     *   entries(nextWordOrSeparator) intersection entries(SEPARATORS) = {}  and
-     *   (position + |nextWordOrSeparator| = |text|  or
-     *    entries(text[position, position + |nextWordOrSeparator| + 1))
+     *   entries(text[position, endOfWordOrSeparator)) intersection
+     *     entries(SEPARATORS) = {}  and
+     *   (endOfWordOrSeparator = |text|  or
+     *    entries(text[position, endOfWordOrSeparator + 1))
      *      intersection entries(SEPARATORS) /= {})
      * else
-     *   entries(nextWordOrSeparator) is subset of entries(SEPARATORS)  and
-     *   (position + |nextWordOrSeparator| = |text|  or
-     *    entries(text[position, position + |nextWordOrSeparator| + 1))
+     *   entries(text[position, endOfWordOrSeparator)) is subset of
+     *     entries(SEPARATORS)  and
+     *   (endOfWordOrSeparator = |text|  or
+     *    entries(text[position, endOfWordOrSeparator + 1))
      *      is not subset of entries(SEPARATORS))
      * </pre>
      */
-    private static String nextWordOrSeparator(String text, int position) {
+    private static int endOfWordOrSeparator(String text, int position) {
         assert text != null : "Violation of: text is not null";
         assert 0 <= position : "Violation of: 0 <= position";
         assert position < text.length() : "Violation of: position < |text|";
@@ -93,12 +93,18 @@ public final class TagCloudGenerator {
                         .indexOf(text.charAt(endIndex)) < 0) {
             endIndex++;
         }
-        return text.substring(position, endIndex);
+        return endIndex;
     }
 
     /**
      * Count the frequency of a word in a text file .
      *
+     * <p>
+     * Each line is lower-cased once and its words are counted in place with
+     * {@code Map4c.increment}, so a new {@code String} is made only for a word
+     * seen for the first time.
+     * </p>
+     *
      * @param file
      *            the input file
      * @param wordCount
@@ -108,26 +114,19 @@ public final class TagCloudGenerator {
      * @ensures {@code wordCount} contains the word count of {@code file},
      *          ignoring all the separators in it
      */
-    private static void loadText(SimpleReader file,
-            Map<String, Integer> wordCount) {
+    private static void loadText(SimpleReader file, Map4c wordCount) {
 
         while (!file.atEOS()) {
 
-            String line = file.nextLine();
+            String line = file.nextLine().toLowerCase();
             int position = 0;
             while (position < line.length()) {
 
-                String token = nextWordOrSeparator(line, position);
-                token = token.toLowerCase();
-                if (SEPARATORS.indexOf(token.charAt(0)) < 0) {
-                    if (wordCount.hasKey(token)) {
-                        wordCount.replaceValue(token,
-                                wordCount.value(token) + 1);
-                    } else {
-                        wordCount.add(token, 1);
-                    }
+                int end = endOfWordOrSeparator(line, position);
+                if (SEPARATORS.indexOf(line.charAt(position)) < 0) {
+                    wordCount.increment(line, position, end);
                 }
-                position += token.length();
+                position = end;
             }
         }
     }
@@ -183,8 +182,8 @@ public final class TagCloudGenerator {
         final int max = 48;
         final int min = 11;
         Comparator<Pair<String, Integer>> cp = new Integercomparator();
-        SortingMachine<Pair<String, Integer>> sortWordCount = new SortingMachine1L<>(
-                cp);
+        SortingMachine<Pair<String, Integer>> sortWordCount = new SortingMachine5b<>(
+                cp, num);
 
         for (Map.Pair<String, Integer> word : wordCount) {
             sortWordCount.add(word);
@@ -256,7 +255,7 @@ public final class TagCloudGenerator {
         out.println("imported!");
 
         // create the map
-        Map<String, Integer> wordCount = new Map1L<>();
+        Map4c wordCount = new Map4c();
 
         // add each valid word into the map
         loadText(file, wordCount);
@@ -1,7 +1,6 @@
 import java.util.Comparator;
 
 import components.map.Map;
-import components.map.Map1L;
 import components.queue.Queue;
 import components.queue.Queue1L;
 import components.set.Set;
@@ -58,38 +57,39 @@ public final class WordCounter {
     }
 
     /**
-     * Returns the first "word" (maximal length string of characters not in
-     * {@code separators}) or "separator string" (maximal length string of
-     * characters in {@code separators}) in the given {@code text} starting at
-     * the given {@code position}.
+     * Returns the index just past the first "word" (maximal length string of
+     * characters not in {@code separators}) or "separator string" (maximal
+     * length string of characters in {@code separators}) in the given
+     * {@code text} starting at the given {@code position}.
      *
      * @param text
-     *            the {@code String} from which to get the word or separator
+     *            the {@code String} in which to find the word or separator
      *            string
      * @param position
      *            the starting index
      * @param separators
      *            the {@code Set} of separator characters
-     * @return the first word or separator string found in {@code text} starting
-     *         at index {@code position}
+     * @return the index just past the first word or separator string found in
+     *         {@code text} starting at index {@code position}
      * @requires 0 <= position < |text|
      * @ensures <pre>
-     * nextWordOrSeparator =
-     *   text[position, position + |nextWordOrSeparator|)  and
+     * position < endOfWordOrSeparator <= |text|  and
      * if entries(text[position, position + 1)) intersection separators = {}
      * then
-     *   entries(nextWordOrSeparator) intersection separators = {}  and
-     *   (position + |nextWordOrSeparator| = |text|  or
-     *    entries(text[position, position + |nextWordOrSeparator| + 1))
+     *   entries(text[position, endOfWordOrSeparator)) intersection
+     *     separators = {}  and
+     *   (endOfWordOrSeparator = |text|  or
+     *    entries(text[position, endOfWordOrSeparator + 1))
      *      intersection separators /= {})
      * else
-     *   entries(nextWordOrSeparator) is subset of separators  and
-     *   (position + |nextWordOrSeparator| = |text|  or
-     *    entries(text[position, position + |nextWordOrSeparator| + 1))
+     *   entries(text[position, endOfWordOrSeparator)) is subset of
+     *     separators  and
+     *   (endOfWordOrSeparator = |text|  or
+     *    entries(text[position, endOfWordOrSeparator + 1))
      *      is not subset of separators)
      * </pre>
      */
-    private static String nextWordOrSeparator(String text, int position,
+    private static int endOfWordOrSeparator(String text, int position,
             Set<Character> separators) {
         assert text != null : "Violation of: text is not null";
         assert separators != null : "Violation of: separators is not null";
@@ -102,7 +102,7 @@ public final class WordCounter {
             //Until meet a different type of char
             endIndex++;
         }
-        return text.substring(position, endIndex);
+        return endIndex;
     }
 
     /**
@@ -125,7 +125,7 @@ public final class WordCounter {
      *          input file.
      */
     private static void loadText(String inputFile, Queue<String> words,
-            Map<String, Integer> wordsCounts, Set<Character> separatorSet) {
+            Map4c wordsCounts, Set<Character> separatorSet) {
         words.clear();
         wordsCounts.clear();
         SimpleReader fileIn = new SimpleReader1L(inputFile);
@@ -133,19 +133,16 @@ public final class WordCounter {
             String line = fileIn.nextLine();
             int position = 0;
             while (position < line.length()) { //take every word or separator
-                String word = nextWordOrSeparator(line, position, separatorSet);
-                position += word.length();
-                if (!separatorSet.contains(word.charAt(0))) { //if it is a word
-                    if (wordsCounts.hasKey(word)) {
-                        //word's count +1
-                        int count = wordsCounts.remove(word).value() + 1;
-                        wordsCounts.add(word, count);
-                    } else {
-                        //add this word to map and queue
-                        wordsCounts.add(word, 1);
-                        words.enqueue(word);
+                int end = endOfWordOrSeparator(line, position, separatorSet);
+                //if it is a word
+                if (!separatorSet.contains(line.charAt(position))) {
+                    //word's count +1, in a single probe of the map
+                    if (wordsCounts.increment(line, position, end) == 1) {
+                        //first time this word is seen: add it to the queue
+                        words.enqueue(line.substring(position, end));
                     }
                 }
+                position = end;
             }
         }
         Comparator<String> order = new StringLT();
@@ -232,7 +229,7 @@ public final class WordCounter {
          * Process files
          */
         Queue<String> words = new Queue1L<>();
-        Map<String, Integer> wordsCounts = new Map1L<>();
+        Map4c wordsCounts = new Map4c();
         loadText(inputFile, words, wordsCounts, separatorSet);
         generateHTML(outputFile, inputFile, words, wordsCounts);
         out.println(outputFile + " has been generated.");